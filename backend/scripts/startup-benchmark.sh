@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# Measures the time from launch to the first successful GET /users, and the resident memory at that moment,
+# for each way of running the backend.
+#
+# usage: scripts/startup-benchmark.sh [jar] [aot] [cds] [native]   (all modes by default)
+#
+# Needs a running database, e.g. "docker compose up db" from the repository root, and the usual
+# SPRING_DATASOURCE_URL / SPRING_DATASOURCE_USERNAME / SPRING_DATASOURCE_PASSWORD variables.
+# The native mode needs GraalVM's native-image on the PATH and is skipped otherwise.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PORT=${PORT:-9090}
+RUNS=${RUNS:-3}
+WORK=target/startup-benchmark
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(jar aot cds native)
+
+build_jar() {
+    if [ ! -d "$WORK/application" ]; then
+        mvn -q clean package -DskipTests -Paot
+        mkdir -p "$WORK"
+        java -Djarmode=tools -jar target/backend-*.jar extract --destination "$WORK/application"
+    fi
+}
+
+build_cds() {
+    build_jar
+    if [ ! -f "$WORK/application/application.jsa" ]; then
+        java -XX:ArchiveClassesAtExit="$WORK/application/application.jsa" \
+            -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+            -Dspring.jpa.hibernate.ddl-auto=none \
+            -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+            -jar "$WORK/application/app.jar" > /dev/null
+    fi
+}
+
+build_native() {
+    if [ ! -x target/backend ]; then
+        mvn -q -Pnative native:compile -DskipTests
+    fi
+}
+
+command_of() {
+    case "$1" in
+        jar) echo "java -jar $WORK/application/app.jar" ;;
+        aot) echo "java -Dspring.aot.enabled=true -jar $WORK/application/app.jar" ;;
+        cds) echo "java -XX:SharedArchiveFile=$WORK/application/application.jsa -Dspring.aot.enabled=true -jar $WORK/application/app.jar" ;;
+        native) echo "target/backend" ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    local mode=$1
+    local start pid elapsed rss
+    start=$(now_ms)
+    $(command_of "$mode") --server.port="$PORT" > "$WORK/$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/users?page=0&size=5" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$mode failed to start, see $WORK/$mode.log" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    printf '%-8s first GET /users after %6d ms   RSS %7d KiB\n' "$mode" "$elapsed" "$rss"
+}
+
+for mode in "${MODES[@]}"; do
+    case "$mode" in
+        jar | aot) build_jar ;;
+        cds) build_cds ;;
+        native)
+            if ! command -v native-image > /dev/null; then
+                echo "native-image not found, skipping native mode" >&2
+                continue
+            fi
+            build_native
+            ;;
+        *) echo "unknown mode $mode" >&2; exit 1 ;;
+    esac
+    for _ in $(seq "$RUNS"); do
+        measure "$mode"
+    done
+done
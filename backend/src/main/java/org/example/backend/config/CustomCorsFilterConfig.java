@@ -17,7 +17,7 @@ public class CustomCorsFilterConfig {
     /**
      * Creates and configures a CORS filter bean.
      * This filter allows cross-origin requests from the specified origin
-     * with all headers and methods permitted.
+     * with all headers and methods permitted. The ETag of the pages is exposed, so the frontend can revalidate them.
      *
      * @return CorsFilter configured with specific CORS settings
      */
@@ -28,6 +28,7 @@ public class CustomCorsFilterConfig {
         config.addAllowedOrigin("https://fallestlaww.netlify.app");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("ETag");
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
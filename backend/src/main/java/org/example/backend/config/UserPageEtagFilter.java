@@ -0,0 +1,20 @@
+package org.example.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Adds an ETag to the pages of users and answers 304 (Not Modified) without a body
+ * when the client sends the ETag of the page it already has in "If-None-Match".
+ * The ETag is a hash of the response, so the page is still read; only its transfer and parsing are saved.
+ * Other paths are left alone, in particular the event stream, which must not be buffered.
+ */
+@Component
+public class UserPageEtagFilter extends ShallowEtagHeaderFilter {
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"GET".equals(request.getMethod()) || !(path.equals("/users") || path.equals("/users/search"));
+    }
+}
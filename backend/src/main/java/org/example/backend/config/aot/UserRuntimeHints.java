@@ -0,0 +1,72 @@
+package org.example.backend.config.aot;
+
+import org.example.backend.config.cache.SecondLevelCacheStats;
+import org.example.backend.config.profiling.JfrRecordingService;
+import org.example.backend.config.profiling.UserOperationLatencies;
+import org.example.backend.config.resilience.CircuitBreaker;
+import org.example.backend.config.timeout.RequestTimeoutStats;
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.dto.response.UserChangeMessage;
+import org.example.backend.dto.response.UserInformationResponse;
+import org.example.backend.dto.response.UserJobResponse;
+import org.example.backend.dto.response.UserStatsResponse;
+import org.example.backend.dto.response.UserSuggestionResponse;
+import org.example.backend.model.User;
+import org.example.backend.service.invalidation.InvalidationMessage;
+import org.example.backend.service.invalidation.InvalidationStats;
+import org.example.backend.service.partition.UserPartitionMigration;
+import org.example.backend.service.readmodel.UserReadModel;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.sql.Connection;
+
+/**
+ * Runtime hints for the ahead-of-time compiled and the native image builds.
+ * Spring registers the types it can see in controller signatures, these are the ones it can not:
+ * bodies of ResponseEntity&lt;?&gt;, pages of the entity, payloads read or written by hand,
+ * the entity properties read by the sharding aspect, the JDK proxies created at runtime and the resources read by libraries.
+ */
+public class UserRuntimeHints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                User.class,
+                UserInformationRequest.class,
+                UserPatchRequest.class,
+                UserBulkDeleteRequest.class,
+                UserBulkDeleteRequest.Filter.class,
+                UserInformationResponse.class,
+                UserChangeMessage.class,
+                ErrorResponse.class,
+                UserJobResponse.class,
+                UserStatsResponse.class,
+                UserStatsResponse.Count.class,
+                UserSuggestionResponse.class,
+                InvalidationMessage.class,
+                InvalidationStats.Snapshot.class,
+                RequestTimeoutStats.Snapshot.class,
+                SecondLevelCacheStats.Snapshot.class,
+                UserOperationLatencies.Snapshot.class,
+                JfrRecordingService.Status.class,
+                UserReadModel.Stats.class,
+                CircuitBreaker.Snapshot.class,
+                UserPartitionMigration.Snapshot.class,
+                PageImpl.class,
+                PageRequest.class,
+                Sort.class);
+        // statements are counted and cancelled through a proxy of the pooled connection
+        hints.proxies().registerJdkProxy(Connection.class);
+        // the second-level cache regions are read from the classpath by the JCache provider
+        hints.resources().registerPattern("ehcache.xml");
+    }
+}
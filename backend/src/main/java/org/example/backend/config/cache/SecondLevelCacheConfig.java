@@ -0,0 +1,72 @@
+package org.example.backend.config.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Configuration of the second-level cache, active when "users.second-level-cache.enabled" is true.
+ * Turns on the entity and query caches of Hibernate, backed by a bounded local JCache provider.
+ * Writes made through Hibernate keep the cache consistent on their own: READ_WRITE entries are locked
+ * until the transaction completes, and cached queries are invalidated by every committed write to their tables.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.second-level-cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    /**
+     * Sets the Hibernate cache settings, so that enabling the cache is a single property.
+     * Every region must be configured in the JCache configuration, none is created with unbounded defaults.
+     *
+     * The JCache provider only loads plain URLs, so a Spring location such as "classpath:ehcache.xml" is resolved
+     * to the file or jar URL of the resource first.
+     *
+     * @param properties the location of the JCache configuration
+     * @param resourceLoader the loader resolving that location
+     * @return the customizer of the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(SecondLevelCacheProperties properties,
+                                                                    ResourceLoader resourceLoader) {
+        String configUri;
+        try {
+            configUri = resourceLoader.getResource(properties.configUri()).getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The JCache configuration " + properties.configUri() + " can not be found", e);
+        }
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            hibernateProperties.put("hibernate.javax.cache.uri", configUri);
+            hibernateProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * @param entityManagerFactory the factory whose cache statistics are read
+     * @return the hit ratios of the cache regions
+     */
+    @Bean
+    public SecondLevelCacheStats secondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheStats(entityManagerFactory);
+    }
+
+    /**
+     * @param entityManagerFactory the factory whose cache is evicted
+     * @return the listener evicting users changed by other nodes
+     */
+    @Bean
+    public SecondLevelCacheInvalidator secondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheInvalidator(entityManagerFactory);
+    }
+}
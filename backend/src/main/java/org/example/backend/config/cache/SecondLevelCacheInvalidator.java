@@ -0,0 +1,44 @@
+package org.example.backend.config.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.model.User;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Evicts the users changed by other nodes from the second-level cache.
+ * Their changes never pass through the Hibernate of this node, so without cross-node invalidation
+ * ("users.invalidation.enabled") they only become visible when the cached entries expire.
+ */
+@Slf4j
+public class SecondLevelCacheInvalidator {
+    private final Cache cache;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param entityManagerFactory the factory whose cache is evicted
+     */
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Evicts the changed users and every cached search result, since any of them may contain a changed user.
+     *
+     * @param event the users changed by another node
+     */
+    @EventListener
+    public void onUserInvalidated(UserInvalidatedEvent event) {
+        if (event.all()) {
+            log.debug("Evicting all cached users");
+            cache.evictEntityData(User.class);
+        } else {
+            event.ids().forEach(id -> cache.evictEntityData(User.class, id));
+        }
+        cache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.backend.config.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the Hibernate second-level cache of the users and of the first name search.
+ * Bound from the "users.second-level-cache" properties.
+ *
+ * @param enabled whether users and first name search results are cached
+ * @param configUri the JCache configuration of the regions, their sizes and expiry, as a Spring resource location
+ */
+@ConfigurationProperties(prefix = "users.second-level-cache")
+public record SecondLevelCacheProperties(boolean enabled,
+                                         @DefaultValue("classpath:ehcache.xml") String configUri) {
+}
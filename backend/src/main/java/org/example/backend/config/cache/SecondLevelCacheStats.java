@@ -0,0 +1,62 @@
+package org.example.backend.config.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Hit ratios of the second-level cache regions, read from the Hibernate statistics.
+ */
+public class SecondLevelCacheStats {
+    private final Statistics statistics;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param entityManagerFactory the factory whose statistics are read
+     */
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return the current counters of the users region and of the first name search region
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(Region.of(statistics.getDomainDataRegionStatistics(User.CACHE_REGION)),
+                Region.of(statistics.getQueryRegionStatistics(UserRepository.FIRST_NAME_CACHE_REGION)));
+    }
+
+    /**
+     * Counters of the cache regions.
+     *
+     * @param users the region of the users, read by id
+     * @param firstNameSearch the region of the first name search results
+     */
+    public record Snapshot(Region users, Region firstNameSearch) {
+    }
+
+    /**
+     * Counters of one cache region since startup.
+     *
+     * @param hits the number of lookups answered by the cache
+     * @param misses the number of lookups that went to the database
+     * @param puts the number of entries written to the cache
+     * @param size the number of entries currently held
+     * @param hitRatio the share of lookups answered by the cache, 0 before the first lookup
+     */
+    public record Region(long hits, long misses, long puts, long size, double hitRatio) {
+        static Region of(CacheRegionStatistics region) {
+            if (region == null) {
+                return new Region(0, 0, 0, 0, 0);
+            }
+            long lookups = region.getHitCount() + region.getMissCount();
+            return new Region(region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                    Math.max(region.getElementCountInMemory(), 0),
+                    lookups == 0 ? 0 : (double) region.getHitCount() / lookups);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.backend.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for read/write splitting.
+ * Replaces the auto-configured DataSource with a routing one when "users.datasource.routing.enabled" is set:
+ * read-only transactions go to the configured replicas, everything else to the "spring.datasource" primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    /**
+     * Creates the pool of the primary database from the regular "spring.datasource" properties.
+     *
+     * @param properties the "spring.datasource" properties
+     * @return the primary pool, configured further by "spring.datasource.hikari" properties
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the routing DataSource with a pool for every configured replica.
+     *
+     * @param primaryDataSource the pool of the primary database
+     * @param properties the replica and balancing settings
+     * @return the routing DataSource
+     */
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 ReadWriteRoutingProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadWriteRoutingProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.balance());
+    }
+
+    /**
+     * Exposes the routing DataSource to JPA and JDBC.
+     * The lazy proxy postpones fetching a physical connection until the first statement,
+     * when the read-only flag of the transaction is already known.
+     *
+     * @param routingDataSource the routing DataSource
+     * @return the DataSource used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Creates the filter pinning reads of recently writing clients to the primary.
+     *
+     * @param properties the routing settings containing the read-your-writes window
+     * @return the filter, registered for every request
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadWriteRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+}
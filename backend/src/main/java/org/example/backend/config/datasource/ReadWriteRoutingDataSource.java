@@ -0,0 +1,101 @@
+package org.example.backend.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends read-only transactions to one of the replicas and everything else to the primary.
+ * The decision is made when a connection is requested, so it has to be wrapped into a
+ * LazyConnectionDataSourceProxy to see the read-only flag of the transaction that is being started.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadWriteRoutingProperties.Balance balance;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates a routing DataSource over already configured pools.
+     *
+     * @param primary the pool of the primary database, used for writes
+     * @param replicas the pools of the replicas, used for read-only transactions
+     * @param balance the strategy used to pick a replica
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadWriteRoutingProperties.Balance balance) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balance = balance;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWritesContext.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        return balance == ReadWriteRoutingProperties.Balance.LEAST_BUSY ? leastBusyReplica() : nextReplica();
+    }
+
+    private int nextReplica() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private int leastBusyReplica() {
+        // start from the round-robin position so replicas with equal load still take turns
+        int start = nextReplica();
+        int best = start;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            int active = activeConnections(replicas.get(candidate));
+            if (active < bestActive) {
+                best = candidate;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Closes the primary and replica pools.
+     */
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(ReadWriteRoutingDataSource::closeQuietly);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+}
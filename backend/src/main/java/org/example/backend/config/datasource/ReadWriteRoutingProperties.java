@@ -0,0 +1,43 @@
+package org.example.backend.config.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of read/write splitting between the primary database and its read replicas.
+ * Bound from the "users.datasource.routing" properties, the primary itself is configured by "spring.datasource".
+ *
+ * @param enabled whether read-only transactions are sent to the replicas
+ * @param balance how a replica is picked for a read-only transaction
+ * @param readYourWritesWindow how long reads of a client go to the primary after that client wrote something
+ * @param replicas the replica connection settings
+ */
+@ConfigurationProperties(prefix = "users.datasource.routing")
+public record ReadWriteRoutingProperties(boolean enabled,
+                                         @DefaultValue("ROUND_ROBIN") Balance balance,
+                                         @DefaultValue("5s") Duration readYourWritesWindow,
+                                         @DefaultValue List<Replica> replicas) {
+    /**
+     * Strategy used to pick a replica.
+     */
+    public enum Balance {
+        /** Replicas are used one after another. */
+        ROUND_ROBIN,
+        /** The replica with the fewest active connections is used. */
+        LEAST_BUSY
+    }
+
+    /**
+     * Connection settings of a single replica.
+     *
+     * @param url the JDBC url of the replica
+     * @param username the database user
+     * @param password the database password
+     * @param maximumPoolSize the maximum number of pooled connections to this replica
+     */
+    public record Replica(String url, String username, String password, @DefaultValue("20") int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.backend.config.datasource;
+
+/**
+ * Holds, for the current request thread, whether reads have to go to the primary database.
+ * Set by {@link ReadYourWritesFilter} for clients that wrote something recently,
+ * so they do not read stale data from a lagging replica.
+ */
+public final class ReadYourWritesContext {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    /**
+     * @return true if reads of the current thread must be served by the primary database
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Marks whether reads of the current thread must be served by the primary database.
+     *
+     * @param required true to pin reads to the primary
+     */
+    public static void setPrimaryRequired(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.backend.config.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filter giving clients read-your-writes consistency when reads are served by replicas.
+ * After a client performs a successful write, its reads are pinned to the primary for a configurable window.
+ * A client is identified by the "X-Client-Id" header, or by its remote address when the header is missing.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the filter.
+     *
+     * @param window how long reads go to the primary after a write of the same client
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        Long lastWrite = lastWrites.get(client);
+        ReadYourWritesContext.setPrimaryRequired(lastWrite != null && System.nanoTime() - lastWrite < windowNanos);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.setPrimaryRequired(false);
+        }
+        if (isWrite(request) && response.getStatus() < 400) {
+            rememberWrite(client);
+        }
+    }
+
+    private void rememberWrite(String client) {
+        long now = System.nanoTime();
+        lastWrites.put(client, now);
+        if (lastWrites.size() > SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+        }
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+}
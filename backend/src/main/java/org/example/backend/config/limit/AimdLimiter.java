@@ -0,0 +1,118 @@
+package org.example.backend.config.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by additive increase, multiplicative decrease (AIMD) on observed latency.
+ * A short-term average of the latency is compared with a long-term one that follows the latency over
+ * the baseline window. While the short-term average exceeds the long-term one times the tolerance, or a response
+ * failed, the limit is lowered at most once per round trip; otherwise every response raises it by 1 / limit
+ * while the limit is actually in use. When the database slows down, the limit first drops, then the baseline
+ * accepts the new service time and the limit settles where requests start queueing for pooled connections.
+ */
+public class AimdLimiter {
+    /**
+     * Weight of the newest response in the short-term average.
+     */
+    private static final double SHORT_TERM_WEIGHT = 0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final double baselineWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortTermNanos = Double.NaN;
+    private double baselineNanos = Double.NaN;
+    private long lastSampleNanos;
+    private long lastDecreaseNanos;
+
+    /**
+     * Creates the limiter.
+     *
+     * @param bounds the initial, minimal and maximal limit
+     * @param latencyTolerance how many times slower than the baseline a response may be before the limit is lowered
+     * @param backoffRatio the factor the limit is multiplied with when it is lowered
+     * @param baselineWindow how fast the baseline follows a lasting change of the latency
+     */
+    public AimdLimiter(ConcurrencyLimitProperties.Limit bounds, double latencyTolerance, double backoffRatio,
+                       Duration baselineWindow) {
+        this.minLimit = Math.max(1, bounds.min());
+        this.maxLimit = Math.max(minLimit, bounds.max());
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindowNanos = Math.max(1, baselineWindow.toNanos());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, bounds.initial()));
+        this.lastSampleNanos = System.nanoTime();
+        this.lastDecreaseNanos = lastSampleNanos;
+    }
+
+    /**
+     * Takes a permit if fewer requests than the limit are in flight.
+     *
+     * @return true if the request may proceed, it must then call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and adjusts the limit.
+     *
+     * @param latencyNanos how long the request took
+     * @param dropped true if the request failed because of the server, e.g. with a 5xx status
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        adjust(latencyNanos, dropped, inFlightBefore);
+    }
+
+    private synchronized void adjust(long latencyNanos, boolean dropped, int inFlightBefore) {
+        long now = System.nanoTime();
+        if (!dropped) {
+            if (Double.isNaN(baselineNanos)) {
+                shortTermNanos = latencyNanos;
+                baselineNanos = latencyNanos;
+            } else {
+                shortTermNanos += (latencyNanos - shortTermNanos) * SHORT_TERM_WEIGHT;
+                // weighted by elapsed time, so the window is the same at any request rate
+                double weight = 1 - Math.exp(-(now - lastSampleNanos) / baselineWindowNanos);
+                baselineNanos += (latencyNanos - baselineNanos) * weight;
+            }
+            lastSampleNanos = now;
+        }
+        if (dropped || shortTermNanos > baselineNanos * latencyTolerance) {
+            // the requests of one round trip all see the same slowdown, they count as one signal
+            if (now - lastDecreaseNanos > latencyNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlightBefore * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of requests holding a permit
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the adaptive concurrency limits, active when "users.concurrency-limit.enabled" is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Creates the filter rejecting requests over the read or write limit.
+     *
+     * @param properties the limits, latency tolerance and back-off
+     * @param objectMapper the mapper writing the body of rejected requests
+     * @return the filter, applied to the user endpoints
+     */
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper) {
+        return new ConcurrencyLimitFilter(
+                new AimdLimiter(properties.read(), properties.latencyTolerance(), properties.backoffRatio(), properties.baselineWindow()),
+                new AimdLimiter(properties.write(), properties.latencyTolerance(), properties.backoffRatio(), properties.baselineWindow()),
+                properties.retryAfter(),
+                objectMapper);
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.exceptions.ErrorCode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Filter limiting the number of concurrent requests to the user endpoints.
+ * GET and HEAD requests and the POST lookup of many users are counted against the read limit,
+ * everything else against the write limit.
+ * A request over the limit is answered right away with 503 (Service Unavailable) and a Retry-After header
+ * instead of waiting for a database connection. The event stream is long-lived and does not touch
+ * the database, so it is not limited.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final ErrorResponse REJECTED = new ErrorResponse(ErrorCode.OVERLOADED, "Server is overloaded, try again later");
+
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final String retryAfterSeconds;
+    private final byte[] rejectedBody;
+
+    /**
+     * Creates the filter.
+     *
+     * @param readLimiter the limiter of GET and HEAD requests and of lookups
+     * @param writeLimiter the limiter of all other requests
+     * @param retryAfter the value of the Retry-After header of rejected requests
+     * @param objectMapper the mapper writing the body of rejected requests, once
+     */
+    public ConcurrencyLimitFilter(AimdLimiter readLimiter, AimdLimiter writeLimiter, Duration retryAfter,
+                                  ObjectMapper objectMapper) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+        try {
+            this.rejectedBody = objectMapper.writeValueAsBytes(REJECTED);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write rejection body", e);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/users") || path.startsWith("/users/")) || path.startsWith("/users/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AimdLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            reject(response, limiter);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AimdLimiter limiter) throws IOException {
+        log.debug("Rejecting request, {} requests in flight with limit {}", limiter.getInFlight(), limiter.getLimit());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectedBody.length);
+        response.getOutputStream().write(rejectedBody);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method)
+                || ("POST".equals(method) && request.getRequestURI().endsWith("/users/lookup"));
+    }
+
+    AimdLimiter getReadLimiter() {
+        return readLimiter;
+    }
+
+    AimdLimiter getWriteLimiter() {
+        return writeLimiter;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.backend.config.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the adaptive concurrency limits of the user endpoints.
+ * Bound from the "users.concurrency-limit" properties. Reads and writes have separate limits,
+ * so a burst of slow writes can not starve the reads and the other way round.
+ *
+ * @param enabled whether requests over the limit are rejected
+ * @param read the limit of GET and HEAD requests
+ * @param write the limit of all other requests
+ * @param latencyTolerance how many times slower than the baseline a response may be before the limit is lowered
+ * @param backoffRatio the factor the limit is multiplied with when it is lowered
+ * @param baselineWindow how fast the latency baseline follows a lasting change, e.g. a slower database
+ * @param retryAfter the value of the Retry-After header of rejected requests
+ */
+@ConfigurationProperties(prefix = "users.concurrency-limit")
+public record ConcurrencyLimitProperties(boolean enabled,
+                                         Limit read,
+                                         Limit write,
+                                         @DefaultValue("2.0") double latencyTolerance,
+                                         @DefaultValue("0.9") double backoffRatio,
+                                         @DefaultValue("2s") Duration baselineWindow,
+                                         @DefaultValue("1s") Duration retryAfter) {
+    public ConcurrencyLimitProperties {
+        // the initial limits start close to the 20 pooled connections and then follow the observed latency
+        if (read == null) {
+            read = new Limit(16, 1, 40);
+        }
+        if (write == null) {
+            write = new Limit(8, 1, 20);
+        }
+    }
+
+    /**
+     * Bounds of one limit.
+     *
+     * @param initial the limit before any response was seen
+     * @param min the lowest the limit can go
+     * @param max the highest the limit can go
+     */
+    public record Limit(@DefaultValue("16") int initial, @DefaultValue("1") int min, @DefaultValue("40") int max) {
+    }
+}
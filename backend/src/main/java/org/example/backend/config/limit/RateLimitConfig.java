@@ -0,0 +1,26 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the per-client rate limits, active when "users.rate-limit.enabled" is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    /**
+     * Creates the filter rejecting clients over the rate limit of an endpoint.
+     *
+     * @param properties the endpoint rules, client header and idle timeout
+     * @param objectMapper the mapper writing the body of rejected requests
+     * @return the filter
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        return new RateLimitFilter(properties, new TokenBucketStore(properties.idleTimeout()), objectMapper);
+    }
+}
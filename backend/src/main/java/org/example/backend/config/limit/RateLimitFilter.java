@@ -0,0 +1,127 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.exceptions.ErrorCode;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter applying per-client rate limits to the configured endpoints.
+ * Allowed requests get the X-RateLimit-Limit, X-RateLimit-Remaining and X-RateLimit-Reset headers,
+ * a request over the limit is answered with 429 (Too Many Requests) and a Retry-After header.
+ * It runs before the concurrency limiter, so a throttled client does not take one of its permits.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements Ordered {
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
+    private static final ErrorResponse REJECTED = new ErrorResponse(ErrorCode.RATE_LIMITED, "Rate limit exceeded, try again later");
+
+    private final List<Rule> rules;
+    private final String apiKeyHeader;
+    private final TokenBucketStore store;
+    private final byte[] rejectedBody;
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties the endpoint rules and the client header
+     * @param store the token buckets
+     * @param objectMapper the mapper writing the body of rejected requests, once
+     */
+    public RateLimitFilter(RateLimitProperties properties, TokenBucketStore store, ObjectMapper objectMapper) {
+        PathPatternParser parser = new PathPatternParser();
+        this.rules = properties.endpoints().stream()
+                .map(endpoint -> new Rule(
+                        endpoint.method() == null || endpoint.method().isBlank() ? null : endpoint.method().toUpperCase(),
+                        parser.parse(endpoint.path()),
+                        endpoint.capacity(),
+                        (long) (TimeUnit.SECONDS.toNanos(1) / endpoint.refillPerSecond())))
+                .toList();
+        this.apiKeyHeader = properties.apiKeyHeader();
+        this.store = store;
+        try {
+            this.rejectedBody = objectMapper.writeValueAsBytes(REJECTED);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write rejection body", e);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int ruleIndex = ruleOf(request);
+        if (ruleIndex < 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Rule rule = rules.get(ruleIndex);
+        TokenBucketStore.Decision decision = store.tryConsume(new BucketKey(ruleIndex, clientOf(request)),
+                rule.capacity(), rule.refillIntervalNanos());
+        response.setHeader(LIMIT_HEADER, Integer.toString(rule.capacity()));
+        response.setHeader(REMAINING_HEADER, Long.toString(decision.remaining()));
+        response.setHeader(RESET_HEADER, Long.toString(toSeconds(decision.resetNanos())));
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(toSeconds(decision.retryAfterNanos())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(rejectedBody.length);
+            response.getOutputStream().write(rejectedBody);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private int ruleOf(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if ((rule.method() == null || rule.method().equals(request.getMethod())) && rule.path().matches(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!apiKeyHeader.isEmpty()) {
+            String apiKey = request.getHeader(apiKeyHeader);
+            if (apiKey != null && !apiKey.isBlank()) {
+                return "key:" + apiKey;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        // rounded up, so a client waiting that long will find a token
+        return (Math.max(0, nanos) + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private record Rule(String method, PathPattern path, int capacity, long refillIntervalNanos) {
+    }
+
+    private record BucketKey(int rule, String client) {
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.backend.config.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the per-client rate limits.
+ * Bound from the "users.rate-limit" properties. Every client has its own token bucket per endpoint rule,
+ * the first rule matching a request applies.
+ *
+ * @param enabled whether requests over the rate limit are rejected
+ * @param apiKeyHeader the header identifying a client, its address is used if empty or missing.
+ *                     Keys are not validated here, so only set it when a gateway in front checks them
+ * @param idleTimeout how long a full bucket is kept before it is evicted
+ * @param endpoints the rules, checked in order
+ */
+@ConfigurationProperties(prefix = "users.rate-limit")
+public record RateLimitProperties(boolean enabled,
+                                  @DefaultValue("") String apiKeyHeader,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  @DefaultValue List<Endpoint> endpoints) {
+    /**
+     * Rate limit of a group of endpoints.
+     *
+     * @param method the HTTP method, any method if empty
+     * @param path the path pattern, e.g. "/users/search" or "/users/**"
+     * @param capacity the number of requests a client can make at once
+     * @param refillPerSecond the number of requests per second a client can make in the long run
+     */
+    public record Endpoint(String method, String path, int capacity, double refillPerSecond) {
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.backend.config.limit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token buckets, one per key, updated without locks.
+ * A bucket is a single long holding the time at which it will be full again (the generic cell rate algorithm,
+ * equivalent to a token bucket): taking a token moves that time one refill interval forward with a compare-and-set,
+ * so there is nothing to lock and nothing to refill in the background. Buckets that have been full
+ * for the idle timeout are evicted, a sweep runs on the calling thread at most once per half idle timeout.
+ */
+public class TokenBucketStore {
+    private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    private final AtomicLong lastSweep;
+
+    /**
+     * Creates the store.
+     *
+     * @param idleTimeout how long a full bucket is kept
+     */
+    public TokenBucketStore(Duration idleTimeout) {
+        this(idleTimeout, System::nanoTime);
+    }
+
+    TokenBucketStore(Duration idleTimeout, LongSupplier clock) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key the bucket key, e.g. the rule and the client
+     * @param capacity the number of tokens of a full bucket
+     * @param refillIntervalNanos the time it takes to add one token
+     * @return whether a token was taken, and the state of the bucket afterwards
+     */
+    public Decision tryConsume(Object key, long capacity, long refillIntervalNanos) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        long burst = capacity * refillIntervalNanos;
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + refillIntervalNanos;
+            if (next - now > burst) {
+                return new Decision(false, 0, fullAt - now, next - now - burst);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new Decision(true, (burst - (next - now)) / refillIntervalNanos, next - now, 0);
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets held
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < idleTimeoutNanos / 2 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        // a request racing with the removal may still update the removed bucket,
+        // its client then starts over with a full bucket, which is no worse than an idle one
+        buckets.values().removeIf(bucket -> now - bucket.get() > idleTimeoutNanos);
+    }
+
+    /**
+     * Outcome of taking a token.
+     *
+     * @param allowed whether a token was taken
+     * @param remaining the tokens left in the bucket
+     * @param resetNanos the time until the bucket is full again
+     * @param retryAfterNanos the time until the next token is available, 0 if one was taken
+     */
+    public record Decision(boolean allowed, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.backend.config.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.exceptions.custom.InvalidTokenException;
+import org.example.backend.exceptions.custom.RecordingStateException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Starts and stops on-demand Flight Recorder recordings, one at a time.
+ * A recording is bounded: it stops on its own after at most the configured duration
+ * and keeps at most the configured size on disk, dropping its oldest data first.
+ * A recording that stopped on its own is kept until it is collected or the next one starts.
+ */
+@Slf4j
+public class JfrRecordingService implements AutoCloseable {
+    private final ProfilingProperties properties;
+    private Recording recording;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param properties the token, the recording settings and the bounds of recordings
+     */
+    public JfrRecordingService(ProfilingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Checks the token of an operations request in constant time.
+     *
+     * @param token the token the request carries, may be null
+     * @throws InvalidTokenException if no token is configured or the tokens differ
+     */
+    public void checkToken(String token) {
+        if (properties.token() == null || properties.token().isEmpty() || token == null
+                || !MessageDigest.isEqual(properties.token().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Recording requested with a missing or wrong token");
+            throw new InvalidTokenException("A valid X-Ops-Token header is required");
+        }
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration the time after which the recording stops on its own, the maximum if null or longer
+     * @return the state of the started recording
+     * @throws RecordingStateException if a recording is running
+     */
+    public synchronized Status start(Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RecordingStateException("A recording is already running, stop it first");
+        }
+        discard();
+        Duration bounded = duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(properties.maxRecordingDuration()) > 0 ? properties.maxRecordingDuration() : duration;
+        try {
+            recording = new Recording(Configuration.getConfiguration(properties.recordingSettings()));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Recording settings " + properties.recordingSettings() + " can not be read", e);
+        }
+        recording.setName("users-on-demand");
+        recording.setToDisk(true);
+        recording.setDuration(bounded);
+        recording.setMaxSize(properties.maxRecordingSize().toBytes());
+        recording.start();
+        log.info("Started recording {} for {}", recording.getId(), bounded);
+        return status();
+    }
+
+    /**
+     * Stops the recording, unless it stopped on its own, and writes its data to a temporary file.
+     * The caller deletes the file once it has been sent.
+     *
+     * @return the file holding the recording
+     * @throws RecordingStateException if no recording was started
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            throw new RecordingStateException("No recording was started");
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("users-", ".jfr");
+            recording.dump(file);
+            log.info("Stopped recording {}, {} bytes", recording.getId(), Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            discard();
+        }
+    }
+
+    private Status status() {
+        return new Status(recording.getState().name(), recording.getStartTime(), recording.getDuration(), recording.getMaxSize());
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        discard();
+    }
+
+    /**
+     * State of an on-demand recording.
+     *
+     * @param state the state, e.g. "RUNNING"
+     * @param startTime when the recording started
+     * @param duration the time after which it stops on its own
+     * @param maxSize the size up to which it keeps its data, in bytes
+     */
+    public record Status(String state, Instant startTime, Duration duration, long maxSize) {
+    }
+}
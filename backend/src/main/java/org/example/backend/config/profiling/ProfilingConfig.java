@@ -0,0 +1,70 @@
+package org.example.backend.config.profiling;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the Flight Recorder events of the user operations, active when "users.profiling.enabled" is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.profiling", name = "enabled", havingValue = "true")
+public class ProfilingConfig {
+
+    /**
+     * Wraps the DataSource used by the application, whichever configuration created it,
+     * so that the events can tell the number of statements of each operation.
+     *
+     * @return the post processor wrapping the DataSource
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @return the aspect emitting the events of the controller, the service and the repository
+     */
+    @Bean
+    public UserOperationAspect userOperationAspect() {
+        return new UserOperationAspect();
+    }
+
+    /**
+     * @return the filter emitting the events of the requests, applied to the user endpoints
+     */
+    @Bean
+    public UserRequestEventFilter userRequestEventFilter() {
+        return new UserRequestEventFilter();
+    }
+
+    /**
+     * @return the latency histograms, fed from the events by a stream started with the context
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public UserOperationLatencies userOperationLatencies() {
+        return new UserOperationLatencies();
+    }
+
+    /**
+     * Creates the service of on-demand recordings.
+     *
+     * @param properties the token, the recording settings and the bounds of recordings
+     * @return the service, closing a remaining recording with the context
+     */
+    @Bean(destroyMethod = "close")
+    public JfrRecordingService jfrRecordingService(ProfilingProperties properties) {
+        return new JfrRecordingService(properties);
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.backend.config.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Flight Recorder events of the user operations.
+ * Bound from the "users.profiling" properties.
+ *
+ * @param enabled whether user operations emit Flight Recorder events and their latencies are collected
+ * @param token the token the "X-Ops-Token" header has to carry to start and stop recordings, recordings are refused if empty
+ * @param recordingSettings the JDK settings of on-demand recordings, "default" or the more detailed "profile"
+ * @param maxRecordingDuration the time after which an on-demand recording stops on its own
+ * @param maxRecordingSize the size up to which an on-demand recording keeps its data, older data is dropped first
+ */
+@ConfigurationProperties(prefix = "users.profiling")
+public record ProfilingProperties(boolean enabled,
+                                  String token,
+                                  @DefaultValue("profile") String recordingSettings,
+                                  @DefaultValue("5m") Duration maxRecordingDuration,
+                                  @DefaultValue("100MB") DataSize maxRecordingSize) {
+}
@@ -0,0 +1,20 @@
+package org.example.backend.config.profiling;
+
+/**
+ * Number of SQL statements prepared by the current thread, counted by the {@link StatementCountingDataSource}.
+ * The count only grows, an operation takes the difference between its end and its start.
+ */
+final class SqlStatementCounter {
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    private SqlStatementCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    static int current() {
+        return COUNT.get()[0];
+    }
+}
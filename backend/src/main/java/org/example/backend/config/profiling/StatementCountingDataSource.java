@@ -0,0 +1,52 @@
+package org.example.backend.config.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource counting the statements every thread prepares in the {@link SqlStatementCounter}.
+ * A statement reused for a JDBC batch is counted once, like the one round trip it takes.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    /**
+     * Creates the DataSource.
+     *
+     * @param targetDataSource the DataSource actually providing the connections
+     */
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement) {
+                        SqlStatementCounter.increment();
+                    }
+                    return result;
+                });
+    }
+}
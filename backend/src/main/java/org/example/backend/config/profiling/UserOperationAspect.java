@@ -0,0 +1,92 @@
+package org.example.backend.config.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.backend.dto.response.UserInformationResponse;
+import org.example.backend.dto.response.UserLookupResponse;
+import org.example.backend.model.User;
+import org.example.backend.service.lookup.UserLookupResult;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Aspect emitting a {@link UserOperationEvent} for every call of the user controller, the user service and the user repository.
+ * It wraps all other advice, so the events of the service include the commit of its transaction.
+ * When no recording has the event enabled, a call only costs the check for that.
+ */
+@Aspect
+public class UserOperationAspect implements Ordered {
+
+    @Around("execution(public * org.example.backend.controller.UserController.*(..))")
+    public Object profileController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile("controller", joinPoint);
+    }
+
+    @Around("execution(public * org.example.backend.service.impl.UserServiceImpl.*(..))")
+    public Object profileService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile("service", joinPoint);
+    }
+
+    @Around("execution(* *(..)) && target(org.example.backend.repository.UserRepository)")
+    public Object profileRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile("repository", joinPoint);
+    }
+
+    private static Object profile(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        UserOperationEvent event = new UserOperationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        int statementsBefore = SqlStatementCounter.current();
+        event.begin();
+        boolean failed = true;
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.layer = layer;
+                event.operation = joinPoint.getSignature().getName();
+                event.rows = failed ? 0 : rows(result);
+                event.statements = SqlStatementCounter.current() - statementsBefore;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Counts the users in a result, looking into pages, collections, optionals and response bodies.
+     */
+    static int rows(Object result) {
+        if (result instanceof ResponseEntity<?> response) {
+            return rows(response.getBody());
+        } else if (result instanceof Optional<?> optional) {
+            return rows(optional.orElse(null));
+        } else if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        } else if (result instanceof Collection<?> collection) {
+            return collection.size();
+        } else if (result instanceof UserLookupResult lookup) {
+            return lookup.users().size();
+        } else if (result instanceof UserLookupResponse lookup) {
+            return lookup.getUsers().size();
+        } else if (result instanceof User || result instanceof UserInformationResponse) {
+            return 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
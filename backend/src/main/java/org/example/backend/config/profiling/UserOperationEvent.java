@@ -0,0 +1,43 @@
+package org.example.backend.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one user operation: a request to the user endpoints,
+ * a method of the controller, of the service or of the repository.
+ * The events of one request nest, so the time a layer spends on its own is its duration minus that of the events inside it,
+ * e.g. request minus controller is the time of binding, validation and writing the JSON response.
+ */
+@Name(UserOperationEvent.NAME)
+@Label("User Operation")
+@Category({"Users CRUD"})
+@Description("A request to the user endpoints or a method handling it")
+@StackTrace(false)
+class UserOperationEvent extends Event {
+    static final String NAME = "org.example.backend.UserOperation";
+
+    @Label("Layer")
+    @Description("request, controller, service or repository")
+    String layer;
+
+    @Label("Operation")
+    @Description("The method and path pattern of a request, the method name otherwise")
+    String operation;
+
+    @Label("Rows")
+    @Description("The number of users returned")
+    int rows;
+
+    @Label("SQL Statements")
+    @Description("The number of statements prepared on the database connections of the thread")
+    int statements;
+
+    @Label("Failed")
+    @Description("Whether the method threw or the request got an error status")
+    boolean failed;
+}
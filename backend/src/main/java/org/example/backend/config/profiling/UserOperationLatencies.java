@@ -0,0 +1,166 @@
+package org.example.backend.config.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms of the user operations, fed continuously from their Flight Recorder events by JFR event streaming.
+ * Events are written to a thread-local buffer by the operations and read back by the stream about once a second,
+ * so the operations only pay for emitting the event. Only {@link UserOperationEvent} is enabled by the stream.
+ * <p>
+ * Durations are counted in log-linear buckets of microseconds, four per power of two,
+ * so the reported percentiles are upper bounds at most 25% above the real value.
+ */
+@Slf4j
+public class UserOperationLatencies implements AutoCloseable {
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    /**
+     * Starts consuming the events in the background.
+     */
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(UserOperationEvent.NAME).withoutStackTrace().withThreshold(Duration.ZERO);
+        // the stream only reads the latest events, older chunks need not be kept on disk
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.onEvent(UserOperationEvent.NAME, this::record);
+        stream.startAsync();
+        log.info("Streaming user operation events into latency histograms");
+    }
+
+    void record(RecordedEvent event) {
+        histograms.computeIfAbsent(event.getString("layer") + " " + event.getString("operation"), key -> new Histogram())
+                .record(TimeUnit.NANOSECONDS.toMicros(event.getDuration().toNanos()), event.getInt("rows"),
+                        event.getInt("statements"), event.getBoolean("failed"));
+    }
+
+    /**
+     * @return the latencies by layer and operation, e.g. "service createUser" or "request GET /users"
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        histograms.forEach((operation, histogram) -> {
+            Snapshot values = histogram.snapshot();
+            if (values.count() > 0) {
+                snapshot.put(operation, values);
+            }
+        });
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    /**
+     * Latencies of one operation since startup, in milliseconds.
+     *
+     * @param count the number of calls
+     * @param failures the number of calls that failed
+     * @param meanMillis the mean duration
+     * @param p50Millis the median duration
+     * @param p90Millis the 90th percentile of the duration
+     * @param p99Millis the 99th percentile of the duration
+     * @param maxMillis the longest duration
+     * @param meanRows the mean number of users returned
+     * @param meanStatements the mean number of SQL statements
+     */
+    public record Snapshot(long count, long failures, double meanMillis, double p50Millis, double p90Millis,
+                           double p99Millis, double maxMillis, double meanRows, double meanStatements) {
+    }
+
+    /**
+     * Histogram only written by the thread of the stream and read by any thread.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = SUB_BUCKETS * 62;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private volatile long count;
+        private volatile long failures;
+        private volatile long totalMicros;
+        private volatile long maxMicros;
+        private volatile long totalRows;
+        private volatile long totalStatements;
+
+        void record(long micros, int rows, int statements, boolean failed) {
+            counts.incrementAndGet(bucketOf(micros));
+            totalMicros += micros;
+            maxMicros = Math.max(maxMicros, micros);
+            totalRows += rows;
+            totalStatements += statements;
+            if (failed) {
+                failures++;
+            }
+            // written last, so a reader seeing the count sees the values counted with it
+            count++;
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(0, micros);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int subBucket = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return SUB_BUCKETS + (exponent - 2) * SUB_BUCKETS + subBucket;
+        }
+
+        static long upperBoundOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 2;
+            int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - 2)) - 1;
+        }
+
+        Snapshot snapshot() {
+            long calls = count;
+            if (calls == 0) {
+                return new Snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            long[] copy = new long[BUCKETS];
+            long copied = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                copied += copy[i];
+            }
+            long max = maxMicros;
+            return new Snapshot(calls, failures, millis(totalMicros) / calls,
+                    millis(Math.min(max, percentile(copy, copied, 0.50))),
+                    millis(Math.min(max, percentile(copy, copied, 0.90))),
+                    millis(Math.min(max, percentile(copy, copied, 0.99))),
+                    millis(max), (double) totalRows / calls, (double) totalStatements / calls);
+        }
+
+        private static long percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.backend.config.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Filter emitting a {@link UserOperationEvent} for every request to the user endpoints.
+ * The event covers reading and validating the body and writing the response, which the controller event does not.
+ * Requests are named by their method and matched path pattern, so "/users/1" and "/users/2" are both "PUT /users/{id}".
+ */
+public class UserRequestEventFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/users") || path.startsWith("/users/")) || path.startsWith("/users/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UserOperationEvent event = new UserOperationEvent();
+        if (!event.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        int statementsBefore = SqlStatementCounter.current();
+        event.begin();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 400;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.layer = "request";
+                event.operation = request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+                event.statements = SqlStatementCounter.current() - statementsBefore;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package org.example.backend.config.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker over the outcomes of the latest database calls.
+ * While closed, every call is let through and its outcome is kept in a window of the latest calls.
+ * When enough calls are in the window and the share of failed or of slow calls reaches its threshold, the breaker opens.
+ * Calls still running after the slow call threshold count as slow right away, so a database that stalls
+ * opens the breaker without waiting for the stuck calls to end.
+ * While open, no call is let through. After the open duration the breaker is half-open and lets a few trial
+ * calls through: enough successful ones close it, a failed or slow one opens it again.
+ * Only calls started in the current state change it, so calls hanging since before the breaker opened
+ * neither fail the trials nor open the breaker again once it closed.
+ */
+@Slf4j
+public class CircuitBreaker {
+    /**
+     * States of the breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte SUCCESS = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILURE = 2;
+
+    private final CircuitBreakerProperties properties;
+    private final LongSupplier nanoClock;
+    private final long slowNanos;
+    private final long openNanos;
+    private final byte[] window;
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong permits = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder staleResponses = new LongAdder();
+    private final LongAdder openings = new LongAdder();
+
+    private State state = State.CLOSED;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private int windowSlow;
+    private long stateSince;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    /**
+     * Creates the breaker.
+     *
+     * @param properties the window, the thresholds and the open duration
+     */
+    public CircuitBreaker(CircuitBreakerProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    CircuitBreaker(CircuitBreakerProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.slowNanos = properties.slowCallThreshold().toNanos();
+        this.openNanos = properties.openDuration().toNanos();
+        this.window = new byte[Math.max(1, properties.windowSize())];
+        this.stateSince = nanoClock.getAsLong();
+    }
+
+    /**
+     * Asks to let a call through.
+     *
+     * @return the permit the call has to pass to {@link #onSuccess} or {@link #onFailure}, or -1 if the breaker rejects it
+     */
+    public synchronized long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        if (state == State.OPEN && now - stateSince >= openNanos) {
+            transition(State.HALF_OPEN, now);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialsInFlight + trialSuccesses >= properties.halfOpenCalls())) {
+            rejectedCalls.increment();
+            return -1;
+        }
+        if (state == State.HALF_OPEN) {
+            trialsInFlight++;
+        }
+        long permit = permits.incrementAndGet();
+        inFlight.put(permit, now);
+        return permit;
+    }
+
+    /**
+     * Records a call that reached the database without a database error, even if it failed for another reason.
+     *
+     * @param permit the permit of the call
+     */
+    public void onSuccess(long permit) {
+        record(permit, false);
+    }
+
+    /**
+     * Records a call that failed because of the database.
+     *
+     * @param permit the permit of the call
+     */
+    public void onFailure(long permit) {
+        record(permit, true);
+    }
+
+    private synchronized void record(long permit, boolean failed) {
+        Long startedAt = inFlight.remove(permit);
+        if (startedAt == null) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        byte outcome = failed ? FAILURE : now - startedAt >= slowNanos ? SLOW : SUCCESS;
+        calls.increment();
+        if (outcome == FAILURE) {
+            failures.increment();
+        } else if (outcome == SLOW) {
+            slowCalls.increment();
+        }
+        if (startedAt - stateSince < 0) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> {
+                addToWindow(outcome);
+                checkRates(0, now);
+            }
+            case HALF_OPEN -> {
+                trialsInFlight = Math.max(0, trialsInFlight - 1);
+                if (outcome != SUCCESS) {
+                    transition(State.OPEN, now);
+                } else if (++trialSuccesses >= properties.halfOpenCalls()) {
+                    transition(State.CLOSED, now);
+                }
+            }
+            default -> {
+                // an open breaker lets no call through, so no call started while it is open
+            }
+        }
+    }
+
+    /**
+     * Counts the calls running longer than the slow call threshold as slow and opens the breaker if they are too many.
+     * Called periodically, since stuck calls report nothing on their own.
+     */
+    public synchronized void checkStuckCalls() {
+        long now = nanoClock.getAsLong();
+        int stuck = 0;
+        for (long startedAt : inFlight.values()) {
+            if (startedAt - stateSince >= 0 && now - startedAt >= slowNanos) {
+                stuck++;
+            }
+        }
+        if (stuck == 0) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN, now);
+        } else if (state == State.CLOSED) {
+            checkRates(stuck, now);
+        }
+    }
+
+    private void addToWindow(byte outcome) {
+        if (windowCount == window.length) {
+            byte dropped = window[windowNext];
+            if (dropped == FAILURE) {
+                windowFailures--;
+            } else if (dropped == SLOW) {
+                windowSlow--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = outcome;
+        windowNext = (windowNext + 1) % window.length;
+        if (outcome == FAILURE) {
+            windowFailures++;
+        } else if (outcome == SLOW) {
+            windowSlow++;
+        }
+    }
+
+    private void checkRates(int stuck, long now) {
+        int count = windowCount + stuck;
+        if (count < properties.minimumCalls()) {
+            return;
+        }
+        if ((double) windowFailures / count >= properties.failureRateThreshold()
+                || (double) (windowSlow + stuck) / count >= properties.slowCallRateThreshold()) {
+            transition(State.OPEN, now);
+        }
+    }
+
+    private void transition(State next, long now) {
+        log.warn("Database circuit breaker {} -> {}, {} of {} windowed calls failed, {} slow",
+                state, next, windowFailures, windowCount, windowSlow);
+        state = next;
+        stateSince = now;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        if (next == State.OPEN) {
+            openings.increment();
+        } else if (next == State.CLOSED) {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            windowSlow = 0;
+        }
+    }
+
+    /**
+     * @return the current state, without moving an open breaker to half-open
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Counts a read answered with a kept result instead of the database.
+     */
+    public void recordStaleResponse() {
+        staleResponses.increment();
+    }
+
+    /**
+     * @return the state and the counters of the breaker
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, windowCount == 0 ? 0 : (double) windowFailures / windowCount,
+                windowCount == 0 ? 0 : (double) windowSlow / windowCount, inFlight.size(),
+                calls.sum(), failures.sum(), slowCalls.sum(), rejectedCalls.sum(), staleResponses.sum(), openings.sum());
+    }
+
+    /**
+     * Values of the breaker.
+     *
+     * @param state the current state
+     * @param failureRate the share of failed calls in the window
+     * @param slowCallRate the share of slow calls in the window
+     * @param callsInFlight the number of calls let through and not yet finished
+     * @param calls the number of finished calls
+     * @param failures the number of calls that failed because of the database
+     * @param slowCalls the number of calls that took longer than the slow call threshold
+     * @param rejectedCalls the number of calls the breaker did not let through
+     * @param staleResponses the number of reads answered with a kept result
+     * @param openings the number of times the breaker opened
+     */
+    public record Snapshot(State state, double failureRate, double slowCallRate, int callsInFlight, long calls, long failures,
+                           long slowCalls, long rejectedCalls, long staleResponses, long openings) {
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.backend.config.resilience;
+
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.backend.exceptions.custom.DatabaseUnavailableException;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect guarding the user service with the {@link CircuitBreaker}.
+ * Reads keep their latest results. When a read fails because of the database, or the breaker is open,
+ * the kept result is served with a "Warning: 110" and an "Age" header, and the read is retried in the background
+ * until it succeeds; without a kept result, the read fails with 503. Writes fail with 503 at once unless the breaker is closed,
+ * so they do not tie up threads waiting for the database.
+ * Runs before the transaction advice, so rejected calls do not wait for a connection.
+ */
+@Slf4j
+@Aspect
+public class CircuitBreakerAspect implements Ordered {
+    private static final Set<String> READS = Set.of("getUsersList", "getUsersByName", "findUsers", "getUsersByIds");
+
+    private final CircuitBreaker breaker;
+    private final StaleResultCache staleResults;
+    private final ScheduledExecutorService refresher;
+    private final long retryMillis;
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the aspect.
+     *
+     * @param breaker the circuit breaker
+     * @param staleResults the latest results of the reads
+     * @param refresher the executor retrying the reads served with kept results
+     * @param properties the open duration, which is also the delay between retries
+     */
+    public CircuitBreakerAspect(CircuitBreaker breaker, StaleResultCache staleResults, ScheduledExecutorService refresher,
+                                CircuitBreakerProperties properties) {
+        this.breaker = breaker;
+        this.staleResults = staleResults;
+        this.refresher = refresher;
+        this.retryMillis = Math.max(1, properties.openDuration().toMillis());
+    }
+
+    @Around("execution(public * org.example.backend.service.impl.UserServiceImpl.*(..))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        if (!READS.contains(method)) {
+            long permit = breaker.getState() == CircuitBreaker.State.CLOSED ? breaker.tryAcquire() : -1;
+            if (permit < 0) {
+                throw new DatabaseUnavailableException("The database is unavailable, changes can not be saved now. Please, try again later");
+            }
+            return call(joinPoint, permit);
+        }
+
+        Key key = new Key(method, Arrays.asList(joinPoint.getArgs()));
+        long permit = breaker.tryAcquire();
+        if (permit < 0) {
+            return stale(key, joinPoint, null);
+        }
+        Object result;
+        try {
+            result = call(joinPoint, permit);
+        } catch (Throwable e) {
+            if (isDatabaseFailure(e)) {
+                return stale(key, joinPoint, e);
+            }
+            throw e;
+        }
+        staleResults.put(key, result);
+        return result;
+    }
+
+    private Object call(ProceedingJoinPoint joinPoint, long permit) throws Throwable {
+        try {
+            Object result = joinPoint.proceed();
+            breaker.onSuccess(permit);
+            return result;
+        } catch (Throwable e) {
+            if (isDatabaseFailure(e)) {
+                breaker.onFailure(permit);
+            } else {
+                breaker.onSuccess(permit);
+            }
+            throw e;
+        }
+    }
+
+    private Object stale(Key key, ProceedingJoinPoint joinPoint, Throwable failure) throws Throwable {
+        StaleResultCache.Stale stale = staleResults.get(key);
+        if (stale == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            throw new DatabaseUnavailableException("The database is unavailable. Please, try again later");
+        }
+        breaker.recordStaleResponse();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes && servletAttributes.getResponse() != null) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            response.setHeader("Warning", "110 - \"Response is Stale\"");
+            response.setHeader("Age", Long.toString(TimeUnit.NANOSECONDS.toSeconds(stale.ageNanos())));
+        }
+        scheduleRefresh(key, joinPoint);
+        return stale.result();
+    }
+
+    /**
+     * Retries a read in the background until it succeeds, the breaker lets it through once it is half-open.
+     * The join point may be proceeded again from another thread, it starts its own transaction.
+     */
+    private void scheduleRefresh(Key key, ProceedingJoinPoint joinPoint) {
+        if (refreshing.add(key)) {
+            refresher.schedule(() -> refresh(key, joinPoint), retryMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh(Key key, ProceedingJoinPoint joinPoint) {
+        long permit = breaker.tryAcquire();
+        if (permit >= 0) {
+            try {
+                staleResults.put(key, call(joinPoint, permit));
+                refreshing.remove(key);
+                return;
+            } catch (Throwable e) {
+                log.debug("Refreshing {} failed", key.method(), e);
+            }
+        }
+        if (staleResults.get(key) == null) {
+            // too old to be served anymore, the next read fetches it again
+            refreshing.remove(key);
+            return;
+        }
+        refresher.schedule(() -> refresh(key, joinPoint), retryMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tells failures of the database apart from failures of the request, e.g. an unknown id.
+     */
+    static boolean isDatabaseFailure(Throwable e) {
+        if (e instanceof EntityNotFoundException || e instanceof EntityExistsException) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessResourceException || cause instanceof QueryTimeoutException
+                    || cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException || cause instanceof SQLTimeoutException) {
+                return true;
+            }
+            // connection exceptions, insufficient resources and operator intervention such as a shutdown
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("08") || sqlException.getSQLState().startsWith("53")
+                    || sqlException.getSQLState().startsWith("57P"))) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        // inside the profiling events and the read model, outside the transaction
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    /**
+     * A read, by its method and arguments.
+     */
+    private record Key(String method, List<Object> args) {
+    }
+}
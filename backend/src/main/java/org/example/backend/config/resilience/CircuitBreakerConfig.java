@@ -0,0 +1,84 @@
+package org.example.backend.config.resilience;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the circuit breaker of the user service, active when "users.circuit-breaker.enabled" is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.circuit-breaker", name = "enabled", havingValue = "true")
+public class CircuitBreakerConfig {
+
+    /**
+     * @param properties the window, the thresholds and the open duration
+     * @return the circuit breaker of the database calls
+     */
+    @Bean
+    public CircuitBreaker circuitBreaker(CircuitBreakerProperties properties) {
+        return new CircuitBreaker(properties);
+    }
+
+    /**
+     * @param properties the number of results kept and the age up to which they are served
+     * @return the latest results of the reads
+     */
+    @Bean
+    public StaleResultCache staleResultCache(CircuitBreakerProperties properties) {
+        return new StaleResultCache(properties);
+    }
+
+    /**
+     * Creates the thread looking for stuck calls four times within the slow call threshold.
+     * It is separate from the retries, which may hang on a stalled database themselves.
+     *
+     * @param breaker the circuit breaker
+     * @param properties the slow call threshold
+     * @return the executor, shut down with the context
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService circuitBreakerMonitor(CircuitBreaker breaker, CircuitBreakerProperties properties) {
+        ScheduledExecutorService executor = daemonExecutor("circuit-breaker-monitor");
+        long interval = Math.max(10, properties.slowCallThreshold().toMillis() / 4);
+        executor.scheduleWithFixedDelay(breaker::checkStuckCalls, interval, interval, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    /**
+     * @return the executor retrying the reads served with kept results, shut down with the context
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService circuitBreakerRefresher() {
+        return daemonExecutor("circuit-breaker-refresh");
+    }
+
+    /**
+     * Creates the aspect guarding the user service.
+     *
+     * @param breaker the circuit breaker
+     * @param staleResults the latest results of the reads
+     * @param refresher the executor retrying the reads served with kept results
+     * @param properties the open duration
+     * @return the aspect
+     */
+    @Bean
+    public CircuitBreakerAspect circuitBreakerAspect(CircuitBreaker breaker, StaleResultCache staleResults,
+                                                     @Qualifier("circuitBreakerRefresher") ScheduledExecutorService refresher,
+                                                     CircuitBreakerProperties properties) {
+        return new CircuitBreakerAspect(breaker, staleResults, refresher, properties);
+    }
+
+    private static ScheduledExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.backend.config.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the circuit breaker around the database calls of the user service.
+ * Bound from the "users.circuit-breaker" properties.
+ *
+ * @param enabled whether the breaker guards the user service
+ * @param windowSize the number of latest calls the failure and slow call rates are taken over
+ * @param minimumCalls the number of calls in the window before the breaker may open
+ * @param failureRateThreshold the share of calls failing with database errors that opens the breaker
+ * @param slowCallThreshold the duration from which a call counts as slow, calls still running after it count as well
+ * @param slowCallRateThreshold the share of slow calls that opens the breaker
+ * @param openDuration how long the breaker stays open before trial calls are let through
+ * @param halfOpenCalls the number of successful trial calls that close the breaker again
+ * @param staleEntries the number of read results kept to be served while the database is unavailable
+ * @param maxStaleness the age up to which a kept result is served
+ */
+@ConfigurationProperties(prefix = "users.circuit-breaker")
+public record CircuitBreakerProperties(boolean enabled,
+                                       @DefaultValue("20") int windowSize,
+                                       @DefaultValue("10") int minimumCalls,
+                                       @DefaultValue("0.5") double failureRateThreshold,
+                                       @DefaultValue("2s") Duration slowCallThreshold,
+                                       @DefaultValue("0.5") double slowCallRateThreshold,
+                                       @DefaultValue("10s") Duration openDuration,
+                                       @DefaultValue("3") int halfOpenCalls,
+                                       @DefaultValue("1000") int staleEntries,
+                                       @DefaultValue("10m") Duration maxStaleness) {
+}
@@ -0,0 +1,78 @@
+package org.example.backend.config.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The latest results of the reads of the user service, kept to be served while the database is unavailable.
+ * Bounded, the least recently used result is dropped first.
+ */
+public class StaleResultCache {
+    private final int maxEntries;
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Object, Entry> entries;
+
+    /**
+     * Creates the cache.
+     *
+     * @param properties the number of results kept and the age up to which they are served
+     */
+    public StaleResultCache(CircuitBreakerProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    StaleResultCache(CircuitBreakerProperties properties, LongSupplier nanoClock) {
+        this.maxEntries = properties.staleEntries();
+        this.maxStalenessNanos = properties.maxStaleness().toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Keeps the result of a read.
+     *
+     * @param key the read, the method and its arguments
+     * @param result the result
+     */
+    public synchronized void put(Object key, Object result) {
+        entries.put(key, new Entry(result, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Finds the kept result of a read that is not older than the maximum staleness.
+     *
+     * @param key the read, the method and its arguments
+     * @return the result and its age, or null if there is none
+     */
+    public synchronized Stale get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long ageNanos = nanoClock.getAsLong() - entry.storedAt();
+        if (ageNanos > maxStalenessNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return new Stale(entry.result(), ageNanos);
+    }
+
+    /**
+     * A kept result.
+     *
+     * @param result the result of the read
+     * @param ageNanos the time since it was read from the database
+     */
+    public record Stale(Object result, long ageNanos) {
+    }
+
+    private record Entry(Object result, long storedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.backend.config.sharding;
+
+/**
+ * Holds the shard the current thread works with.
+ * Read by {@link ShardRoutingDataSource} when a physical connection is fetched.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the index of the current shard, or null if none was selected
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Selects the shard of the current thread.
+     *
+     * @param shard the index of the shard, or null to clear the selection
+     */
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
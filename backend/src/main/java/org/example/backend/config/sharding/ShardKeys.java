@@ -0,0 +1,37 @@
+package org.example.backend.config.sharding;
+
+/**
+ * Maps users to shards.
+ * A user lives on the shard picked by the hash of its email. Ids are generated by every shard with
+ * "start with shard + 1, increment by shard count", so the shard of a user can be derived from its id alone.
+ */
+public final class ShardKeys {
+    private ShardKeys() {
+    }
+
+    /**
+     * @param email the email of the user
+     * @param shardCount the number of shards
+     * @return the index of the shard owning the email
+     */
+    public static int shardOfEmail(String email, int shardCount) {
+        return Math.floorMod(email.hashCode(), shardCount);
+    }
+
+    /**
+     * @param id the id of the user
+     * @param shardCount the number of shards
+     * @return the index of the shard that generated the id
+     */
+    public static int shardOfId(long id, int shardCount) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    /**
+     * @param shard the index of the shard
+     * @return the first id generated by the shard
+     */
+    public static long firstIdOf(int shard) {
+        return shard + 1L;
+    }
+}
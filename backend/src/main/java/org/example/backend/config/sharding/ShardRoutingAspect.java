@@ -0,0 +1,355 @@
+package org.example.backend.config.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.backend.exceptions.custom.ShardRelocationException;
+import org.example.backend.model.User;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Routes every UserRepository call to the shard(s) owning the data.
+ * <ul>
+ *     <li>Calls listed in {@link #ROUTES} are keyed by their first argument, an email, an id or a User,
+ *     and run on the owning shard only.</li>
+ *     <li>If that argument is a collection, it is split per shard and the results are concatenated.</li>
+ *     <li>Saving an existing user with an email that belongs to another shard is rejected, see {@link #checkPlacement}.</li>
+ *     <li>Paged calls are scatter-gather: every shard returns its first offset + size rows in the requested order
+ *     (with id as tie-breaker) and the pages are combined with a k-way merge.</li>
+ *     <li>Everything else is broadcast to all shards and the results are combined by return type.</li>
+ * </ul>
+ * The first shard touched inside a transaction becomes the shard of that transaction. Calls for other shards
+ * run in a transaction per shard that stays open, with its locks, until the surrounding one completes,
+ * see {@link ShardTransaction}. A physical connection is fetched lazily, so the shard can still be chosen
+ * after the surrounding service transaction has started.
+ */
+@Slf4j
+@Aspect
+public class ShardRoutingAspect {
+    /**
+     * The calls that go to the owning shard, by method name, and the kind of key their first argument holds.
+     */
+    private static final Map<String, Key> ROUTES = Map.ofEntries(
+            Map.entry("findByEmail", Key.EMAIL),
+            Map.entry("existsByEmail", Key.EMAIL),
+            Map.entry("findAllByEmailIn", Key.EMAIL),
+            Map.entry("findById", Key.ID),
+            Map.entry("existsById", Key.ID),
+            Map.entry("getReferenceById", Key.ID),
+            Map.entry("deleteById", Key.ID),
+            Map.entry("findAllById", Key.ID),
+            Map.entry("findAllForUpdateByIdIn", Key.ID),
+            Map.entry("deleteAllById", Key.ID),
+            Map.entry("deleteAllByIdIn", Key.ID),
+            Map.entry("deleteAllByIdInBatch", Key.ID),
+            Map.entry("save", Key.USER),
+            Map.entry("saveAndFlush", Key.USER),
+            Map.entry("saveAll", Key.USER),
+            Map.entry("saveAllAndFlush", Key.USER),
+            Map.entry("insertAll", Key.USER),
+            Map.entry("updateAll", Key.USER),
+            Map.entry("delete", Key.USER),
+            Map.entry("deleteAll", Key.USER),
+            Map.entry("deleteAllInBatch", Key.USER));
+    /**
+     * The calls writing existing users, which must not give a user an email of another shard.
+     */
+    private static final Set<String> WRITES = Set.of("save", "saveAndFlush", "saveAll", "saveAllAndFlush", "updateAll");
+
+    private final int shardCount;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param shardCount the number of shards
+     * @param transactionManager the transaction manager used for calls on additional shards
+     */
+    public ShardRoutingAspect(int shardCount, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.shardCount = shardCount;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Routes a repository call.
+     *
+     * @param joinPoint the repository call
+     * @return the result of the call, combined over the shards it ran on
+     * @throws Throwable whatever the repository throws
+     * @throws ShardRelocationException if a save would move a user to another shard
+     */
+    @Around("execution(* *(..)) && target(org.example.backend.repository.UserRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object[] args = joinPoint.getArgs();
+        if (method.getDeclaringClass() == Object.class) {
+            return joinPoint.proceed();
+        }
+
+        Key key = args.length > 0 && args[0] != null ? ROUTES.get(method.getName()) : null;
+        if (key != null && args[0] instanceof Iterable<?>) {
+            return partitioned(joinPoint, method, args, key);
+        }
+        Integer shard = key != null ? shardOf(key, args[0]) : null;
+        if (shard != null) {
+            if (WRITES.contains(method.getName())) {
+                checkPlacement((User) args[0]);
+            }
+            return onShard(shard, () -> joinPoint.proceed(args));
+        }
+        int pageable = indexOf(args, Pageable.class);
+        if (pageable >= 0 && (Page.class.isAssignableFrom(method.getReturnType()) || method.getReturnType() == Optional.class)) {
+            return mergedPage(joinPoint, method, args, pageable);
+        }
+        return broadcast(joinPoint, method, args);
+    }
+
+    private Integer shardOf(Key key, Object value) {
+        return switch (key) {
+            case EMAIL -> ShardKeys.shardOfEmail((String) value, shardCount);
+            case ID -> ShardKeys.shardOfId((Long) value, shardCount);
+            case USER -> shardOfUser((User) value);
+        };
+    }
+
+    private Integer shardOfUser(User user) {
+        if (user.getId() != null) {
+            return ShardKeys.shardOfId(user.getId(), shardCount);
+        }
+        return user.getEmail() != null ? ShardKeys.shardOfEmail(user.getEmail(), shardCount) : null;
+    }
+
+    /**
+     * Users stay on the shard that created them, so an email may only change to one owned by the same shard.
+     */
+    private void checkPlacement(User user) {
+        if (user.getId() != null && user.getEmail() != null
+                && ShardKeys.shardOfId(user.getId(), shardCount) != ShardKeys.shardOfEmail(user.getEmail(), shardCount)) {
+            log.warn("Email {} of user {} belongs to another shard", user.getEmail(), user.getId());
+            throw new ShardRelocationException("This email can not be assigned to an existing user. Please, create a new user with it");
+        }
+    }
+
+    private Object partitioned(ProceedingJoinPoint joinPoint, Method method, Object[] args, Key key) throws Throwable {
+        Map<Integer, List<Object>> groups = new TreeMap<>();
+        for (Object element : (Iterable<?>) args[0]) {
+            if (WRITES.contains(method.getName())) {
+                checkPlacement((User) element);
+            }
+            groups.computeIfAbsent(shardOf(key, element), shard -> new ArrayList<>()).add(element);
+        }
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> group : groups.entrySet()) {
+            Object[] shardArgs = args.clone();
+            shardArgs[0] = args[0] instanceof Set<?> ? new LinkedHashSet<>(group.getValue()) : group.getValue();
+            results.add(onShard(group.getKey(), () -> joinPoint.proceed(shardArgs)));
+        }
+        return combine(method.getReturnType(), results);
+    }
+
+    private Object broadcast(ProceedingJoinPoint joinPoint, Method method, Object[] args) throws Throwable {
+        List<Object> results = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            results.add(onShard(shard, () -> joinPoint.proceed(args)));
+        }
+        return combine(method.getReturnType(), results);
+    }
+
+    private Object mergedPage(ProceedingJoinPoint joinPoint, Method method, Object[] args, int pageableIndex) throws Throwable {
+        Pageable pageable = (Pageable) args[pageableIndex];
+        Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id")) : pageable.getSort();
+        // every shard has to deliver all rows up to the end of the requested page, the merge then skips the offset
+        Pageable window = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        Object[] shardArgs = args.clone();
+        shardArgs[pageableIndex] = window;
+
+        long total = 0;
+        List<List<?>> parts = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            Object result = onShard(shard, () -> joinPoint.proceed(shardArgs));
+            Page<?> page = result instanceof Optional<?> optional ? (Page<?>) optional.orElse(null) : (Page<?>) result;
+            if (page != null) {
+                total += page.getTotalElements();
+                parts.add(page.getContent());
+            }
+        }
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        Page<Object> merged = new PageImpl<>(merge(parts, comparatorOf(sort), offset, size), pageable, total);
+        return method.getReturnType() == Optional.class ? Optional.of(merged) : merged;
+    }
+
+    /**
+     * Merges lists that are already sorted by the comparator, skipping the first offset elements.
+     */
+    private static List<Object> merge(List<List<?>> parts, Comparator<Object> comparator, long offset, int size) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> comparator.compare(parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1])));
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<Object> content = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && content.size() < size) {
+            int[] head = heads.poll();
+            List<?> part = parts.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                content.add(part.get(head[1]));
+            }
+            if (head[1] + 1 < part.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return content;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparatorOf(Sort sort) {
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(
+                    value -> (Comparable<Object>) new BeanWrapperImpl(value).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        return comparator;
+    }
+
+    private static Object combine(Class<?> returnType, List<Object> results) {
+        if (returnType == void.class) {
+            return null;
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            return results.stream().mapToLong(result -> (Long) result).sum();
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            return results.stream().mapToInt(result -> (Integer) result).sum();
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (Iterable.class.isAssignableFrom(returnType)) {
+            List<Object> all = new ArrayList<>();
+            results.forEach(result -> ((Iterable<?>) result).forEach(all::add));
+            return all;
+        }
+        if (returnType == Optional.class) {
+            return results.stream().map(Optional.class::cast).filter(Optional::isPresent).findFirst().orElse(Optional.empty());
+        }
+        return results.stream().filter(result -> result != null).findFirst().orElse(null);
+    }
+
+    private Object onShard(int shard, ShardTransaction.ShardCall call) throws Throwable {
+        Integer bound = ShardContext.current();
+        if (bound != null && bound == shard) {
+            return call.call();
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // the repository opens its own transaction, which fetches its connection from this shard
+            ShardContext.set(shard);
+            try {
+                return call.call();
+            } finally {
+                ShardContext.set(bound);
+            }
+        }
+        if (bound == null) {
+            ShardContext.set(shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ShardContext.set(null);
+                }
+            });
+            return call.call();
+        }
+        return furtherShards().transactionOf(shard).call(call);
+    }
+
+    /**
+     * @return the transactions of the further shards of the current transaction, registered with it on first use
+     */
+    private FurtherShards furtherShards() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof FurtherShards further) {
+                return further;
+            }
+        }
+        FurtherShards further = new FurtherShards(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        TransactionSynchronizationManager.registerSynchronization(further);
+        return further;
+    }
+
+    private static int indexOf(Object[] args, Class<?> type) {
+        for (int i = 0; i < args.length; i++) {
+            if (type.isInstance(args[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The kind of key a routed call is passed, alone or as a collection.
+     */
+    private enum Key {
+        EMAIL,
+        ID,
+        USER
+    }
+
+    /**
+     * The transactions a transaction opened on further shards. They commit right before it, so a failing commit
+     * still rolls it back, and roll back with it. Without two-phase commit, a failure while committing leaves
+     * the shards committed before it.
+     */
+    private final class FurtherShards implements TransactionSynchronization {
+        private final boolean readOnly;
+        private final Map<Integer, ShardTransaction> transactions = new TreeMap<>();
+
+        private FurtherShards(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        private ShardTransaction transactionOf(int shard) {
+            return transactions.computeIfAbsent(shard, key -> new ShardTransaction(key, transactionManager.getObject(), readOnly));
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            transactions.values().forEach(ShardTransaction::commit);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            transactions.values().forEach(ShardTransaction::rollback);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.backend.config.sharding;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A transaction on a further shard, kept open until the transaction that needed it completes.
+ * A thread holds one transaction of the transaction manager at a time, so the transaction lives on a thread
+ * of its own, which runs the calls for its shard one after another while the calling thread waits for them.
+ * Locks taken by a call are therefore held until {@link #commit} or {@link #rollback}.
+ */
+final class ShardTransaction {
+    private static final Runnable COMMIT = () -> {
+    };
+    private static final Runnable ROLLBACK = () -> {
+    };
+
+    private final int shard;
+    private final BlockingQueue<Runnable> calls = new LinkedBlockingQueue<>();
+    /**
+     * Completes when the transaction has committed or rolled back, exceptionally if it failed.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * Begins the transaction on its own thread.
+     *
+     * @param shard the index of the shard
+     * @param transactionManager the transaction manager
+     * @param readOnly whether the transaction is read-only
+     */
+    ShardTransaction(int shard, PlatformTransactionManager transactionManager, boolean readOnly) {
+        this.shard = shard;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(readOnly);
+        Thread thread = new Thread(() -> {
+            ShardContext.set(shard);
+            try {
+                template.executeWithoutResult(status -> {
+                    while (true) {
+                        Runnable call = take();
+                        if (call == COMMIT) {
+                            return;
+                        }
+                        if (call == ROLLBACK) {
+                            status.setRollbackOnly();
+                            return;
+                        }
+                        call.run();
+                    }
+                });
+                completion.complete(null);
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+            } finally {
+                ShardContext.set(null);
+            }
+        }, "shard-" + shard + "-transaction");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Runnable take() {
+        try {
+            return calls.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for calls on shard " + shard, e);
+        }
+    }
+
+    /**
+     * Runs a call in the transaction and waits for it.
+     *
+     * @param call the call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     * @throws IllegalStateException if the transaction has already ended
+     */
+    Object call(ShardCall call) throws Throwable {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        calls.add(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            CompletableFuture.anyOf(result, completion).join();
+        } catch (CompletionException e) {
+            // the transaction could not begin or has ended, the call did not run
+        }
+        if (!result.isDone()) {
+            throw new IllegalStateException("The transaction on shard " + shard + " has ended",
+                    completion.isCompletedExceptionally() ? cause(completion) : null);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Commits the transaction and waits for it.
+     *
+     * @throws RuntimeException if the commit fails or the transaction has already failed
+     */
+    void commit() {
+        calls.add(COMMIT);
+        Throwable failure = cause(completion);
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("The transaction on shard " + shard + " failed", failure);
+        }
+    }
+
+    /**
+     * Rolls the transaction back and waits for it, does nothing if it has already ended.
+     */
+    void rollback() {
+        if (!completion.isDone()) {
+            calls.add(ROLLBACK);
+            cause(completion);
+        }
+    }
+
+    /**
+     * Waits for the future.
+     *
+     * @return the failure of the future, null if it succeeded
+     */
+    private static Throwable cause(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    /**
+     * A repository call run on a shard.
+     */
+    @FunctionalInterface
+    interface ShardCall {
+        Object call() throws Throwable;
+    }
+}
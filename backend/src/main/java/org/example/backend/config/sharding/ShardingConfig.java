@@ -0,0 +1,105 @@
+package org.example.backend.config.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for hash-sharded user storage.
+ * Replaces the auto-configured DataSource with one routing to the shard selected for the current call
+ * when "users.sharding.enabled" is set. Can not be combined with read/write splitting.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "users.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * Creates a pool for every configured shard and, if enabled, the users table on each of them.
+     *
+     * @param properties the shard settings
+     * @return the DataSource routing to the shard selected in {@link ShardContext}
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled, but no shards are configured in users.sharding.shards");
+        }
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(shard.maximumPoolSize());
+            if (properties.initSchema()) {
+                createUsersTable(dataSource, i, properties.shards().size());
+            }
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Exposes the shard routing DataSource to JPA and JDBC.
+     * The lazy proxy postpones fetching a physical connection until the first statement,
+     * when the repository call has already selected its shard.
+     *
+     * @param shardRoutingDataSource the routing DataSource
+     * @return the DataSource used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Creates the aspect routing UserRepository calls to their shards.
+     *
+     * @param shardRoutingDataSource the routing DataSource, used for the shard count
+     * @param transactionManager the transaction manager, resolved lazily because the aspect is created early
+     * @return the routing aspect
+     */
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRoutingDataSource shardRoutingDataSource,
+                                                 ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new ShardRoutingAspect(shardRoutingDataSource.getShardCount(), transactionManager);
+    }
+
+    /**
+     * Creates the users table and its indexes so that the shard generates ids "shard + 1, shard + 1 + count, ...",
+     * which lets the shard be derived from an id.
+     */
+    private static void createUsersTable(DataSource dataSource, int shard, int shardCount) {
+        log.info("Initializing users table on shard {} of {}", shard, shardCount);
+        new JdbcTemplate(dataSource).execute("create table if not exists users ("
+                + "id bigint generated by default as identity (start with " + ShardKeys.firstIdOf(shard)
+                + " increment by " + shardCount + ") primary key, "
+                + "first_name varchar(255), "
+                + "last_name varchar(255), "
+                + "email varchar(255) not null unique, "
+                + "email_domain varchar(255))");
+        // the indexes UserQueryGuard lets filtered and sorted reads run along, as in db/schema.sql
+        for (String columns : List.of("first_name, last_name, id", "last_name, first_name, id", "email_domain, last_name, first_name, id")) {
+            new JdbcTemplate(dataSource).execute("create index if not exists idx_users_" + columns.replace(", ", "_")
+                    + " on users(" + columns + ")");
+        }
+    }
+}
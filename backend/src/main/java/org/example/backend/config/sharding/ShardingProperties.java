@@ -0,0 +1,31 @@
+package org.example.backend.config.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Configuration of hash-sharded user storage.
+ * Bound from the "users.sharding" properties. The order of the shards is part of the data layout:
+ * users are placed by a hash of their email and ids encode the shard index, so shards must never be reordered.
+ *
+ * @param enabled whether user storage is spread over the configured shards
+ * @param initSchema whether the users table is created on every shard at startup
+ * @param shards the shard connection settings
+ */
+@ConfigurationProperties(prefix = "users.sharding")
+public record ShardingProperties(boolean enabled,
+                                 @DefaultValue("true") boolean initSchema,
+                                 @DefaultValue List<Shard> shards) {
+    /**
+     * Connection settings of a single shard.
+     *
+     * @param url the JDBC url of the shard
+     * @param username the database user
+     * @param password the database password
+     * @param maximumPoolSize the maximum number of pooled connections to this shard
+     */
+    public record Shard(String url, String username, String password, @DefaultValue("10") int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.backend.config.timeout;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource applying the budget of the current request to every statement.
+ * A statement gets the remaining budget as its JDBC query timeout, which the driver enforces on the server,
+ * and is registered with the {@link RequestDeadline} so the watchdog can cancel it the moment the budget runs out.
+ * Once the budget is spent, connections and statements are refused with SQLTimeoutException.
+ */
+public class DeadlineAwareDataSource extends DelegatingDataSource {
+
+    /**
+     * Creates the DataSource.
+     *
+     * @param targetDataSource the DataSource actually providing the connections
+     */
+    public DeadlineAwareDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    private static Connection withDeadline(Connection connection) throws SQLException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            // the budget was spent waiting for the pool
+            connection.close();
+            throw timeout(deadline);
+        }
+        return (Connection) Proxy.newProxyInstance(DeadlineAwareDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        applyDeadline(statement);
+                    }
+                    return result;
+                });
+    }
+
+    private static void applyDeadline(Statement statement) throws SQLException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return;
+        }
+        if (!deadline.register(statement)) {
+            statement.close();
+            throw timeout(deadline);
+        }
+        // JDBC timeouts are whole seconds, the watchdog cancels on the exact deadline
+        long remainingSeconds = (deadline.remainingNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        statement.setQueryTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingSeconds)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static SQLTimeoutException timeout(RequestDeadline deadline) {
+        return new SQLTimeoutException("Time budget of " + deadline.getEndpoint() + " exceeded");
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.backend.config.timeout;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time budget of the request handled by the current thread, and the statements it opened.
+ * When the budget runs out the open statements are cancelled, which ends the query on the database
+ * and releases the connection instead of letting the query run on after the client has given up.
+ */
+@Slf4j
+public final class RequestDeadline {
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final long deadlineNanos;
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean expired;
+
+    RequestDeadline(String endpoint, long deadlineNanos) {
+        this.endpoint = endpoint;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return the deadline of the current request, null outside of a request with a budget
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the endpoint rule the budget comes from
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the time left until the deadline, negative once it has passed
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * @return true if the budget has run out
+     */
+    public synchronized boolean isExpired() {
+        return expired || remainingNanos() <= 0;
+    }
+
+    /**
+     * Remembers a statement so that it is cancelled when the budget runs out.
+     *
+     * @param statement the statement opened by the request
+     * @return false if the budget has already run out, the statement must then not be executed
+     */
+    synchronized boolean register(Statement statement) {
+        if (isExpired()) {
+            return false;
+        }
+        // closed statements are dropped now and then, a request may open many of them
+        if (statements.size() >= 16) {
+            statements.removeIf(RequestDeadline::isClosed);
+        }
+        statements.add(statement);
+        return true;
+    }
+
+    /**
+     * Marks the budget as spent and cancels the statements that are still open.
+     *
+     * @return the number of statements cancelled
+     */
+    synchronized int expire() {
+        expired = true;
+        int cancelled = 0;
+        for (Statement statement : statements) {
+            if (!isClosed(statement)) {
+                try {
+                    statement.cancel();
+                    cancelled++;
+                } catch (SQLException e) {
+                    log.debug("Failed to cancel statement of {}: {}", endpoint, e.getMessage());
+                }
+            }
+        }
+        statements.clear();
+        return cancelled;
+    }
+
+    private static boolean isClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.backend.config.timeout;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter giving every request to the user endpoints a time budget.
+ * The budget is bound to the request thread as a {@link RequestDeadline}; a watchdog thread cancels the
+ * statements of the request when it runs out. The Servlet API does not report a client that disconnects
+ * during a blocking request, so such requests are bounded by their budget; a disconnect noticed while
+ * writing the response is counted.
+ */
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter implements DisposableBean {
+    private final List<Rule> rules;
+    private final Rule defaultRule;
+    private final RequestTimeoutStats stats;
+    private final ScheduledExecutorService watchdog;
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties the budgets by endpoint
+     * @param stats the counters of expired requests
+     */
+    public RequestDeadlineFilter(RequestTimeoutProperties properties, RequestTimeoutStats stats) {
+        PathPatternParser parser = new PathPatternParser();
+        this.rules = properties.endpoints().stream()
+                .map(endpoint -> {
+                    String method = endpoint.method() == null || endpoint.method().isBlank() ? null : endpoint.method().toUpperCase();
+                    return new Rule((method == null ? "*" : method) + " " + endpoint.path(), method,
+                            parser.parse(endpoint.path()), endpoint.budget().toNanos());
+                })
+                .toList();
+        this.defaultRule = new Rule("default", null, null, properties.defaultBudget().toNanos());
+        this.stats = stats;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-deadline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/users") || path.startsWith("/users/")) || path.startsWith("/users/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = ruleOf(request);
+        RequestDeadline deadline = new RequestDeadline(rule.name(), System.nanoTime() + rule.budgetNanos());
+        ScheduledFuture<?> expiry = watchdog.schedule(() -> expire(deadline), rule.budgetNanos(), TimeUnit.NANOSECONDS);
+        RequestDeadline.bind(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException e) {
+            // an I/O error escaping the chain is a failed write to a connection the client closed
+            stats.recordClientAbort(rule.name());
+            throw e;
+        } finally {
+            expiry.cancel(false);
+            RequestDeadline.unbind();
+        }
+    }
+
+    private void expire(RequestDeadline deadline) {
+        int cancelled = deadline.expire();
+        stats.recordTimeout(deadline.getEndpoint(), cancelled);
+        log.warn("Request to {} ran out of its time budget, cancelled {} statements", deadline.getEndpoint(), cancelled);
+    }
+
+    private Rule ruleOf(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Rule rule : rules) {
+            if ((rule.method() == null || rule.method().equals(request.getMethod())) && rule.path().matches(path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    private record Rule(String name, String method, PathPattern path, long budgetNanos) {
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.backend.config.timeout;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the request time budgets, active when "users.request-timeout.enabled" is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "users.request-timeout", name = "enabled", havingValue = "true")
+public class RequestTimeoutConfig {
+
+    /**
+     * Wraps the DataSource used by the application, whichever configuration created it,
+     * so that its statements follow the budget of the current request.
+     * Only the "dataSource" bean is wrapped: pools behind it serve the same statements.
+     *
+     * @return the post processor wrapping the DataSource
+     */
+    @Bean
+    public static BeanPostProcessor deadlineAwareDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new DeadlineAwareDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @return the counters of requests that ran out of their budget
+     */
+    @Bean
+    public RequestTimeoutStats requestTimeoutStats() {
+        return new RequestTimeoutStats();
+    }
+
+    /**
+     * Creates the filter binding the budget to every request.
+     *
+     * @param properties the budgets by endpoint
+     * @param stats the counters of expired requests
+     * @return the filter, applied to the user endpoints
+     */
+    @Bean
+    public RequestDeadlineFilter requestDeadlineFilter(RequestTimeoutProperties properties, RequestTimeoutStats stats) {
+        return new RequestDeadlineFilter(properties, stats);
+    }
+}
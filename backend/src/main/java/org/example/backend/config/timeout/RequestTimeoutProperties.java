@@ -0,0 +1,30 @@
+package org.example.backend.config.timeout;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the time budgets of the user endpoints.
+ * Bound from the "users.request-timeout" properties, the first endpoint rule matching a request applies.
+ *
+ * @param enabled whether statements are cancelled once the budget of their request runs out
+ * @param defaultBudget the budget of requests no rule matches
+ * @param endpoints the rules, checked in order
+ */
+@ConfigurationProperties(prefix = "users.request-timeout")
+public record RequestTimeoutProperties(boolean enabled,
+                                       @DefaultValue("5s") Duration defaultBudget,
+                                       @DefaultValue List<Endpoint> endpoints) {
+    /**
+     * Time budget of a group of endpoints.
+     *
+     * @param method the HTTP method, any method if empty
+     * @param path the path pattern, e.g. "/users/search" or "/users/**"
+     * @param budget the time a request may take, including waiting for a database connection
+     */
+    public record Endpoint(String method, String path, Duration budget) {
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.backend.config.timeout;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of requests that ran out of their budget, per endpoint rule.
+ */
+public class RequestTimeoutStats {
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    void recordTimeout(String endpoint, int cancelledStatements) {
+        Counters endpointCounters = countersOf(endpoint);
+        endpointCounters.timeouts.increment();
+        endpointCounters.cancelledStatements.add(cancelledStatements);
+    }
+
+    void recordClientAbort(String endpoint) {
+        countersOf(endpoint).clientAborts.increment();
+    }
+
+    private Counters countersOf(String endpoint) {
+        return counters.computeIfAbsent(endpoint, key -> new Counters());
+    }
+
+    /**
+     * @return the current values of the counters by endpoint rule
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        counters.forEach((endpoint, endpointCounters) -> snapshot.put(endpoint, new Snapshot(
+                endpointCounters.timeouts.sum(),
+                endpointCounters.cancelledStatements.sum(),
+                endpointCounters.clientAborts.sum())));
+        return snapshot;
+    }
+
+    /**
+     * Values of the counters of one endpoint rule.
+     *
+     * @param timeouts the number of requests that ran out of their budget
+     * @param cancelledStatements the number of statements cancelled because of that
+     * @param clientAborts the number of requests whose client went away before the response was written
+     */
+    public record Snapshot(long timeouts, long cancelledStatements, long clientAborts) {
+    }
+
+    private static final class Counters {
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder cancelledStatements = new LongAdder();
+        private final LongAdder clientAborts = new LongAdder();
+    }
+}
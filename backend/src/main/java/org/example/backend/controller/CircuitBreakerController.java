@@ -0,0 +1,37 @@
+package org.example.backend.controller;
+
+import org.example.backend.config.resilience.CircuitBreaker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the state of the database circuit breaker.
+ */
+@RestController
+@RequestMapping("/ops/circuit-breaker")
+@ConditionalOnProperty(prefix = "users.circuit-breaker", name = "enabled", havingValue = "true")
+public class CircuitBreakerController {
+    private final CircuitBreaker breaker;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param breaker the circuit breaker of the user service
+     */
+    public CircuitBreakerController(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    /**
+     * Method for reading the state of the breaker.
+     *
+     * @return the state, the failure and slow call rates and the counters of calls, rejections and stale responses
+     */
+    @GetMapping
+    public ResponseEntity<CircuitBreaker.Snapshot> getCircuitBreakerStats() {
+        return ResponseEntity.ok(breaker.snapshot());
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.backend.controller;
+
+import org.example.backend.service.invalidation.InvalidationStats;
+import org.example.backend.service.invalidation.UserInvalidationListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the state of the cross-node invalidation listener.
+ */
+@RestController
+@RequestMapping("/ops/invalidation")
+@ConditionalOnExpression("${users.invalidation.enabled:false} and ${users.invalidation.listen:true}")
+public class InvalidationController {
+    private final UserInvalidationListener listener;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param listener the invalidation listener of this node
+     */
+    public InvalidationController(UserInvalidationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Method for reading the invalidation counters.
+     *
+     * @return whether the listener is connected, the number of received notifications, reconnects and the lag
+     */
+    @GetMapping
+    public ResponseEntity<InvalidationStats.Snapshot> getInvalidationStats() {
+        return ResponseEntity.ok(listener.getStats().snapshot());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.backend.controller;
+
+import org.example.backend.service.partition.UserPartitionMigration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the progress of the move of the users table to hash partitions.
+ */
+@RestController
+@RequestMapping("/ops/partitioning")
+@ConditionalOnProperty(prefix = "users.partitioning", name = "enabled", havingValue = "true")
+public class PartitioningController {
+    private final UserPartitionMigration migration;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param migration the move of the users table
+     */
+    public PartitioningController(UserPartitionMigration migration) {
+        this.migration = migration;
+    }
+
+    /**
+     * Method for reading the progress of the move.
+     *
+     * @return the current step, the copied users and the tries of the swap
+     */
+    @GetMapping
+    public ResponseEntity<UserPartitionMigration.Snapshot> getPartitioningProgress() {
+        return ResponseEntity.ok(migration.snapshot());
+    }
+}
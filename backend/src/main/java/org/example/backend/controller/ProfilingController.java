@@ -0,0 +1,94 @@
+package org.example.backend.controller;
+
+import org.example.backend.config.profiling.JfrRecordingService;
+import org.example.backend.config.profiling.UserOperationLatencies;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * REST Controller for Flight Recorder recordings and the latencies of the user operations.
+ * Recordings hold details of the whole JVM, so starting and stopping them requires the "X-Ops-Token" header.
+ */
+@RestController
+@RequestMapping("/ops/jfr")
+@ConditionalOnProperty(prefix = "users.profiling", name = "enabled", havingValue = "true")
+public class ProfilingController {
+    private static final String TOKEN_HEADER = "X-Ops-Token";
+
+    private final JfrRecordingService recordingService;
+    private final UserOperationLatencies latencies;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param recordingService the service of on-demand recordings
+     * @param latencies the latency histograms of the user operations
+     */
+    public ProfilingController(JfrRecordingService recordingService, UserOperationLatencies latencies) {
+        this.recordingService = recordingService;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Method for starting a recording.
+     *
+     * @param token the operations token
+     * @param duration the time after which the recording stops on its own, e.g. "30s", the configured maximum if omitted
+     * @return the state of the started recording
+     */
+    @PostMapping("/recording")
+    public ResponseEntity<JfrRecordingService.Status> startRecording(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                                     @RequestParam(required = false) String duration) {
+        recordingService.checkToken(token);
+        return ResponseEntity.ok(recordingService.start(duration == null ? null : DurationStyle.detectAndParse(duration)));
+    }
+
+    /**
+     * Method for stopping the recording and downloading it, to be opened with JDK Mission Control or "jfr print".
+     *
+     * @param token the operations token
+     * @return the recording as a .jfr file
+     */
+    @DeleteMapping("/recording")
+    public ResponseEntity<StreamingResponseBody> stopRecording(@RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        recordingService.checkToken(token);
+        Path file = recordingService.stop();
+        StreamingResponseBody body = output -> {
+            try {
+                Files.copy(file, output);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("users.jfr").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Method for reading the latency histograms.
+     *
+     * @return the count, percentiles, rows and statements by layer and operation
+     */
+    @GetMapping("/latencies")
+    public ResponseEntity<Map<String, UserOperationLatencies.Snapshot>> getLatencies() {
+        return ResponseEntity.ok(latencies.snapshot());
+    }
+}
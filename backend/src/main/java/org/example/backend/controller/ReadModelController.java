@@ -0,0 +1,37 @@
+package org.example.backend.controller;
+
+import org.example.backend.service.readmodel.UserReadModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the size of the in-memory read model.
+ */
+@RestController
+@RequestMapping("/ops/read-model")
+@ConditionalOnProperty(prefix = "users.read-model", name = "enabled", havingValue = "true")
+public class ReadModelController {
+    private final UserReadModel readModel;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param readModel the read model of the users
+     */
+    public ReadModelController(UserReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    /**
+     * Method for reading the size of the read model.
+     *
+     * @return whether it is loaded, the number of users and the off-heap bytes they take
+     */
+    @GetMapping
+    public ResponseEntity<UserReadModel.Stats> getReadModelStats() {
+        return ResponseEntity.ok(readModel.stats());
+    }
+}
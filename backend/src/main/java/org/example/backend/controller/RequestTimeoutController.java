@@ -0,0 +1,39 @@
+package org.example.backend.controller;
+
+import org.example.backend.config.timeout.RequestTimeoutStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST Controller exposing the requests that ran out of their time budget.
+ */
+@RestController
+@RequestMapping("/ops/timeouts")
+@ConditionalOnProperty(prefix = "users.request-timeout", name = "enabled", havingValue = "true")
+public class RequestTimeoutController {
+    private final RequestTimeoutStats stats;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param stats the counters of expired requests
+     */
+    public RequestTimeoutController(RequestTimeoutStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Method for reading the timeout counters.
+     *
+     * @return the timeouts, cancelled statements and client aborts by endpoint rule
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, RequestTimeoutStats.Snapshot>> getTimeoutStats() {
+        return ResponseEntity.ok(stats.snapshot());
+    }
+}
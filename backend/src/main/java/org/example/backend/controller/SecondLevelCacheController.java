@@ -0,0 +1,37 @@
+package org.example.backend.controller;
+
+import org.example.backend.config.cache.SecondLevelCacheStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller exposing the hit ratios of the second-level cache.
+ */
+@RestController
+@RequestMapping("/ops/cache")
+@ConditionalOnProperty(prefix = "users.second-level-cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheController {
+    private final SecondLevelCacheStats stats;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param stats the statistics of the cache regions
+     */
+    public SecondLevelCacheController(SecondLevelCacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Method for reading the cache counters.
+     *
+     * @return the hits, misses, puts, size and hit ratio of the users region and of the first name search region
+     */
+    @GetMapping
+    public ResponseEntity<SecondLevelCacheStats.Snapshot> getCacheStats() {
+        return ResponseEntity.ok(stats.snapshot());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.backend.controller;
+
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.dto.response.BatchItemResponse;
+import org.example.backend.dto.response.BatchResponse;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.bulk.UserBulkService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller for changing many users in one call.
+ * Every item gets its own outcome, so a failing item does not fail the others.
+ */
+@RestController
+@RequestMapping("/users/batch")
+public class UserBatchController {
+    private final UserBulkService bulkService;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param bulkService the service writing the batches in chunks
+     */
+    public UserBatchController(UserBulkService bulkService) {
+        this.bulkService = bulkService;
+    }
+
+    /**
+     * Applies partial updates to many users. Fields a patch leaves out keep their current value.
+     *
+     * @param patches the changes, one per user
+     * @return the outcome of every patch, in request order
+     */
+    @PatchMapping
+    public BatchResponse updateUsers(@RequestBody List<UserPatchRequest> patches) {
+        List<ItemResult<User>> results = bulkService.updateUsers(patches);
+        List<BatchItemResponse> items = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            items.add(new BatchItemResponse(patches.get(i).getId(), results.get(i), "UPDATED"));
+        }
+        return new BatchResponse(items);
+    }
+
+    /**
+     * Deletes many users, either the ones with the passed ids or the ones matching the passed filter.
+     * Ids take precedence over a filter. A filter deletes a limited number of users per call,
+     * the call is repeated until it deletes none.
+     *
+     * @param request the ids or the filter of the users to delete
+     * @return the outcome of every id in request order, or the deleted ids of a filter
+     */
+    @DeleteMapping
+    public BatchResponse deleteUsers(@RequestBody UserBulkDeleteRequest request) {
+        boolean byFilter = request.getIds() == null && request.getFilter() != null;
+        List<ItemResult<Long>> results;
+        if (byFilter) {
+            UserBulkDeleteRequest.Filter filter = request.getFilter();
+            results = bulkService.deleteUsersMatching(new UserFilter(filter.getFirstName(), filter.getLastName(), filter.getEmailDomain()));
+        } else {
+            results = bulkService.deleteUsers(request.getIds());
+        }
+        List<BatchItemResponse> items = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Long id = byFilter ? results.get(i).value() : request.getIds().get(i);
+            items.add(new BatchItemResponse(id, results.get(i), "DELETED"));
+        }
+        return new BatchResponse(items);
+    }
+}
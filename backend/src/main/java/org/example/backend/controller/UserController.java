@@ -2,15 +2,23 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserLookupRequest;
 import org.example.backend.dto.response.UserInformationResponse;
+import org.example.backend.dto.response.UserLookupResponse;
 import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.service.batch.UserCreateBatcher;
 import org.example.backend.service.impl.UserServiceImpl;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller for managing users.
  * Provides endpoints for CRUD operations on users.
@@ -19,26 +27,63 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/users")
 public class UserController {
     private final UserServiceImpl userService;
+    private final UserCreateBatcher createBatcher;
 
     /**
      *  Injecting dependencies with constructor injection.
      *
      * @param userService the service to be used for user operations
+     * @param createBatcher the group-commit writer, available only when "users.group-commit.enabled" is set
      */
-    public UserController(UserServiceImpl userService) {
+    public UserController(UserServiceImpl userService, ObjectProvider<UserCreateBatcher> createBatcher) {
         this.userService = userService;
+        this.createBatcher = createBatcher.getIfAvailable();
     }
 
     /**
-     * Retrieves a paginated list of all users.
+     * Retrieves a paginated list of all users, or of the users matching the passed conditions,
+     * e.g. GET /users?lastName=Doe&amp;emailDomain=example.com&amp;sort=firstName,desc.
+     * A sort order is completed to the order of the index serving the read, combinations no index serves are rejected.
      *
      * @param page the page number (zero-based)
      * @param size the number of items per page
+     * @param firstName the exact first name, any if not passed
+     * @param lastName the exact last name, any if not passed
+     * @param emailDomain the part of the email after the "@", any if not passed
+     * @param sort the sort order, e.g. "lastName,asc"
      * @return a page of users
      */
     @GetMapping()
-    public Page<User> getAllUsers(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue ="5") int size) {
-        return userService.getUsersList(PageRequest.of(page, size));
+    public Page<User> getAllUsers(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue ="5") int size,
+                                  @RequestParam(required = false) String firstName, @RequestParam(required = false) String lastName,
+                                  @RequestParam(required = false) String emailDomain, Sort sort) {
+        UserFilter filter = new UserFilter(blankToNull(firstName), blankToNull(lastName), blankToNull(emailDomain));
+        if (filter.isEmpty() && sort.isUnsorted()) {
+            return userService.getUsersList(PageRequest.of(page, size));
+        }
+        return userService.findUsers(filter, PageRequest.of(page, size, sort));
+    }
+
+    /**
+     * Retrieves many users by id in one call, e.g. GET /users?ids=3,1,2.
+     *
+     * @param ids the ids to look up, at most {@link org.example.backend.service.UserService#MAX_LOOKUP_IDS}
+     * @return the found users in request order and the ids no user has
+     */
+    @GetMapping(params = "ids")
+    public UserLookupResponse getUsersByIds(@RequestParam List<Long> ids) {
+        return new UserLookupResponse(userService.getUsersByIds(ids));
+    }
+
+    /**
+     * Retrieves many users by id in one call, for id lists too long for a URL.
+     *
+     * @param request the ids to look up
+     * @return the found users in request order and the ids no user has
+     */
+    @PostMapping("/lookup")
+    public UserLookupResponse lookupUsers(@RequestBody UserLookupRequest request) {
+        return new UserLookupResponse(userService.getUsersByIds(request.getIds()));
     }
 
     /**
@@ -57,13 +102,14 @@ public class UserController {
 
     /**
      * Creates a new user with information that was passed to the request object.
+     * In group-commit mode the request waits for the batch it was queued into instead of committing on its own.
      *
      * @param request the user information request containing the user details
      * @return a response entity containing the created user information
      */
     @PostMapping()
     public ResponseEntity<?> createUser(@Valid @RequestBody UserInformationRequest request) {
-        User createdUser = userService.createUser(request);
+        User createdUser = createBatcher != null ? createBatcher.create(request) : userService.createUser(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(new UserInformationResponse(createdUser));
     }
 
@@ -91,4 +137,8 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.status(HttpStatus.OK).body("Successful deleted user " + id);
     }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 }
@@ -0,0 +1,38 @@
+package org.example.backend.controller;
+
+import org.example.backend.service.event.UserChangeBroadcaster;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller streaming user changes.
+ * Lets clients patch their local state instead of reloading pages after every create, update and delete.
+ */
+@RestController
+@RequestMapping("/users/events")
+public class UserEventsController {
+    private final UserChangeBroadcaster broadcaster;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param broadcaster the broadcaster managing the open streams
+     */
+    public UserEventsController(UserChangeBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of committed user changes.
+     * Every event is named "created", "updated" or "deleted" and carries the id and the new fields of the user.
+     *
+     * @return the emitter of the stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserEvents() {
+        return broadcaster.subscribe();
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.backend.controller;
+
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.dto.response.UserJobResponse;
+import org.example.backend.model.UserJob;
+import org.example.backend.service.job.UserJobService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * REST Controller for bulk jobs running in the background.
+ * Submitting a job answers 202 with the job and its location at once, the job is then polled for its progress.
+ */
+@RestController
+@RequestMapping("/jobs")
+@ConditionalOnProperty(prefix = "users.jobs", name = "enabled", havingValue = "true")
+public class UserJobController {
+    private final UserJobService jobService;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jobService the service queueing and running the jobs
+     */
+    public UserJobController(UserJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Submits a job creating many users.
+     *
+     * @param requests the users to create
+     * @return the queued job
+     */
+    @PostMapping("/import")
+    public ResponseEntity<UserJobResponse> importUsers(@RequestBody List<UserInformationRequest> requests) {
+        return accepted(jobService.submitImport(requests));
+    }
+
+    /**
+     * Submits a job applying partial updates to many users.
+     *
+     * @param patches the changes, one per user
+     * @return the queued job
+     */
+    @PostMapping("/update")
+    public ResponseEntity<UserJobResponse> updateUsers(@RequestBody List<UserPatchRequest> patches) {
+        return accepted(jobService.submitUpdate(patches));
+    }
+
+    /**
+     * Submits a job deleting the users with the passed ids or all users matching the passed filter.
+     *
+     * @param request the ids or the filter of the users to delete
+     * @return the queued job
+     */
+    @PostMapping("/delete")
+    public ResponseEntity<UserJobResponse> deleteUsers(@RequestBody UserBulkDeleteRequest request) {
+        return accepted(jobService.submitDelete(request));
+    }
+
+    /**
+     * Submits a job writing all users to a CSV file.
+     *
+     * @return the queued job
+     */
+    @PostMapping("/export")
+    public ResponseEntity<UserJobResponse> exportUsers() {
+        return accepted(jobService.submitExport());
+    }
+
+    /**
+     * Retrieves the state and progress of a job.
+     *
+     * @param id the id of the job
+     * @return the job
+     */
+    @GetMapping("/{id}")
+    public UserJobResponse getJob(@PathVariable Long id) {
+        return new UserJobResponse(jobService.getJob(id));
+    }
+
+    /**
+     * Cancels a job that is not finished yet.
+     *
+     * @param id the id of the job
+     * @return the job after the cancellation
+     */
+    @DeleteMapping("/{id}")
+    public UserJobResponse cancelJob(@PathVariable Long id) {
+        return new UserJobResponse(jobService.cancelJob(id));
+    }
+
+    /**
+     * Downloads the file of a finished export job.
+     *
+     * @param id the id of the job
+     * @return the CSV file
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getExport(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("users-" + id + ".csv").build().toString())
+                .body(new FileSystemResource(jobService.getExportFile(id)));
+    }
+
+    private static ResponseEntity<UserJobResponse> accepted(UserJob job) {
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(new UserJobResponse(job));
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.backend.controller;
+
+import org.example.backend.dto.response.UserStatsResponse;
+import org.example.backend.service.stats.UserStatsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for the statistics of the users.
+ */
+@RestController
+@RequestMapping("/users/stats")
+@ConditionalOnProperty(prefix = "users.stats", name = "enabled", havingValue = "true")
+public class UserStatsController {
+    private final UserStatsService statsService;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param statsService the service keeping the statistics
+     */
+    public UserStatsController(UserStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    /**
+     * Method for reading the statistics of the users, without counting them in the database.
+     *
+     * @return the number of users, the email domains with the most users and the most common first names
+     */
+    @GetMapping
+    public ResponseEntity<UserStatsResponse> getUserStats() {
+        return ResponseEntity.ok(statsService.getStats());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.backend.controller;
+
+import org.example.backend.dto.response.UserSuggestionResponse;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.example.backend.service.suggest.UserNameSuggestions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller suggesting names while a search is typed.
+ */
+@RestController
+@RequestMapping("/users/suggest")
+@ConditionalOnProperty(prefix = "users.suggest", name = "enabled", havingValue = "true")
+public class UserSuggestController {
+    private final UserNameSuggestions suggestions;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param suggestions the in-memory trees of the names
+     */
+    public UserSuggestController(UserNameSuggestions suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Suggests the most common names starting with a prefix, without a database query.
+     *
+     * @param prefix the typed prefix, matched case-insensitively
+     * @param field "firstName" or "lastName", both if not passed
+     * @param limit the maximum number of names
+     * @return the names with the most users first
+     * @throws UnsupportedQueryException if the field is not one of the names
+     */
+    @GetMapping
+    public List<UserSuggestionResponse> suggest(@RequestParam String prefix, @RequestParam(required = false) String field,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        if (field != null && !field.equals(UserNameSuggestions.FIRST_NAME) && !field.equals(UserNameSuggestions.LAST_NAME)) {
+            throw new UnsupportedQueryException("Names can only be suggested for " + UserNameSuggestions.FIRST_NAME
+                    + " or " + UserNameSuggestions.LAST_NAME);
+        }
+        return suggestions.suggest(prefix, field, limit);
+    }
+}
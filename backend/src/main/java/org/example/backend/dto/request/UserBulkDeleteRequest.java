@@ -0,0 +1,37 @@
+package org.example.backend.dto.request;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for deleting many users at once, either by id or by a filter.
+ * Uses snake_case naming strategy for JSON serialization/deserialization.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserBulkDeleteRequest {
+    private List<Long> ids;
+    private Filter filter;
+
+    /**
+     * Conditions selecting the users to delete, all set conditions have to match.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class Filter {
+        private String firstName;
+        private String lastName;
+        private String emailDomain;
+    }
+}
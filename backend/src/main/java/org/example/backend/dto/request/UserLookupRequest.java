@@ -0,0 +1,21 @@
+package org.example.backend.dto.request;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for looking up many users by id in one call.
+ * Uses snake_case naming strategy for JSON serialization/deserialization.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserLookupRequest {
+    private List<Long> ids;
+}
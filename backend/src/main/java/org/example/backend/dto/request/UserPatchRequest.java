@@ -0,0 +1,29 @@
+package org.example.backend.dto.request;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+/**
+ * Data Transfer Object for a partial update of one user in a batch.
+ * Fields left null keep their current value.
+ * Uses snake_case naming strategy for JSON serialization/deserialization.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserPatchRequest {
+    private Long id;
+    @Size(min = 1, max = 255, message = "First name must be between 1 and 255 characters")
+    private String firstName;
+    @Size(min = 1, max = 255, message = "Last name must be between 1 and 255 characters")
+    private String lastName;
+    @Email(message = "Email should be valid")
+    @Size(min = 1, max = 255, message = "Email must be between 1 and 255 characters")
+    private String email;
+}
@@ -0,0 +1,29 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.backend.exceptions.ErrorCode;
+import org.example.backend.service.batch.ItemResult;
+
+/**
+ * Data Transfer Object for the outcome of one item of a batch.
+ *
+ * @param id the id of the user the item is about
+ * @param outcome "UPDATED", "DELETED" or "FAILED"
+ * @param code the machine-readable error code of a failed item
+ * @param message the error message of a failed item
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResponse(Long id, String outcome, String code, String message) {
+    /**
+     * Constructs a new BatchItemResponse from the result of one item.
+     *
+     * @param id the id of the user the item is about
+     * @param result the result of the item
+     * @param successOutcome the outcome reported if the item succeeded
+     */
+    public BatchItemResponse(Long id, ItemResult<?> result, String successOutcome) {
+        this(id, result.isSuccess() ? successOutcome : "FAILED",
+                result.isSuccess() ? null : ErrorCode.of(result.error()).name(),
+                result.isSuccess() ? null : result.error().getMessage());
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcomes of a batch.
+ * The batch as a whole succeeds even if some of its items fail, the items tell which ones did.
+ *
+ * @param succeeded the number of items that succeeded
+ * @param failed the number of items that failed
+ * @param items the outcome of every item, in request order
+ */
+public record BatchResponse(int succeeded, int failed, List<BatchItemResponse> items) {
+    /**
+     * Constructs a new BatchResponse counting the outcomes of the items.
+     *
+     * @param items the outcome of every item
+     */
+    public BatchResponse(List<BatchItemResponse> items) {
+        this((int) items.stream().filter(item -> item.code() == null).count(),
+                (int) items.stream().filter(item -> item.code() != null).count(), items);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.example.backend.exceptions.ErrorCode;
+
+/**
+ * Data Transfer Object for error responses.
+ * Immutable, so one instance can be shared by all responses with the same code and message.
+ *
+ * @param status the HTTP status code
+ * @param error the reason phrase of the status
+ * @param code the machine-readable error code
+ * @param message the error message
+ */
+@JsonPropertyOrder({"status", "error", "code", "message"})
+public record ErrorResponse(int status, String error, String code, String message) {
+    /**
+     * Constructs a new ErrorResponse for an error code.
+     *
+     * @param code the error code, which determines the status
+     * @param message the error message
+     */
+    public ErrorResponse(ErrorCode code, String message) {
+        this(code.getStatus().value(), code.getStatus().getReasonPhrase(), code.name(), message);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.backend.service.event.UserChangedEvent;
+
+/**
+ * Data Transfer Object for user change notifications sent over the event stream.
+ * Carries the new fields of created and updated users, and only the id of deleted users.
+ * Uses snake_case naming strategy for JSON serialization.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserChangeMessage {
+    private String type;
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+
+    /**
+     * Constructs a new UserChangeMessage from a change event.
+     *
+     * @param event the change event to convert
+     */
+    public UserChangeMessage(UserChangedEvent event) {
+        this.type = event.type().name().toLowerCase();
+        this.id = event.id();
+        if (event.after() != null) {
+            this.firstName = event.after().firstName();
+            this.lastName = event.after().lastName();
+            this.email = event.after().email();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.backend.model.UserJob;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the state and progress of a bulk job.
+ * Uses snake_case naming strategy for JSON serialization.
+ */
+@Getter
+@ToString
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserJobResponse {
+    private final Long id;
+    private final UserJob.Type type;
+    private final UserJob.Status status;
+    /**
+     * The number of items, null while unknown.
+     */
+    private final Integer totalItems;
+    private final int processedItems;
+    private final int failedItems;
+    /**
+     * The processed share of the items in percent, null while the number of items is unknown.
+     */
+    private final Double progress;
+    /**
+     * The processed items per second since the job started.
+     */
+    private final double rowsPerSecond;
+    /**
+     * The latest item errors, oldest first.
+     */
+    private final List<String> errors;
+    private final Instant createdAt;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+    /**
+     * The path the file of a finished export is downloaded from.
+     */
+    private final String resultUrl;
+
+    /**
+     * Constructs a new UserJobResponse from the stored job.
+     *
+     * @param job the job
+     */
+    public UserJobResponse(UserJob job) {
+        this.id = job.getId();
+        this.type = job.getType();
+        this.status = job.getStatus();
+        this.totalItems = job.getTotalItems();
+        this.processedItems = job.getProcessedItems();
+        this.failedItems = job.getFailedItems();
+        this.progress = totalItems == null ? null : totalItems == 0 ? 100.0 : Math.min(100.0, 100.0 * processedItems / totalItems);
+        long millis = job.getStartedAt() == null ? 0
+                : Duration.between(job.getStartedAt(), job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now()).toMillis();
+        this.rowsPerSecond = millis <= 0 ? 0 : processedItems * 1000.0 / millis;
+        this.errors = job.getErrors() == null ? List.of() : List.of(job.getErrors().split("\n"));
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.resultUrl = job.getType() == UserJob.Type.EXPORT && job.getStatus() == UserJob.Status.SUCCEEDED
+                ? "/jobs/" + job.getId() + "/result" : null;
+    }
+}
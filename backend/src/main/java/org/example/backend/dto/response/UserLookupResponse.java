@@ -0,0 +1,33 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.backend.service.lookup.UserLookupResult;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the users found by a lookup of many ids.
+ * Uses snake_case naming strategy for JSON serialization.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserLookupResponse {
+    private List<UserInformationResponse> users;
+    private List<Long> missingIds;
+
+    /**
+     * Constructs a new UserLookupResponse from the result of a lookup.
+     *
+     * @param result the found users and the ids no user has
+     */
+    public UserLookupResponse(UserLookupResult result) {
+        this.users = result.users().stream().map(UserInformationResponse::new).toList();
+        this.missingIds = result.missingIds();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.backend.dto.response;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the statistics of the users.
+ * Uses snake_case naming strategy for JSON serialization.
+ *
+ * @param totalUsers the number of users
+ * @param emailDomainCount the number of distinct email domains
+ * @param emailDomains the email domains with the most users, most first
+ * @param firstNames the most common first names, most common first
+ * @param countedAt the time of the latest full count, the counters follow every change committed since
+ * @param changesSinceCount the number of changes counted since then
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record UserStatsResponse(long totalUsers, int emailDomainCount, List<Count> emailDomains, List<Count> firstNames,
+                                Instant countedAt, long changesSinceCount) {
+    /**
+     * The number of users sharing an email domain or a first name.
+     *
+     * @param value the email domain or first name
+     * @param users the number of users, for first names an estimate that is never too low
+     * @param maxError the most the number may be too high, 0 if it is exact
+     */
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record Count(String value, long users, long maxError) {
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.backend.dto.response;
+
+/**
+ * Data Transfer Object for a suggested name.
+ *
+ * @param value the name
+ * @param field "firstName" or "lastName", the filter of GET /users the name is meant for
+ * @param users the number of users having the name
+ */
+public record UserSuggestionResponse(String value, String field, long users) {
+}
@@ -0,0 +1,79 @@
+package org.example.backend.exceptions;
+
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
+import org.example.backend.exceptions.custom.DatabaseUnavailableException;
+import org.example.backend.exceptions.custom.StatisticsUnavailableException;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.JobNotFoundException;
+import org.example.backend.exceptions.custom.ShardRelocationException;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Machine-readable codes of the error responses, sent as the "code" field.
+ * Clients should branch on the code, the message is meant for people and may change.
+ */
+public enum ErrorCode {
+    INVALID_EMAIL(HttpStatus.NOT_ACCEPTABLE),
+    INVALID_ARGUMENTS(HttpStatus.NOT_ACCEPTABLE),
+    MISSING_VALUE(HttpStatus.NOT_ACCEPTABLE),
+    BATCH_TOO_LARGE(HttpStatus.BAD_REQUEST),
+    UNSUPPORTED_QUERY(HttpStatus.BAD_REQUEST),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED),
+    USER_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    SHARD_RELOCATION(HttpStatus.CONFLICT),
+    RECORDING_STATE(HttpStatus.CONFLICT),
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    JOB_NOT_FOUND(HttpStatus.NOT_FOUND),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    DATABASE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE),
+    STATISTICS_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE),
+    REQUEST_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the HTTP status of responses with this code
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Finds the code of a failure that is reported as part of a response instead of as the whole response,
+     * e.g. of one item of a batch.
+     *
+     * @param e the failure
+     * @return the code the exception handler would answer the failure with
+     */
+    public static ErrorCode of(Throwable e) {
+        if (e instanceof ShardRelocationException) {
+            return SHARD_RELOCATION;
+        } else if (e instanceof EntityExistsException) {
+            return USER_ALREADY_EXISTS;
+        } else if (e instanceof EntityNotFoundException) {
+            return e instanceof JobNotFoundException ? JOB_NOT_FOUND : USER_NOT_FOUND;
+        } else if (e instanceof EntityNullException) {
+            return MISSING_VALUE;
+        } else if (e instanceof IllegalArgumentException) {
+            return INVALID_ARGUMENTS;
+        } else if (e instanceof BatchTooLargeException) {
+            return BATCH_TOO_LARGE;
+        } else if (e instanceof UnsupportedQueryException) {
+            return UNSUPPORTED_QUERY;
+        } else if (e instanceof DatabaseUnavailableException) {
+            return DATABASE_UNAVAILABLE;
+        } else if (e instanceof StatisticsUnavailableException) {
+            return STATISTICS_UNAVAILABLE;
+        }
+        return INTERNAL_ERROR;
+    }
+}
@@ -3,15 +3,25 @@ package org.example.backend.exceptions;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
+import org.example.backend.exceptions.custom.DatabaseUnavailableException;
+import org.example.backend.exceptions.custom.StatisticsUnavailableException;
 import org.example.backend.exceptions.custom.EntityNullException;
-import org.springframework.http.HttpStatus;
+import org.example.backend.exceptions.custom.InvalidTokenException;
+import org.example.backend.exceptions.custom.RecordingStateException;
+import org.example.backend.exceptions.custom.ShardRelocationException;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.util.HashMap;
+import java.sql.SQLTimeoutException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Global exception handler for the application.
@@ -21,11 +31,28 @@ import java.util.Map;
  * The handler manages the following types of exceptions:
  * - ConstraintViolationException: For validation errors (e.g., incorrect email format)
  * - EntityNullException: For null entity or field errors
- * - EntityExistsException: For duplicate entity errors
+ * - BatchTooLargeException: For requests asking for too many items at once
+ * - UnsupportedQueryException: For filter and sort combinations no index serves
+ * - InvalidTokenException: For operations requests without the configured token
+ * - EntityExistsException, ShardRelocationException: For conflicts with existing entities
+ * - RecordingStateException: For recordings started twice or stopped before being started
  * - EntityNotFoundException: For missing entity errors
+ * - RejectedExecutionException: For requests rejected because the server is overloaded
+ * - DatabaseUnavailableException: For calls rejected by the circuit breaker while the database is failing
+ * - StatisticsUnavailableException: For statistics requested before the users were counted
+ * - QueryTimeoutException, SQLTimeoutException: For requests whose statements ran out of their time budget
+ *
+ * Every response carries a machine-readable {@link ErrorCode}. Error bodies are immutable and cached
+ * per code and message, so the common failures (duplicate emails, unknown ids) allocate almost nothing.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    /**
+     * Bounds the cache in case messages are ever built from request data.
+     */
+    private static final int MAX_CACHED_RESPONSES = 1024;
+
+    private final Map<CacheKey, ResponseEntity<ErrorResponse>> responses = new ConcurrentHashMap<>();
 
     /**
      * Handles validation and null entity exceptions.
@@ -35,20 +62,80 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity containing error details
      */
     @ExceptionHandler({ConstraintViolationException.class, EntityNullException.class, MethodArgumentNotValidException.class})
-    public ResponseEntity<Object> handleEntityNullException(Exception e) {
-        return buildResponse(e, HttpStatus.NOT_ACCEPTABLE, e.getMessage());
+    public ResponseEntity<ErrorResponse> handleEntityNullException(Exception e) {
+        /*
+         Developing logic with this error results in much less code writing, just overriding the error message.
+         ConstraintViolationException occurs in case of incorrect user's email formatting, it works through
+         @Email annotation.
+         MethodArgumentNotValidException occurs in case of inputting incorrect data, works through @Valid annotation.
+         */
+        if(e instanceof ConstraintViolationException) {
+            return buildResponse(ErrorCode.INVALID_EMAIL, "Incorrect email formatting. Try next pattern: 'some_information@mail.com'");
+        } else if(e instanceof MethodArgumentNotValidException) {
+            return buildResponse(ErrorCode.INVALID_ARGUMENTS, "Incorrect arguments. Please, input something");
+        }
+        return buildResponse(ErrorCode.MISSING_VALUE, e.getMessage());
+    }
+
+    /**
+     * Handles requests asking for more items than one call may handle.
+     * Returns HTTP 400 (Bad Request) status code.
+     *
+     * @param e the BatchTooLargeException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleBatchTooLargeException(BatchTooLargeException e) {
+        return buildResponse(ErrorCode.BATCH_TOO_LARGE, e.getMessage());
+    }
+
+    /**
+     * Handles reads combining filters and sort orders that no index serves.
+     * Returns HTTP 400 (Bad Request) status code.
+     *
+     * @param e the UnsupportedQueryException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(UnsupportedQueryException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedQueryException(UnsupportedQueryException e) {
+        return buildResponse(ErrorCode.UNSUPPORTED_QUERY, e.getMessage());
+    }
+
+    /**
+     * Handles operations requests without the configured token.
+     * Returns HTTP 401 (Unauthorized) status code.
+     *
+     * @param e the InvalidTokenException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTokenException(InvalidTokenException e) {
+        return buildResponse(ErrorCode.INVALID_TOKEN, e.getMessage());
+    }
+
+    /**
+     * Handles recordings started while another one runs or stopped while none was started.
+     * Returns HTTP 409 (Conflict) status code.
+     *
+     * @param e the RecordingStateException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(RecordingStateException.class)
+    public ResponseEntity<ErrorResponse> handleRecordingStateException(RecordingStateException e) {
+        return buildResponse(ErrorCode.RECORDING_STATE, e.getMessage());
     }
 
     /**
-     * Handles duplicate entity exceptions.
+     * Handles duplicate entity exceptions and updates that conflict with the shard of a user.
      * Returns HTTP 409 (Conflict) status code.
      *
-     * @param e the EntityExistsException to handle
+     * @param e the exception to handle (EntityExistsException or ShardRelocationException)
      * @return ResponseEntity containing error details
      */
-    @ExceptionHandler(EntityExistsException.class)
-    public ResponseEntity<Object> handleEntityExistsException(EntityExistsException e) {
-        return buildResponse(e, HttpStatus.CONFLICT, e.getMessage());
+    @ExceptionHandler({EntityExistsException.class, ShardRelocationException.class})
+    public ResponseEntity<ErrorResponse> handleEntityExistsException(RuntimeException e) {
+        ErrorCode code = e instanceof ShardRelocationException ? ErrorCode.SHARD_RELOCATION : ErrorCode.USER_ALREADY_EXISTS;
+        return buildResponse(code, e.getMessage());
     }
 
     /**
@@ -59,36 +146,79 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity containing error details
      */
     @ExceptionHandler(EntityNotFoundException.class)
-    public ResponseEntity<Object> handleEntityNotFoundException(EntityNotFoundException e) {
-        return buildResponse(e, HttpStatus.NOT_FOUND, e.getMessage());
+    public ResponseEntity<ErrorResponse> handleEntityNotFoundException(EntityNotFoundException e) {
+        return buildResponse(ErrorCode.of(e), e.getMessage());
+    }
+
+    /**
+     * Handles requests rejected because a bounded queue is full.
+     * Returns HTTP 503 (Service Unavailable) status code.
+     *
+     * @param e the RejectedExecutionException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecutionException(RejectedExecutionException e) {
+        return buildResponse(ErrorCode.OVERLOADED, e.getMessage());
+    }
+
+    /**
+     * Handles calls the circuit breaker rejected because the database is failing or too slow.
+     * Returns HTTP 503 (Service Unavailable) status code.
+     *
+     * @param e the DatabaseUnavailableException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailableException(DatabaseUnavailableException e) {
+        return buildResponse(ErrorCode.DATABASE_UNAVAILABLE, e.getMessage());
+    }
+
+    /**
+     * Handles statistics requested before the users were counted for the first time.
+     * Returns HTTP 503 (Service Unavailable) status code.
+     *
+     * @param e the StatisticsUnavailableException to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler(StatisticsUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleStatisticsUnavailableException(StatisticsUnavailableException e) {
+        return buildResponse(ErrorCode.STATISTICS_UNAVAILABLE, e.getMessage());
     }
 
     /**
-     * Builds a standardized error response.
-     * Creates a response body with status code, error message, and additional details.
+     * Handles statements cancelled or refused because the request ran out of its time budget.
+     * Spring also matches these when they are the cause of another exception, e.g. of a failed transaction start.
+     * Returns HTTP 504 (Gateway Timeout) status code.
      *
-     * @param e the exception that occurred
-     * @param status the HTTP status code to return
+     * @param e the timeout exception to handle
+     * @return ResponseEntity containing error details
+     */
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class,
+            org.hibernate.QueryTimeoutException.class, SQLTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleQueryTimeoutException(Exception e) {
+        return buildResponse(ErrorCode.REQUEST_TIMEOUT, "The request took longer than allowed. Please, try again or narrow it down");
+    }
+
+    /**
+     * Builds a standardized error response, or returns the cached one for the same code and message.
+     *
+     * @param code the error code, which determines the HTTP status
      * @param message the error message to include
      * @return ResponseEntity containing the formatted error response
      */
-    private ResponseEntity<Object> buildResponse(Exception e, HttpStatus status, String message) {
-        Map<String, Object> responseBody = new HashMap<>();
-        responseBody.put("status", status.value());
-        responseBody.put("error", status.getReasonPhrase());
-        /*
-         Developing logic with this error results in much less code writing, just overriding the error message.
-         ConstraintViolationException occurs in case of incorrect user's email formatting, it works through
-         @Email annotation.
-         MethodArgumentNotValidException occurs in case of inputting incorrect data, works through @Valid annotation.
-         */
-        if(e instanceof ConstraintViolationException) {
-            responseBody.put("message", "Incorrect email formatting. Try next pattern: 'some_information@mail.com'");
-        } else if(e instanceof MethodArgumentNotValidException) {
-            responseBody.put("message", "Incorrect arguments. Please, input something");
+    ResponseEntity<ErrorResponse> buildResponse(ErrorCode code, String message) {
+        CacheKey key = new CacheKey(code, message);
+        ResponseEntity<ErrorResponse> response = responses.get(key);
+        if (response == null) {
+            response = new ResponseEntity<>(new ErrorResponse(code, message), code.getStatus());
+            if (responses.size() < MAX_CACHED_RESPONSES) {
+                responses.putIfAbsent(key, response);
+            }
         }
-        else
-            responseBody.put("message", message);
-        return new ResponseEntity<>(responseBody, status);
+        return response;
+    }
+
+    private record CacheKey(ErrorCode code, String message) {
     }
 }
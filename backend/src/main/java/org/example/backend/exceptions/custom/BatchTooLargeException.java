@@ -0,0 +1,16 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when a request asks for more items than one call may handle.
+ * The limit keeps a single call from holding a connection or building a response of unbounded size.
+ */
+public class BatchTooLargeException extends StacklessException {
+    /**
+     * Constructs a new BatchTooLargeException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when the circuit breaker rejects a call because the database is failing or too slow,
+ * and no earlier result can be served instead.
+ */
+public class DatabaseUnavailableException extends StacklessException {
+    /**
+     * Constructs a new DatabaseUnavailableException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public DatabaseUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -5,7 +5,7 @@ package org.example.backend.exceptions.custom;
  * this custom exception thrown when an entity or its required fields are null.
  * This exception is used to indicate that a required entity or field is missing or null.
  */
-public class EntityNullException extends RuntimeException {
+public class EntityNullException extends StacklessException {
     /**
      * Constructs a new EntityNullException with the specified detail message.
      *
@@ -0,0 +1,15 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when an operations endpoint is called without the configured token.
+ */
+public class InvalidTokenException extends StacklessException {
+    /**
+     * Constructs a new InvalidTokenException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
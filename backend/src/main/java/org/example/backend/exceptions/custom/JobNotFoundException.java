@@ -0,0 +1,23 @@
+package org.example.backend.exceptions.custom;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Thrown when a bulk job with the requested id does not exist.
+ * Stackless like a {@link StacklessException}, it extends the JPA exception the handler answers with 404.
+ */
+public class JobNotFoundException extends EntityNotFoundException {
+    /**
+     * Constructs a new JobNotFoundException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when a Flight Recorder recording is started while another one runs, or stopped while none was started.
+ */
+public class RecordingStateException extends StacklessException {
+    /**
+     * Constructs a new RecordingStateException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public RecordingStateException(String message) {
+        super(message);
+    }
+}
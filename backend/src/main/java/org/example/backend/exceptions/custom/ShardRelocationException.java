@@ -0,0 +1,17 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when an update would move a user to another shard.
+ * Users stay on the shard that created them, because their id encodes it,
+ * so their email may only change to one that belongs to the same shard.
+ */
+public class ShardRelocationException extends StacklessException {
+    /**
+     * Constructs a new ShardRelocationException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ShardRelocationException(String message) {
+        super(message);
+    }
+}
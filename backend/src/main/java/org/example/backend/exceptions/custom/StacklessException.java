@@ -0,0 +1,23 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Base of the exceptions that report an expected outcome of a request, such as bad input or an unknown id,
+ * rather than a bug. They are thrown often, e.g. on every duplicate email or while the database is failing,
+ * and are always answered by the exception handler without logging a trace, so they skip capturing one.
+ * The exceptions that have to extend a JPA exception override {@link #fillInStackTrace()} the same way.
+ */
+public abstract class StacklessException extends RuntimeException {
+    /**
+     * Constructs a new StacklessException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    protected StacklessException(String message) {
+        super(message);
+    }
+
+    @Override
+    public final Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when the user statistics are requested before they have been counted for the first time.
+ */
+public class StatisticsUnavailableException extends StacklessException {
+    /**
+     * Constructs a new StatisticsUnavailableException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public StatisticsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.backend.exceptions.custom;
+
+/**
+ * Thrown when a combination of filters and sort orders is requested that no index serves,
+ * so that the database would have to scan and sort the whole table.
+ */
+public class UnsupportedQueryException extends StacklessException {
+    /**
+     * Constructs a new UnsupportedQueryException with the specified detail message.
+     *
+     * @param message the detail message, naming the sort orders that are supported instead
+     */
+    public UnsupportedQueryException(String message) {
+        super(message);
+    }
+}
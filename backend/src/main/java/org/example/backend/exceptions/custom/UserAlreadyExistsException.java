@@ -0,0 +1,23 @@
+package org.example.backend.exceptions.custom;
+
+import jakarta.persistence.EntityExistsException;
+
+/**
+ * Thrown when a user is created or updated with an email that is already registered.
+ * Stackless like a {@link StacklessException}, it extends the JPA exception the handler answers with 409.
+ */
+public class UserAlreadyExistsException extends EntityExistsException {
+    /**
+     * Constructs a new UserAlreadyExistsException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public UserAlreadyExistsException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.backend.exceptions.custom;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Thrown when a user with the requested id does not exist.
+ * Stackless like a {@link StacklessException}, it extends the JPA exception the handler answers with 404.
+ */
+public class UserNotFoundException extends EntityNotFoundException {
+    /**
+     * Constructs a new UserNotFoundException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
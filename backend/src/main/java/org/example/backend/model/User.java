@@ -1,23 +1,40 @@
 package org.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.util.Locale;
 import java.util.Objects;
 
 /**
  * Entity class representing a user in the system.
  * This class maps to the 'users' table in the database.
+ * The indexes serving filtered and sorted reads, see UserQueryGuard, are declared here as well as in "db/schema.sql",
+ * so that the schema update at startup creates them on an existing table.
+ * Instances are kept in the "users" second-level cache region when the cache is enabled.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_first_name_last_name_id", columnList = "first_name, last_name, id"),
+        @Index(name = "idx_users_last_name_first_name_id", columnList = "last_name, first_name, id"),
+        @Index(name = "idx_users_email_domain_last_name_first_name_id", columnList = "email_domain, last_name, first_name, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @ToString
 public class User {
+    /**
+     * Second-level cache region of the users.
+     */
+    public static final String CACHE_REGION = "users";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
@@ -32,6 +49,34 @@ public class User {
     @Email(message = "Email should be valid")
     @Size(max = 255, message = "Email must be at most 255 characters")
     private String email;
+    /**
+     * The lower-cased part of the email after the last "@", stored in its own column so that it can be indexed.
+     * It follows the email and is not part of the API responses.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String emailDomain;
+
+    /**
+     * Sets the email and the email domain derived from it.
+     *
+     * @param email the new email
+     */
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailDomain = domainOf(email);
+    }
+
+    /**
+     * Derives the email domain the way it is stored, e.g. "example.com" for "John@Example.COM".
+     *
+     * @param email the email
+     * @return the lower-cased part after the last "@", null if there is none
+     */
+    public static String domainOf(String email) {
+        int at = email == null ? -1 : email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
 
     /**
      * Compares this user with another object for equality.
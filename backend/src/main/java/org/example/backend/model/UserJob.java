@@ -0,0 +1,75 @@
+package org.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a long-running bulk operation over the users.
+ * This class maps to the 'user_jobs' table in the database.
+ * The checkpoint is written in the same transaction as the chunk it follows,
+ * so a job resumed after a crash continues exactly where its last committed chunk ended.
+ * The input of the job is stored apart from it, see {@link UserJobPayload}.
+ */
+@Entity
+@Table(name = "user_jobs")
+@Getter
+@Setter
+@ToString
+public class UserJob {
+    /**
+     * The kinds of bulk operations.
+     */
+    public enum Type {
+        IMPORT, UPDATE, DELETE, EXPORT
+    }
+
+    /**
+     * The states of a job. SUCCEEDED, FAILED and CANCELLED are final.
+     */
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+    /**
+     * The number of items, null while unknown, e.g. for a delete by filter.
+     */
+    private Integer totalItems;
+    private int processedItems;
+    private int failedItems;
+    /**
+     * The position to continue from: the index of the next item, or the last exported id.
+     */
+    private long checkpoint;
+    /**
+     * The size of the result file at the checkpoint, anything written after it is discarded on resume.
+     */
+    private long resultSize;
+    /**
+     * The latest item errors as a JSON array.
+     */
+    @Column(columnDefinition = "text")
+    private String errors;
+    /**
+     * The node running the job; another node may take the job over once the heartbeat is too old.
+     */
+    private String owner;
+    private Instant heartbeatAt;
+    @Column(nullable = false)
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,38 @@
+package org.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Entity class representing the input of a bulk job.
+ * This class maps to the 'user_job_payloads' table in the database. The input is read once when the job starts,
+ * so it is kept apart from the 'user_jobs' row that every chunk locks and updates and every poll reads.
+ */
+@Entity
+@Table(name = "user_job_payloads")
+@Getter
+@Setter
+@ToString(exclude = "payload")
+@NoArgsConstructor
+public class UserJobPayload {
+    @Id
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+    /**
+     * The input of the job as JSON, e.g. the users to import.
+     */
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    /**
+     * @param jobId the id of the job
+     * @param payload the input of the job as JSON
+     */
+    public UserJobPayload(Long jobId, String payload) {
+        this.jobId = jobId;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing one counter of the user statistics.
+ * This class maps to the 'user_stats' table in the database, which holds the result of the latest full count
+ * so that a restarted node can answer statistics before its own count completes.
+ */
+@Entity
+@Table(name = "user_stats")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class UserStatistic {
+    /**
+     * The kinds of counters.
+     */
+    public enum Kind {
+        TOTAL, EMAIL_DOMAIN, FIRST_NAME
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Kind kind;
+    /**
+     * The counted email domain or first name, null for the total.
+     */
+    @Column(name = "counted_value")
+    private String value;
+    @Column(name = "user_count", nullable = false)
+    private long count;
+    @Column(nullable = false)
+    private Instant countedAt;
+
+    /**
+     * @param kind the kind of counter
+     * @param value the counted email domain or first name, null for the total
+     * @param count the number of users
+     * @param countedAt the time of the count
+     */
+    public UserStatistic(Kind kind, String value, long count, Instant countedAt) {
+        this.kind = kind;
+        this.value = value;
+        this.count = count;
+        this.countedAt = countedAt;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.backend.repository;
+
+/**
+ * Conditions selecting users for filtered reads and bulk operations, all set conditions have to match.
+ *
+ * @param firstName the exact first name, any if null
+ * @param lastName the exact last name, any if null
+ * @param emailDomain the part of the email after the "@", compared ignoring case, any if null
+ */
+public record UserFilter(String firstName, String lastName, String emailDomain) {
+    /**
+     * @return true if no condition is set, i.e. the filter matches every user
+     */
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && emailDomain == null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.UserJobPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for UserJobPayload entity.
+ * Holds the inputs of the bulk jobs, keyed by the id of their job.
+ */
+@Repository
+public interface UserJobPayloadRepository extends JpaRepository<UserJobPayload, Long> {
+}
@@ -0,0 +1,53 @@
+package org.example.backend.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The progress of a running bulk job, read and written by every chunk without the rest of the job row.
+ */
+@Getter
+@Setter
+@ToString
+public class UserJobProgress {
+    private final Long id;
+    /**
+     * The number of items, null while unknown, e.g. for a delete by filter.
+     */
+    private Integer totalItems;
+    private int processedItems;
+    private int failedItems;
+    /**
+     * The position to continue from: the index of the next item, or the last exported id.
+     */
+    private long checkpoint;
+    /**
+     * The size of the result file at the checkpoint.
+     */
+    private long resultSize;
+    /**
+     * The item errors added since the progress was read, appended to the stored ones when it is written.
+     */
+    private final List<String> newErrors = new ArrayList<>();
+
+    /**
+     * @param id the id of the job
+     * @param totalItems the number of items, null while unknown
+     * @param processedItems the number of processed items
+     * @param failedItems the number of failed items
+     * @param checkpoint the position to continue from
+     * @param resultSize the size of the result file at the checkpoint
+     */
+    public UserJobProgress(Long id, Integer totalItems, int processedItems, int failedItems, long checkpoint, long resultSize) {
+        this.id = id;
+        this.totalItems = totalItems;
+        this.processedItems = processedItems;
+        this.failedItems = failedItems;
+        this.checkpoint = checkpoint;
+        this.resultSize = resultSize;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.backend.model.UserJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for UserJob entity.
+ * Provides methods for claiming, tracking and finishing bulk jobs.
+ */
+@Repository
+public interface UserJobRepository extends JpaRepository<UserJob, Long> {
+    /**
+     * Finds a job and locks its row until the transaction ends, so that progress and cancellation do not overwrite each other.
+     *
+     * @param id the id of the job
+     * @return the job, or empty if there is none
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from UserJob j where j.id = :id")
+    Optional<UserJob> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Locks the row of a job running on a node until the transaction ends and refreshes its heartbeat.
+     *
+     * @param id the id of the job
+     * @param owner the id of the node
+     * @param now the current time
+     * @return 1 if the job is running on the node and now locked, 0 otherwise
+     */
+    @Modifying
+    @Query("update UserJob j set j.heartbeatAt = :now where j.id = :id and j.owner = :owner " +
+            "and j.status = org.example.backend.model.UserJob.Status.RUNNING")
+    int lockRunning(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now);
+
+    /**
+     * Reads the progress of a job without its errors.
+     *
+     * @param id the id of the job
+     * @return the progress, or empty if there is no such job
+     */
+    @Query("select new org.example.backend.repository.UserJobProgress(j.id, j.totalItems, j.processedItems, j.failedItems, " +
+            "j.checkpoint, j.resultSize) from UserJob j where j.id = :id")
+    Optional<UserJobProgress> findProgressById(@Param("id") Long id);
+
+    /**
+     * Writes the progress of a job.
+     *
+     * @param id the id of the job
+     * @param totalItems the number of items, null while unknown
+     * @param processedItems the number of processed items
+     * @param failedItems the number of failed items
+     * @param checkpoint the position to continue from
+     * @param resultSize the size of the result file at the checkpoint
+     * @return 1 if the job was updated, 0 otherwise
+     */
+    @Modifying
+    @Query("update UserJob j set j.totalItems = :totalItems, j.processedItems = :processedItems, j.failedItems = :failedItems, " +
+            "j.checkpoint = :checkpoint, j.resultSize = :resultSize where j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("totalItems") Integer totalItems, @Param("processedItems") int processedItems,
+                       @Param("failedItems") int failedItems, @Param("checkpoint") long checkpoint, @Param("resultSize") long resultSize);
+
+    /**
+     * @param id the id of the job
+     * @return the latest item errors of the job, one per line, or null if there are none
+     */
+    @Query("select j.errors from UserJob j where j.id = :id")
+    String findErrorsById(@Param("id") Long id);
+
+    /**
+     * Replaces the item errors of a job.
+     *
+     * @param id the id of the job
+     * @param errors the latest item errors, one per line
+     * @return 1 if the job was updated, 0 otherwise
+     */
+    @Modifying
+    @Query("update UserJob j set j.errors = :errors where j.id = :id")
+    int updateErrors(@Param("id") Long id, @Param("errors") String errors);
+
+    /**
+     * Finds the unfinished jobs nobody has run for a while, e.g. because their node crashed.
+     *
+     * @param statuses the unfinished statuses
+     * @param staleBefore the heartbeat time before which an owner is considered gone
+     * @return the ids of the jobs
+     */
+    @Query("select j.id from UserJob j where j.status in :statuses and (j.owner is null or j.heartbeatAt < :staleBefore) order by j.id")
+    List<Long> findStaleIds(@Param("statuses") Collection<UserJob.Status> statuses, @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Takes over an unfinished job if nobody has run it for a while.
+     * Only one of several nodes trying at the same time succeeds.
+     *
+     * @param id the id of the job
+     * @param owner the id of the node taking the job over
+     * @param now the current time, the new heartbeat
+     * @param statuses the unfinished statuses
+     * @param staleBefore the heartbeat time before which an owner is considered gone
+     * @return 1 if the job was taken over, 0 otherwise
+     */
+    @Modifying
+    @Query("update UserJob j set j.owner = :owner, j.heartbeatAt = :now where j.id = :id and j.status in :statuses " +
+            "and (j.owner is null or j.heartbeatAt < :staleBefore)")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now,
+              @Param("statuses") Collection<UserJob.Status> statuses, @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Refreshes the heartbeat of the jobs a node is running or about to run.
+     *
+     * @param ids the ids of the jobs
+     * @param owner the id of the node
+     * @param now the current time
+     * @return the number of refreshed jobs
+     */
+    @Modifying
+    @Query("update UserJob j set j.heartbeatAt = :now where j.id in :ids and j.owner = :owner")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") Instant now);
+
+    /**
+     * Moves a job to a new status if it currently has one of the expected ones.
+     *
+     * @param id the id of the job
+     * @param expected the statuses the job may have
+     * @param status the new status
+     * @param finishedAt the finish time, null for unfinished statuses
+     * @return 1 if the status changed, 0 otherwise
+     */
+    @Modifying
+    @Query("update UserJob j set j.status = :status, j.finishedAt = :finishedAt where j.id = :id and j.status in :expected")
+    int transition(@Param("id") Long id, @Param("expected") Collection<UserJob.Status> expected,
+                   @Param("status") UserJob.Status status, @Param("finishedAt") Instant finishedAt);
+}
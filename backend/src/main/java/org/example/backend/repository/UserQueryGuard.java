@@ -0,0 +1,126 @@
+package org.example.backend.repository;
+
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks filtered and sorted reads of users against the indexes of the users table before they are run.
+ * A read is served by an index if the filtered properties form the leading columns of the index and
+ * the sort order follows the columns after them, all in one direction. The database then reads
+ * the requested page along the index and stops, instead of scanning the table and sorting all matches.
+ * <p>
+ * Sort orders are completed to the full remaining index columns, e.g. a sort by last name becomes
+ * last name, first name, id. This keeps pages stable and is what the index delivers anyway.
+ * Conditions not covered by the chosen index are checked on the rows read along it.
+ * Combinations no index serves are rejected with the sort orders that would be served.
+ */
+public final class UserQueryGuard {
+    /**
+     * An index of the users table, by the entity properties of its columns.
+     *
+     * @param name the index name in "db/schema.sql" and on the User entity
+     * @param properties the indexed properties in column order, the last one unique
+     */
+    public record Index(String name, List<String> properties) {
+    }
+
+    /**
+     * The indexes serving filtered and sorted reads, they have to be kept in line with "db/schema.sql"
+     * and the indexes declared on the User entity, which the schema update at startup creates.
+     * The first index serving a read with the most filtered leading columns is used.
+     */
+    public static final List<Index> INDEXES = List.of(
+            new Index("users_pkey", List.of("id")),
+            new Index("users_email_key", List.of("email")),
+            new Index("idx_users_first_name_last_name_id", List.of("firstName", "lastName", "id")),
+            new Index("idx_users_last_name_first_name_id", List.of("lastName", "firstName", "id")),
+            new Index("idx_users_email_domain_last_name_first_name_id", List.of("emailDomain", "lastName", "firstName", "id")));
+
+    private static final Set<String> SORTABLE = Set.of("id", "firstName", "lastName", "email");
+    private static final Set<String> UNIQUE = Set.of("id", "email");
+
+    private UserQueryGuard() {
+    }
+
+    /**
+     * Finds the index serving a read and completes the sort order to it.
+     *
+     * @param filter the conditions of the read
+     * @param sort the requested sort order, unsorted to take the order of the index
+     * @return the sort order to run the read with
+     * @throws UnsupportedQueryException if a property can not be sorted by, if the directions are mixed,
+     * or if no index serves the combination
+     */
+    public static Sort plan(UserFilter filter, Sort sort) {
+        Set<String> filtered = filteredProperties(filter);
+        Sort.Direction direction = null;
+        List<String> requested = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new UnsupportedQueryException("Can not sort by " + order.getProperty() + ", only by " + String.join(", ", SORTABLE.stream().sorted().toList()));
+            }
+            if (direction != null && direction != order.getDirection()) {
+                throw new UnsupportedQueryException("All sort orders need the same direction");
+            }
+            direction = order.getDirection();
+            // a filtered property has one value, sorting by it changes nothing
+            if (!filtered.contains(order.getProperty()) && !requested.contains(order.getProperty())) {
+                requested.add(order.getProperty());
+                if (UNIQUE.contains(order.getProperty())) {
+                    break;
+                }
+            }
+        }
+
+        List<String> best = null;
+        int bestCovered = -1;
+        Set<String> supported = new LinkedHashSet<>();
+        for (Index index : INDEXES) {
+            int covered = coveredPrefix(index, filtered);
+            if (!filtered.isEmpty() && covered == 0) {
+                continue;
+            }
+            List<String> order = index.properties().subList(covered, index.properties().size()).stream()
+                    .filter(property -> !filtered.contains(property))
+                    .toList();
+            supported.add(String.join(",", order));
+            if (covered > bestCovered && order.size() >= requested.size() && order.subList(0, requested.size()).equals(requested)) {
+                best = order;
+                bestCovered = covered;
+            }
+        }
+        if (best == null) {
+            throw new UnsupportedQueryException("No index serves this filter with this sort order, sort by one of: "
+                    + String.join("; ", supported));
+        }
+        return Sort.by(direction != null ? direction : Sort.Direction.ASC, best.toArray(String[]::new));
+    }
+
+    private static int coveredPrefix(Index index, Set<String> filtered) {
+        int covered = 0;
+        while (covered < index.properties().size() && filtered.contains(index.properties().get(covered))) {
+            covered++;
+        }
+        return covered;
+    }
+
+    private static Set<String> filteredProperties(UserFilter filter) {
+        Set<String> filtered = new HashSet<>();
+        if (filter.firstName() != null) {
+            filtered.add("firstName");
+        }
+        if (filter.lastName() != null) {
+            filtered.add("lastName");
+        }
+        if (filter.emailDomain() != null) {
+            filtered.add("emailDomain");
+        }
+        return filtered;
+    }
+}
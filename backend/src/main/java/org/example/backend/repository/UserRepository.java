@@ -1,10 +1,23 @@
 package org.example.backend.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.backend.model.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,7 +25,12 @@ import java.util.Optional;
  * Provides methods for database operations related to users.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserRepositoryCustom {
+    /**
+     * Query cache region of the first name search.
+     */
+    String FIRST_NAME_CACHE_REGION = "users-by-first-name";
+
     /**
      * Finds all users with pagination.
      *
@@ -35,12 +53,85 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if a user with the email exists, false otherwise
      */
     boolean existsByEmail(String email);
+    /**
+     * Finds all users whose email is one of the passed emails.
+     * Used to check a whole batch of emails for conflicts with one query.
+     *
+     * @param emails the emails to search for
+     * @return users with searched emails
+     */
+    List<User> findAllByEmailIn(Collection<String> emails);
     /**
      * Finds users by first name with pagination.
+     * The page and its count are kept in the query cache when it is enabled,
+     * and are invalidated by every committed write to the users table.
      *
      * @param firstName the first name to search for
      * @param pageable the pagination information
      * @return an optional containing a page of matching users, or empty if none found
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = FIRST_NAME_CACHE_REGION)})
     Optional<Page<User>> findByFirstName(String firstName, Pageable pageable);
+
+    /**
+     * Finds all users with the passed ids and locks their rows until the transaction ends,
+     * so that bulk updates and deletes do not interleave with single ones.
+     * The rows are locked in id order, so two bulk calls over overlapping ids can not deadlock.
+     *
+     * @param ids the ids to search for
+     * @return the users with searched ids, ordered by id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id in :ids order by u.id")
+    List<User> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes all users with the passed ids with one statement.
+     * Hibernate evicts the deleted users from the second-level cache on its own.
+     *
+     * @param ids the ids of the users to delete
+     * @return the number of deleted users
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the users following an id, for walking through all users in id order without an offset.
+     * With sharding every shard returns up to the limit, the caller keeps the lowest ids.
+     *
+     * @param id the last id already seen, 0 to start from the beginning
+     * @param limit the maximum number of users to return
+     * @return the users with greater ids, lowest first
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Finds users stored before the email domain column existed, whose domain is still missing.
+     * With sharding every shard returns up to the limit.
+     *
+     * @param at "@", users whose email has none never get a domain and are skipped
+     * @param limit the maximum number of users to return
+     * @return users without an email domain
+     */
+    List<User> findByEmailDomainIsNullAndEmailContaining(String at, Limit limit);
+
+    /**
+     * Counts the users per email domain, reading the whole table.
+     * With sharding every shard returns its own counts, a domain may then be listed once per shard.
+     *
+     * @return the number of users of every email domain, including null for users without one
+     */
+    @Query("select new org.example.backend.repository.ValueCount(u.emailDomain, count(u)) from User u group by u.emailDomain")
+    List<ValueCount> countByEmailDomain();
+
+    /**
+     * Counts the users per first name, reading the whole table.
+     * With sharding every shard returns its own counts, a name may then be listed once per shard.
+     *
+     * @return the number of users of every first name
+     */
+    @Query("select new org.example.backend.repository.ValueCount(u.firstName, count(u)) from User u group by u.firstName")
+    List<ValueCount> countByFirstName();
 }
@@ -0,0 +1,38 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.User;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for User entity.
+ * Provides bulk operations that are executed with plain JDBC instead of going through the persistence context.
+ */
+public interface UserRepositoryCustom {
+    /**
+     * Inserts all passed users with a single batched statement and assigns generated ids to them.
+     * With the PostgreSQL driver property reWriteBatchedInserts=true the batch is sent as one multi-row insert.
+     *
+     * @param users the users to insert, must not have ids yet
+     * @return the same users with generated ids assigned
+     */
+    List<User> insertAll(List<User> users);
+
+    /**
+     * Writes the names and emails of all passed users with a single batched update by id.
+     * The users are not re-read, so they have to carry every field, changed or not.
+     *
+     * @param users the users to update, with ids
+     * @return the number of updated rows
+     */
+    int updateAll(List<User> users);
+
+    /**
+     * Finds the users matching all set conditions of the filter and locks their rows until the transaction ends.
+     *
+     * @param filter the conditions, at least one has to be set
+     * @param limit the maximum number of users to return, the ones with the lowest ids first
+     * @return the matching users
+     */
+    List<User> findMatchingForUpdate(UserFilter filter, int limit);
+}
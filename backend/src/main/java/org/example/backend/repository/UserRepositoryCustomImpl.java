@@ -0,0 +1,152 @@
+package org.example.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.example.backend.model.User;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC based implementation of {@link UserRepositoryCustom}.
+ * Spring Data picks this class up by its "Impl" postfix and merges it into the {@link UserRepository} proxy.
+ * Hibernate does not see these statements, so cached queries over the users table are invalidated here
+ * the same way Hibernate invalidates them after its own writes.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private static final String INSERT_SQL = "insert into users (first_name, last_name, email, email_domain) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update users set first_name = ?, last_name = ?, email = ?, email_domain = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jdbcTemplate the template used to run batched statements in the current transaction
+     * @param entityManager the entity manager of the current transaction, used to invalidate the query cache
+     */
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getFirstName());
+                        ps.setString(2, user.getLastName());
+                        ps.setString(3, user.getEmail());
+                        ps.setString(4, user.getEmailDomain());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        // generated keys are returned in the same order the rows were added to the batch
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        invalidateCache(List.of());
+        return users;
+    }
+
+    @Override
+    public int updateAll(List<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                ps.setString(1, user.getFirstName());
+                ps.setString(2, user.getLastName());
+                ps.setString(3, user.getEmail());
+                ps.setString(4, user.getEmailDomain());
+                ps.setLong(5, user.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+        invalidateCache(users.stream().map(User::getId).toList());
+
+        int updated = 0;
+        for (int count : counts) {
+            // drivers that can not tell the count of every statement of a batch report SUCCESS_NO_INFO
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return updated;
+    }
+
+    @Override
+    public List<User> findMatchingForUpdate(UserFilter filter, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = builder.createQuery(User.class);
+        Root<User> user = query.from(User.class);
+        query.select(user).where(UserSpecifications.matching(filter).toPredicate(user, query, builder)).orderBy(builder.asc(user.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Does for the statements above what Hibernate does after its own bulk statements.
+     * The users table is marked as changed in the query cache: cached results are not used from now until
+     * the transaction completes, and results cached before the completion are stale afterwards.
+     * The changed users are evicted now and once more after the completion, in case a concurrent
+     * transaction has cached the old state meanwhile.
+     *
+     * @param changedIds the ids of the updated users, empty for inserts
+     */
+    private void invalidateCache(List<Long> changedIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor sessionFactory = session.getFactory();
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()
+                && !sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        changedIds.forEach(id -> sessionFactory.getCache().evictEntityData(User.class, id));
+        String[] spaces = sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class).getSynchronizedQuerySpaces();
+        TimestampsCache timestampsCache = sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()
+                ? sessionFactory.getCache().getTimestampsCache() : null;
+        if (timestampsCache != null) {
+            timestampsCache.preInvalidate(spaces, session);
+        }
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            changedIds.forEach(id -> sessionFactory.getCache().evictEntityData(User.class, id));
+            if (timestampsCache != null) {
+                timestampsCache.invalidate(spaces, completedSession);
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.backend.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import org.example.backend.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Specifications of the User entity for filtered reads.
+ */
+public final class UserSpecifications {
+    private UserSpecifications() {
+    }
+
+    /**
+     * Matches the users fulfilling all set conditions of the filter, every condition is an equality
+     * on an indexed column. The email domain is compared to the "email_domain" column, a plain column
+     * written by User.setEmail, instead of matching the email with a leading wildcard, which no index could serve.
+     *
+     * @param filter the conditions
+     * @return the specification, matching every user if the filter is empty
+     */
+    public static Specification<User> matching(UserFilter filter) {
+        return (user, query, builder) -> {
+            List<Predicate> conditions = new ArrayList<>();
+            if (filter.firstName() != null) {
+                conditions.add(builder.equal(user.get("firstName"), filter.firstName()));
+            }
+            if (filter.lastName() != null) {
+                conditions.add(builder.equal(user.get("lastName"), filter.lastName()));
+            }
+            if (filter.emailDomain() != null) {
+                conditions.add(builder.equal(user.get("emailDomain"), filter.emailDomain().toLowerCase(Locale.ROOT)));
+            }
+            return builder.and(conditions.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.UserStatistic;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for UserStatistic entity.
+ * Holds the counters of the latest full count of the users.
+ */
+@Repository
+public interface UserStatisticRepository extends JpaRepository<UserStatistic, Long> {
+}
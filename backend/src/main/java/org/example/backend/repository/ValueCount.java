@@ -0,0 +1,10 @@
+package org.example.backend.repository;
+
+/**
+ * The number of users sharing a value of a column, e.g. an email domain.
+ *
+ * @param value the value, null for users without one
+ * @param count the number of users
+ */
+public record ValueCount(String value, long count) {
+}
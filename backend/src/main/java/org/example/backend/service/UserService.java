@@ -2,13 +2,23 @@ package org.example.backend.service;
 
 import org.example.backend.dto.request.UserInformationRequest;
 import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.lookup.UserLookupResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 /**
  * Service interface for user management operations. Provides abstract methods for CRUD operations for User entity.
  */
 public interface UserService {
+    /**
+     * The maximum number of ids one lookup may ask for.
+     */
+    int MAX_LOOKUP_IDS = 1000;
+
     /**
      * Retrieves a paginated list of all users.
      * @param pageable the pagination information
@@ -24,6 +34,15 @@ public interface UserService {
      */
     User createUser(UserInformationRequest request);
 
+    /**
+     * Creates all requested users in one transaction.
+     * Every request gets its own result, so a conflicting email fails only its own item.
+     *
+     * @param requests the user information requests containing the user details
+     * @return the results in the same order as the requests
+     */
+    List<ItemResult<User>> createUsers(List<UserInformationRequest> requests);
+
     /**
      * Updates the user with the information that was passed to the request object.
      *
@@ -48,4 +67,21 @@ public interface UserService {
      * @return a page of matching users
      */
     Page<User> getUsersByName(String name, Pageable pageable);
+
+    /**
+     * Retrieves a page of the users matching all set conditions of a filter, in a sort order an index serves.
+     *
+     * @param filter the conditions, an empty filter matches every user
+     * @param pageable the pagination information and the requested sort order, completed to the order of the serving index
+     * @return a page of matching users
+     */
+    Page<User> findUsers(UserFilter filter, Pageable pageable);
+
+    /**
+     * Retrieves many users by id with one query.
+     *
+     * @param ids the ids to look up, at most {@link #MAX_LOOKUP_IDS}
+     * @return the found users in request order and the ids no user has
+     */
+    UserLookupResult getUsersByIds(List<Long> ids);
 }
@@ -0,0 +1,24 @@
+package org.example.backend.service.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the group-commit mode for user creation.
+ * Bound from the "users.group-commit" properties.
+ *
+ * @param enabled whether concurrent creates are queued and committed in batches
+ * @param batchSize the maximum number of creates written with one insert and one commit
+ * @param linger how long the writer waits for more creates after the first one arrived
+ * @param queueCapacity the maximum number of creates waiting for the writer, further creates are rejected
+ * @param waitTimeout how long a request waits for the commit of its create before it gives up
+ */
+@ConfigurationProperties(prefix = "users.group-commit")
+public record GroupCommitProperties(boolean enabled,
+                                    @DefaultValue("64") int batchSize,
+                                    @DefaultValue("5ms") Duration linger,
+                                    @DefaultValue("1024") int queueCapacity,
+                                    @DefaultValue("10s") Duration waitTimeout) {
+}
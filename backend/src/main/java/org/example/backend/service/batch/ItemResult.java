@@ -0,0 +1,50 @@
+package org.example.backend.service.batch;
+
+/**
+ * Outcome of a single item inside a batch operation.
+ * Either holds the produced value or the exception that would have been thrown for this item alone.
+ *
+ * @param value the produced value, null if the item failed
+ * @param error the failure of this item, null if the item succeeded
+ * @param <T> the type of the produced value
+ */
+public record ItemResult<T>(T value, RuntimeException error) {
+    /**
+     * Creates a successful result.
+     *
+     * @param value the produced value
+     * @return a successful result holding the value
+     */
+    public static <T> ItemResult<T> success(T value) {
+        return new ItemResult<>(value, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param error the exception describing the failure
+     * @return a failed result holding the exception
+     */
+    public static <T> ItemResult<T> failure(RuntimeException error) {
+        return new ItemResult<>(null, error);
+    }
+
+    /**
+     * @return true if the item succeeded, false otherwise
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the produced value or rethrows the failure of this item.
+     *
+     * @return the produced value
+     */
+    public T getOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.backend.service.batch;
+
+import jakarta.persistence.EntityExistsException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.example.backend.model.User;
+import org.example.backend.service.UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group-commit writer for user creation.
+ * Concurrent create requests are put into a bounded queue, a single writer thread drains them
+ * every few milliseconds (or as soon as a full batch is collected) and writes the whole batch
+ * with one insert and one commit. Every waiting request then completes with its own result or conflict error.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.group-commit", name = "enabled", havingValue = "true")
+public class UserCreateBatcher implements SmartLifecycle {
+    private final UserService userService;
+    private final GroupCommitProperties properties;
+    private final BlockingQueue<PendingCreate> queue;
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userService the service used to write batches in one transaction
+     * @param properties the batch size, linger time and queue capacity
+     */
+    public UserCreateBatcher(UserService userService, GroupCommitProperties properties) {
+        this.userService = userService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    /**
+     * Queues the request and waits until the batch containing it is committed.
+     *
+     * @param request the user information request containing the user details
+     * @return the created user
+     * @throws RejectedExecutionException if the queue is full or the writer is stopped
+     * @throws EntityExistsException if a user with the same email already exists
+     * @throws QueryTimeoutException if the batch is not committed within the wait timeout, the user may still be created
+     */
+    public User create(UserInformationRequest request) {
+        CompletableFuture<User> result = submit(request);
+        try {
+            return result.get(properties.waitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("User creation was not committed within {}: {}", properties.waitTimeout(), request);
+            throw new QueryTimeoutException("Timed out waiting for the user creation to be committed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for user creation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Queues the request without waiting for it.
+     *
+     * @param request the user information request containing the user details
+     * @return a future completed with the created user or with the item's error
+     * @throws RejectedExecutionException if the queue is full or the writer is stopped
+     */
+    public CompletableFuture<User> submit(UserInformationRequest request) {
+        if (!running) {
+            throw new RejectedExecutionException("Group commit writer is not running");
+        }
+        PendingCreate pending = new PendingCreate(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            log.warn("Group commit queue is full, rejecting request: {}", request);
+            throw new RejectedExecutionException("Too many pending user creations, try again later");
+        }
+        // stop() may have drained the queue between the check above and the offer, then nobody takes the create
+        if (!running && queue.remove(pending)) {
+            throw new RejectedExecutionException("Group commit writer is not running");
+        }
+        return pending.result();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "user-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Group commit writer started with batch size {} and linger {}", properties.batchSize(), properties.linger());
+    }
+
+    @Override
+    public void stop() {
+        // the writer notices the flag within one poll interval, interrupting it could break an in-flight JDBC call
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // whatever is still queued is written by the stopping thread so no caller waits forever
+        List<PendingCreate> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<PendingCreate> batch = new ArrayList<>(properties.batchSize());
+        while (running) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fills the batch until it is full or the linger time since the first item is over.
+     */
+    private void collect(List<PendingCreate> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.linger().toNanos();
+        while (batch.size() < properties.batchSize()) {
+            if (queue.drainTo(batch, properties.batchSize() - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingCreate> batch) {
+        List<UserInformationRequest> requests = batch.stream().map(PendingCreate::request).toList();
+        try {
+            List<ItemResult<User>> results = userService.createUsers(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // another writer inserted one of the emails between the check and the insert,
+            // so the batch is rolled back and every item is retried in its own transaction
+            log.warn("Batch of {} users conflicted, retrying one by one", batch.size());
+            batch.forEach(this::createSingle);
+        } catch (RuntimeException e) {
+            log.error("Failed to write batch of {} users", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void createSingle(PendingCreate pending) {
+        try {
+            pending.result().complete(userService.createUser(pending.request()));
+        } catch (DataIntegrityViolationException e) {
+            pending.result().completeExceptionally(new UserAlreadyExistsException("User already exists"));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private void complete(PendingCreate pending, ItemResult<User> result) {
+        if (result.isSuccess()) {
+            pending.result().complete(result.value());
+        } else {
+            pending.result().completeExceptionally(result.error());
+        }
+    }
+
+    private record PendingCreate(UserInformationRequest request, CompletableFuture<User> result) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.backend.service.bulk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the bulk updates and deletes.
+ * Bound from the "users.bulk" properties.
+ *
+ * @param chunkSize the number of users written in one transaction, which also bounds how long rows stay locked
+ * @param maxItems the maximum number of users one call may update or delete
+ */
+@ConfigurationProperties(prefix = "users.bulk")
+public record BulkProperties(@DefaultValue("500") int chunkSize,
+                             @DefaultValue("10000") int maxItems) {
+}
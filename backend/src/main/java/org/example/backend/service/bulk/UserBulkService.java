@@ -0,0 +1,270 @@
+package org.example.backend.service.bulk;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.example.backend.exceptions.custom.UserNotFoundException;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Updates and deletes many users at once.
+ * The items are written in chunks, every chunk in its own transaction with set-based statements:
+ * the rows of a chunk are read and locked with one query, emails are checked for conflicts with one query,
+ * and the changes are written with one batched update or one delete. A chunk that fails as a whole
+ * fails all its items, the chunks before it stay committed.
+ */
+@Slf4j
+@Service
+public class UserBulkService {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final BulkProperties properties;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userRepository the repository to be used for user operations
+     * @param transactionManager the transaction manager running every chunk in its own transaction
+     * @param eventPublisher the publisher of change events, delivered to listeners after the commit of each chunk
+     * @param validator the validator checking every patch on its own
+     * @param properties the chunk size and the maximum number of items per call
+     */
+    public UserBulkService(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher, Validator validator, BulkProperties properties) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    /**
+     * Applies partial updates to many users. Fields a patch leaves null keep their current value.
+     * A patch fails on its own if its user does not exist, if its email belongs to another user
+     * or to an earlier patch of the same call, if it repeats an id or if a field is invalid.
+     *
+     * @param patches the changes, one per user
+     * @return the results in the same order as the patches
+     * @throws EntityNullException if no patches are passed
+     * @throws BatchTooLargeException if more patches than allowed are passed
+     */
+    public List<ItemResult<User>> updateUsers(List<UserPatchRequest> patches) {
+        checkSize(patches);
+        log.info("Updating batch of {} users", patches.size());
+        List<ItemResult<User>> results = new ArrayList<>(patches.size());
+        List<Integer> valid = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatchRequest patch = patches.get(i);
+            RuntimeException failure = validate(patch, seenIds);
+            results.add(failure != null ? ItemResult.failure(failure) : null);
+            if (failure == null) {
+                valid.add(i);
+            }
+        }
+        inChunks(valid, results, chunk -> updateChunk(patches, chunk, results));
+        return results;
+    }
+
+    private RuntimeException validate(UserPatchRequest patch, Set<Long> seenIds) {
+        if (patch.getId() == null) {
+            return new EntityNullException("Id can not be null.");
+        }
+        if (!seenIds.add(patch.getId())) {
+            return new IllegalArgumentException("Id " + patch.getId() + " is repeated in the batch");
+        }
+        Set<ConstraintViolation<UserPatchRequest>> violations = validator.validate(patch);
+        if (!violations.isEmpty()) {
+            return new IllegalArgumentException(violations.iterator().next().getMessage());
+        }
+        return null;
+    }
+
+    private void updateChunk(List<UserPatchRequest> patches, List<Integer> chunk, List<ItemResult<User>> results) {
+        Map<Long, User> current = new HashMap<>();
+        userRepository.findAllForUpdateByIdIn(chunk.stream().map(i -> patches.get(i).getId()).toList())
+                .forEach(user -> current.put(user.getId(), user));
+
+        Set<String> changedEmails = new HashSet<>();
+        for (int i : chunk) {
+            UserPatchRequest patch = patches.get(i);
+            User user = current.get(patch.getId());
+            if (user != null && patch.getEmail() != null && !patch.getEmail().equals(user.getEmail())) {
+                changedEmails.add(patch.getEmail());
+            }
+        }
+        // an email held by any user is taken, even if that user gives it up in the same call
+        Set<String> takenEmails = new HashSet<>();
+        if (!changedEmails.isEmpty()) {
+            userRepository.findAllByEmailIn(changedEmails).forEach(user -> takenEmails.add(user.getEmail()));
+        }
+
+        List<User> updated = new ArrayList<>();
+        List<UserChangedEvent> events = new ArrayList<>();
+        for (int i : chunk) {
+            UserPatchRequest patch = patches.get(i);
+            User user = current.get(patch.getId());
+            if (user == null) {
+                results.set(i, ItemResult.failure(new UserNotFoundException("User not found. Maybe you entered wrong or negative id?")));
+                continue;
+            }
+            boolean emailChanged = patch.getEmail() != null && !patch.getEmail().equals(user.getEmail());
+            if (emailChanged && !takenEmails.add(patch.getEmail())) {
+                log.warn("Requested email already registered: {}", patch.getEmail());
+                results.set(i, ItemResult.failure(new UserAlreadyExistsException("User with this email already exists")));
+                continue;
+            }
+            // the loaded user stays untouched, so the persistence context does not write it a second time
+            User changed = new User();
+            changed.setId(user.getId());
+            changed.setFirstName(patch.getFirstName() != null ? patch.getFirstName() : user.getFirstName());
+            changed.setLastName(patch.getLastName() != null ? patch.getLastName() : user.getLastName());
+            changed.setEmail(emailChanged ? patch.getEmail() : user.getEmail());
+            updated.add(changed);
+            events.add(UserChangedEvent.updated(UserSnapshot.of(user), UserSnapshot.of(changed)));
+            results.set(i, ItemResult.success(changed));
+        }
+        userRepository.updateAll(updated);
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    /**
+     * Deletes many users by id.
+     * An id fails on its own if no user has it or if it is repeated.
+     *
+     * @param ids the ids of the users to delete
+     * @return the results in the same order as the ids, holding the deleted ids
+     * @throws EntityNullException if no ids are passed
+     * @throws BatchTooLargeException if more ids than allowed are passed
+     */
+    public List<ItemResult<Long>> deleteUsers(List<Long> ids) {
+        checkSize(ids);
+        log.info("Deleting batch of {} users", ids.size());
+        List<ItemResult<Long>> results = new ArrayList<>(ids.size());
+        List<Integer> valid = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(ItemResult.failure(new EntityNullException("Id can not be null.")));
+            } else if (!seenIds.add(id)) {
+                results.add(ItemResult.failure(new IllegalArgumentException("Id " + id + " is repeated in the batch")));
+            } else {
+                results.add(null);
+                valid.add(i);
+            }
+        }
+        inChunks(valid, results, chunk -> {
+            Set<Long> found = new HashSet<>(deleteLocked(userRepository.findAllForUpdateByIdIn(chunk.stream().map(ids::get).toList())));
+            for (int i : chunk) {
+                results.set(i, found.contains(ids.get(i))
+                        ? ItemResult.success(ids.get(i))
+                        : ItemResult.failure(new UserNotFoundException("User not found. Maybe you entered wrong or negative id?")));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Deletes the users matching a filter, chunk by chunk with the lowest ids first.
+     * At most the maximum number of items per call is deleted, the caller repeats the call until nothing is left.
+     * If a chunk fails, the deletion stops and a failed result without id is added.
+     *
+     * @param filter the conditions the deleted users match
+     * @return the ids of the deleted users
+     * @throws EntityNullException if the filter has no condition
+     */
+    public List<ItemResult<Long>> deleteUsersMatching(UserFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            log.warn("Requested filter has no conditions");
+            throw new EntityNullException("Filter needs at least one condition");
+        }
+        log.info("Deleting users matching {}", filter);
+        List<ItemResult<Long>> results = new ArrayList<>();
+        while (results.size() < properties.maxItems()) {
+            int limit = Math.min(properties.chunkSize(), properties.maxItems() - results.size());
+            List<Long> deleted;
+            try {
+                deleted = transactionTemplate.execute(status -> deleteLocked(userRepository.findMatchingForUpdate(filter, limit)));
+            } catch (RuntimeException e) {
+                log.error("Deleting a chunk of users matching {} failed", filter, e);
+                results.add(ItemResult.failure(chunkFailed(e)));
+                break;
+            }
+            deleted.forEach(id -> results.add(ItemResult.success(id)));
+            if (deleted.size() < limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private List<Long> deleteLocked(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = users.stream().map(User::getId).toList();
+        userRepository.deleteAllByIdIn(ids);
+        users.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.deleted(UserSnapshot.of(user))));
+        return ids;
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            log.warn("Requested batch is null or empty");
+            throw new EntityNullException("Batch can not be null or empty");
+        }
+        if (items.size() > properties.maxItems()) {
+            log.warn("Requested batch of {} items", items.size());
+            throw new BatchTooLargeException("At most " + properties.maxItems() + " users can be changed at once");
+        }
+    }
+
+    /**
+     * Runs the work for every chunk of item indexes in its own transaction.
+     * If a chunk fails, all its items fail, since none of its changes were committed.
+     */
+    private <T> void inChunks(List<Integer> indexes, List<ItemResult<T>> results, Consumer<List<Integer>> work) {
+        for (int from = 0; from < indexes.size(); from += properties.chunkSize()) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + properties.chunkSize(), indexes.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> work.accept(chunk));
+            } catch (RuntimeException e) {
+                log.error("Writing a chunk of {} users failed", chunk.size(), e);
+                RuntimeException failure = chunkFailed(e);
+                chunk.forEach(i -> results.set(i, ItemResult.failure(failure)));
+            }
+        }
+    }
+
+    /**
+     * @param cause the failure of the chunk
+     * @return a new failure for the items of the chunk, thrown again by {@link ItemResult#getOrThrow()}
+     */
+    private static RuntimeException chunkFailed(RuntimeException cause) {
+        return new IllegalStateException("The chunk of this item could not be written, please retry it", cause);
+    }
+}
@@ -0,0 +1,216 @@
+package org.example.backend.service.event;
+
+import org.example.backend.model.User;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a result built from one snapshot of the users table, e.g. a full count, consistent with the changes
+ * committed around that snapshot.
+ * <p>
+ * A change may be visible in the snapshot or not, depending on when its transaction committed, and it is delivered
+ * after the commit, possibly only after the result was published. Replaying changes could therefore count one twice.
+ * Instead, every user changed while the snapshot is read, or committing when the result is published, is read again
+ * in the same snapshot. The result is corrected by one change per user, from its state in the snapshot to its latest
+ * state, and the state the result holds is remembered until the transactions committing at that moment complete,
+ * so that their late changes correct the result from there.
+ * <p>
+ * Owners pass every change to {@link #track}. Not thread-safe, owners guard it with their lock.
+ */
+public final class SnapshotChanges {
+    /**
+     * The users changed by transactions between their commit and their completion, with the number of changes.
+     */
+    private final Map<Long, Integer> committing = new HashMap<>();
+    /**
+     * The state the published result holds for users of transactions that were committing when it was published.
+     */
+    private Map<Long, UserSnapshot> held = new HashMap<>();
+    private boolean reading;
+    /**
+     * The users changed since the snapshot started, with their latest committed state if delivered yet.
+     */
+    private final Set<Long> changed = new LinkedHashSet<>();
+    private final Map<Long, UserSnapshot> latest = new HashMap<>();
+    /**
+     * The state of the changed users in the snapshot, null for users missing in it.
+     */
+    private final Map<Long, UserSnapshot> inSnapshot = new HashMap<>();
+
+    /**
+     * Follows a change of the current transaction, changes published without a transaction are ignored.
+     *
+     * @param event the change
+     * @param lock the lock of the owner, held while the change is recorded and applied
+     * @param apply applies a change to the published result once the transaction has committed
+     */
+    public void track(UserChangedEvent event, Object lock, Consumer<UserChangedEvent> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (lock) {
+                    committing(event);
+                    committing = true;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!committing) {
+                    return;
+                }
+                synchronized (lock) {
+                    if (status == STATUS_COMMITTED) {
+                        UserChangedEvent change = committed(event);
+                        if (change != null) {
+                            apply.accept(change);
+                        }
+                    }
+                    completed(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts collecting the changed users, right before a new snapshot is taken.
+     */
+    public void start() {
+        reading = true;
+        changed.clear();
+        latest.clear();
+        inSnapshot.clear();
+    }
+
+    /**
+     * Stops collecting without publishing, e.g. after the snapshot could not be read.
+     */
+    public void cancel() {
+        reading = false;
+        changed.clear();
+        latest.clear();
+        inSnapshot.clear();
+    }
+
+    /**
+     * @return whether a snapshot is being read
+     */
+    public boolean isReading() {
+        return reading;
+    }
+
+    /**
+     * Records a change of a transaction that is about to commit.
+     *
+     * @param event the change
+     */
+    public void committing(UserChangedEvent event) {
+        committing.merge(event.id(), 1, Integer::sum);
+        if (reading) {
+            changed.add(event.id());
+        }
+    }
+
+    /**
+     * Records a committed change.
+     *
+     * @param event the change
+     * @return the change to apply to the published result, null if it holds that state already
+     */
+    public UserChangedEvent committed(UserChangedEvent event) {
+        Long id = event.id();
+        if (reading) {
+            changed.add(id);
+            latest.put(id, event.after());
+        }
+        if (held.containsKey(id)) {
+            return change(held.put(id, event.after()), event.after());
+        }
+        return event;
+    }
+
+    /**
+     * Records the completion of a transaction whose change was recorded as committing.
+     *
+     * @param event the change
+     */
+    public void completed(UserChangedEvent event) {
+        Long id = event.id();
+        if (committing.merge(id, -1, Integer::sum) <= 0) {
+            committing.remove(id);
+            held.remove(id);
+        }
+    }
+
+    /**
+     * @return the users whose state in the snapshot has to be read before the result can be published
+     */
+    public Set<Long> unread() {
+        Set<Long> unread = new LinkedHashSet<>(changed);
+        unread.addAll(committing.keySet());
+        unread.removeAll(inSnapshot.keySet());
+        return unread;
+    }
+
+    /**
+     * Records the state of changed users in the snapshot.
+     *
+     * @param ids the ids that were read
+     * @param users the users found in the snapshot for these ids
+     */
+    public void read(Collection<Long> ids, Collection<User> users) {
+        ids.forEach(id -> inSnapshot.put(id, null));
+        users.forEach(user -> inSnapshot.put(user.getId(), UserSnapshot.of(user)));
+    }
+
+    /**
+     * Stops collecting and returns the corrections of the result built from the snapshot, once {@link #unread()} is empty.
+     *
+     * @return one change per changed user, from its state in the snapshot to its latest state
+     */
+    public List<UserChangedEvent> publish() {
+        Set<Long> ids = new LinkedHashSet<>(changed);
+        ids.addAll(committing.keySet());
+        List<UserChangedEvent> corrections = new ArrayList<>();
+        Map<Long, UserSnapshot> published = new HashMap<>();
+        for (Long id : ids) {
+            UserSnapshot before = inSnapshot.get(id);
+            UserSnapshot after = latest.containsKey(id) ? latest.get(id) : before;
+            UserChangedEvent correction = change(before, after);
+            if (correction != null) {
+                corrections.add(correction);
+            }
+            if (committing.containsKey(id)) {
+                published.put(id, after);
+            }
+        }
+        held = published;
+        cancel();
+        return corrections;
+    }
+
+    private static UserChangedEvent change(UserSnapshot before, UserSnapshot after) {
+        if (Objects.equals(before, after)) {
+            return null;
+        }
+        if (before == null) {
+            return UserChangedEvent.created(after);
+        }
+        return after == null ? UserChangedEvent.deleted(before) : UserChangedEvent.updated(before, after);
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.backend.service.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.response.UserChangeMessage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans committed user changes out to the open event streams.
+ * Publishing never blocks the committing thread: every subscriber has a bounded buffer that is drained
+ * by a small pool of sender threads. A subscriber whose buffer is full is too slow and gets disconnected,
+ * it is expected to reload its data and reconnect.
+ * Every change is numbered once, so the event id of a change is the same on every stream.
+ */
+@Slf4j
+@Component
+public class UserChangeBroadcaster implements DisposableBean {
+    private static final Object HEARTBEAT = new Object();
+
+    private final UserEventsProperties properties;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor senders;
+    private final ScheduledExecutorService heartbeats;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param properties the buffer size, subscriber limit, timeouts and sender pool size
+     */
+    @Autowired
+    public UserChangeBroadcaster(UserEventsProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.senderThreads(), daemon("user-events-sender")));
+    }
+
+    UserChangeBroadcaster(UserEventsProperties properties, Executor senders) {
+        this.properties = properties;
+        this.senders = senders;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("user-events-heartbeat"));
+        long period = properties.heartbeat().toMillis();
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT)),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a new event stream.
+     *
+     * @return the emitter streaming change events to the client
+     * @throws RejectedExecutionException if the maximum number of streams is open
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= properties.maxSubscribers()) {
+            throw new RejectedExecutionException("Too many open event streams, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(properties.bufferSize()));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * @return the number of open event streams
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Publishes a user change to every open stream once the transaction that made it has committed.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Change message = new Change(sequence.incrementAndGet(), new UserChangeMessage(event));
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, message);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Object message) {
+        if (!subscriber.buffer().offer(message)) {
+            log.warn("Dropping slow event stream subscriber with {} undelivered events", subscriber.buffer().size());
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining().set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object message;
+            while ((message = subscriber.buffer().poll()) != null) {
+                if (message == HEARTBEAT) {
+                    subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    Change change = (Change) message;
+                    subscriber.emitter().send(SseEmitter.event()
+                            .id(Long.toString(change.id()))
+                            .name(change.message().getType())
+                            .data(change.message()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Event stream subscriber went away: {}", e.getMessage());
+            disconnect(subscriber);
+            return;
+        } finally {
+            subscriber.draining().set(false);
+        }
+        // an event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.buffer().isEmpty() && subscriber.draining().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.buffer().clear();
+            subscriber.emitter().complete();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Change(long id, UserChangeMessage message) {
+    }
+
+    private record Subscriber(SseEmitter emitter, Queue<Object> buffer, AtomicBoolean draining) {
+        Subscriber(SseEmitter emitter, Queue<Object> buffer) {
+            this(emitter, buffer, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.backend.service.event;
+
+/**
+ * Application event published by the service for every created, updated or deleted user.
+ * Listeners that act on committed data should use @TransactionalEventListener, which delivers it after commit.
+ *
+ * @param type the kind of change
+ * @param before the state before the change, null for created users
+ * @param after the state after the change, null for deleted users
+ */
+public record UserChangedEvent(Type type, UserSnapshot before, UserSnapshot after) {
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * @param user the created user
+     * @return the event for a created user
+     */
+    public static UserChangedEvent created(UserSnapshot user) {
+        return new UserChangedEvent(Type.CREATED, null, user);
+    }
+
+    /**
+     * @param before the state before the update
+     * @param after the state after the update
+     * @return the event for an updated user
+     */
+    public static UserChangedEvent updated(UserSnapshot before, UserSnapshot after) {
+        return new UserChangedEvent(Type.UPDATED, before, after);
+    }
+
+    /**
+     * @param user the deleted user
+     * @return the event for a deleted user
+     */
+    public static UserChangedEvent deleted(UserSnapshot user) {
+        return new UserChangedEvent(Type.DELETED, user, null);
+    }
+
+    /**
+     * @return the id of the changed user
+     */
+    public Long id() {
+        return after != null ? after.id() : before.id();
+    }
+}
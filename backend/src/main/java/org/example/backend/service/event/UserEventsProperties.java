@@ -0,0 +1,24 @@
+package org.example.backend.service.event;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the user change event stream.
+ * Bound from the "users.events" properties.
+ *
+ * @param bufferSize the number of undelivered events kept per subscriber before it is dropped as too slow
+ * @param maxSubscribers the maximum number of open streams
+ * @param timeout how long a stream stays open before the client has to reconnect
+ * @param heartbeat how often an empty comment is sent to detect closed connections
+ * @param senderThreads the number of threads writing events to subscribers
+ */
+@ConfigurationProperties(prefix = "users.events")
+public record UserEventsProperties(@DefaultValue("256") int bufferSize,
+                                   @DefaultValue("1000") int maxSubscribers,
+                                   @DefaultValue("30m") Duration timeout,
+                                   @DefaultValue("15s") Duration heartbeat,
+                                   @DefaultValue("4") int senderThreads) {
+}
@@ -0,0 +1,24 @@
+package org.example.backend.service.event;
+
+import org.example.backend.model.User;
+
+/**
+ * Immutable copy of the state of a user at one point in time.
+ * Used in change events, because the entity itself keeps changing after the event was published.
+ *
+ * @param id the id of the user
+ * @param firstName the first name of the user
+ * @param lastName the last name of the user
+ * @param email the email of the user
+ */
+public record UserSnapshot(Long id, String firstName, String lastName, String email) {
+    /**
+     * Creates a snapshot of the current state of the user.
+     *
+     * @param user the user to copy
+     * @return the snapshot
+     */
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+}
@@ -3,18 +3,42 @@ package org.example.backend.service.impl;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
 import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.example.backend.exceptions.custom.UserNotFoundException;
 import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.repository.UserQueryGuard;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.repository.UserSpecifications;
 import org.example.backend.service.UserService;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.example.backend.service.lookup.UserLookupResult;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the UserService interface.
@@ -25,13 +49,16 @@ import java.util.Optional;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Injecting dependencies with constructor injection.
      * @param userRepository the repository to be used for user operations
+     * @param eventPublisher the publisher of change events, delivered to listeners after commit
      */
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -41,6 +68,7 @@ public class UserServiceImpl implements UserService {
      * @return a page of users
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<User> getUsersList(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
@@ -59,7 +87,7 @@ public class UserServiceImpl implements UserService {
         log.info("Creating user according to received request: {} ", request);
         if(userRepository.existsByEmail(request.getEmail())) {
             log.warn("Requested email already registered: {}", request.getEmail());
-            throw new EntityExistsException("User already exists");
+            throw new UserAlreadyExistsException("User already exists");
         }
 
         if(request.getEmail() == null || request.getEmail().isEmpty()) {
@@ -72,7 +100,54 @@ public class UserServiceImpl implements UserService {
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         log.info("Created user: {}", user);
-        return userRepository.save(user);
+        User createdUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(createdUser)));
+        return createdUser;
+    }
+
+    /**
+     * Creates all requested users in one transaction.
+     * Emails are checked for conflicts with one query, and all new users are written with one batched insert.
+     * A request with an already registered email, or with an email repeated earlier in the same batch,
+     * fails with EntityExistsException; a request without an email fails with EntityNullException.
+     *
+     * @param requests the user information requests containing the user details
+     * @return the results in the same order as the requests
+     */
+    @Override
+    public List<ItemResult<User>> createUsers(List<UserInformationRequest> requests) {
+        log.info("Creating batch of {} users", requests.size());
+        Set<String> requestedEmails = requests.stream()
+                .map(UserInformationRequest::getEmail)
+                .filter(email -> email != null && !email.isEmpty())
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = new HashSet<>();
+        if (!requestedEmails.isEmpty()) {
+            userRepository.findAllByEmailIn(requestedEmails).forEach(user -> takenEmails.add(user.getEmail()));
+        }
+
+        List<ItemResult<User>> results = new ArrayList<>(requests.size());
+        List<User> newUsers = new ArrayList<>();
+        for (UserInformationRequest request : requests) {
+            if (request.getEmail() == null || request.getEmail().isEmpty()) {
+                log.warn("Requested email is null or empty: {}", request.getEmail());
+                results.add(ItemResult.failure(new EntityNullException("Email cannot be null or empty")));
+            } else if (!takenEmails.add(request.getEmail())) {
+                log.warn("Requested email already registered: {}", request.getEmail());
+                results.add(ItemResult.failure(new UserAlreadyExistsException("User already exists")));
+            } else {
+                User user = new User();
+                user.setEmail(request.getEmail());
+                user.setFirstName(request.getFirstName());
+                user.setLastName(request.getLastName());
+                newUsers.add(user);
+                results.add(ItemResult.success(user));
+            }
+        }
+        userRepository.insertAll(newUsers);
+        newUsers.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(user))));
+        log.info("Created {} of {} requested users", newUsers.size(), requests.size());
+        return results;
     }
 
     /**
@@ -93,13 +168,14 @@ public class UserServiceImpl implements UserService {
             log.warn("Requested id is null");
             throw new EntityNullException("Id can not be null.");
         }
-        User updatedUser = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("User not found. Maybe you entered wrong or negative id? "));
+        User updatedUser = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found. Maybe you entered wrong or negative id? "));
+        UserSnapshot before = UserSnapshot.of(updatedUser);
 
         // allows to save information about the user's past email, so as not to consider the current email as someone else's email, but to skip it when updating
         if(request.getEmail() != null && !request.getEmail().equals(updatedUser.getEmail())) {
             if (userRepository.existsByEmail(request.getEmail())) {
                 log.warn("Requested email already registered: {}", request.getEmail());
-                throw new EntityExistsException("User with this email already exists");
+                throw new UserAlreadyExistsException("User with this email already exists");
             }
             // update email only in case if requested email is not null, do not exist in another object and is not current email of this object
             updatedUser.setEmail(request.getEmail());
@@ -108,7 +184,9 @@ public class UserServiceImpl implements UserService {
         Optional.of(request.getFirstName()).ifPresent(updatedUser::setFirstName);
         Optional.of(request.getLastName()).ifPresent(updatedUser::setLastName);
 
-        return userRepository.save(updatedUser);
+        User savedUser = userRepository.save(updatedUser);
+        eventPublisher.publishEvent(UserChangedEvent.updated(before, UserSnapshot.of(savedUser)));
+        return savedUser;
     }
 
     /**
@@ -125,8 +203,9 @@ public class UserServiceImpl implements UserService {
             log.warn("Requested id is null");
             throw new EntityNullException("Id can not be null.");
         }
-        User user = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("User not found. Maybe you entered wrong or negative id?"));
+        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found. Maybe you entered wrong or negative id?"));
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(UserSnapshot.of(user)));
     }
 
     /**
@@ -138,6 +217,7 @@ public class UserServiceImpl implements UserService {
      * @throws EntityNullException if the name is null or empty
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<User> getUsersByName(String name, Pageable pageable) {
         if(name == null || name.isEmpty()) {
             log.warn("Requested name is null or empty");
@@ -145,4 +225,63 @@ public class UserServiceImpl implements UserService {
         }
         return userRepository.findByFirstName(name, pageable).orElseThrow(() -> new EntityNullException("User not found"));
     }
+
+    /**
+     * Retrieves a page of the users matching all set conditions of a filter.
+     * The sort order is checked against the indexes first, so the read never has to sort the whole table.
+     *
+     * @param filter the conditions, an empty filter matches every user
+     * @param pageable the pagination information and the requested sort order
+     * @return a page of matching users, in the requested order completed to the order of the serving index
+     * @throws UnsupportedQueryException if no index serves the combination of filter and sort order
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<User> findUsers(UserFilter filter, Pageable pageable) {
+        Sort sort = UserQueryGuard.plan(filter, pageable.getSort());
+        log.debug("Finding users matching {} sorted by {}", filter, sort);
+        return userRepository.findAll(UserSpecifications.matching(filter),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+    }
+
+    /**
+     * Retrieves many users by id with one query.
+     * Every id is looked up once, a repeated id only counts at its first position.
+     *
+     * @param ids the ids to look up
+     * @return the found users in request order and the ids no user has
+     * @throws EntityNullException if no ids or a null id are passed
+     * @throws BatchTooLargeException if more than {@link #MAX_LOOKUP_IDS} ids are passed
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserLookupResult getUsersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            log.warn("Requested ids are null or empty");
+            throw new EntityNullException("Ids can not be null or empty");
+        }
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            log.warn("Requested {} ids at once", ids.size());
+            throw new BatchTooLargeException("At most " + MAX_LOOKUP_IDS + " ids can be looked up at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            log.warn("Requested ids contain null");
+            throw new EntityNullException("Id can not be null.");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, User> found = new HashMap<>();
+        userRepository.findAllById(uniqueIds).forEach(user -> found.put(user.getId(), user));
+
+        List<User> users = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            User user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new UserLookupResult(users, missingIds);
+    }
 }
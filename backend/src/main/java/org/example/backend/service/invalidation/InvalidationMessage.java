@@ -0,0 +1,22 @@
+package org.example.backend.service.invalidation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Payload of a NOTIFY announcing committed user changes.
+ * Field names are kept short because a NOTIFY payload is limited to 8000 bytes.
+ *
+ * @param node the id of the node that made the changes
+ * @param sentAt the wall clock time of the commit in epoch milliseconds, used to measure invalidation lag
+ * @param ids the ids of the changed users
+ * @param emails the old and new emails of the changed users
+ * @param all true if the changes did not fit into notifications and every user must be evicted
+ */
+public record InvalidationMessage(@JsonProperty("n") String node,
+                                  @JsonProperty("t") long sentAt,
+                                  @JsonProperty("i") List<Long> ids,
+                                  @JsonProperty("e") List<String> emails,
+                                  @JsonProperty("a") boolean all) {
+}
@@ -0,0 +1,35 @@
+package org.example.backend.service.invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Configuration of cross-node cache invalidation over PostgreSQL LISTEN/NOTIFY.
+ * Bound from the "users.invalidation" properties. The listener connects with the "spring.datasource" settings
+ * unless a separate url is given, e.g. when the application itself talks to PostgreSQL through a pooler.
+ *
+ * @param enabled whether committed user changes are announced to the other nodes
+ * @param listen whether this node listens to the announcements of the other nodes
+ * @param channel the NOTIFY channel name
+ * @param nodeId the id of this node, used to ignore its own announcements
+ * @param url the JDBC url of the listener connection, "spring.datasource.url" if empty
+ * @param pollInterval how long the listener waits for notifications in one call
+ * @param maxReconnectDelay the upper bound of the back-off between reconnect attempts
+ */
+@ConfigurationProperties(prefix = "users.invalidation")
+public record InvalidationProperties(boolean enabled,
+                                     @DefaultValue("true") boolean listen,
+                                     @DefaultValue("users_changed") String channel,
+                                     String nodeId,
+                                     String url,
+                                     @DefaultValue("500ms") Duration pollInterval,
+                                     @DefaultValue("30s") Duration maxReconnectDelay) {
+    public InvalidationProperties {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+    }
+}
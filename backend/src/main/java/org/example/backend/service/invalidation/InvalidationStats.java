@@ -0,0 +1,61 @@
+package org.example.backend.service.invalidation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the invalidation listener of this node.
+ * The lag is the time between the commit on the other node and the eviction here,
+ * so it includes the clock difference of the two nodes.
+ */
+public class InvalidationStats {
+    private final LongAdder received = new LongAdder();
+    private final LongAdder lagTotal = new LongAdder();
+    private final LongAccumulator lagMax = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastLag = new AtomicLong();
+    private final LongAdder reconnects = new LongAdder();
+    private volatile boolean connected;
+
+    void recordReceived(long lagMillis) {
+        long lag = Math.max(0, lagMillis);
+        received.increment();
+        lagTotal.add(lag);
+        lagMax.accumulate(lag);
+        lastLag.set(lag);
+    }
+
+    void recordConnected(boolean reconnect) {
+        connected = true;
+        if (reconnect) {
+            reconnects.increment();
+        }
+    }
+
+    void recordDisconnected() {
+        connected = false;
+    }
+
+    /**
+     * @return the current values of the counters
+     */
+    public Snapshot snapshot() {
+        long count = received.sum();
+        return new Snapshot(connected, count, reconnects.sum(), lastLag.get(),
+                count == 0 ? 0 : lagTotal.sum() / count, lagMax.get());
+    }
+
+    /**
+     * Values of the invalidation counters at one point in time.
+     *
+     * @param connected whether the listener connection is open
+     * @param received the number of notifications received from other nodes
+     * @param reconnects the number of times the listener connection was reopened
+     * @param lastLagMillis the lag of the last notification
+     * @param averageLagMillis the average lag of all notifications
+     * @param maxLagMillis the highest lag seen
+     */
+    public record Snapshot(boolean connected, long received, long reconnects,
+                           long lastLagMillis, long averageLagMillis, long maxLagMillis) {
+    }
+}
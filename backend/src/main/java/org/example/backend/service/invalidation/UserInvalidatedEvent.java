@@ -0,0 +1,21 @@
+package org.example.backend.service.invalidation;
+
+import java.util.Set;
+
+/**
+ * Application event published when users were changed by another node.
+ * Local caches of users or pages listen to it and evict the matching entries;
+ * changes made by this node are announced with {@link org.example.backend.service.event.UserChangedEvent} instead.
+ *
+ * @param ids the ids of the changed users
+ * @param emails the old and new emails of the changed users
+ * @param all true if changes may have been missed, e.g. after a reconnect, and everything must be evicted
+ */
+public record UserInvalidatedEvent(Set<Long> ids, Set<String> emails, boolean all) {
+    /**
+     * @return an event asking to evict every cached user
+     */
+    public static UserInvalidatedEvent everything() {
+        return new UserInvalidatedEvent(Set.of(), Set.of(), true);
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.backend.service.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens to the user changes announced by the other nodes and republishes them as {@link UserInvalidatedEvent}.
+ * The listener uses its own connection outside the pool: a LISTEN is bound to one session,
+ * and a pooled connection would be handed to other threads. Notifications sent while the connection is down are lost,
+ * so after every reconnect the local caches are asked to evict everything.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${users.invalidation.enabled:false} and ${users.invalidation.listen:true}")
+public class UserInvalidationListener implements SmartLifecycle {
+    /**
+     * How often an idle connection is checked, a dead peer is otherwise not noticed while waiting for notifications.
+     */
+    private static final long VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final InvalidationProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final InvalidationStats stats = new InvalidationStats();
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param properties the channel, node id and reconnect settings
+     * @param dataSourceProperties the connection settings used if no separate url is configured
+     * @param eventPublisher the publisher of the local invalidation events
+     * @param objectMapper the mapper used to read the payload
+     */
+    public UserInvalidationListener(InvalidationProperties properties, DataSourceProperties dataSourceProperties,
+                                    ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the counters of this listener
+     */
+    public InvalidationStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listenLoop, "user-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        // the loop notices the flag within one poll interval
+        running = false;
+        try {
+            listener.join(properties.pollInterval().toMillis() + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        long reconnectDelay = properties.pollInterval().toMillis();
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                reconnectDelay = properties.pollInterval().toMillis();
+                stats.recordConnected(connectedBefore);
+                if (connectedBefore) {
+                    // whatever was sent while we were away is lost
+                    eventPublisher.publishEvent(UserInvalidatedEvent.everything());
+                }
+                connectedBefore = true;
+                log.info("Listening to user invalidations on channel {} as node {}", properties.channel(), properties.nodeId());
+                receive(connection);
+            } catch (SQLException | RuntimeException e) {
+                stats.recordDisconnected();
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener connection failed, reconnecting in {} ms: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, properties.maxReconnectDelay().toMillis());
+            }
+        }
+        stats.recordDisconnected();
+    }
+
+    private Connection connect() throws SQLException {
+        String url = properties.url() == null || properties.url().isBlank() ? dataSourceProperties.determineUrl() : properties.url();
+        Connection connection = DriverManager.getConnection(url,
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            // the channel is an identifier, LISTEN does not take bind parameters
+            statement.execute("LISTEN \"" + properties.channel().replace("\"", "\"\"") + "\"");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int timeout = (int) Math.max(1, properties.pollInterval().toMillis());
+        long lastActivity = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeout);
+            long now = System.currentTimeMillis();
+            if (notifications != null && notifications.length > 0) {
+                lastActivity = now;
+                handle(notifications, now);
+            } else if (now - lastActivity > VALIDATION_INTERVAL_MILLIS) {
+                if (!connection.isValid(5)) {
+                    throw new SQLException("Invalidation listener connection is no longer valid");
+                }
+                lastActivity = now;
+            }
+        }
+    }
+
+    private void handle(PGNotification[] notifications, long now) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> emails = new LinkedHashSet<>();
+        boolean all = false;
+        for (PGNotification notification : notifications) {
+            InvalidationMessage message;
+            try {
+                message = objectMapper.readValue(notification.getParameter(), InvalidationMessage.class);
+            } catch (IOException e) {
+                log.warn("Ignoring malformed invalidation message: {}", notification.getParameter());
+                continue;
+            }
+            if (properties.nodeId().equals(message.node())) {
+                continue;
+            }
+            stats.recordReceived(now - message.sentAt());
+            all |= message.all();
+            if (message.ids() != null) {
+                ids.addAll(message.ids());
+            }
+            if (message.emails() != null) {
+                emails.addAll(message.emails());
+            }
+        }
+        if (all) {
+            eventPublisher.publishEvent(UserInvalidatedEvent.everything());
+        } else if (!ids.isEmpty() || !emails.isEmpty()) {
+            eventPublisher.publishEvent(new UserInvalidatedEvent(Set.copyOf(ids), Set.copyOf(emails), false));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.backend.service.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Announces user changes to the other nodes with a PostgreSQL NOTIFY.
+ * The changes of one transaction are collected and sent with a single NOTIFY right before the commit,
+ * on the connection of that transaction. PostgreSQL delivers a notification only when its transaction commits,
+ * so the other nodes never hear about a change that was rolled back or that they cannot read yet.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.invalidation", name = "enabled", havingValue = "true")
+public class UserInvalidationPublisher {
+    /**
+     * The largest NOTIFY payload PostgreSQL accepts, in bytes of the server encoding, assumed to be UTF-8.
+     */
+    static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final InvalidationProperties properties;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jdbcTemplate the template sharing the connection of the current transaction
+     * @param objectMapper the mapper used to write the payload
+     * @param properties the channel and id of this node
+     */
+    public UserInvalidationPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, InvalidationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Adds the change to the notification of the current transaction,
+     * or notifies right away if there is no transaction.
+     *
+     * @param event the user change
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending pending = new Pending();
+            pending.add(event);
+            send(pending);
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new NotifySynchronization(pending));
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Splits the changes into notifications by the size of their payload. A user whose ids and emails alone do not fit
+     * into one notification, e.g. after many email changes in one transaction, is announced by asking every node
+     * to evict everything instead.
+     */
+    private void send(Pending pending) {
+        long sentAt = System.currentTimeMillis();
+        int emptySize = size(new InvalidationMessage(properties.nodeId(), sentAt, List.of(), List.of(), false));
+        List<Long> ids = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        int size = emptySize;
+        for (Map.Entry<Long, Set<String>> user : pending.users.entrySet()) {
+            // every element adds its JSON and at most one comma
+            int userSize = size(user.getKey()) + 1;
+            for (String email : user.getValue()) {
+                userSize += size(email) + 1;
+            }
+            if (emptySize + userSize > MAX_PAYLOAD_BYTES) {
+                log.debug("User {} does not fit into a notification, asking to evict everything", user.getKey());
+                notify(new InvalidationMessage(properties.nodeId(), sentAt, List.of(), List.of(), true));
+                return;
+            }
+            if (size + userSize > MAX_PAYLOAD_BYTES) {
+                notify(new InvalidationMessage(properties.nodeId(), sentAt, ids, emails, false));
+                ids = new ArrayList<>();
+                emails = new ArrayList<>();
+                size = emptySize;
+            }
+            ids.add(user.getKey());
+            emails.addAll(user.getValue());
+            size += userSize;
+        }
+        if (!ids.isEmpty()) {
+            notify(new InvalidationMessage(properties.nodeId(), sentAt, ids, emails, false));
+        }
+        log.debug("Notified {} changed users on channel {}", pending.users.size(), properties.channel());
+    }
+
+    private int size(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write invalidation message", e);
+        }
+    }
+
+    private void notify(InvalidationMessage message) {
+        try {
+            jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                    properties.channel(), objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write invalidation message", e);
+        }
+    }
+
+    private static final class Pending {
+        private final Map<Long, Set<String>> users = new LinkedHashMap<>();
+
+        void add(UserChangedEvent event) {
+            Set<String> emails = users.computeIfAbsent(event.id(), id -> new LinkedHashSet<>(2));
+            addEmail(emails, event.before());
+            addEmail(emails, event.after());
+        }
+
+        private static void addEmail(Set<String> emails, UserSnapshot snapshot) {
+            if (snapshot != null && snapshot.email() != null) {
+                emails.add(snapshot.email());
+            }
+        }
+    }
+
+    private final class NotifySynchronization implements TransactionSynchronization {
+        private final Pending pending;
+
+        NotifySynchronization(Pending pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // unbound first so changes published from here on start a new notification
+            TransactionSynchronizationManager.unbindResource(UserInvalidationPublisher.this);
+            send(pending);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UserInvalidationPublisher.this);
+        }
+    }
+}
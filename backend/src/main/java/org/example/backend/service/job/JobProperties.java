@@ -0,0 +1,40 @@
+package org.example.backend.service.job;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Configuration of the asynchronous bulk jobs.
+ * Bound from the "users.jobs" properties.
+ *
+ * @param enabled whether bulk jobs can be submitted and are run by this node
+ * @param maxConcurrent the number of jobs running at the same time, each holds at most one pooled connection
+ * @param queueCapacity the number of jobs waiting for a free runner, submissions beyond it get 503
+ * @param chunkSize the number of items written in one transaction together with the checkpoint
+ * @param maxItems the maximum number of items of one job
+ * @param maxErrors the number of latest item errors kept per job
+ * @param lease how long a job stays with its node without a heartbeat before another node may resume it
+ * @param recoveryInterval how often unfinished jobs without a live node are looked for
+ * @param exportDir the directory the export files are written to
+ * @param nodeId the id of this node, recorded as owner of the jobs it runs
+ */
+@ConfigurationProperties(prefix = "users.jobs")
+public record JobProperties(boolean enabled,
+                            @DefaultValue("2") int maxConcurrent,
+                            @DefaultValue("20") int queueCapacity,
+                            @DefaultValue("500") int chunkSize,
+                            @DefaultValue("1000000") int maxItems,
+                            @DefaultValue("20") int maxErrors,
+                            @DefaultValue("1m") Duration lease,
+                            @DefaultValue("15s") Duration recoveryInterval,
+                            @DefaultValue("exports") String exportDir,
+                            String nodeId) {
+    public JobProperties {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+    }
+}
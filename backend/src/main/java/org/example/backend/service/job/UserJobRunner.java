@@ -0,0 +1,392 @@
+package org.example.backend.service.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.ErrorCode;
+import org.example.backend.model.User;
+import org.example.backend.model.UserJob;
+import org.example.backend.model.UserJobPayload;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.repository.UserJobPayloadRepository;
+import org.example.backend.repository.UserJobProgress;
+import org.example.backend.repository.UserJobRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.bulk.UserBulkService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Runs one bulk job chunk by chunk.
+ * Every chunk is written in one transaction that also locks the job row, checks that this node still owns the job
+ * and moves the checkpoint behind the chunk. A job stopped at any point, by a crash, a shutdown or a cancellation,
+ * therefore continues with the first chunk that was not committed. The input of the job is read once when it starts,
+ * the chunks only read and write its progress. The writes themselves reuse
+ * {@link UserService#createUsers} and {@link UserBulkService}, whose transactions join the one of the chunk.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.jobs", name = "enabled", havingValue = "true")
+public class UserJobRunner {
+    private static final String CSV_HEADER = "id,first_name,last_name,email\n";
+
+    private final UserJobRepository jobRepository;
+    private final UserJobPayloadRepository payloadRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final UserBulkService bulkService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final JobProperties properties;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jobRepository the repository of the job state
+     * @param payloadRepository the repository of the job inputs
+     * @param userRepository the repository to be used for user operations
+     * @param userService the service creating the imported users
+     * @param bulkService the service updating and deleting users in sets
+     * @param transactionManager the transaction manager running every chunk in its own transaction
+     * @param validator the validator checking every imported user on its own
+     * @param objectMapper the mapper reading the job payloads
+     * @param properties the chunk size, the number of kept errors and the export directory
+     */
+    public UserJobRunner(UserJobRepository jobRepository, UserJobPayloadRepository payloadRepository, UserRepository userRepository,
+                         UserService userService, UserBulkService bulkService, PlatformTransactionManager transactionManager,
+                         Validator validator, ObjectMapper objectMapper, JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.payloadRepository = payloadRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.bulkService = bulkService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs a job from its checkpoint until it is done, cancelled or taken over by another node, or until this node stops.
+     * A job stopped with the node stays unfinished and is resumed once its lease has run out.
+     *
+     * @param id the id of a job owned by this node
+     * @param keepRunning checked before every chunk, false once the node is stopping
+     */
+    public void run(Long id, BooleanSupplier keepRunning) {
+        UserJob job = transactionTemplate.execute(status -> start(id));
+        if (job == null) {
+            log.info("Job {} is finished or owned by another node, skipping it", id);
+            return;
+        }
+        log.info("Running {} job {} from checkpoint {}", job.getType(), id, job.getCheckpoint());
+        try {
+            boolean done = switch (job.getType()) {
+                case IMPORT -> runItems(id, read(job, new TypeReference<List<UserInformationRequest>>() {}), this::importUsers, keepRunning);
+                case UPDATE -> runItems(id, read(job, new TypeReference<List<UserPatchRequest>>() {}), bulkService::updateUsers, keepRunning);
+                case DELETE -> {
+                    UserBulkDeleteRequest request = read(job, new TypeReference<>() {});
+                    if (request.getIds() != null) {
+                        yield runItems(id, request.getIds(), bulkService::deleteUsers, keepRunning);
+                    }
+                    UserBulkDeleteRequest.Filter filter = request.getFilter();
+                    UserFilter userFilter = new UserFilter(filter.getFirstName(), filter.getLastName(), filter.getEmailDomain());
+                    yield runChunks(id, locked -> deleteMatching(locked, userFilter), keepRunning);
+                }
+                case EXPORT -> runChunks(id, this::exportChunk, keepRunning);
+            };
+            if (done) {
+                transactionTemplate.executeWithoutResult(status -> finish(id, UserJob.Status.SUCCEEDED, null));
+                log.info("Job {} finished", id);
+            }
+        } catch (RuntimeException e) {
+            log.error("Job {} failed", id, e);
+            transactionTemplate.executeWithoutResult(status -> finish(id, UserJob.Status.FAILED, e));
+        }
+    }
+
+    private UserJob start(Long id) {
+        UserJob job = jobRepository.findForUpdateById(id).orElse(null);
+        if (job == null || !UserJobService.UNFINISHED.contains(job.getStatus()) || !properties.nodeId().equals(job.getOwner())) {
+            return null;
+        }
+        job.setStatus(UserJob.Status.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(Instant.now());
+        }
+        return job;
+    }
+
+    private void finish(Long id, UserJob.Status status, RuntimeException failure) {
+        UserJobProgress progress = lockOwned(id);
+        if (progress == null) {
+            return;
+        }
+        if (status == UserJob.Status.SUCCEEDED && progress.getTotalItems() == null) {
+            // a filter delete learns how many users matched only when it is done
+            progress.setTotalItems(progress.getProcessedItems());
+        }
+        if (failure != null) {
+            addError(progress, "job", failure);
+        }
+        save(progress);
+        jobRepository.transition(id, Set.of(UserJob.Status.RUNNING), status, Instant.now());
+    }
+
+    /**
+     * Locks the job row for the current transaction.
+     *
+     * @return the progress of the job, or null if it is no longer running on this node
+     */
+    private UserJobProgress lockOwned(Long id) {
+        if (jobRepository.lockRunning(id, properties.nodeId(), Instant.now()) == 0) {
+            return null;
+        }
+        return jobRepository.findProgressById(id).orElse(null);
+    }
+
+    /**
+     * Writes the progress of a job locked by the current transaction, the stored errors are only read if there are new ones.
+     */
+    private void save(UserJobProgress progress) {
+        jobRepository.updateProgress(progress.getId(), progress.getTotalItems(), progress.getProcessedItems(),
+                progress.getFailedItems(), progress.getCheckpoint(), progress.getResultSize());
+        if (progress.getNewErrors().isEmpty()) {
+            return;
+        }
+        String stored = jobRepository.findErrorsById(progress.getId());
+        List<String> errors = new ArrayList<>(stored == null ? List.of() : Arrays.asList(stored.split("\n")));
+        errors.addAll(progress.getNewErrors());
+        if (errors.size() > properties.maxErrors()) {
+            errors = errors.subList(errors.size() - properties.maxErrors(), errors.size());
+        }
+        jobRepository.updateErrors(progress.getId(), String.join("\n", errors));
+        progress.getNewErrors().clear();
+    }
+
+    /**
+     * Writes a list of items chunk by chunk, the checkpoint is the index of the next item.
+     * If a chunk fails as a whole, none of its items were written: they are counted as failed and the job goes on.
+     *
+     * @return true if all items were written, false if the job was stopped before
+     */
+    private <T> boolean runItems(Long id, List<T> items, Function<List<T>, List<? extends ItemResult<?>>> work, BooleanSupplier keepRunning) {
+        return runChunks(id, progress -> {
+            int from = (int) progress.getCheckpoint();
+            int to = Math.min(from + properties.chunkSize(), items.size());
+            if (from < to) {
+                List<? extends ItemResult<?>> results = work.apply(items.subList(from, to));
+                for (int i = 0; i < results.size(); i++) {
+                    if (!results.get(i).isSuccess()) {
+                        progress.setFailedItems(progress.getFailedItems() + 1);
+                        addError(progress, "item " + (from + i), results.get(i).error());
+                    }
+                }
+                progress.setProcessedItems(progress.getProcessedItems() + to - from);
+                progress.setCheckpoint(to);
+            }
+            return to < items.size();
+        }, (progress, failure) -> {
+            int from = (int) progress.getCheckpoint();
+            int to = Math.min(from + properties.chunkSize(), items.size());
+            progress.setProcessedItems(progress.getProcessedItems() + to - from);
+            progress.setFailedItems(progress.getFailedItems() + to - from);
+            progress.setCheckpoint(to);
+            addError(progress, "items " + from + "-" + (to - 1), failure);
+            return to < items.size();
+        }, keepRunning);
+    }
+
+    private boolean runChunks(Long id, Function<UserJobProgress, Boolean> chunk, BooleanSupplier keepRunning) {
+        return runChunks(id, chunk, null, keepRunning);
+    }
+
+    /**
+     * Runs chunks until one reports that nothing is left, each in a transaction holding the lock of the job row.
+     * After a failed chunk, the skip step moves the checkpoint past it in a new transaction.
+     * Without a skip step, a failed chunk fails the whole job.
+     *
+     * @return true if the job is done, false if it was stopped, cancelled or taken over before
+     */
+    private boolean runChunks(Long id, Function<UserJobProgress, Boolean> chunk, BiFunction<UserJobProgress, RuntimeException, Boolean> skip,
+                              BooleanSupplier keepRunning) {
+        while (keepRunning.getAsBoolean()) {
+            Boolean more;
+            try {
+                more = transactionTemplate.execute(status -> {
+                    UserJobProgress progress = lockOwned(id);
+                    if (progress == null) {
+                        return null;
+                    }
+                    Boolean left = chunk.apply(progress);
+                    save(progress);
+                    return left;
+                });
+            } catch (RuntimeException e) {
+                if (skip == null) {
+                    throw e;
+                }
+                log.error("A chunk of job {} failed, skipping it", id, e);
+                more = transactionTemplate.execute(status -> {
+                    UserJobProgress progress = lockOwned(id);
+                    if (progress == null) {
+                        return null;
+                    }
+                    Boolean left = skip.apply(progress, e);
+                    save(progress);
+                    return left;
+                });
+            }
+            if (more == null) {
+                log.info("Job {} was cancelled or taken over, stopping it", id);
+                return false;
+            }
+            if (!more) {
+                return true;
+            }
+        }
+        log.info("Node is stopping, job {} will be resumed from its checkpoint", id);
+        return false;
+    }
+
+    private List<ItemResult<User>> importUsers(List<UserInformationRequest> requests) {
+        List<ItemResult<User>> results = new ArrayList<>(requests.size());
+        List<UserInformationRequest> valid = new ArrayList<>();
+        for (UserInformationRequest request : requests) {
+            Set<ConstraintViolation<UserInformationRequest>> violations = validator.validate(request);
+            results.add(violations.isEmpty() ? null : ItemResult.failure(new IllegalArgumentException(violations.iterator().next().getMessage())));
+            if (violations.isEmpty()) {
+                valid.add(request);
+            }
+        }
+        if (!valid.isEmpty()) {
+            List<ItemResult<User>> created = userService.createUsers(valid);
+            for (int i = 0, next = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, created.get(next++));
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean deleteMatching(UserJobProgress progress, UserFilter filter) {
+        List<Long> ids = userRepository.findMatchingForUpdate(filter, properties.chunkSize()).stream().map(User::getId).toList();
+        if (!ids.isEmpty()) {
+            bulkService.deleteUsers(ids);
+            progress.setProcessedItems(progress.getProcessedItems() + ids.size());
+        }
+        return ids.size() == properties.chunkSize();
+    }
+
+    /**
+     * Appends the users following the checkpoint to the export file. The file is first cut back to its size
+     * at the checkpoint, so rows written by a chunk that was not committed are not written twice.
+     */
+    private boolean exportChunk(UserJobProgress progress) {
+        List<User> users = new ArrayList<>(userRepository.findByIdGreaterThanOrderByIdAsc(progress.getCheckpoint(), Limit.of(properties.chunkSize())));
+        // with sharding every shard returns a chunk, only the lowest ids of all of them follow the checkpoint
+        users.sort(Comparator.comparing(User::getId));
+        if (users.size() > properties.chunkSize()) {
+            users = users.subList(0, properties.chunkSize());
+        }
+        StringBuilder csv = new StringBuilder(progress.getResultSize() == 0 ? CSV_HEADER : "");
+        for (User user : users) {
+            csv.append(user.getId()).append(',').append(csvField(user.getFirstName())).append(',')
+                    .append(csvField(user.getLastName())).append(',').append(csvField(user.getEmail())).append('\n');
+        }
+        progress.setResultSize(write(exportFile(progress.getId()), progress.getResultSize(), csv));
+        if (!users.isEmpty()) {
+            progress.setCheckpoint(users.get(users.size() - 1).getId());
+            progress.setProcessedItems(progress.getProcessedItems() + users.size());
+        }
+        return users.size() == properties.chunkSize();
+    }
+
+    /**
+     * @param id the id of an export job
+     * @return the file the job writes its users to
+     */
+    Path exportFile(Long id) {
+        return Path.of(properties.exportDir(), "users-export-" + id + ".csv");
+    }
+
+    private static long write(Path file, long position, CharSequence text) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+                long end = position + bytes.remaining();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes, end - bytes.remaining());
+                }
+                // the rows have to be on disk before the checkpoint behind them is committed
+                channel.force(false);
+                return end;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Adds an error to the ones written with the progress, the job keeps the latest ones.
+     */
+    private static void addError(UserJobProgress progress, String where, Throwable error) {
+        progress.getNewErrors().add(where + ": " + ErrorCode.of(error).name() + " " + String.valueOf(error.getMessage()).replace('\n', ' '));
+    }
+
+    private <T> T read(UserJob job, TypeReference<T> type) {
+        String payload = transactionTemplate.execute(status ->
+                payloadRepository.findById(job.getId()).map(UserJobPayload::getPayload).orElse(null));
+        if (payload == null) {
+            throw new IllegalStateException("Job " + job.getId() + " has no payload");
+        }
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload of job " + job.getId() + " can not be read", e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.example.backend.service.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.JobNotFoundException;
+import org.example.backend.model.UserJob;
+import org.example.backend.model.UserJobPayload;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.repository.UserJobPayloadRepository;
+import org.example.backend.repository.UserJobRepository;
+import org.example.backend.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts bulk jobs and runs them in the background.
+ * A submitted job is stored as QUEUED and its id is returned at once. Jobs run on a fixed pool of
+ * "users.jobs.max-concurrent" threads, so however many are submitted, they hold at most that many pooled
+ * connections and leave the rest to interactive requests. Submissions beyond the pool and its queue are rejected.
+ * <p>
+ * Every job belongs to the node running it, which refreshes the job's heartbeat periodically. Unfinished jobs
+ * whose heartbeat is older than the lease, because their node crashed or was stopped, are taken over by
+ * whichever node finds them first and resumed from their checkpoint.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "users.jobs", name = "enabled", havingValue = "true")
+public class UserJobService implements SmartLifecycle {
+    static final Set<UserJob.Status> UNFINISHED = EnumSet.of(UserJob.Status.QUEUED, UserJob.Status.RUNNING);
+
+    private final UserJobRepository jobRepository;
+    private final UserJobPayloadRepository payloadRepository;
+    private final UserJobRunner runner;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final JobProperties properties;
+    /**
+     * The jobs queued or running on this node.
+     */
+    private final Set<Long> localJobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService recovery;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jobRepository the repository of the job state
+     * @param payloadRepository the repository of the job inputs
+     * @param runner the runner executing one job
+     * @param userRepository the repository counting the users to export
+     * @param transactionManager the transaction manager of the submissions, claims and heartbeats
+     * @param objectMapper the mapper writing the job payloads
+     * @param properties the pool size, queue capacity, lease and item limit
+     */
+    public UserJobService(UserJobRepository jobRepository, UserJobPayloadRepository payloadRepository, UserJobRunner runner,
+                          UserRepository userRepository, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                          JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.payloadRepository = payloadRepository;
+        this.runner = runner;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Submits a job creating users. Every user is validated and created on its own,
+     * an invalid user or a taken email fails only its own item.
+     *
+     * @param requests the users to create
+     * @return the queued job
+     * @throws EntityNullException if no users are passed
+     * @throws BatchTooLargeException if more users than allowed are passed
+     * @throws RejectedExecutionException if too many jobs are queued already
+     */
+    public UserJob submitImport(List<UserInformationRequest> requests) {
+        checkSize(requests);
+        return submit(UserJob.Type.IMPORT, requests, requests.size());
+    }
+
+    /**
+     * Submits a job applying partial updates, see {@link org.example.backend.service.bulk.UserBulkService#updateUsers}.
+     *
+     * @param patches the changes, one per user
+     * @return the queued job
+     * @throws EntityNullException if no patches are passed
+     * @throws BatchTooLargeException if more patches than allowed are passed
+     * @throws RejectedExecutionException if too many jobs are queued already
+     */
+    public UserJob submitUpdate(List<UserPatchRequest> patches) {
+        checkSize(patches);
+        return submit(UserJob.Type.UPDATE, patches, patches.size());
+    }
+
+    /**
+     * Submits a job deleting the users with the passed ids, or all users matching the passed filter.
+     * Ids take precedence over a filter.
+     *
+     * @param request the ids or the filter of the users to delete
+     * @return the queued job
+     * @throws EntityNullException if neither ids nor a filter with a condition are passed
+     * @throws BatchTooLargeException if more ids than allowed are passed
+     * @throws RejectedExecutionException if too many jobs are queued already
+     */
+    public UserJob submitDelete(UserBulkDeleteRequest request) {
+        if (request.getIds() != null) {
+            checkSize(request.getIds());
+            return submit(UserJob.Type.DELETE, new UserBulkDeleteRequest(request.getIds(), null), request.getIds().size());
+        }
+        UserBulkDeleteRequest.Filter filter = request.getFilter();
+        if (filter == null || new UserFilter(filter.getFirstName(), filter.getLastName(), filter.getEmailDomain()).isEmpty()) {
+            log.warn("Requested delete job has neither ids nor filter conditions");
+            throw new EntityNullException("Ids or a filter with at least one condition are required");
+        }
+        return submit(UserJob.Type.DELETE, request, null);
+    }
+
+    /**
+     * Submits a job writing all users to a CSV file, in id order.
+     *
+     * @return the queued job
+     * @throws RejectedExecutionException if too many jobs are queued already
+     */
+    public UserJob submitExport() {
+        return submit(UserJob.Type.EXPORT, null, (int) Math.min(Integer.MAX_VALUE, userRepository.count()));
+    }
+
+    /**
+     * Retrieves a job with its progress.
+     *
+     * @param id the id of the job
+     * @return the job
+     * @throws JobNotFoundException if no job has the id
+     */
+    public UserJob getJob(Long id) {
+        return jobRepository.findById(id).orElseThrow(() -> new JobNotFoundException("Job not found. Maybe you entered wrong id?"));
+    }
+
+    /**
+     * Cancels a job that is not finished yet. The chunk being written is still committed,
+     * the job stops before the next one. Finished jobs are left as they are.
+     *
+     * @param id the id of the job
+     * @return the job after the cancellation
+     * @throws JobNotFoundException if no job has the id
+     */
+    public UserJob cancelJob(Long id) {
+        if (Integer.valueOf(1).equals(transactionTemplate.execute(status ->
+                jobRepository.transition(id, UNFINISHED, UserJob.Status.CANCELLED, Instant.now())))) {
+            log.info("Cancelled job {}", id);
+        }
+        return getJob(id);
+    }
+
+    /**
+     * Finds the file written by a finished export job.
+     *
+     * @param id the id of the job
+     * @return the CSV file
+     * @throws JobNotFoundException if no job has the id, or it is no export or not finished yet
+     */
+    public Path getExportFile(Long id) {
+        UserJob job = getJob(id);
+        if (job.getType() != UserJob.Type.EXPORT || job.getStatus() != UserJob.Status.SUCCEEDED) {
+            log.warn("Requested export of job {} which is a {} job in status {}", id, job.getType(), job.getStatus());
+            throw new JobNotFoundException("No finished export with this id");
+        }
+        return runner.exportFile(id);
+    }
+
+    private UserJob submit(UserJob.Type type, Object payload, Integer totalItems) {
+        if (!running || localJobs.size() >= properties.maxConcurrent() + properties.queueCapacity()) {
+            log.warn("Rejecting {} job, {} jobs are queued or running", type, localJobs.size());
+            throw new RejectedExecutionException("Too many bulk jobs, try again later");
+        }
+        Instant now = Instant.now();
+        UserJob job = new UserJob();
+        job.setType(type);
+        job.setStatus(UserJob.Status.QUEUED);
+        job.setTotalItems(totalItems);
+        job.setOwner(properties.nodeId());
+        job.setHeartbeatAt(now);
+        job.setCreatedAt(now);
+        String json = payload == null ? null : write(payload);
+        UserJob saved = transactionTemplate.execute(status -> {
+            UserJob stored = jobRepository.save(job);
+            if (json != null) {
+                payloadRepository.save(new UserJobPayload(stored.getId(), json));
+            }
+            return stored;
+        });
+        log.info("Submitted {} job {} with {} items", type, saved.getId(), totalItems);
+        execute(saved.getId());
+        return saved;
+    }
+
+    private void execute(Long id) {
+        localJobs.add(id);
+        try {
+            executor.execute(() -> {
+                try {
+                    runner.run(id, this::isRunning);
+                } finally {
+                    localJobs.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // without heartbeats the job becomes stale and is picked up again by the recovery
+            localJobs.remove(id);
+            log.warn("Job {} could not be queued, it is retried after its lease", id);
+        }
+    }
+
+    /**
+     * Keeps the jobs of this node alive and takes over the unfinished jobs nobody keeps alive.
+     */
+    private void recover() {
+        try {
+            Instant now = Instant.now();
+            if (!localJobs.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jobRepository.heartbeat(List.copyOf(localJobs), properties.nodeId(), now));
+            }
+            Instant staleBefore = now.minus(properties.lease());
+            for (Long id : jobRepository.findStaleIds(UNFINISHED, staleBefore)) {
+                if (localJobs.size() >= properties.maxConcurrent() + properties.queueCapacity()) {
+                    break;
+                }
+                if (!localJobs.contains(id) && Integer.valueOf(1).equals(transactionTemplate.execute(status ->
+                        jobRepository.claim(id, properties.nodeId(), now, UNFINISHED, staleBefore)))) {
+                    log.info("Resuming job {} from its checkpoint", id);
+                    execute(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Looking for unfinished jobs failed", e);
+        }
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            log.warn("Requested job has no items");
+            throw new EntityNullException("Job needs at least one item");
+        }
+        if (items.size() > properties.maxItems()) {
+            log.warn("Requested job with {} items", items.size());
+            throw new BatchTooLargeException("At most " + properties.maxItems() + " users can be changed by one job");
+        }
+    }
+
+    private String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job payload can not be written", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.maxConcurrent(), properties.maxConcurrent(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "user-jobs-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        recovery = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-jobs-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recovery.scheduleWithFixedDelay(this::recover, 0, properties.recoveryInterval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Bulk jobs started on node {} with {} runners", properties.nodeId(), properties.maxConcurrent());
+    }
+
+    @Override
+    public void stop() {
+        // running jobs notice the flag after their current chunk, interrupting them could break an in-flight JDBC call
+        running = false;
+        recovery.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Bulk jobs did not stop in time, they are resumed after their lease");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.backend.service.lookup;
+
+import org.example.backend.model.User;
+
+import java.util.List;
+
+/**
+ * Result of looking up many users by id at once.
+ *
+ * @param users the found users, in the order their ids were first requested
+ * @param missingIds the requested ids no user has, in request order
+ */
+public record UserLookupResult(List<User> users, List<Long> missingIds) {
+}
@@ -0,0 +1,96 @@
+package org.example.backend.service.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the "email_domain" column of the users stored before it existed.
+ * Hibernate adds the column to an existing table as null, and only {@link User#setEmail} writes it,
+ * so those users would never match a filter by email domain and would be counted without a domain.
+ * The users are fixed in the background once the application is ready, one chunk per transaction,
+ * with the domain derived by {@link User#domainOf} like for every other write. Every node runs it,
+ * a chunk fixed by another node meanwhile is simply not found again.
+ */
+@Slf4j
+@Component
+public class EmailDomainBackfill implements DisposableBean {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService filler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "users-email-domain-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userRepository the repository the users are read and written with
+     * @param transactionManager the transaction manager running every chunk in its own transaction
+     */
+    public EmailDomainBackfill(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts the backfill once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    /**
+     * Fills the missing email domains in the background.
+     *
+     * @return the running backfill
+     */
+    public Future<?> start() {
+        return filler.submit(this::run);
+    }
+
+    private void run() {
+        long filled = 0;
+        try {
+            while (true) {
+                int chunk = transactionTemplate.execute(status -> {
+                    List<User> users = userRepository.findByEmailDomainIsNullAndEmailContaining("@", Limit.of(CHUNK_SIZE));
+                    // the domain is derived again from the email and written when the transaction commits
+                    users.forEach(user -> user.setEmail(user.getEmail()));
+                    return users.size();
+                });
+                if (chunk == 0) {
+                    break;
+                }
+                filled += chunk;
+            }
+        } catch (RuntimeException e) {
+            log.error("Filling the missing email domains failed after {} users, the next start continues", filled, e);
+            return;
+        }
+        if (filled > 0) {
+            log.info("Filled the missing email domain of {} users", filled);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        filler.shutdownNow();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.backend.service.partition;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the move of the users table to hash partitions.
+ * Bound from the "users.partitioning" properties.
+ *
+ * @param enabled whether the users are moved to a hash-partitioned table once the application is ready
+ * @param partitions the number of hash partitions, it can only be changed by moving the users again
+ * @param batchSize the number of users copied in one transaction
+ * @param batchPause the pause after every copied batch, lowering the load on the database
+ * @param swap whether the partitioned table replaces the users table once all users are copied,
+ *             otherwise it is only kept in sync until the move runs with this switch on
+ * @param lockTimeout the longest wait for the exclusive lock of the swap, other statements queue behind it meanwhile
+ * @param swapAttempts the number of tries to get that lock
+ * @param swapRetryDelay the pause between two tries
+ */
+@ConfigurationProperties(prefix = "users.partitioning")
+public record PartitionProperties(boolean enabled,
+                                  @DefaultValue("16") int partitions,
+                                  @DefaultValue("5000") int batchSize,
+                                  @DefaultValue("0ms") Duration batchPause,
+                                  @DefaultValue("true") boolean swap,
+                                  @DefaultValue("2s") Duration lockTimeout,
+                                  @DefaultValue("10") int swapAttempts,
+                                  @DefaultValue("30s") Duration swapRetryDelay) {
+}
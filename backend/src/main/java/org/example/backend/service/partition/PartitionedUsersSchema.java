@@ -0,0 +1,56 @@
+package org.example.backend.service.partition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statements creating a users table hash-partitioned by email, see db/partitioned-schema.sql.
+ * <p>
+ * PostgreSQL only enforces unique keys of a partitioned table if they contain the partition key. With the email as
+ * partition key, "unique (email)" stays a real constraint, checked in the one partition an email hashes to, and lookups
+ * by email read one partition. The primary key is (id, email). Ids stay unique because they come from one sequence,
+ * and a lookup by id probes the small id index of every partition.
+ */
+public final class PartitionedUsersSchema {
+    /**
+     * The indexes of the filtered and sorted reads by name suffix, created on the partitioned table as
+     * "idx_[table]_[suffix]" like the indexes of the users table in db/schema.sql.
+     */
+    static final Map<String, String> INDEXES = Map.of(
+            "first_name_last_name_id", "first_name, last_name, id",
+            "last_name_first_name_id", "last_name, first_name, id",
+            "email_domain_last_name_first_name_id", "email_domain, last_name, first_name, id");
+
+    private PartitionedUsersSchema() {
+    }
+
+    /**
+     * @param table the name of the partitioned table
+     * @param partitionPrefix the name of the partitions, followed by their number
+     * @param partitions the number of partitions
+     * @param sequence the sequence generating the ids
+     * @return the statements creating the sequence, the table, its partitions and indexes, each skipped if it exists
+     */
+    public static List<String> create(String table, String partitionPrefix, int partitions, String sequence) {
+        List<String> statements = new ArrayList<>();
+        statements.add("create sequence if not exists " + sequence);
+        statements.add("create table if not exists " + table + " ("
+                + "id bigint not null default nextval('" + sequence + "'), "
+                + "first_name varchar(255), "
+                + "last_name varchar(255), "
+                + "email varchar(255) not null, "
+                + "email_domain varchar(255), "
+                + "primary key (id, email), "
+                + "unique (email)) "
+                + "partition by hash (email)");
+        statements.add("alter sequence " + sequence + " owned by " + table + ".id");
+        for (int i = 0; i < partitions; i++) {
+            statements.add("create table if not exists " + partitionPrefix + i + " partition of " + table
+                    + " for values with (modulus " + partitions + ", remainder " + i + ")");
+        }
+        INDEXES.forEach((suffix, columns) ->
+                statements.add("create index if not exists idx_" + table + "_" + suffix + " on " + table + " (" + columns + ")"));
+        return statements;
+    }
+}
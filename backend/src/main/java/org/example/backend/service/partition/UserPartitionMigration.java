@@ -0,0 +1,353 @@
+package org.example.backend.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.config.sharding.ShardContext;
+import org.example.backend.config.sharding.ShardRoutingDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the users table of PostgreSQL to a table hash-partitioned by email, see {@link PartitionedUsersSchema},
+ * while the application keeps reading and writing users.
+ * <ol>
+ *     <li>The partitioned table is created next to the users table, and a trigger on the users table repeats every
+ *     later insert, update and delete on it within the same transaction.</li>
+ *     <li>The users are copied in id order, one batch per transaction. A batch locks its rows for share, so a
+ *     concurrent change is either copied by the batch or repeated by the trigger after it. The last copied id is
+ *     stored with every batch, so a restarted node continues after it.</li>
+ *     <li>Both tables are compared in one snapshot, the trigger keeps them equal in every snapshot after the copy.</li>
+ *     <li>The tables swap names under an exclusive lock taken with a short lock timeout, retried if the table is busy.
+ *     The old table stays as "users_unpartitioned" until it is dropped by hand.</li>
+ * </ol>
+ * Every step can run again, so nodes starting the move at the same time only repeat each other's work.
+ * With sharding, the users table of every shard is moved in turn, each with its own progress.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.partitioning", name = "enabled", havingValue = "true")
+public class UserPartitionMigration implements DisposableBean {
+    static final String TABLE = "users_partitioned";
+    static final String PARTITION_PREFIX = "users_p";
+    static final String SEQUENCE = "users_partitioned_id_seq";
+    static final String OLD_TABLE = "users_unpartitioned";
+    private static final String SYNC = "users_partitioned_sync";
+    private static final String PROGRESS = "users_partitioning";
+    private static final String COLUMNS = "id, first_name, last_name, email, email_domain";
+
+    /**
+     * The steps of the move.
+     */
+    public enum State {
+        WAITING, PREPARING, COPYING, VERIFYING, SYNCING, SWAPPING, DONE, FAILED
+    }
+
+    /**
+     * The progress of the move.
+     *
+     * @param state the current step
+     * @param partitions the number of hash partitions
+     * @param shard the shard being moved, null without sharding
+     * @param copiedUsers the users copied by this node, users copied by the trigger are not counted
+     * @param lastCopiedId the id up to which all users of the shard being moved are copied
+     * @param batches the batches copied by this node
+     * @param swapAttempts the tries to get the lock for the latest swap
+     * @param startedAt when this node started the move, null while waiting
+     * @param finishedAt when the move ended on this node, null while running
+     * @param error the reason of the failure, null unless failed
+     */
+    public record Snapshot(State state, int partitions, Integer shard, long copiedUsers, long lastCopiedId, long batches,
+                           int swapAttempts, Instant startedAt, Instant finishedAt, String error) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate verifyTemplate;
+    private final PartitionProperties properties;
+    /**
+     * The number of shards, 0 without sharding.
+     */
+    private final int shardCount;
+    private final ExecutorService mover = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "users-partition-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile State state = State.WAITING;
+    private volatile Integer shard;
+    private volatile long copiedUsers;
+    private volatile long lastCopiedId;
+    private volatile long batches;
+    private volatile int swapAttempts;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param jdbcTemplate the template running the statements of the move
+     * @param transactionManager the transaction manager running the steps that need several statements
+     * @param properties the number of partitions, the batch size and the settings of the swap
+     * @param shards the shards whose users tables are moved in turn, if sharding is enabled
+     */
+    public UserPartitionMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  PartitionProperties properties, ObjectProvider<ShardRoutingDataSource> shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.verifyTemplate = new TransactionTemplate(transactionManager);
+        this.verifyTemplate.setReadOnly(true);
+        // both tables have to be read in the same snapshot
+        this.verifyTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = properties;
+        ShardRoutingDataSource routing = shards.getIfAvailable();
+        this.shardCount = routing == null ? 0 : routing.getShardCount();
+    }
+
+    /**
+     * Starts the move once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    /**
+     * Runs the move in the background, continuing after the last step completed by any node.
+     *
+     * @return the running move
+     */
+    public Future<?> start() {
+        return mover.submit(this::run);
+    }
+
+    private void run() {
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        try {
+            if (shardCount == 0) {
+                move();
+            }
+            for (int i = 0; i < shardCount; i++) {
+                // the statements and transactions of the move all run on the selected shard
+                shard = i;
+                ShardContext.set(i);
+                move();
+            }
+            state = properties.swap() ? State.DONE : State.SYNCING;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            ShardContext.set(null);
+            finishedAt = Instant.now();
+        }
+    }
+
+    /**
+     * Moves the users table of the current database.
+     */
+    private void move() throws InterruptedException {
+        if (isPartitioned()) {
+            log.info("The users table{} is hash-partitioned already", onShard());
+            return;
+        }
+        state = State.PREPARING;
+        prepare();
+        state = State.COPYING;
+        copy();
+        state = State.VERIFYING;
+        verify();
+        if (!properties.swap()) {
+            log.info("All users{} are copied to {}, it is kept in sync until the swap is enabled", onShard(), TABLE);
+            return;
+        }
+        state = State.SWAPPING;
+        swap();
+    }
+
+    private String onShard() {
+        return shard == null ? "" : " of shard " + shard;
+    }
+
+    private void fail(Exception e) {
+        log.error("Moving the users{} to hash partitions failed in step {}, it continues from there with the next start",
+                onShard(), state, e);
+        error = e.getMessage();
+        state = State.FAILED;
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject("select relkind::text from pg_class where oid = to_regclass('users')", String.class);
+        return "p".equals(kind);
+    }
+
+    /**
+     * Creates the partitioned table, the table of the progress and the trigger, all in one transaction.
+     */
+    private void prepare() {
+        transactionTemplate.executeWithoutResult(status -> {
+            String sequence = jdbcTemplate.queryForObject("select pg_get_serial_sequence('users', 'id')", String.class);
+            if (sequence == null) {
+                throw new IllegalStateException("The ids of the users table are not generated by a sequence");
+            }
+            // ids encoding the shard are generated with the shard count as increment
+            Long increment = jdbcTemplate.queryForObject(
+                    "select seqincrement from pg_sequence where seqrelid = ?::regclass", Long.class, sequence);
+            PartitionedUsersSchema.create(TABLE, PARTITION_PREFIX, properties.partitions(), SEQUENCE)
+                    .forEach(jdbcTemplate::execute);
+            jdbcTemplate.execute("alter sequence " + SEQUENCE + " increment by " + increment);
+            jdbcTemplate.execute("create table if not exists " + PROGRESS + " (last_copied_id bigint not null)");
+            jdbcTemplate.execute("insert into " + PROGRESS + " select 0 where not exists (select 1 from " + PROGRESS + ")");
+            jdbcTemplate.execute("create or replace function " + SYNC + "() returns trigger language plpgsql as $$\n"
+                    + "begin\n"
+                    + "    if tg_op <> 'INSERT' then\n"
+                    + "        delete from " + TABLE + " where id = old.id and email = old.email;\n"
+                    + "    end if;\n"
+                    + "    if tg_op <> 'DELETE' then\n"
+                    + "        insert into " + TABLE + " (" + COLUMNS + ")\n"
+                    + "        values (new.id, new.first_name, new.last_name, new.email, new.email_domain)\n"
+                    + "        on conflict do nothing;\n"
+                    + "    end if;\n"
+                    + "    return null;\n"
+                    + "end\n"
+                    + "$$");
+            // replaced in the same transaction, so no change is missed by a restarted move
+            jdbcTemplate.execute("drop trigger if exists " + SYNC + " on users");
+            jdbcTemplate.execute("create trigger " + SYNC + " after insert or update or delete on users "
+                    + "for each row execute function " + SYNC + "()");
+        });
+        log.info("Created {} with {} hash partitions, changes of the users{} are repeated on it", TABLE, properties.partitions(), onShard());
+    }
+
+    /**
+     * Copies the users after the stored id in batches. Every batch is one statement and so one transaction,
+     * which also stores its last id.
+     */
+    private void copy() throws InterruptedException {
+        lastCopiedId = jdbcTemplate.queryForObject("select last_copied_id from " + PROGRESS, Long.class);
+        long copiedBefore = copiedUsers;
+        long batchesBefore = batches;
+        long start = System.nanoTime();
+        while (true) {
+            Map<String, Object> batch = jdbcTemplate.queryForMap("with batch as ("
+                    + " select " + COLUMNS + " from users where id > ? order by id limit ? for share"
+                    + "), copied as ("
+                    + " insert into " + TABLE + " (" + COLUMNS + ") select " + COLUMNS + " from batch on conflict do nothing returning 1"
+                    + "), progress as ("
+                    + " update " + PROGRESS + " set last_copied_id = (select max(id) from batch) where exists (select 1 from batch)"
+                    + ") select (select count(*) from batch) as users, (select count(*) from copied) as copied, (select max(id) from batch) as last_id",
+                    lastCopiedId, properties.batchSize());
+            long users = ((Number) batch.get("users")).longValue();
+            if (users == 0) {
+                break;
+            }
+            lastCopiedId = ((Number) batch.get("last_id")).longValue();
+            copiedUsers += ((Number) batch.get("copied")).longValue();
+            batches++;
+            if (batches % 100 == 0) {
+                log.info("Copied {} users up to id {}", copiedUsers, lastCopiedId);
+            }
+            if (users < properties.batchSize()) {
+                break;
+            }
+            if (!properties.batchPause().isZero()) {
+                Thread.sleep(properties.batchPause().toMillis());
+            }
+        }
+        log.info("Copied {} users{} to {} in {} batches in {} ms", copiedUsers - copiedBefore, onShard(), TABLE,
+                batches - batchesBefore, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Checks that every user is in the partitioned table with all its columns, and that it holds no other users.
+     */
+    private void verify() {
+        String mismatch = verifyTemplate.execute(status -> {
+            Long users = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+            Long partitioned = jdbcTemplate.queryForObject("select count(*) from " + TABLE, Long.class);
+            if (!users.equals(partitioned)) {
+                return "users has " + users + " rows, " + TABLE + " has " + partitioned;
+            }
+            // with equal counts and unique ids, no row missing in one direction means the tables are equal
+            Boolean missing = jdbcTemplate.queryForObject("select exists (select " + COLUMNS + " from users "
+                    + "except select " + COLUMNS + " from " + TABLE + ")", Boolean.class);
+            return Boolean.TRUE.equals(missing) ? "users has rows missing in " + TABLE + " or differing from it" : null;
+        });
+        if (mismatch != null) {
+            throw new IllegalStateException("The copied users differ: " + mismatch);
+        }
+    }
+
+    private void swap() throws InterruptedException {
+        swapAttempts = 0;
+        while (true) {
+            swapAttempts++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> swapTables());
+                log.info("The users table{} is hash-partitioned, the previous table is kept as {}", onShard(), OLD_TABLE);
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (swapAttempts >= properties.swapAttempts()) {
+                    throw e;
+                }
+                log.warn("The users table is busy, trying the swap again in {}", properties.swapRetryDelay());
+                TimeUnit.MILLISECONDS.sleep(properties.swapRetryDelay().toMillis());
+            }
+        }
+    }
+
+    private void swapTables() {
+        jdbcTemplate.execute("set local lock_timeout = '" + properties.lockTimeout().toMillis() + "ms'");
+        jdbcTemplate.execute("lock table users in access exclusive mode");
+        // another node may have swapped while this one waited for the lock
+        if (isPartitioned()) {
+            return;
+        }
+        String sequence = jdbcTemplate.queryForObject("select pg_get_serial_sequence('users', 'id')", String.class);
+        // ids generated but rolled back or deleted are not handed out again
+        jdbcTemplate.queryForObject("select setval('" + SEQUENCE + "', greatest("
+                + "(select last_value from " + sequence + "), (select coalesce(max(id), 1) from " + TABLE + ")))", Long.class);
+        jdbcTemplate.execute("drop trigger " + SYNC + " on users");
+        jdbcTemplate.execute("drop function " + SYNC + "()");
+        jdbcTemplate.execute("drop table " + PROGRESS);
+        jdbcTemplate.execute("alter table users rename to " + OLD_TABLE);
+        jdbcTemplate.execute("alter table " + TABLE + " rename to users");
+        // db/schema.sql finds its indexes by name
+        for (String suffix : PartitionedUsersSchema.INDEXES.keySet()) {
+            jdbcTemplate.execute("alter index if exists idx_users_" + suffix + " rename to idx_" + OLD_TABLE + "_" + suffix);
+            jdbcTemplate.execute("alter index idx_" + TABLE + "_" + suffix + " rename to idx_users_" + suffix);
+        }
+    }
+
+    /**
+     * @return the progress of the move on this node
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(state, properties.partitions(), shard, copiedUsers, lastCopiedId, batches, swapAttempts,
+                startedAt, finishedAt, error);
+    }
+
+    @Override
+    public void destroy() {
+        mover.shutdownNow();
+    }
+}
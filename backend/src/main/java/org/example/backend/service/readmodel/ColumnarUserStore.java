@@ -0,0 +1,509 @@
+package org.example.backend.service.readmodel;
+
+import org.example.backend.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All users in a columnar layout outside the Java heap, in direct buffers.
+ * Every user takes one slot: its id, the offset of its strings in the UTF-8 arena and the byte lengths
+ * of its first name, last name and email. Besides the columns there are
+ * <ul>
+ *     <li>an open addressing hash of the slots by id, for changes by id,</li>
+ *     <li>a Fenwick tree over the live slots, to find the n-th user without walking over deleted slots,</li>
+ *     <li>the live slots sorted by first name bytes and id, for the first name search.</li>
+ * </ul>
+ * Users are listed in slot order, which is the order they were added in, i.e. id order for a database assigning ascending ids.
+ * Deleted slots and replaced strings are reclaimed when the columns or the arena have to grow.
+ * Only the users of a returned page are materialized as objects.
+ * <p>
+ * Not thread-safe: writes need exclusive access, reads only use absolute buffer access and may run concurrently.
+ * Built with {@link #put} and then {@link #seal()}, which sorts the first name index once and trims the buffers.
+ */
+class ColumnarUserStore {
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private int capacity;
+    private int slots;
+    private int live;
+    private boolean sealed;
+
+    private LongBuffer ids;
+    private IntBuffer offsets;
+    private ShortBuffer lengths;
+    private IntBuffer fenwick;
+    private IntBuffer names;
+    private IntBuffer hash;
+    private int hashMask;
+
+    private ByteBuffer arena;
+    private int arenaUsed;
+    private long garbageBytes;
+
+    ColumnarUserStore() {
+        allocateColumns(MIN_CAPACITY);
+        arena = ByteBuffer.allocateDirect(MIN_CAPACITY * 64);
+    }
+
+    /**
+     * @return the number of users
+     */
+    int size() {
+        return live;
+    }
+
+    /**
+     * @return the bytes of the direct buffers held, columns, indexes and arena
+     */
+    long memoryBytes() {
+        return (long) capacity * (Long.BYTES + Integer.BYTES + 3 * Short.BYTES + Integer.BYTES + Integer.BYTES)
+                + Integer.BYTES + (long) (hashMask + 1) * Integer.BYTES + arena.capacity();
+    }
+
+    /**
+     * @return the bytes of the UTF-8 strings of the users, the part of the memory that depends on the data
+     */
+    long stringBytes() {
+        return arenaUsed - garbageBytes;
+    }
+
+    /**
+     * Adds a user or replaces the one with the same id.
+     *
+     * @throws IllegalArgumentException if the id is not positive or a string is longer than 65535 bytes
+     */
+    void put(long id, String firstName, String lastName, String email) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ids must be positive, was " + id);
+        }
+        byte[] first = utf8(firstName);
+        byte[] last = utf8(lastName);
+        byte[] mail = utf8(email);
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            boolean nameChanged = !equalsFirstName(slot, first);
+            if (sealed && nameChanged) {
+                removeName(slot);
+            }
+            int oldLength = stringLength(slot);
+            writeStrings(slot, first, last, mail);
+            garbageBytes += oldLength;
+            if (sealed && nameChanged) {
+                insertName(slot);
+            }
+            return;
+        }
+        if (slots == capacity) {
+            // reclaim deleted slots before growing
+            resize(live + live / 4 < capacity ? capacity : capacity * 2);
+        }
+        slot = slots++;
+        writeStrings(slot, first, last, mail);
+        ids.put(slot, id);
+        addLive(slot, 1);
+        hashPut(id, slot);
+        live++;
+        if (sealed) {
+            insertName(slot);
+        }
+    }
+
+    /**
+     * Removes a user.
+     *
+     * @return whether a user with the id was there
+     */
+    boolean remove(long id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        if (sealed) {
+            removeName(slot);
+        }
+        garbageBytes += stringLength(slot);
+        hashRemove(id);
+        addLive(slot, -1);
+        ids.put(slot, 0);
+        live--;
+        return true;
+    }
+
+    /**
+     * Sorts the first name index and trims the buffers to the loaded users.
+     */
+    void seal() {
+        resize(Math.max(MIN_CAPACITY, live + live / 8));
+        rewriteArena(arenaUsed - garbageBytes + Math.max(MIN_CAPACITY, (arenaUsed - garbageBytes) / 8));
+        for (int i = 0; i < live; i++) {
+            names.put(i, i);
+        }
+        sortNames();
+        sealed = true;
+    }
+
+    /**
+     * Reads a page of all users.
+     *
+     * @param offset the number of users to skip
+     * @param limit the maximum number of users to return
+     * @return the users in slot order
+     */
+    List<User> page(long offset, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, live));
+        if (offset >= live) {
+            return page;
+        }
+        for (int slot = nthLive((int) offset); slot < slots && page.size() < limit; slot++) {
+            if (ids.get(slot) != 0) {
+                page.add(userAt(slot));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * @return the number of users with exactly this first name
+     */
+    int countByFirstName(String firstName) {
+        byte[] name = utf8(firstName);
+        return lowerBound(name, Long.MAX_VALUE) - lowerBound(name, Long.MIN_VALUE);
+    }
+
+    /**
+     * Reads a page of the users with a first name.
+     *
+     * @param firstName the first name, matched exactly
+     * @param offset the number of matching users to skip
+     * @param limit the maximum number of users to return
+     * @return the matching users in id order
+     */
+    List<User> pageByFirstName(String firstName, long offset, int limit) {
+        byte[] name = utf8(firstName);
+        int from = lowerBound(name, Long.MIN_VALUE);
+        int to = lowerBound(name, Long.MAX_VALUE);
+        List<User> page = new ArrayList<>();
+        for (long i = from + offset; i < to && page.size() < limit; i++) {
+            page.add(userAt(names.get((int) i)));
+        }
+        return page;
+    }
+
+    private User userAt(int slot) {
+        int offset = offsets.get(slot);
+        int firstLength = Short.toUnsignedInt(lengths.get(3 * slot));
+        int lastLength = Short.toUnsignedInt(lengths.get(3 * slot + 1));
+        int emailLength = Short.toUnsignedInt(lengths.get(3 * slot + 2));
+        User user = new User();
+        user.setId(ids.get(slot));
+        user.setFirstName(string(offset, firstLength));
+        user.setLastName(string(offset + firstLength, lastLength));
+        user.setEmail(string(offset + firstLength + lastLength, emailLength));
+        return user;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Strings of users may have at most " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private int stringLength(int slot) {
+        return Short.toUnsignedInt(lengths.get(3 * slot)) + Short.toUnsignedInt(lengths.get(3 * slot + 1))
+                + Short.toUnsignedInt(lengths.get(3 * slot + 2));
+    }
+
+    private void writeStrings(int slot, byte[] first, byte[] last, byte[] mail) {
+        int length = first.length + last.length + mail.length;
+        if (arenaUsed + length > arena.capacity()) {
+            long liveBytes = arenaUsed - garbageBytes;
+            rewriteArena(liveBytes + length + Math.max(MIN_CAPACITY, liveBytes / 2));
+        }
+        int offset = arenaUsed;
+        arena.put(offset, first).put(offset + first.length, last).put(offset + first.length + last.length, mail);
+        arenaUsed += length;
+        offsets.put(slot, offset);
+        lengths.put(3 * slot, (short) first.length);
+        lengths.put(3 * slot + 1, (short) last.length);
+        lengths.put(3 * slot + 2, (short) mail.length);
+    }
+
+    /**
+     * Copies the live strings to a new arena of the given size,
+     * dropping the strings of deleted and updated users.
+     */
+    private void rewriteArena(long size) {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("The strings of all users do not fit into one arena");
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) size);
+        int used = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids.get(slot) != 0) {
+                int length = stringLength(slot);
+                grown.put(used, arena, offsets.get(slot), length);
+                offsets.put(slot, used);
+                used += length;
+            }
+        }
+        arena = grown;
+        arenaUsed = used;
+        garbageBytes = 0;
+    }
+
+    /**
+     * Moves the live slots to new columns of the given capacity, in their order and without gaps,
+     * and rebuilds the indexes. The first name index keeps its order, only its slots are renumbered.
+     */
+    private void resize(int newCapacity) {
+        LongBuffer oldIds = ids;
+        IntBuffer oldOffsets = offsets;
+        ShortBuffer oldLengths = lengths;
+        IntBuffer oldNames = names;
+        IntBuffer oldFenwick = fenwick;
+        int oldSlots = slots;
+        allocateColumns(newCapacity);
+
+        int slot = 0;
+        for (int oldSlot = 0; oldSlot < oldSlots; oldSlot++) {
+            long id = oldIds.get(oldSlot);
+            if (id != 0) {
+                ids.put(slot, id);
+                offsets.put(slot, oldOffsets.get(oldSlot));
+                lengths.put(3 * slot, oldLengths.get(3 * oldSlot));
+                lengths.put(3 * slot + 1, oldLengths.get(3 * oldSlot + 1));
+                lengths.put(3 * slot + 2, oldLengths.get(3 * oldSlot + 2));
+                hashPut(id, slot);
+                slot++;
+            }
+        }
+        slots = slot;
+        buildFenwick();
+        if (sealed) {
+            // the new slot of a live slot is the number of live slots before it
+            for (int i = 0; i < live; i++) {
+                names.put(i, liveBefore(oldFenwick, oldNames.get(i)));
+            }
+        }
+    }
+
+    private void allocateColumns(int newCapacity) {
+        capacity = newCapacity;
+        ids = ByteBuffer.allocateDirect(newCapacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        offsets = ByteBuffer.allocateDirect(newCapacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        lengths = ByteBuffer.allocateDirect(newCapacity * 3 * Short.BYTES).order(ByteOrder.nativeOrder()).asShortBuffer();
+        fenwick = ByteBuffer.allocateDirect((newCapacity + 1) * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        names = ByteBuffer.allocateDirect(newCapacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        // at most half full, so probes stay short
+        int hashSize = Integer.highestOneBit(newCapacity * 2 - 1) << 1;
+        hash = ByteBuffer.allocateDirect(hashSize * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        hashMask = hashSize - 1;
+    }
+
+    // Fenwick tree of the live slots, node i covers the slots (i - lowest bit of i, i]
+
+    private void buildFenwick() {
+        for (int i = 1; i <= capacity; i++) {
+            fenwick.put(i, i <= slots && ids.get(i - 1) != 0 ? 1 : 0);
+        }
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                fenwick.put(parent, fenwick.get(parent) + fenwick.get(i));
+            }
+        }
+    }
+
+    private void addLive(int slot, int delta) {
+        for (int i = slot + 1; i <= capacity; i += i & -i) {
+            fenwick.put(i, fenwick.get(i) + delta);
+        }
+    }
+
+    private static int liveBefore(IntBuffer tree, int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the slot of the live user with the given rank
+     */
+    private int nthLive(int rank) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+            if (position + step <= capacity && fenwick.get(position + step) <= rank) {
+                position += step;
+                rank -= fenwick.get(position);
+            }
+        }
+        return position;
+    }
+
+    // Open addressing hash with linear probing, a bucket holds slot + 1 and 0 if it is empty, the id is read from the slot
+
+    private int bucketOf(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & hashMask;
+    }
+
+    private int slotOf(long id) {
+        for (int bucket = bucketOf(id); ; bucket = (bucket + 1) & hashMask) {
+            int entry = hash.get(bucket);
+            if (entry == 0) {
+                return -1;
+            } else if (ids.get(entry - 1) == id) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void hashPut(long id, int slot) {
+        int bucket = bucketOf(id);
+        while (hash.get(bucket) != 0) {
+            bucket = (bucket + 1) & hashMask;
+        }
+        hash.put(bucket, slot + 1);
+    }
+
+    private void hashRemove(long id) {
+        int bucket = bucketOf(id);
+        while (ids.get(hash.get(bucket) - 1) != id) {
+            bucket = (bucket + 1) & hashMask;
+        }
+        // shift the following entries back, so no probe sequence is cut by the removal
+        int next = bucket;
+        while (true) {
+            next = (next + 1) & hashMask;
+            int entry = hash.get(next);
+            if (entry == 0) {
+                break;
+            }
+            int home = bucketOf(ids.get(entry - 1));
+            boolean movable = bucket <= next ? home <= bucket || home > next : home <= bucket && home > next;
+            if (movable) {
+                hash.put(bucket, entry);
+                bucket = next;
+            }
+        }
+        hash.put(bucket, 0);
+    }
+
+    // First name index: the live slots sorted by the first name bytes and the id
+
+    private int compareEntry(int slot, byte[] name, long id) {
+        int offset = offsets.get(slot);
+        int length = Short.toUnsignedInt(lengths.get(3 * slot));
+        int common = Math.min(length, name.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(arena.get(offset + i)) - Byte.toUnsignedInt(name[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length != name.length ? Integer.compare(length, name.length) : Long.compare(ids.get(slot), id);
+    }
+
+    private int compareSlots(int first, int second) {
+        int firstOffset = offsets.get(first);
+        int secondOffset = offsets.get(second);
+        int firstLength = Short.toUnsignedInt(lengths.get(3 * first));
+        int secondLength = Short.toUnsignedInt(lengths.get(3 * second));
+        int common = Math.min(firstLength, secondLength);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(arena.get(firstOffset + i)) - Byte.toUnsignedInt(arena.get(secondOffset + i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return firstLength != secondLength ? Integer.compare(firstLength, secondLength) : Long.compare(ids.get(first), ids.get(second));
+    }
+
+    private boolean equalsFirstName(int slot, byte[] name) {
+        return compareEntry(slot, name, ids.get(slot)) == 0;
+    }
+
+    /**
+     * @return the first position of the first name index whose entry is not less than the name and id
+     */
+    private int lowerBound(byte[] name, long id) {
+        return lowerBound(name, id, live);
+    }
+
+    private int lowerBound(byte[] name, long id, int entries) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareEntry(names.get(middle), name, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void insertName(int slot) {
+        // live already counts the inserted slot
+        int entries = live - 1;
+        int position = lowerBound(firstNameBytes(slot), ids.get(slot), entries);
+        names.put(position + 1, names, position, entries - position);
+        names.put(position, slot);
+    }
+
+    private void removeName(int slot) {
+        int position = lowerBound(firstNameBytes(slot), ids.get(slot));
+        names.put(position, names, position + 1, live - 1 - position);
+    }
+
+    private byte[] firstNameBytes(int slot) {
+        byte[] name = new byte[Short.toUnsignedInt(lengths.get(3 * slot))];
+        arena.get(offsets.get(slot), name);
+        return name;
+    }
+
+    /**
+     * Sorts the first name index with a bottom-up merge sort, through one temporary buffer.
+     */
+    private void sortNames() {
+        IntBuffer source = names;
+        IntBuffer target = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        for (int width = 1; width < live; width *= 2) {
+            for (int from = 0; from < live; from += 2 * width) {
+                int middle = Math.min(from + width, live);
+                int to = Math.min(from + 2 * width, live);
+                int left = from;
+                int right = middle;
+                for (int i = from; i < to; i++) {
+                    if (left < middle && (right >= to || compareSlots(source.get(left), source.get(right)) <= 0)) {
+                        target.put(i, source.get(left++));
+                    } else {
+                        target.put(i, source.get(right++));
+                    }
+                }
+            }
+            IntBuffer swap = source;
+            source = target;
+            target = swap;
+        }
+        names = source;
+    }
+}
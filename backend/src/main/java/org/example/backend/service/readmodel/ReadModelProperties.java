@@ -0,0 +1,16 @@
+package org.example.backend.service.readmodel;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the in-memory read model of the users.
+ * Bound from the "users.read-model" properties.
+ *
+ * @param enabled whether the user list and the first name search are answered from memory once the users are loaded
+ * @param loadChunkSize the number of users read per query while loading
+ */
+@ConfigurationProperties(prefix = "users.read-model")
+public record ReadModelProperties(boolean enabled,
+                                  @DefaultValue("5000") int loadChunkSize) {
+}
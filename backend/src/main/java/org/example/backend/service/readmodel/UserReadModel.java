@@ -0,0 +1,323 @@
+package org.example.backend.service.readmodel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Read model answering the user list and the first name search from a {@link ColumnarUserStore} instead of the database.
+ * The users are loaded in the background once the application is ready, by walking through the table in id order.
+ * Until then, reads go to the database. Every committed change of this node is applied right after its commit,
+ * before the request that made it returns, so clients read their own writes. Changes of other nodes arrive with
+ * cross-node invalidation, their users are read again by id; when changes may have been missed, everything is loaded again.
+ * A user changed by this node while it was read again may have been read before that change, so it is read once more.
+ * Changes committed while loading are applied to the loaded users before they replace the current ones.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.read-model", name = "enabled", havingValue = "true")
+public class UserReadModel implements DisposableBean {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadModelProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "users-read-model-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * The users served, null until the first load completes. Guarded by the lock.
+     */
+    private ColumnarUserStore store;
+    /**
+     * The changes committed since the running load started, null if no load is running. Guarded by the lock.
+     */
+    private List<Consumer<ColumnarUserStore>> pending;
+    /**
+     * For every running read of users changed by other nodes, the users this node changed meanwhile. Guarded by the lock.
+     */
+    private final List<Set<Long>> reads = new ArrayList<>();
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userRepository the repository the users are loaded from
+     * @param transactionManager the transaction manager running every loaded chunk in its own read-only transaction
+     * @param properties the number of users read per query
+     */
+    public UserReadModel(UserRepository userRepository, PlatformTransactionManager transactionManager, ReadModelProperties properties) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /**
+     * Starts the first load once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Loads all users again in the background, the current ones are served meanwhile.
+     *
+     * @return the running load
+     */
+    public Future<?> reload() {
+        return loader.submit(this::load);
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long start = System.nanoTime();
+        ColumnarUserStore loaded = new ColumnarUserStore();
+        try {
+            int chunkSize = properties.loadChunkSize();
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                List<User> chunk = new ArrayList<>(transactionTemplate.execute(status ->
+                        userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize))));
+                // with sharding every shard returns up to a chunk, only the lowest ids are complete
+                chunk.sort(Comparator.comparing(User::getId));
+                boolean last = chunk.size() < chunkSize;
+                for (User user : last ? chunk : chunk.subList(0, chunkSize)) {
+                    loaded.put(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+                }
+                if (last) {
+                    break;
+                }
+                lastId = chunk.get(chunkSize - 1).getId();
+            }
+            loaded.seal();
+        } catch (RuntimeException e) {
+            log.error("Loading the users into the read model failed, {}", store == null ? "reads stay on the database" : "the previous users are kept", e);
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            store = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} users into the read model in {} ms, {} bytes off-heap",
+                loaded.size(), (System.nanoTime() - start) / 1_000_000, loaded.memoryBytes());
+    }
+
+    /**
+     * Applies a user change once the transaction that made it has committed.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        UserSnapshot after = event.after();
+        lock.writeLock().lock();
+        try {
+            reads.forEach(read -> read.add(event.id()));
+            if (after == null) {
+                apply(store -> store.remove(event.id()));
+            } else {
+                apply(store -> store.put(after.id(), after.firstName(), after.lastName(), after.email()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the users changed by another node again, or loads everything again if changes may have been missed.
+     *
+     * @param event the users changed by another node
+     */
+    @EventListener
+    public void onUserInvalidated(UserInvalidatedEvent event) {
+        if (event.all()) {
+            reload();
+            return;
+        }
+        Set<Long> unread = new HashSet<>(event.ids());
+        while (!unread.isEmpty()) {
+            Set<Long> changed = new HashSet<>();
+            lock.writeLock().lock();
+            try {
+                reads.add(changed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<Long, User> found = new HashMap<>();
+            Set<Long> ids = unread;
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        userRepository.findAllById(ids).forEach(user -> found.put(user.getId(), user)));
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    reads.removeIf(read -> read == changed);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                reads.removeIf(read -> read == changed);
+                // a user changed by this node meanwhile may be older in the read than in the store, it is read again
+                changed.retainAll(ids);
+                Set<Long> read = new HashSet<>(ids);
+                read.removeAll(changed);
+                apply(store -> read.forEach(id -> {
+                    User user = found.get(id);
+                    if (user == null) {
+                        store.remove(id);
+                    } else {
+                        store.put(id, user.getFirstName(), user.getLastName(), user.getEmail());
+                    }
+                }));
+                unread = changed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void apply(Consumer<ColumnarUserStore> change) {
+        lock.writeLock().lock();
+        try {
+            if (store != null) {
+                change.accept(store);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether the users are loaded and reads can be answered
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return store != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a page of all users, in id order for ids assigned in ascending order.
+     *
+     * @param pageable the page, its sort order is ignored
+     * @return the page, empty if the users are not loaded yet
+     */
+    public Page<User> getUsersList(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (store == null) {
+                return Page.empty(pageable);
+            }
+            return new PageImpl<>(store.page(pageable.getOffset(), pageable.getPageSize()), pageable, store.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a page of the users with a first name, in id order.
+     *
+     * @param name the first name, matched exactly
+     * @param pageable the page, its sort order is ignored
+     * @return the page, empty if the users are not loaded yet
+     */
+    public Page<User> getUsersByName(String name, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (store == null) {
+                return Page.empty(pageable);
+            }
+            return new PageImpl<>(store.pageByFirstName(name, pageable.getOffset(), pageable.getPageSize()),
+                    pageable, store.countByFirstName(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of users and the memory they take
+     */
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            if (store == null) {
+                return new Stats(false, 0, 0, 0);
+            }
+            return new Stats(true, store.size(), store.memoryBytes(), store.stringBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Size of the read model.
+     *
+     * @param ready whether reads are answered from memory
+     * @param users the number of users held
+     * @param offHeapBytes the bytes of the direct buffers held
+     * @param stringBytes the bytes of the UTF-8 names and emails among them
+     */
+    public record Stats(boolean ready, int users, long offHeapBytes, long stringBytes) {
+    }
+}
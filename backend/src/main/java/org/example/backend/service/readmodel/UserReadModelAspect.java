@@ -0,0 +1,51 @@
+package org.example.backend.service.readmodel;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect answering the user list and the first name search of the user service from the {@link UserReadModel}.
+ * It runs before the transaction advice, so reads answered from memory do not take a database connection.
+ * Reads go to the service as before while the users are loading, for unpaged or sorted requests and for empty names,
+ * which the service rejects.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "users.read-model", name = "enabled", havingValue = "true")
+public class UserReadModelAspect implements Ordered {
+    private final UserReadModel readModel;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param readModel the read model answering the reads
+     */
+    public UserReadModelAspect(UserReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    @Around("execution(public * org.example.backend.service.impl.UserServiceImpl.getUsersList(..)) && args(pageable)")
+    public Object getUsersList(ProceedingJoinPoint joinPoint, Pageable pageable) throws Throwable {
+        return answerable(pageable) ? readModel.getUsersList(pageable) : joinPoint.proceed();
+    }
+
+    @Around("execution(public * org.example.backend.service.impl.UserServiceImpl.getUsersByName(..)) && args(name, pageable)")
+    public Object getUsersByName(ProceedingJoinPoint joinPoint, String name, Pageable pageable) throws Throwable {
+        return name != null && !name.isEmpty() && answerable(pageable) ? readModel.getUsersByName(name, pageable) : joinPoint.proceed();
+    }
+
+    private boolean answerable(Pageable pageable) {
+        return pageable != null && pageable.isPaged() && pageable.getSort().isUnsorted() && readModel.isReady();
+    }
+
+    @Override
+    public int getOrder() {
+        // inside the profiling events, outside the transaction
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.backend.service.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving sketch of the most frequent values, e.g. first names, in memory bounded by its capacity.
+ * Every tracked value has a counter. An untracked value replaces the value with the lowest counter
+ * and takes over that counter plus one, so its count is overestimated by at most the count it took over.
+ * Any value occurring more often than the lowest counter is tracked.
+ * Removals decrement tracked counters and are dropped for untracked values.
+ * Not thread-safe, callers synchronize.
+ */
+class HeavyHitters {
+    /**
+     * A tracked value.
+     *
+     * @param value the value
+     * @param count the estimated count, never below the true one while no removals were dropped
+     * @param error the most the count may exceed the true one
+     */
+    record Estimate(String value, long count, long error) {
+    }
+
+    private static final class Counter {
+        private final String value;
+        private long count;
+        private long error;
+
+        private Counter(String value, long count, long error) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count)
+            .thenComparing(counter -> counter.value);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+
+    /**
+     * @param capacity the number of values tracked
+     */
+    HeavyHitters(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Starts tracking a value with a count known to be exact, e.g. from a full count in the database.
+     * Values beyond the capacity are ignored, so pass the most frequent ones first.
+     *
+     * @param value the value
+     * @param count its count
+     */
+    void seed(String value, long count) {
+        if (counters.size() < capacity && !counters.containsKey(value)) {
+            Counter counter = new Counter(value, count, 0);
+            counters.put(value, counter);
+            byCount.add(counter);
+        }
+    }
+
+    /**
+     * Counts one more occurrence of a value.
+     *
+     * @param value the value
+     */
+    void add(String value) {
+        Counter counter = counters.get(value);
+        if (counter != null) {
+            change(counter, 1);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(value, 1, 0);
+            counters.put(value, counter);
+            byCount.add(counter);
+        } else {
+            Counter lowest = byCount.pollFirst();
+            counters.remove(lowest.value);
+            counter = new Counter(value, lowest.count + 1, lowest.count);
+            counters.put(value, counter);
+            byCount.add(counter);
+        }
+    }
+
+    /**
+     * Counts one occurrence of a value less.
+     *
+     * @param value the value
+     */
+    void remove(String value) {
+        Counter counter = counters.get(value);
+        if (counter == null) {
+            return;
+        }
+        if (counter.count <= 1) {
+            counters.remove(value);
+            byCount.remove(counter);
+        } else {
+            change(counter, -1);
+            counter.error = Math.min(counter.error, counter.count);
+        }
+    }
+
+    private void change(Counter counter, long delta) {
+        byCount.remove(counter);
+        counter.count += delta;
+        byCount.add(counter);
+    }
+
+    /**
+     * @param limit the maximum number of values to return
+     * @return the values with the highest counts, highest first
+     */
+    List<Estimate> top(int limit) {
+        List<Estimate> top = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter counter : byCount.descendingSet()) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(new Estimate(counter.value, counter.count, counter.error));
+        }
+        return top;
+    }
+
+    /**
+     * @return the number of values tracked
+     */
+    int size() {
+        return counters.size();
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.backend.service.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the user statistics.
+ * Bound from the "users.stats" properties.
+ *
+ * @param enabled whether GET /users/stats is served from counters kept in memory
+ * @param topEmailDomains the number of email domains returned, the ones with the most users
+ * @param topFirstNames the number of first names returned, the most common ones
+ * @param trackedFirstNames the number of first names the sketch counts, more make the counts of rarer names exact
+ * @param recountInterval the time between two full counts in the database, which correct any drift of the counters
+ */
+@ConfigurationProperties(prefix = "users.stats")
+public record StatsProperties(boolean enabled,
+                              @DefaultValue("20") int topEmailDomains,
+                              @DefaultValue("10") int topFirstNames,
+                              @DefaultValue("1000") int trackedFirstNames,
+                              @DefaultValue("1h") Duration recountInterval) {
+}
@@ -0,0 +1,333 @@
+package org.example.backend.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.response.UserStatsResponse;
+import org.example.backend.exceptions.custom.StatisticsUnavailableException;
+import org.example.backend.model.User;
+import org.example.backend.model.UserStatistic;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.repository.UserStatisticRepository;
+import org.example.backend.repository.ValueCount;
+import org.example.backend.service.event.SnapshotChanges;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the users, kept in memory and updated with every committed change instead of counting the table per call.
+ * The number of users and the users per email domain are exact counters, the most common first names
+ * are estimated with a {@link HeavyHitters} sketch.
+ * A full count in the database runs in the background once the application is ready and then every recount interval.
+ * It corrects the counters, e.g. for changes of other nodes, and its result is stored in the "user_stats" table,
+ * from which a restarted node answers until its own count completes.
+ * Users changed while counting are read again in the snapshot of the count, and the new counters are corrected
+ * from their state in the snapshot to their latest state before they replace the current ones, see {@link SnapshotChanges}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.stats", name = "enabled", havingValue = "true")
+public class UserStatsService implements DisposableBean {
+    private final UserRepository userRepository;
+    private final UserStatisticRepository statisticRepository;
+    private final TransactionTemplate countTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsProperties properties;
+    private final ScheduledExecutorService counter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "users-stats-counter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object lock = new Object();
+    /**
+     * The counters served, null until the stored or a full count is loaded. Guarded by the lock.
+     */
+    private Counters counters;
+    /**
+     * The users changed around the running or the last count. Guarded by the lock.
+     */
+    private final SnapshotChanges changes = new SnapshotChanges();
+    /**
+     * The response for the current counters, null after a change. Guarded by the lock.
+     */
+    private UserStatsResponse response;
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userRepository the repository the users are counted in
+     * @param statisticRepository the repository the latest count is stored in
+     * @param transactionManager the transaction manager running the count in one read-only snapshot
+     * @param properties the number of returned values, the size of the sketch and the recount interval
+     */
+    public UserStatsService(UserRepository userRepository, UserStatisticRepository statisticRepository,
+                            PlatformTransactionManager transactionManager, StatsProperties properties) {
+        this.userRepository = userRepository;
+        this.statisticRepository = statisticRepository;
+        this.countTemplate = new TransactionTemplate(transactionManager);
+        this.countTemplate.setReadOnly(true);
+        // both counts and the reads of the changed users have to see the same users
+        this.countTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the stored count and schedules the full counts once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        counter.execute(this::loadStored);
+        long interval = properties.recountInterval().toMillis();
+        counter.scheduleWithFixedDelay(this::count, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts all users again in the background, the current counters are served meanwhile.
+     *
+     * @return the running count
+     */
+    public Future<?> recount() {
+        return counter.submit(this::count);
+    }
+
+    private void loadStored() {
+        List<UserStatistic> stored;
+        try {
+            stored = transactionTemplate.execute(status -> statisticRepository.findAll());
+        } catch (RuntimeException e) {
+            log.warn("Reading the stored user statistics failed, they are served after the first count", e);
+            return;
+        }
+        if (stored.isEmpty()) {
+            return;
+        }
+        Counters loaded = new Counters(properties.trackedFirstNames(), stored.get(0).getCountedAt());
+        Map<String, Long> firstNames = new HashMap<>();
+        for (UserStatistic statistic : stored) {
+            switch (statistic.getKind()) {
+                case TOTAL -> loaded.total = statistic.getCount();
+                case EMAIL_DOMAIN -> loaded.emailDomains.put(statistic.getValue(), statistic.getCount());
+                case FIRST_NAME -> firstNames.put(statistic.getValue(), statistic.getCount());
+            }
+        }
+        loaded.seedFirstNames(firstNames);
+        synchronized (lock) {
+            if (counters == null) {
+                counters = loaded;
+                response = null;
+            }
+        }
+    }
+
+    private void count() {
+        synchronized (lock) {
+            changes.start();
+        }
+        long start = System.nanoTime();
+        Counters counted;
+        try {
+            Instant countedAt = Instant.now();
+            counted = countTemplate.execute(status -> {
+                Counters result = new Counters(properties.trackedFirstNames(), countedAt);
+                // with sharding a value is listed once per shard
+                for (ValueCount domain : userRepository.countByEmailDomain()) {
+                    result.total += domain.count();
+                    if (domain.value() != null) {
+                        result.emailDomains.merge(domain.value(), domain.count(), Long::sum);
+                    }
+                }
+                Map<String, Long> firstNames = new HashMap<>();
+                for (ValueCount firstName : userRepository.countByFirstName()) {
+                    if (firstName.value() != null) {
+                        firstNames.merge(firstName.value(), firstName.count(), Long::sum);
+                    }
+                }
+                result.seedFirstNames(firstNames);
+                // the users changed meanwhile are read in the same snapshot until no new ones turn up
+                while (true) {
+                    Set<Long> unread;
+                    synchronized (lock) {
+                        unread = changes.unread();
+                        if (unread.isEmpty()) {
+                            changes.publish().forEach(result::apply);
+                            counters = result;
+                            response = null;
+                            return result;
+                        }
+                    }
+                    List<User> users = userRepository.findAllById(unread);
+                    synchronized (lock) {
+                        changes.read(unread, users);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Counting the users failed, {}", counters == null ? "statistics stay unavailable" : "the previous counters are kept", e);
+            synchronized (lock) {
+                changes.cancel();
+            }
+            return;
+        }
+        log.info("Counted {} users in {} email domains in {} ms", counted.total, counted.emailDomains.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        store(counted);
+    }
+
+    private void store(Counters counted) {
+        List<UserStatistic> statistics = new ArrayList<>();
+        synchronized (lock) {
+            statistics.add(new UserStatistic(UserStatistic.Kind.TOTAL, null, counted.total, counted.countedAt));
+            counted.emailDomains.forEach((domain, users) ->
+                    statistics.add(new UserStatistic(UserStatistic.Kind.EMAIL_DOMAIN, domain, users, counted.countedAt)));
+            counted.firstNames.top(properties.trackedFirstNames()).forEach(name ->
+                    statistics.add(new UserStatistic(UserStatistic.Kind.FIRST_NAME, name.value(), name.count(), counted.countedAt)));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                statisticRepository.deleteAllInBatch();
+                statisticRepository.saveAll(statistics);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Storing the user statistics failed, the previous ones are kept", e);
+        }
+    }
+
+    /**
+     * Counts a user change once the transaction that made it has committed.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        changes.track(event, lock, change -> {
+            if (counters != null) {
+                counters.apply(change);
+                response = null;
+            }
+        });
+    }
+
+    /**
+     * Counts all users again if changes of other nodes may have been missed.
+     * Single changes of other nodes carry no values to count, they are corrected by the next full count.
+     *
+     * @param event the users changed by another node
+     */
+    @EventListener
+    public void onUserInvalidated(UserInvalidatedEvent event) {
+        if (event.all()) {
+            recount();
+        }
+    }
+
+    /**
+     * Returns the statistics, computed from the counters only after a change.
+     *
+     * @return the number of users, the email domains with the most users and the most common first names
+     * @throws StatisticsUnavailableException if the users have not been counted yet
+     */
+    public UserStatsResponse getStats() {
+        synchronized (lock) {
+            if (counters == null) {
+                throw new StatisticsUnavailableException("The users are being counted. Please, try again later");
+            }
+            if (response == null) {
+                response = counters.toResponse(properties.topEmailDomains(), properties.topFirstNames());
+            }
+            return response;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        counter.shutdownNow();
+    }
+
+    /**
+     * The counters of one full count and the changes since. Guarded by the lock of the service.
+     */
+    private static final class Counters {
+        private final Instant countedAt;
+        private final Map<String, Long> emailDomains = new HashMap<>();
+        private final HeavyHitters firstNames;
+        private long total;
+        private long changes;
+
+        private Counters(int trackedFirstNames, Instant countedAt) {
+            this.firstNames = new HeavyHitters(trackedFirstNames);
+            this.countedAt = countedAt;
+        }
+
+        private void seedFirstNames(Map<String, Long> counts) {
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEachOrdered(entry -> firstNames.seed(entry.getKey(), entry.getValue()));
+        }
+
+        private void apply(UserChangedEvent event) {
+            UserSnapshot before = event.before();
+            UserSnapshot after = event.after();
+            changes++;
+            total += (after != null ? 1 : 0) - (before != null ? 1 : 0);
+            String domainBefore = before != null ? User.domainOf(before.email()) : null;
+            String domainAfter = after != null ? User.domainOf(after.email()) : null;
+            if (!Objects.equals(domainBefore, domainAfter)) {
+                if (domainBefore != null) {
+                    emailDomains.computeIfPresent(domainBefore, (domain, users) -> users > 1 ? users - 1 : null);
+                }
+                if (domainAfter != null) {
+                    emailDomains.merge(domainAfter, 1L, Long::sum);
+                }
+            }
+            String nameBefore = before != null ? before.firstName() : null;
+            String nameAfter = after != null ? after.firstName() : null;
+            if (!Objects.equals(nameBefore, nameAfter)) {
+                if (nameBefore != null) {
+                    firstNames.remove(nameBefore);
+                }
+                if (nameAfter != null) {
+                    firstNames.add(nameAfter);
+                }
+            }
+        }
+
+        private UserStatsResponse toResponse(int topEmailDomains, int topFirstNames) {
+            PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<String, Long> domain : emailDomains.entrySet()) {
+                top.add(domain);
+                if (top.size() > topEmailDomains) {
+                    top.poll();
+                }
+            }
+            List<UserStatsResponse.Count> domains = top.stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .map(domain -> new UserStatsResponse.Count(domain.getKey(), domain.getValue(), 0))
+                    .toList();
+            List<UserStatsResponse.Count> names = firstNames.top(topFirstNames).stream()
+                    .map(name -> new UserStatsResponse.Count(name.value(), name.count(), name.error()))
+                    .toList();
+            return new UserStatsResponse(total, emailDomains.size(), domains, names, countedAt, changes);
+        }
+    }
+}
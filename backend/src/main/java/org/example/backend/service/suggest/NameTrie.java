@@ -0,0 +1,290 @@
+package org.example.backend.service.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable radix tree of names with the number of users having each name.
+ * Edges are labelled with whole runs of characters, so a chain of single children is one node.
+ * Every node keeps the most frequent names below it, so a lookup walks down the prefix and returns that list
+ * without visiting the subtree. Names are matched case-insensitively, each is returned as it was last added.
+ * <p>
+ * A change returns a new tree that shares every node off the changed path with the old one, so readers keep
+ * using the tree they started with and need no locks. Callers publish the new tree through a volatile field
+ * and serialize their changes.
+ */
+final class NameTrie {
+    /**
+     * A name and the number of users having it.
+     *
+     * @param name the name
+     * @param users the number of users
+     */
+    record Suggestion(String name, long users) {
+    }
+
+    private static final Comparator<Suggestion> MOST_USERS = Comparator.comparingLong(Suggestion::users).reversed()
+            .thenComparing(Suggestion::name);
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private static final class Node {
+        /**
+         * The lower-cased characters of the edge from the parent, empty for the root.
+         */
+        private final String label;
+        /**
+         * The children, sorted by the first character of their labels.
+         */
+        private final Node[] children;
+        /**
+         * The users having the name ending at this node, with the name as last added, null if there are none.
+         */
+        private final Suggestion own;
+        /**
+         * The most frequent names of this subtree, most users first.
+         */
+        private final Suggestion[] top;
+
+        private Node(String label, Node[] children, Suggestion own, Suggestion[] top) {
+            this.label = label;
+            this.children = children;
+            this.own = own;
+            this.top = top;
+        }
+    }
+
+    private final Node root;
+    private final int topSize;
+    private final int names;
+
+    private NameTrie(Node root, int topSize, int names) {
+        this.root = root;
+        this.topSize = topSize;
+        this.names = names;
+    }
+
+    /**
+     * @param topSize the number of names kept per node, the most a lookup can return
+     * @return a tree without names
+     */
+    static NameTrie empty(int topSize) {
+        return new NameTrie(new Node("", NO_CHILDREN, null, NO_SUGGESTIONS), Math.max(1, topSize), 0);
+    }
+
+    /**
+     * Changes the number of users having a name.
+     *
+     * @param name the name, blank names are ignored
+     * @param delta the users added, negative for removed users
+     * @return the changed tree, this tree if nothing changed
+     */
+    NameTrie add(String name, long delta) {
+        if (name == null || name.isBlank() || delta == 0) {
+            return this;
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        int[] namesDelta = new int[1];
+        Node changed = update(root, key, 0, name, delta, namesDelta);
+        return changed == root ? this : new NameTrie(changed, topSize, names + namesDelta[0]);
+    }
+
+    /**
+     * Returns the names starting with a prefix.
+     *
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit the maximum number of names, at most the number kept per node
+     * @return the names with the most users first
+     */
+    List<Suggestion> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = child(node, key.charAt(depth));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, key, depth);
+            if (common < child.label.length() && depth + common < key.length()) {
+                return List.of();
+            }
+            node = child;
+            depth += common;
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    /**
+     * @return the number of distinct names
+     */
+    int size() {
+        return names;
+    }
+
+    private Node update(Node node, String key, int depth, String name, long delta, int[] namesDelta) {
+        if (depth == key.length()) {
+            long users = (node.own != null ? node.own.users() : 0) + delta;
+            if (users <= 0 && node.own == null) {
+                return node;
+            }
+            namesDelta[0] += node.own == null ? 1 : users <= 0 ? -1 : 0;
+            String shown = delta > 0 || node.own == null ? name : node.own.name();
+            return node(node.label, node.children, users > 0 ? new Suggestion(shown, users) : null);
+        }
+        int index = indexOf(node.children, key.charAt(depth));
+        if (index < 0) {
+            if (delta < 0) {
+                return node;
+            }
+            namesDelta[0]++;
+            Node leaf = node(key.substring(depth), NO_CHILDREN, new Suggestion(name, delta));
+            return node(node.label, inserted(node.children, -index - 1, leaf), node.own);
+        }
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, key, depth);
+        Node changed;
+        if (common == child.label.length()) {
+            changed = update(child, key, depth + common, name, delta, namesDelta);
+            if (changed == child) {
+                return node;
+            }
+        } else {
+            if (delta < 0) {
+                return node;
+            }
+            // the key leaves the edge in its middle, the edge is split where they part
+            namesDelta[0]++;
+            Node tail = new Node(child.label.substring(common), child.children, child.own, child.top);
+            if (depth + common == key.length()) {
+                changed = node(child.label.substring(0, common), new Node[]{tail}, new Suggestion(name, delta));
+            } else {
+                Node leaf = node(key.substring(depth + common), NO_CHILDREN, new Suggestion(name, delta));
+                Node[] children = tail.label.charAt(0) < leaf.label.charAt(0) ? new Node[]{tail, leaf} : new Node[]{leaf, tail};
+                changed = node(child.label.substring(0, common), children, null);
+            }
+        }
+        changed = compact(changed);
+        Node[] children;
+        if (changed == null) {
+            children = new Node[node.children.length - 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        } else {
+            children = node.children.clone();
+            children[index] = changed;
+        }
+        return node(node.label, children, node.own);
+    }
+
+    /**
+     * Removes a node without names and merges a node without a name into its only child.
+     */
+    private static Node compact(Node node) {
+        if (node.own != null) {
+            return node;
+        }
+        if (node.children.length == 0) {
+            return null;
+        }
+        if (node.children.length == 1) {
+            Node child = node.children[0];
+            return new Node(node.label + child.label, child.children, child.own, child.top);
+        }
+        return node;
+    }
+
+    private Node node(String label, Node[] children, Suggestion own) {
+        int candidates = own != null ? 1 : 0;
+        for (Node child : children) {
+            candidates += child.top.length;
+        }
+        // the lists of the children are sorted already, they are merged until the node's list is full
+        Suggestion[] top = new Suggestion[Math.min(candidates, topSize)];
+        int[] next = new int[children.length];
+        boolean ownTaken = own == null;
+        for (int count = 0; count < top.length; count++) {
+            Suggestion best = ownTaken ? null : own;
+            int bestChild = -1;
+            for (int i = 0; i < children.length; i++) {
+                Suggestion[] childTop = children[i].top;
+                if (next[i] < childTop.length && (best == null || MOST_USERS.compare(childTop[next[i]], best) < 0)) {
+                    best = childTop[next[i]];
+                    bestChild = i;
+                }
+            }
+            if (bestChild < 0) {
+                ownTaken = true;
+            } else {
+                next[bestChild]++;
+            }
+            top[count] = best;
+        }
+        return new Node(label, children, own, top);
+    }
+
+    private static Node child(Node node, char first) {
+        int index = indexOf(node.children, first);
+        return index >= 0 ? node.children[index] : null;
+    }
+
+    /**
+     * Binary search for the child whose label starts with a character.
+     *
+     * @return the index of the child, or -(insertion point) - 1 if there is none
+     */
+    private static int indexOf(Node[] children, char first) {
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char value = children[middle].label.charAt(0);
+            if (value < first) {
+                low = middle + 1;
+            } else if (value > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static Node[] inserted(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static int commonPrefix(String label, String key, int depth) {
+        int length = Math.min(label.length(), key.length() - depth);
+        int common = 0;
+        while (common < length && label.charAt(common) == key.charAt(depth + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * @return every name with its users, for checks of the tree
+     */
+    List<Suggestion> all() {
+        List<Suggestion> all = new ArrayList<>();
+        collect(root, all);
+        return all;
+    }
+
+    private static void collect(Node node, List<Suggestion> all) {
+        if (node.own != null) {
+            all.add(node.own);
+        }
+        for (Node child : node.children) {
+            collect(child, all);
+        }
+    }
+}
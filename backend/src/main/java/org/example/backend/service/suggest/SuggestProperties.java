@@ -0,0 +1,18 @@
+package org.example.backend.service.suggest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the name suggestions.
+ * Bound from the "users.suggest" properties.
+ *
+ * @param enabled whether GET /users/suggest answers from in-memory trees of the first and last names
+ * @param topSize the number of names kept per tree node, the most one lookup returns
+ * @param loadChunkSize the number of users read per query while loading
+ */
+@ConfigurationProperties(prefix = "users.suggest")
+public record SuggestProperties(boolean enabled,
+                                @DefaultValue("10") int topSize,
+                                @DefaultValue("5000") int loadChunkSize) {
+}
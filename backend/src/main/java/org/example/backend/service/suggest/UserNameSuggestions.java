@@ -0,0 +1,268 @@
+package org.example.backend.service.suggest;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.response.UserSuggestionResponse;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.event.SnapshotChanges;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Suggestions of first and last names for a typed prefix, answered from two {@link NameTrie}s in memory.
+ * The trees are built in the background once the application is ready, by walking through the users in id order
+ * within one snapshot. Until then, no names are suggested. Every committed change of this node is applied right after
+ * its commit. Users changed while building are corrected in the new trees before they replace the current ones,
+ * see {@link SnapshotChanges}. With sharding every shard is read in its own transactions, so these corrections
+ * are only exact without it.
+ * Lookups read the published trees without locks, changes build new trees and publish them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "users.suggest", name = "enabled", havingValue = "true")
+public class UserNameSuggestions implements DisposableBean {
+    /**
+     * The first names field, as named by the user filters.
+     */
+    public static final String FIRST_NAME = "firstName";
+    /**
+     * The last names field, as named by the user filters.
+     */
+    public static final String LAST_NAME = "lastName";
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SuggestProperties properties;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "users-suggest-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object lock = new Object();
+    /**
+     * The published trees, null until the first build completes. Written under the lock, read without it.
+     */
+    private volatile Trees trees;
+    /**
+     * The users changed around the running or the last build. Guarded by the lock.
+     */
+    private final SnapshotChanges changes = new SnapshotChanges();
+
+    /**
+     * Injecting dependencies with constructor injection.
+     *
+     * @param userRepository the repository the names are loaded from
+     * @param entityManager the entity manager cleared after every loaded chunk
+     * @param transactionManager the transaction manager running the build in one read-only snapshot
+     * @param properties the number of names kept per node and the number of users read per query
+     */
+    public UserNameSuggestions(UserRepository userRepository, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager, SuggestProperties properties) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // the walk and the reads of the changed users have to see the same users
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = properties;
+    }
+
+    /**
+     * Starts the first build once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Builds the trees again in the background, the current ones are used meanwhile.
+     *
+     * @return the running build
+     */
+    public Future<?> reload() {
+        return loader.submit(this::load);
+    }
+
+    private void load() {
+        synchronized (lock) {
+            changes.start();
+        }
+        long start = System.nanoTime();
+        Trees loaded;
+        try {
+            loaded = transactionTemplate.execute(status -> {
+                // counting the names first builds every path once instead of once per user
+                Map<String, NameTrie.Suggestion> firstNames = new HashMap<>();
+                Map<String, NameTrie.Suggestion> lastNames = new HashMap<>();
+                int chunkSize = properties.loadChunkSize();
+                long lastId = 0;
+                while (true) {
+                    List<User> chunk = new ArrayList<>(userRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(chunkSize)));
+                    // the loaded users are not needed again, the snapshot of the transaction is kept
+                    entityManager.clear();
+                    // with sharding every shard returns up to a chunk, only the lowest ids are complete
+                    chunk.sort(Comparator.comparing(User::getId));
+                    boolean last = chunk.size() < chunkSize;
+                    for (User user : last ? chunk : chunk.subList(0, chunkSize)) {
+                        count(firstNames, user.getFirstName());
+                        count(lastNames, user.getLastName());
+                    }
+                    if (last) {
+                        break;
+                    }
+                    lastId = chunk.get(chunkSize - 1).getId();
+                }
+                Trees built = new Trees(build(firstNames), build(lastNames));
+                // the users changed meanwhile are read in the same snapshot until no new ones turn up
+                while (true) {
+                    Set<Long> unread;
+                    synchronized (lock) {
+                        unread = changes.unread();
+                        if (unread.isEmpty()) {
+                            Trees corrected = built;
+                            for (UserChangedEvent correction : changes.publish()) {
+                                corrected = corrected.apply(correction);
+                            }
+                            trees = corrected;
+                            return corrected;
+                        }
+                    }
+                    List<User> users = userRepository.findAllById(unread);
+                    entityManager.clear();
+                    synchronized (lock) {
+                        changes.read(unread, users);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Loading the names for suggestions failed, {}", trees == null ? "no names are suggested" : "the previous names are kept", e);
+            synchronized (lock) {
+                changes.cancel();
+            }
+            return;
+        }
+        log.info("Loaded {} first names and {} last names for suggestions in {} ms",
+                loaded.firstNames().size(), loaded.lastNames().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void count(Map<String, NameTrie.Suggestion> names, String name) {
+        if (name != null) {
+            names.merge(name.toLowerCase(Locale.ROOT), new NameTrie.Suggestion(name, 1),
+                    (counted, added) -> new NameTrie.Suggestion(counted.name(), counted.users() + 1));
+        }
+    }
+
+    private NameTrie build(Map<String, NameTrie.Suggestion> names) {
+        NameTrie trie = NameTrie.empty(properties.topSize());
+        for (NameTrie.Suggestion name : names.values()) {
+            trie = trie.add(name.name(), name.users());
+        }
+        return trie;
+    }
+
+    /**
+     * Applies a user change once the transaction that made it has committed.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        changes.track(event, lock, change -> {
+            if (trees != null) {
+                trees = trees.apply(change);
+            }
+        });
+    }
+
+    /**
+     * Builds the trees again if changes of other nodes may have been missed.
+     * Single changes of other nodes carry no names, they are picked up by the next build.
+     *
+     * @param event the users changed by another node
+     */
+    @EventListener
+    public void onUserInvalidated(UserInvalidatedEvent event) {
+        if (event.all()) {
+            reload();
+        }
+    }
+
+    /**
+     * Suggests names starting with a prefix.
+     *
+     * @param prefix the typed prefix, matched case-insensitively
+     * @param field {@link #FIRST_NAME}, {@link #LAST_NAME}, or null for both
+     * @param limit the maximum number of names, at most the number kept per node
+     * @return the names with the most users first, empty until the names are loaded
+     */
+    public List<UserSuggestionResponse> suggest(String prefix, String field, int limit) {
+        Trees current = trees;
+        if (current == null) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, properties.topSize()));
+        List<UserSuggestionResponse> suggestions = new ArrayList<>();
+        if (field == null || field.equals(FIRST_NAME)) {
+            current.firstNames().suggest(prefix, size).forEach(name ->
+                    suggestions.add(new UserSuggestionResponse(name.name(), FIRST_NAME, name.users())));
+        }
+        if (field == null || field.equals(LAST_NAME)) {
+            current.lastNames().suggest(prefix, size).forEach(name ->
+                    suggestions.add(new UserSuggestionResponse(name.name(), LAST_NAME, name.users())));
+        }
+        if (field == null) {
+            suggestions.sort(Comparator.comparingLong(UserSuggestionResponse::users).reversed());
+            return suggestions.size() > size ? suggestions.subList(0, size) : suggestions;
+        }
+        return suggestions;
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * The trees of the first and last names, replaced together.
+     */
+    private record Trees(NameTrie firstNames, NameTrie lastNames) {
+        private Trees apply(UserChangedEvent event) {
+            return new Trees(apply(firstNames, event, UserSnapshot::firstName), apply(lastNames, event, UserSnapshot::lastName));
+        }
+
+        private static NameTrie apply(NameTrie trie, UserChangedEvent event, Function<UserSnapshot, String> field) {
+            String before = event.before() != null ? field.apply(event.before()) : null;
+            String after = event.after() != null ? field.apply(event.after()) : null;
+            if (Objects.equals(before, after)) {
+                return trie;
+            }
+            return trie.add(before, -1).add(after, 1);
+        }
+    }
+}
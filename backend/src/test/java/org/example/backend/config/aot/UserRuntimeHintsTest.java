@@ -0,0 +1,38 @@
+package org.example.backend.config.aot;
+
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.dto.response.UserInformationResponse;
+import org.example.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.domain.PageImpl;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    public void setUp() {
+        new UserRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testJsonTypesAreRegistered() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UserInformationResponse.class.getMethod("getFirstName")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(User.class.getMethod("getEmail")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ErrorResponse.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PageImpl.class).test(hints));
+    }
+
+    @Test
+    public void testConnectionProxyIsRegistered() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.backend.config.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.example.backend.service.bulk.UserBulkService;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:cache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.second-level-cache.enabled=true"
+})
+public class SecondLevelCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserBulkService bulkService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SecondLevelCacheStats stats;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+    }
+
+    private UserInformationRequest request(String firstName, String email) {
+        UserInformationRequest request = new UserInformationRequest();
+        request.setFirstName(firstName);
+        request.setLastName("Doe");
+        request.setEmail(email);
+        return request;
+    }
+
+    private List<String> searchEmails(String firstName) {
+        return userService.getUsersByName(firstName, PageRequest.of(0, 10)).map(User::getEmail).getContent();
+    }
+
+    @Test
+    public void testUserIsReadFromCache() {
+        Long id = userService.createUser(request("John", "john@example.com")).getId();
+        userRepository.findById(id);
+        long hits = stats.snapshot().users().hits();
+
+        assertEquals("john@example.com", userRepository.findById(id).orElseThrow().getEmail());
+        assertTrue(stats.snapshot().users().hits() > hits);
+    }
+
+    @Test
+    public void testSearchIsReadFromQueryCache() {
+        userService.createUser(request("John", "john@example.com"));
+        searchEmails("John");
+        long hits = stats.snapshot().firstNameSearch().hits();
+
+        assertEquals(List.of("john@example.com"), searchEmails("John"));
+        assertTrue(stats.snapshot().firstNameSearch().hits() > hits);
+        assertTrue(stats.snapshot().firstNameSearch().hitRatio() > 0);
+    }
+
+    @Test
+    public void testUpdateInvalidatesCachedSearch() {
+        Long id = userService.createUser(request("John", "john@example.com")).getId();
+        assertEquals(List.of("john@example.com"), searchEmails("John"));
+
+        userService.updateUser(id, request("Johnny", "john@example.com"));
+
+        assertEquals(List.of(), searchEmails("John"));
+        assertEquals(List.of("john@example.com"), searchEmails("Johnny"));
+        assertEquals("Johnny", userRepository.findById(id).orElseThrow().getFirstName());
+    }
+
+    @Test
+    public void testBatchInsertInvalidatesCachedSearch() {
+        userService.createUser(request("John", "john@example.com"));
+        assertEquals(List.of("john@example.com"), searchEmails("John"));
+
+        // written with JDBC, past Hibernate
+        userService.createUsers(List.of(request("John", "john2@example.com")));
+
+        assertEquals(2, searchEmails("John").size());
+    }
+
+    @Test
+    public void testBulkUpdateEvictsUser() {
+        Long id = userService.createUser(request("John", "john@example.com")).getId();
+        userRepository.findById(id);
+        assertEquals(List.of("john@example.com"), searchEmails("John"));
+
+        // written with JDBC, past Hibernate
+        bulkService.updateUsers(List.of(new UserPatchRequest(id, "Johnny", null, null)));
+
+        assertEquals("Johnny", userRepository.findById(id).orElseThrow().getFirstName());
+        assertEquals(List.of(), searchEmails("John"));
+    }
+
+    @Test
+    public void testDeleteEvictsUser() {
+        Long id = userService.createUser(request("John", "john@example.com")).getId();
+        userRepository.findById(id);
+
+        userService.deleteUser(id);
+
+        assertTrue(userRepository.findById(id).isEmpty());
+        assertEquals(List.of(), searchEmails("John"));
+    }
+
+    @Test
+    public void testChangeOnAnotherNodeEvictsUser() {
+        Long id = userService.createUser(request("John", "john@example.com")).getId();
+        userRepository.findById(id);
+        assertTrue(entityManagerFactory.getCache().contains(User.class, id));
+
+        eventPublisher.publishEvent(new UserInvalidatedEvent(Set.of(id), Set.of(), false));
+
+        assertFalse(entityManagerFactory.getCache().contains(User.class, id));
+    }
+}
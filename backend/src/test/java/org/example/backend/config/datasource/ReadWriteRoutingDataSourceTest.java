@@ -0,0 +1,105 @@
+package org.example.backend.config.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadWriteRoutingDataSourceTest {
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists marker (name varchar(32))");
+        jdbc.execute("delete from marker");
+        jdbc.update("insert into marker values (?)", name);
+        return dataSource;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(database("primary"),
+                List.of(database("replica0"), database("replica1")), ReadWriteRoutingProperties.Balance.ROUND_ROBIN);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReadYourWritesContext.setPrimaryRequired(false);
+    }
+
+    private String currentDatabase(TransactionTemplate template) {
+        return template.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+    }
+
+    @Test
+    public void testWritesGoToPrimary() {
+        assertEquals("primary", currentDatabase(readWrite));
+    }
+
+    @Test
+    public void testReadsAreBalancedOverReplicas() {
+        List<String> databases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            databases.add(currentDatabase(readOnly));
+        }
+        assertEquals(List.of("replica0", "replica1", "replica0", "replica1"), databases);
+    }
+
+    @Test
+    public void testReadsGoToPrimaryWhenPinned() {
+        ReadYourWritesContext.setPrimaryRequired(true);
+        assertEquals("primary", currentDatabase(readOnly));
+    }
+
+    @Test
+    public void testFilterPinsReadsAfterWrite() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        MockHttpServletRequest firstRead = new MockHttpServletRequest("GET", "/users");
+        firstRead.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, "client-a");
+        filter.doFilter(firstRead, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/users");
+        write.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, "client-a");
+        filter.doFilter(write, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/users");
+        read.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, "client-a");
+        filter.doFilter(read, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWritesContext.isPrimaryRequired()));
+        assertTrue(pinned.get());
+
+        MockHttpServletRequest otherClient = new MockHttpServletRequest("GET", "/users");
+        otherClient.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, "client-b");
+        filter.doFilter(otherClient, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWritesContext.isPrimaryRequired()));
+        assertFalse(pinned.get());
+        assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+}
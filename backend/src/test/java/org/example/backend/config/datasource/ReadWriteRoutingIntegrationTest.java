@@ -0,0 +1,50 @@
+package org.example.backend.config.datasource;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and its replica.
+ * Replication is not simulated, so a user created on the primary stays invisible on the replica.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.datasource.routing.enabled=true",
+        "users.datasource.routing.replicas[0].url=jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                + "INIT=create table if not exists users (id bigint generated by default as identity primary key, first_name varchar(255), last_name varchar(255), email varchar(255), email_domain varchar(255))",
+        "users.datasource.routing.replicas[0].username=sa",
+        "users.datasource.routing.replicas[0].password="
+})
+public class ReadWriteRoutingIntegrationTest {
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    public void tearDown() {
+        ReadYourWritesContext.setPrimaryRequired(false);
+    }
+
+    @Test
+    public void testReadsAreServedByReplica() {
+        userService.createUser(new UserInformationRequest("John", "Doe", "john.routing@example.com"));
+
+        assertEquals(0, userService.getUsersList(PageRequest.of(0, 10)).getTotalElements());
+
+        ReadYourWritesContext.setPrimaryRequired(true);
+        assertEquals(1, userService.getUsersList(PageRequest.of(0, 10)).getTotalElements());
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.backend.config.limit;
+
+import org.example.backend.BackendApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the user list during a database slowdown, with and without the concurrency limiter.
+ * Every statement is delayed for the slow phase, so requests queue for the 20 pooled connections.
+ * Goodput counts the successful responses that met the latency objective.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+public class ConcurrencyLimitBenchmark {
+    private static final int CLIENTS = 300;
+    private static final Duration OBJECTIVE = Duration.ofSeconds(1);
+    private static final Duration NORMAL_PHASE = Duration.ofSeconds(3);
+    private static final Duration SLOW_PHASE = Duration.ofSeconds(8);
+    private static final long STATEMENT_DELAY_MILLIS = 50;
+
+    private static volatile long statementDelayMillis;
+
+    @Test
+    public void compareWithAndWithoutLimiter() throws Exception {
+        run("without limiter", false);
+        run("with limiter", true);
+    }
+
+    private void run(String name, boolean limited) throws Exception {
+        statementDelayMillis = 0;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class, SlowDatabase.class)
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=200",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:limit-" + limited + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--users.concurrency-limit.enabled=" + limited)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/users?page=0&size=5");
+
+            load(uri, NORMAL_PHASE, null);
+            statementDelayMillis = STATEMENT_DELAY_MILLIS;
+            Result result = new Result();
+            load(uri, SLOW_PHASE, result);
+            result.print(name);
+        }
+    }
+
+    private void load(URI uri, Duration phase, Result result) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(8)).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long end = System.nanoTime() + phase.toNanos();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long latency = System.nanoTime() - start;
+                    if (result != null) {
+                        result.record(status, latency);
+                    }
+                    if (status == 503) {
+                        sleep(10);
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(phase.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Result {
+        private final List<Long> successLatencies = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        void record(int status, long latencyNanos) {
+            if (status == 200) {
+                successLatencies.add(latencyNanos);
+            } else if (status == 503) {
+                rejected.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+
+        void print(String name) {
+            List<Long> latencies = new ArrayList<>(successLatencies);
+            Collections.sort(latencies);
+            long good = latencies.stream().filter(latency -> latency <= OBJECTIVE.toNanos()).count();
+            double p99 = latencies.isEmpty() ? 0 : latencies.get((int) (latencies.size() * 0.99)) / 1e6;
+            System.out.printf("%-16s goodput %6.1f req/s  ok %6d  rejected %6d  failed %4d  p99 of ok %8.1f ms%n",
+                    name, good / (double) SLOW_PHASE.toSeconds(), latencies.size(), rejected.get(), failed.get(), p99);
+        }
+    }
+
+    /**
+     * Wraps the DataSource so that every statement waits while the slow phase is on.
+     */
+    @Configuration
+    static class SlowDatabase {
+        @Bean
+        static BeanPostProcessor slowDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return slow(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && statementDelayMillis > 0) {
+                            Thread.sleep(statementDelayMillis);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
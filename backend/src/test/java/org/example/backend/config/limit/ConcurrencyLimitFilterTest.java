@@ -0,0 +1,119 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(40);
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new ConcurrencyLimitFilter(
+                new AimdLimiter(new ConcurrencyLimitProperties.Limit(1, 1, 10), 2.0, 0.5, Duration.ofSeconds(10)),
+                new AimdLimiter(new ConcurrencyLimitProperties.Limit(1, 1, 10), 2.0, 0.5, Duration.ofSeconds(10)),
+                Duration.ofSeconds(2),
+                new ObjectMapper());
+    }
+
+    private MockHttpServletResponse perform(String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    public void testRequestOverLimitIsRejected() throws Exception {
+        assertTrue(filter.getReadLimiter().tryAcquire());
+
+        MockHttpServletResponse response = perform("GET", "/users");
+
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals("application/json", response.getContentType());
+        assertEquals("{\"status\":503,\"error\":\"Service Unavailable\",\"code\":\"OVERLOADED\","
+                + "\"message\":\"Server is overloaded, try again later\"}", response.getContentAsString());
+    }
+
+    @Test
+    public void testReadsAndWritesHaveSeparateLimits() throws Exception {
+        assertTrue(filter.getReadLimiter().tryAcquire());
+
+        assertEquals(200, perform("POST", "/users").getStatus());
+        assertEquals(503, perform("GET", "/users/search").getStatus());
+    }
+
+    @Test
+    public void testEventStreamAndOtherPathsAreNotLimited() throws Exception {
+        assertTrue(filter.getReadLimiter().tryAcquire());
+
+        assertEquals(200, perform("GET", "/users/events").getStatus());
+        assertEquals(200, perform("GET", "/ops/invalidation").getStatus());
+    }
+
+    @Test
+    public void testPermitIsReleased() throws Exception {
+        assertEquals(200, perform("GET", "/users").getStatus());
+        assertEquals(0, filter.getReadLimiter().getInFlight());
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsLow() {
+        AimdLimiter limiter = new AimdLimiter(new ConcurrencyLimitProperties.Limit(2, 1, 10), 2.0, 0.5, Duration.ofSeconds(10));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        // the limit stops growing once it is more than twice the requests in flight
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            int permits = limiter.getLimit();
+            for (int p = 0; p < permits; p++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            for (int p = 0; p < permits; p++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyRises() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(new ConcurrencyLimitProperties.Limit(8, 1, 10), 2.0, 0.5, Duration.ofSeconds(10));
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        // one decrease per round trip, so the slow responses are spread over more than their latency
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(50);
+            for (int j = 0; j < 10; j++) {
+                limiter.tryAcquire();
+                limiter.release(SLOW, false);
+            }
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testFailuresShrinkTheLimit() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(new ConcurrencyLimitProperties.Limit(8, 2, 10), 2.0, 0.5, Duration.ofSeconds(10));
+        Thread.sleep(1);
+        limiter.tryAcquire();
+        limiter.release(FAST / 10, true);
+        assertEquals(4, limiter.getLimit());
+    }
+}
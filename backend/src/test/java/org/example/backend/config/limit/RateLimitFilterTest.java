@@ -0,0 +1,70 @@
+package org.example.backend.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties(true, "X-API-Key", Duration.ofMinutes(10), List.of(
+                new RateLimitProperties.Endpoint("GET", "/users/search", 2, 1),
+                new RateLimitProperties.Endpoint(null, "/users/**", 100, 50)));
+        filter = new RateLimitFilter(properties, new TokenBucketStore(properties.idleTimeout()), new ObjectMapper());
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    public void testLimitHeadersAreReturned() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/users/search", null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("2", response.getHeader(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("1", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals("1", response.getHeader(RateLimitFilter.RESET_HEADER));
+    }
+
+    @Test
+    public void testClientOverLimitIsRejected() throws Exception {
+        perform("GET", "/users/search", null);
+        perform("GET", "/users/search", null);
+
+        MockHttpServletResponse response = perform("GET", "/users/search", null);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals("0", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals("{\"status\":429,\"error\":\"Too Many Requests\",\"code\":\"RATE_LIMITED\","
+                + "\"message\":\"Rate limit exceeded, try again later\"}", response.getContentAsString());
+        // other endpoints and other clients have their own buckets
+        assertEquals(200, perform("GET", "/users", null).getStatus());
+        assertEquals(200, perform("GET", "/users/search", "other-client").getStatus());
+    }
+
+    @Test
+    public void testUnmatchedPathIsNotLimited() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/ops/invalidation", null);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(RateLimitFilter.LIMIT_HEADER));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.backend.config.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost of a rate limit check under contention: all threads on one hot client,
+ * or spread over many clients. The lock-free store is compared with a map of buckets behind one lock.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+public class TokenBucketStoreBenchmark {
+    private static final int[] THREADS = {1, 4, 16};
+    private static final int CLIENTS = 10_000;
+    private static final long DURATION_MILLIS = 2_000;
+    private static final long CAPACITY = 1_000_000;
+    private static final long INTERVAL = 1;
+
+    private static final String[] KEYS = new String[CLIENTS];
+
+    static {
+        for (int i = 0; i < CLIENTS; i++) {
+            KEYS[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    private interface Limiter {
+        boolean tryConsume(String key);
+    }
+
+    @Test
+    public void compareUnderContention() throws Exception {
+        TokenBucketStore store = new TokenBucketStore(Duration.ofMinutes(10));
+        Limiter lockFree = key -> store.tryConsume(key, CAPACITY, INTERVAL).allowed();
+        Limiter locked = new LockedLimiter();
+
+        // warm up both implementations before measuring
+        run("warm-up", lockFree, 4, false);
+        run("warm-up", locked, 4, false);
+
+        for (int threads : THREADS) {
+            run("lock-free hot key", lockFree, threads, false);
+            run("locked hot key", locked, threads, false);
+            run("lock-free spread", lockFree, threads, true);
+            run("locked spread", locked, threads, true);
+        }
+    }
+
+    private void run(String name, Limiter limiter, int threads, boolean spread) throws Exception {
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long[] end = new long[1];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                int i = offset;
+                while ((count & 1023) != 0 || System.nanoTime() < end[0]) {
+                    limiter.tryConsume(spread ? KEYS[i++ % CLIENTS] : KEYS[0]);
+                    count++;
+                }
+                operations.addAndGet(count);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        end[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double perSecond = operations.get() / (DURATION_MILLIS / 1000.0);
+        System.out.printf("%-20s %2d threads %12.0f checks/s %8.1f ns/check per thread%n",
+                name, threads, perSecond, threads * 1e9 / perSecond);
+    }
+
+    /**
+     * The straightforward alternative: a plain map of token counts guarded by one lock.
+     */
+    private static final class LockedLimiter implements Limiter {
+        private final Map<String, long[]> buckets = new HashMap<>();
+
+        @Override
+        public synchronized boolean tryConsume(String key) {
+            long now = System.nanoTime();
+            long[] bucket = buckets.computeIfAbsent(key, k -> new long[]{CAPACITY, now});
+            bucket[0] = Math.min(CAPACITY, bucket[0] + (now - bucket[1]) / INTERVAL);
+            bucket[1] = now;
+            if (bucket[0] == 0) {
+                return false;
+            }
+            bucket[0]--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.backend.config.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketStoreTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private final TokenBucketStore store = new TokenBucketStore(Duration.ofMinutes(10), now::get);
+
+    @Test
+    public void testBurstUpToCapacity() {
+        for (int i = 0; i < 5; i++) {
+            TokenBucketStore.Decision decision = store.tryConsume("client", 5, SECOND);
+            assertTrue(decision.allowed());
+            assertEquals(4 - i, decision.remaining());
+        }
+
+        TokenBucketStore.Decision rejected = store.tryConsume("client", 5, SECOND);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertEquals(SECOND, rejected.retryAfterNanos());
+        assertEquals(5 * SECOND, rejected.resetNanos());
+    }
+
+    @Test
+    public void testTokensAreRefilled() {
+        for (int i = 0; i < 5; i++) {
+            store.tryConsume("client", 5, SECOND);
+        }
+        now.addAndGet(2 * SECOND);
+
+        assertTrue(store.tryConsume("client", 5, SECOND).allowed());
+        assertTrue(store.tryConsume("client", 5, SECOND).allowed());
+        assertFalse(store.tryConsume("client", 5, SECOND).allowed());
+    }
+
+    @Test
+    public void testClientsHaveSeparateBuckets() {
+        assertTrue(store.tryConsume("first", 1, SECOND).allowed());
+        assertFalse(store.tryConsume("first", 1, SECOND).allowed());
+        assertTrue(store.tryConsume("second", 1, SECOND).allowed());
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        store.tryConsume("idle", 5, SECOND);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(11));
+
+        store.tryConsume("active", 5, SECOND);
+
+        assertEquals(1, store.size());
+    }
+}
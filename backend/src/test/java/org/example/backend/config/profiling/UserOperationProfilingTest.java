@@ -0,0 +1,131 @@
+package org.example.backend.config.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:profiling;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.profiling.enabled=true",
+        "users.profiling.token=secret",
+        "users.profiling.recording-settings=default"
+})
+public class UserOperationProfilingTest {
+    private static final String USER = "{\"first_name\": \"John\", \"last_name\": \"Doe\", \"email\": \"%s\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserOperationLatencies latencies;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testLatenciesOfEveryLayer() throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted("john@example.com")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/users").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk());
+
+        Map<String, UserOperationLatencies.Snapshot> snapshot = awaitLatencies("request GET /users", "request POST /users",
+                "controller createUser", "service createUser", "repository existsByEmail", "service getUsersList");
+        UserOperationLatencies.Snapshot request = snapshot.get("request POST /users");
+        UserOperationLatencies.Snapshot service = snapshot.get("service createUser");
+        assertTrue(request.count() >= 1);
+        assertTrue(request.maxMillis() >= service.p50Millis());
+        // the existence check and the insert
+        assertTrue(service.meanStatements() >= 2);
+        assertEquals(1.0, service.meanRows());
+        assertEquals(1.0, snapshot.get("service getUsersList").meanRows());
+
+        mockMvc.perform(get("/ops/jfr/latencies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['service createUser'].count").exists());
+    }
+
+    @Test
+    public void testRecordingRequiresToken() throws Exception {
+        mockMvc.perform(post("/ops/jfr/recording"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code").value("INVALID_TOKEN"));
+        mockMvc.perform(post("/ops/jfr/recording").header("X-Ops-Token", "wrong"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/ops/jfr/recording").header("X-Ops-Token", "secret"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("RECORDING_STATE"));
+    }
+
+    @Test
+    public void testRecordingHoldsUserOperations() throws Exception {
+        mockMvc.perform(post("/ops/jfr/recording").header("X-Ops-Token", "secret").param("duration", "1h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.duration").value("PT5M"));
+        mockMvc.perform(post("/ops/jfr/recording").header("X-Ops-Token", "secret"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted("marie@example.com")))
+                .andExpect(status().isCreated());
+
+        MvcResult started = mockMvc.perform(delete("/ops/jfr/recording").header("X-Ops-Token", "secret"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] recording = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path file = Files.createTempFile("users-test-", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(UserOperationEvent.NAME))
+                    .toList();
+            assertTrue(events.stream().anyMatch(event -> event.getString("layer").equals("request")
+                    && event.getString("operation").equals("POST /users") && !event.getBoolean("failed")));
+            assertTrue(events.stream().anyMatch(event -> event.getString("layer").equals("repository")
+                    && event.getString("operation").equals("existsByEmail") && event.getInt("statements") == 1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Map<String, UserOperationLatencies.Snapshot> awaitLatencies(String... operations) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            Map<String, UserOperationLatencies.Snapshot> snapshot = latencies.snapshot();
+            if (snapshot.keySet().containsAll(List.of(operations)) || System.nanoTime() > deadline) {
+                return snapshot;
+            }
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.backend.config.resilience;
+
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=" + CircuitBreakerIntegrationTest.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.circuit-breaker.enabled=true",
+        "users.circuit-breaker.minimum-calls=2",
+        "users.circuit-breaker.slow-call-threshold=1s",
+        "users.circuit-breaker.open-duration=2s",
+        "users.circuit-breaker.half-open-calls=1"
+})
+public class CircuitBreakerIntegrationTest {
+    static final String URL = "jdbc:h2:mem:breaker;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String USER = "{\"first_name\": \"John\", \"last_name\": \"Doe\", \"email\": \"%s\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CircuitBreaker breaker;
+    @Autowired
+    private UserService userService;
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testStalledDatabaseServesStaleReadsAndRejectsWrites() throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted("john@example.com")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/users").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"));
+
+        // an exclusive session makes every other session wait, like a database that stopped answering
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try (Connection pause = DriverManager.getConnection(URL, "sa", ""); Statement statement = pause.createStatement()) {
+            statement.execute("SET EXCLUSIVE 1");
+            CompletableFuture<?> stuck = CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> userService.getUsersList(PageRequest.of(1, 5)), clients),
+                    CompletableFuture.runAsync(() -> userService.getUsersList(PageRequest.of(2, 5)), clients));
+            try {
+                await(() -> breaker.getState() == CircuitBreaker.State.OPEN);
+
+                long start = System.nanoTime();
+                mockMvc.perform(get("/users").param("page", "0").param("size", "5"))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                        .andExpect(header().exists("Age"))
+                        .andExpect(jsonPath("$.content[0].email").value("john@example.com"));
+                mockMvc.perform(get("/users").param("page", "3").param("size", "5"))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(jsonPath("$.code").value("DATABASE_UNAVAILABLE"));
+                mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted("jane@example.com")))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(jsonPath("$.code").value("DATABASE_UNAVAILABLE"));
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            } finally {
+                statement.execute("SET EXCLUSIVE 0");
+            }
+            stuck.get(10, TimeUnit.SECONDS);
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // the background retry of the stale read is the trial call that closes the breaker
+        await(() -> breaker.getState() == CircuitBreaker.State.CLOSED);
+        mockMvc.perform(get("/ops/circuit-breaker"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("CLOSED"))
+                .andExpect(jsonPath("$.staleResponses").value(1))
+                .andExpect(jsonPath("$.rejectedCalls").value(2))
+                .andExpect(jsonPath("$.openings").value(1));
+        mockMvc.perform(get("/users").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"));
+    }
+}
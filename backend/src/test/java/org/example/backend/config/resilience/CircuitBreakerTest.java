@@ -0,0 +1,102 @@
+package org.example.backend.config.resilience;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private final CircuitBreaker breaker = new CircuitBreaker(new CircuitBreakerProperties(true, 10, 4, 0.5,
+            Duration.ofSeconds(1), 0.5, Duration.ofSeconds(5), 2, 100, Duration.ofMinutes(10)), now::get);
+
+    @Test
+    public void testOpensOnFailureRate() {
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(-1, breaker.tryAcquire());
+        assertEquals(1, breaker.snapshot().rejectedCalls());
+        assertEquals(1, breaker.snapshot().openings());
+    }
+
+    @Test
+    public void testClosesAfterSuccessfulTrials() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+        now.addAndGet(5 * SECOND);
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertTrue(first > 0 && second > 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(-1, breaker.tryAcquire());
+
+        breaker.onSuccess(first);
+        breaker.onSuccess(second);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    public void testFailedTrialOpensAgain() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+        now.addAndGet(5 * SECOND);
+
+        breaker.onFailure(breaker.tryAcquire());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.snapshot().openings());
+    }
+
+    @Test
+    public void testStuckCallsOpenBeforeTheyReturn() {
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        long stuck = breaker.tryAcquire();
+        long alsoStuck = breaker.tryAcquire();
+        breaker.checkStuckCalls();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        now.addAndGet(2 * SECOND);
+        breaker.checkStuckCalls();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.snapshot().callsInFlight());
+
+        // calls started before the breaker opened do not decide the trials
+        now.addAndGet(5 * SECOND);
+        long trial = breaker.tryAcquire();
+        breaker.onFailure(stuck);
+        breaker.onSuccess(alsoStuck);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(trial);
+        breaker.onSuccess(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testDatabaseFailuresAreToldApart() {
+        assertTrue(CircuitBreakerAspect.isDatabaseFailure(new CannotCreateTransactionException("no connection")));
+        assertTrue(CircuitBreakerAspect.isDatabaseFailure(new RuntimeException(new SQLException("gone", "08006"))));
+        assertFalse(CircuitBreakerAspect.isDatabaseFailure(new EntityNotFoundException("no user")));
+        assertFalse(CircuitBreakerAspect.isDatabaseFailure(new IllegalArgumentException("bad page")));
+    }
+}
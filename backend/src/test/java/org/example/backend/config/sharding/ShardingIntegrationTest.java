@@ -0,0 +1,209 @@
+package org.example.backend.config.sharding;
+
+import jakarta.persistence.EntityExistsException;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.exceptions.custom.ShardRelocationException;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three in-memory H2 databases stand in for three shards.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "users.sharding.enabled=true",
+        "users.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[0].username=sa",
+        "users.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[1].username=sa",
+        "users.sharding.shards[2].url=jdbc:h2:mem:shard2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[2].username=sa"
+})
+public class ShardingIntegrationTest {
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> created = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            new JdbcTemplate(shardRoutingDataSource.getShard(shard)).execute("delete from users");
+        }
+        created.clear();
+        for (int i = 0; i < 20; i++) {
+            String firstName = i % 4 == 0 ? "John" : "Name" + i;
+            created.add(userService.createUser(new UserInformationRequest(firstName, "Doe", "user" + i + "@example.com")));
+        }
+    }
+
+    private int rowsOn(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.getShard(shard)).queryForObject("select count(*) from users", Integer.class);
+    }
+
+    @Test
+    public void testUsersAreSpreadByEmailHash() {
+        int total = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertTrue(rowsOn(shard) > 0);
+            total += rowsOn(shard);
+        }
+        assertEquals(created.size(), total);
+        for (User user : created) {
+            assertEquals(ShardKeys.shardOfEmail(user.getEmail(), SHARDS), ShardKeys.shardOfId(user.getId(), SHARDS));
+        }
+    }
+
+    @Test
+    public void testPagingMergesShardsInIdOrder() {
+        List<Long> expected = created.stream().map(User::getId).sorted().toList();
+
+        Page<User> page = userService.getUsersList(PageRequest.of(1, 7));
+
+        assertEquals(created.size(), page.getTotalElements());
+        assertEquals(expected.subList(7, 14), page.getContent().stream().map(User::getId).toList());
+    }
+
+    @Test
+    public void testPagingMergesShardsInRequestedOrder() {
+        List<String> expected = created.stream().map(User::getEmail).sorted(Comparator.reverseOrder()).toList();
+
+        Page<User> page = userService.getUsersList(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "email")));
+
+        assertEquals(expected.subList(0, 5), page.getContent().stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    public void testSearchGathersAllShards() {
+        Page<User> page = userService.getUsersByName("John", PageRequest.of(0, 10));
+
+        assertEquals(5, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(user -> user.getFirstName().equals("John")));
+    }
+
+    @Test
+    public void testSingleUserOperationsAreRouted() {
+        User user = created.get(3);
+
+        User updated = userService.updateUser(user.getId(), new UserInformationRequest("Changed", "Name", user.getEmail()));
+        assertEquals("Changed", updated.getFirstName());
+        assertEquals("Changed", userRepository.findById(user.getId()).orElseThrow().getFirstName());
+
+        userService.deleteUser(user.getId());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertEquals(created.size() - 1, userRepository.count());
+    }
+
+    @Test
+    public void testDuplicateEmailIsRejected() {
+        assertThrows(EntityExistsException.class,
+                () -> userService.createUser(new UserInformationRequest("Other", "Doe", "user5@example.com")));
+    }
+
+    @Test
+    public void testEmailChangeToAnotherShardIsRejected() {
+        User user = created.get(0);
+        int shard = ShardKeys.shardOfId(user.getId(), SHARDS);
+        String foreignEmail = "moved0@example.com";
+        for (int i = 1; ShardKeys.shardOfEmail(foreignEmail, SHARDS) == shard; i++) {
+            foreignEmail = "moved" + i + "@example.com";
+        }
+        String email = foreignEmail;
+
+        assertThrows(ShardRelocationException.class,
+                () -> userService.updateUser(user.getId(), new UserInformationRequest("John", "Doe", email)));
+        assertEquals(user.getEmail(), userRepository.findById(user.getId()).orElseThrow().getEmail());
+    }
+
+    private List<User> onePerShard() {
+        Map<Integer, User> users = new TreeMap<>();
+        created.forEach(user -> users.putIfAbsent(ShardKeys.shardOfId(user.getId(), SHARDS), user));
+        assertEquals(SHARDS, users.size());
+        return new ArrayList<>(users.values());
+    }
+
+    @Test
+    public void testWritesOnSeveralShardsRollBackTogether() {
+        List<User> users = onePerShard();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (User user : users) {
+                User found = userRepository.findById(user.getId()).orElseThrow();
+                found.setFirstName("Changed");
+                userRepository.save(found);
+            }
+            status.setRollbackOnly();
+        });
+
+        for (User user : users) {
+            assertEquals(user.getFirstName(), userRepository.findById(user.getId()).orElseThrow().getFirstName());
+        }
+    }
+
+    @Test
+    public void testLocksOnFurtherShardsAreHeldUntilCommit() {
+        List<User> users = onePerShard();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userRepository.findAllForUpdateByIdIn(users.stream().map(User::getId).toList());
+            for (User user : users) {
+                JdbcTemplate other = new JdbcTemplate(shardRoutingDataSource.getShard(ShardKeys.shardOfId(user.getId(), SHARDS)));
+                assertThrows(DataAccessException.class,
+                        () -> other.update("update users set first_name = 'Other' where id = ?", user.getId()));
+            }
+        });
+
+        for (User user : users) {
+            assertEquals(user.getFirstName(), userRepository.findById(user.getId()).orElseThrow().getFirstName());
+        }
+    }
+
+    @Test
+    public void testBatchCreateIsSplitPerShard() {
+        List<UserInformationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(new UserInformationRequest("Batch", "Doe", "batch" + i + "@example.com"));
+        }
+        requests.add(new UserInformationRequest("Batch", "Doe", "user1@example.com"));
+
+        var results = userService.createUsers(requests);
+
+        assertFalse(results.get(6).isSuccess());
+        for (int i = 0; i < 6; i++) {
+            User user = results.get(i).getOrThrow();
+            assertEquals(ShardKeys.shardOfEmail(user.getEmail(), SHARDS), ShardKeys.shardOfId(user.getId(), SHARDS));
+        }
+        assertEquals(created.size() + 6, userRepository.count());
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.backend.config.timeout;
+
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:deadline;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.request-timeout.enabled=true",
+        "users.request-timeout.default-budget=5s",
+        "users.request-timeout.endpoints[0].method=GET",
+        "users.request-timeout.endpoints[0].path=/users/search",
+        "users.request-timeout.endpoints[0].budget=200ms"
+})
+public class RequestDeadlineFilterTest {
+    @Autowired
+    private RequestDeadlineFilter filter;
+    @Autowired
+    private RequestTimeoutStats stats;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+
+    private Exception run(String path, Runnable work) throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), (request, response) -> {
+            try {
+                work.run();
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        return failure.get();
+    }
+
+    @Test
+    public void testSlowStatementIsCancelled() throws Exception {
+        long start = System.nanoTime();
+        Exception failure = run("/users/search", () ->
+                jdbcTemplate.queryForObject("select sum(a.\"X\" * b.\"X\") from system_range(1, 100000) a, system_range(1, 100000) b", Long.class));
+
+        assertInstanceOf(QueryTimeoutException.class, failure);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertTrue(stats.snapshot().get("GET /users/search").cancelledStatements() > 0);
+    }
+
+    @Test
+    public void testStatementAfterBudgetIsRefused() throws Exception {
+        Exception failure = run("/users/search", () -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            userService.getUsersList(PageRequest.of(0, 5));
+        });
+
+        // the budget was spent before the transaction got its connection
+        assertNotNull(failure);
+        assertInstanceOf(org.hibernate.QueryTimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    public void testFastRequestIsNotAffected() throws Exception {
+        assertNull(run("/users", () -> userService.getUsersList(PageRequest.of(0, 5))));
+    }
+}
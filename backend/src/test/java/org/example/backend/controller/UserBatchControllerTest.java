@@ -0,0 +1,113 @@
+package org.example.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.example.backend.exceptions.custom.UserNotFoundException;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.bulk.UserBulkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = UserBatchController.class)
+@Import(UserBatchControllerTest.MockConfig.class)
+public class UserBatchControllerTest {
+    @Autowired
+    private UserBulkService bulkService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public UserBulkService bulkService() {
+            return Mockito.mock(UserBulkService.class);
+        }
+    }
+
+    @AfterEach
+    public void resetMocks() {
+        Mockito.reset(bulkService);
+    }
+
+    @Test
+    public void testUpdateUsers() throws Exception {
+        when(bulkService.updateUsers(any())).thenReturn(List.of(
+                ItemResult.success(new User()),
+                ItemResult.failure(new UserAlreadyExistsException("User with this email already exists"))));
+
+        mockMvc.perform(patch("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new UserPatchRequest(1L, "John", null, null),
+                                new UserPatchRequest(2L, null, null, "taken@example.com")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.items[0].code").doesNotExist())
+                .andExpect(jsonPath("$.items[1].id").value(2))
+                .andExpect(jsonPath("$.items[1].outcome").value("FAILED"))
+                .andExpect(jsonPath("$.items[1].code").value("USER_ALREADY_EXISTS"));
+    }
+
+    @Test
+    public void testDeleteUsersByIds() throws Exception {
+        when(bulkService.deleteUsers(List.of(1L, 7L))).thenReturn(List.of(
+                ItemResult.success(1L),
+                ItemResult.failure(new UserNotFoundException("User not found"))));
+
+        mockMvc.perform(delete("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserBulkDeleteRequest(List.of(1L, 7L), null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].outcome").value("DELETED"))
+                .andExpect(jsonPath("$.items[1].id").value(7))
+                .andExpect(jsonPath("$.items[1].code").value("USER_NOT_FOUND"));
+    }
+
+    @Test
+    public void testDeleteUsersByFilter() throws Exception {
+        when(bulkService.deleteUsersMatching(new UserFilter(null, null, "spam.com")))
+                .thenReturn(List.of(ItemResult.success(3L), ItemResult.success(4L)));
+
+        mockMvc.perform(delete("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"email_domain\": \"spam.com\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(4));
+    }
+
+    @Test
+    public void testDeleteUsersFailure_emptyRequest() throws Exception {
+        when(bulkService.deleteUsers(null)).thenThrow(new EntityNullException("Batch can not be null or empty"));
+
+        mockMvc.perform(delete("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotAcceptable())
+                .andExpect(jsonPath("$.code").value("MISSING_VALUE"));
+    }
+}
@@ -5,10 +5,15 @@ import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserLookupRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
 import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
 import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
 import org.example.backend.repository.UserRepository;
 import org.example.backend.service.impl.UserServiceImpl;
+import org.example.backend.service.lookup.UserLookupResult;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +28,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -100,6 +106,81 @@ public class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testGetAllUsersNotModified() throws Exception {
+        Pageable firstPage = PageRequest.of(0, 5);
+        when(userService.getUsersList(firstPage)).thenReturn(new PageImpl<>(List.of(expectedUser), firstPage, 1));
+
+        String etag = mockMvc.perform(get("/users").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users").param("page", "0").param("size", "5").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testGetFilteredUsersSuccess() throws Exception {
+        UserFilter filter = new UserFilter(null, "Smith", "example.com");
+        Pageable sorted = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "firstName"));
+        when(userService.findUsers(filter, sorted)).thenReturn(new PageImpl<>(List.of(expectedUser), sorted, 11));
+
+        mockMvc.perform(get("/users").param("page", "1").param("size", "10").param("firstName", " ")
+                        .param("lastName", "Smith").param("emailDomain", "example.com").param("sort", "firstName,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value(expectedUser.getEmail()));
+        verify(userService, never()).getUsersList(any());
+    }
+
+    @Test
+    public void testGetFilteredUsersFailure_unsupportedSort() throws Exception {
+        when(userService.findUsers(any(), any())).thenThrow(new UnsupportedQueryException("No index serves this filter with this sort order"));
+
+        mockMvc.perform(get("/users").param("firstName", "John").param("sort", "email"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("UNSUPPORTED_QUERY"));
+    }
+
+    @Test
+    public void testGetUsersByIdsSuccess() throws Exception {
+        expectedUser.setId(1L);
+        expectedUser2.setId(2L);
+        when(userService.getUsersByIds(List.of(2L, 3L, 1L)))
+                .thenReturn(new UserLookupResult(List.of(expectedUser2, expectedUser), List.of(3L)));
+
+        mockMvc.perform(get("/users").param("ids", "2,3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.users[1].email").value(expectedUser.getEmail()))
+                .andExpect(jsonPath("$.missing_ids[0]").value(3));
+        verify(userService, never()).getUsersList(any());
+    }
+
+    @Test
+    public void testLookupUsersSuccess() throws Exception {
+        expectedUser.setId(1L);
+        when(userService.getUsersByIds(List.of(1L, 5L)))
+                .thenReturn(new UserLookupResult(List.of(expectedUser), List.of(5L)));
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserLookupRequest(List.of(1L, 5L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].first_name").value(expectedUser.getFirstName()))
+                .andExpect(jsonPath("$.missing_ids[0]").value(5));
+    }
+
+    @Test
+    public void testLookupUsersFailure_tooManyIds() throws Exception {
+        when(userService.getUsersByIds(any())).thenThrow(new BatchTooLargeException("Too many ids"));
+
+        mockMvc.perform(get("/users").param("ids", "1,2"))
+                .andExpect(jsonPath("$.code").value("BATCH_TOO_LARGE"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testCreateUserSuccess() throws Exception {
         when(userService.createUser(Mockito.any())).thenReturn(expectedUser);
@@ -127,6 +208,7 @@ public class UserControllerTest {
         mockMvc.perform(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.code").value("USER_ALREADY_EXISTS"))
                 .andExpect(status().isConflict());
     }
 
@@ -0,0 +1,107 @@
+package org.example.backend.controller;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares resolving a list of ids with one multi-get call against one call per id.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/lookup;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.example.backend=WARN"
+})
+public class UserLookupBenchmark {
+    private static final int USERS = 10_000;
+    private static final int IDS_PER_LOOKUP = 100;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        List<UserInformationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            requests.add(new UserInformationRequest("First" + i, "Last" + i, "user" + i + "@example.com"));
+            if (requests.size() == 1000) {
+                userService.createUsers(requests).forEach(result -> ids.add(result.value().getId()));
+                requests.clear();
+            }
+        }
+    }
+
+    @Test
+    public void compareSingleAndMultiGet() throws Exception {
+        Random random = new Random(42);
+        // warm up both paths before measuring
+        run("warm-up single", random, this::singleLookups);
+        run("warm-up multi-get", random, this::multiGet);
+
+        run("single lookups", random, this::singleLookups);
+        run("multi-get", random, this::multiGet);
+    }
+
+    private void singleLookups(List<Long> batch) throws Exception {
+        for (Long id : batch) {
+            mockMvc.perform(get("/users").param("ids", id.toString())).andExpect(status().isOk());
+        }
+    }
+
+    private void multiGet(List<Long> batch) throws Exception {
+        String ids = batch.stream().map(String::valueOf).collect(Collectors.joining(","));
+        mockMvc.perform(get("/users").param("ids", ids)).andExpect(status().isOk());
+    }
+
+    private void run(String name, Random random, Lookup lookup) throws Exception {
+        long[] latencies = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Long> shuffled = new ArrayList<>(ids);
+            Collections.shuffle(shuffled, random);
+            List<Long> batch = shuffled.subList(0, IDS_PER_LOOKUP);
+            long begin = System.nanoTime();
+            lookup.resolve(batch);
+            latencies[round] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-18s %d ids  p50 %7.2f ms  p99 %7.2f ms%n", name, IDS_PER_LOOKUP,
+                latencies[ROUNDS / 2] / 1e6, latencies[(int) (ROUNDS * 0.99)] / 1e6);
+    }
+
+    private interface Lookup {
+        void resolve(List<Long> batch) throws Exception;
+    }
+}
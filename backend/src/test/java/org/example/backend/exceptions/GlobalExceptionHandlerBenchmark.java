@@ -0,0 +1,87 @@
+package org.example.backend.exceptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityExistsException;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures the error path of a duplicate-email create: throwing the exception from a request-deep stack,
+ * building the response and writing its body. The old path (full stack trace, new HashMap per response)
+ * is compared with the current one (stackless exception, cached immutable response).
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+public class GlobalExceptionHandlerBenchmark {
+    /**
+     * Roughly the number of frames between Tomcat and the service in this application.
+     */
+    private static final int STACK_DEPTH = 120;
+    private static final int ITERATIONS = 500_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    public void compareErrorPaths() throws Exception {
+        // warm up both paths before measuring
+        run("warm-up old", this::oldPath);
+        run("warm-up current", this::currentPath);
+
+        run("old", this::oldPath);
+        run("current", this::currentPath);
+    }
+
+    private byte[] oldPath() {
+        try {
+            throwAtDepth(STACK_DEPTH, () -> new EntityExistsException("User already exists"));
+            throw new IllegalStateException();
+        } catch (EntityExistsException e) {
+            Map<String, Object> responseBody = new HashMap<>();
+            responseBody.put("status", HttpStatus.CONFLICT.value());
+            responseBody.put("error", HttpStatus.CONFLICT.getReasonPhrase());
+            responseBody.put("message", e.getMessage());
+            return write(new ResponseEntity<>(responseBody, HttpStatus.CONFLICT).getBody());
+        }
+    }
+
+    private byte[] currentPath() {
+        try {
+            throwAtDepth(STACK_DEPTH, () -> new UserAlreadyExistsException("User already exists"));
+            throw new IllegalStateException();
+        } catch (EntityExistsException e) {
+            return write(handler.handleEntityExistsException(e).getBody());
+        }
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void throwAtDepth(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAtDepth(depth - 1, exception);
+    }
+
+    private void run(String name, Supplier<byte[]> errorPath) {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes += errorPath.get().length;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-16s %8.0f ns/error  %10.0f errors/s  (%d bytes written)%n", name,
+                elapsed / (double) ITERATIONS, ITERATIONS / (elapsed / 1e9), bytes);
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.backend.exceptions;
+
+import org.example.backend.dto.response.ErrorResponse;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UserAlreadyExistsException;
+import org.example.backend.exceptions.custom.UserNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    public void testDuplicateEmailResponse() {
+        ResponseEntity<ErrorResponse> response = handler.handleEntityExistsException(new UserAlreadyExistsException("User already exists"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(new ErrorResponse(409, "Conflict", "USER_ALREADY_EXISTS", "User already exists"), response.getBody());
+    }
+
+    @Test
+    public void testResponsesAreCachedPerCodeAndMessage() {
+        ResponseEntity<ErrorResponse> first = handler.handleEntityNotFoundException(new UserNotFoundException("User not found"));
+        ResponseEntity<ErrorResponse> second = handler.handleEntityNotFoundException(new UserNotFoundException("User not found"));
+        ResponseEntity<ErrorResponse> other = handler.handleEntityNotFoundException(new UserNotFoundException("Other message"));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals("USER_NOT_FOUND", other.getBody().code());
+    }
+
+    @Test
+    public void testQueryTimeoutResponse() {
+        ResponseEntity<ErrorResponse> response = handler.handleQueryTimeoutException(new QueryTimeoutException("canceled"));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertEquals("REQUEST_TIMEOUT", response.getBody().code());
+    }
+
+    @Test
+    public void testDomainExceptionsHaveNoStackTrace() {
+        assertEquals(0, new UserAlreadyExistsException("User already exists").getStackTrace().length);
+        assertEquals(0, new UserNotFoundException("User not found").getStackTrace().length);
+        assertEquals(0, new EntityNullException("Id can not be null.").getStackTrace().length);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.backend.repository;
+
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
+import org.example.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class UserQueryGuardTest {
+    private static final UserFilter NONE = new UserFilter(null, null, null);
+
+    @Test
+    public void planSuccess_completesSortToIndex() {
+        assertEquals(Sort.by("id"), UserQueryGuard.plan(NONE, Sort.unsorted()));
+        assertEquals(Sort.by(Sort.Direction.DESC, "lastName", "firstName", "id"),
+                UserQueryGuard.plan(NONE, Sort.by(Sort.Direction.DESC, "lastName")));
+        assertEquals(Sort.by("email"), UserQueryGuard.plan(NONE, Sort.by("email", "firstName")));
+        assertEquals(Sort.by("lastName", "id"),
+                UserQueryGuard.plan(new UserFilter("John", null, null), Sort.unsorted()));
+        assertEquals(Sort.by("id"),
+                UserQueryGuard.plan(new UserFilter("John", "Smith", null), Sort.by("firstName", "id")));
+        assertEquals(Sort.by("firstName", "id"),
+                UserQueryGuard.plan(new UserFilter(null, "Smith", "example.com"), Sort.by("firstName")));
+    }
+
+    @Test
+    public void planSuccess_filterNotCoveredByIndex() {
+        // first name leads an index, the domain is checked on the rows read along it
+        assertEquals(Sort.by("lastName", "id"),
+                UserQueryGuard.plan(new UserFilter("John", null, "example.com"), Sort.by("lastName")));
+    }
+
+    @Test
+    public void planFailure_noIndex() {
+        UnsupportedQueryException e = assertThrows(UnsupportedQueryException.class,
+                () -> UserQueryGuard.plan(new UserFilter("John", null, null), Sort.by("email")));
+        assertTrue(e.getMessage().contains("lastName,id"));
+        assertThrows(UnsupportedQueryException.class,
+                () -> UserQueryGuard.plan(new UserFilter(null, null, "example.com"), Sort.by("id")));
+    }
+
+    @Test
+    public void planFailure_invalidSort() {
+        assertThrows(UnsupportedQueryException.class, () -> UserQueryGuard.plan(NONE, Sort.by("emailDomain")));
+        assertThrows(UnsupportedQueryException.class,
+                () -> UserQueryGuard.plan(NONE, Sort.by(Sort.Order.asc("lastName"), Sort.Order.desc("firstName"))));
+    }
+
+    @Test
+    public void indexesExistInSchema() throws Exception {
+        Path schema = Path.of("../db/schema.sql");
+        assumeTrue(Files.exists(schema), "db/schema.sql is not next to the backend");
+        String sql = Files.readString(schema).toLowerCase(Locale.ROOT);
+        for (UserQueryGuard.Index index : UserQueryGuard.INDEXES) {
+            if (index.name().equals("users_pkey") || index.name().equals("users_email_key")) {
+                continue;
+            }
+            Matcher matcher = Pattern.compile("create index if not exists " + index.name() + " on users\\(([^)]*)\\)").matcher(sql);
+            assertTrue(matcher.find(), index.name() + " is missing in db/schema.sql");
+            String columns = index.properties().stream()
+                    .map(property -> property.replaceAll("([A-Z])", "_$1").toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", "));
+            assertEquals(columns, matcher.group(1), "columns of " + index.name());
+        }
+    }
+
+    @Test
+    public void indexesAreDeclaredOnEntity() {
+        Map<String, String> declared = new HashMap<>();
+        for (Index index : User.class.getAnnotation(Table.class).indexes()) {
+            declared.put(index.name(), index.columnList());
+        }
+        for (UserQueryGuard.Index index : UserQueryGuard.INDEXES) {
+            if (index.name().equals("users_pkey") || index.name().equals("users_email_key")) {
+                continue;
+            }
+            String columns = index.properties().stream()
+                    .map(property -> property.replaceAll("([A-Z])", "_$1").toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", "));
+            assertEquals(columns, declared.get(index.name()), "columns of " + index.name() + " on the User entity");
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -65,6 +66,28 @@ public class UserRepositoryTest {
         );
     }
 
+    @Test
+    public void testInsertAll() {
+        User first = new User();
+        first.setFirstName("Mark");
+        first.setLastName("Twain");
+        first.setEmail("mark.twain@example.com");
+        User second = new User();
+        second.setFirstName("Anna");
+        second.setLastName("Twain");
+        second.setEmail("anna.twain@example.com");
+
+        List<User> inserted = userRepository.insertAll(List.of(first, second));
+
+        assertAll(
+                () -> assertNotNull(inserted.get(0).getId()),
+                () -> assertNotNull(inserted.get(1).getId()),
+                () -> assertNotEquals(inserted.get(0).getId(), inserted.get(1).getId()),
+                () -> assertEquals("Mark", userRepository.findByEmail("mark.twain@example.com").getFirstName()),
+                () -> assertEquals(inserted.get(1).getId(), userRepository.findByEmail("anna.twain@example.com").getId())
+        );
+    }
+
     @Test
     public void testFindByEmailSuccess() {
         User actualUser = userRepository.findByEmail(user.getEmail());
@@ -116,4 +139,18 @@ public class UserRepositoryTest {
 
         assertEquals(0, actualList.size());
     }
+
+    @Test
+    public void testFindAllMatchingSpecification() {
+        User other = createUser("Ann", "Smith", "ann@Other.org");
+
+        Page<User> byDomain = userRepository.findAll(UserSpecifications.matching(new UserFilter(null, "Smith", "OTHER.org")),
+                PageRequest.of(0, 10, Sort.by("firstName", "id")));
+        Page<User> byName = userRepository.findAll(UserSpecifications.matching(new UserFilter(null, "Smith", null)),
+                PageRequest.of(0, 10, Sort.by("firstName", "id")));
+
+        assertEquals(List.of(other.getId()), byDomain.getContent().stream().map(User::getId).toList());
+        assertEquals("other.org", byDomain.getContent().get(0).getEmailDomain());
+        assertEquals(List.of(other.getId(), anotherUser.getId(), user.getId()), byName.getContent().stream().map(User::getId).toList());
+    }
 }
@@ -6,23 +6,35 @@ import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
 import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
 import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.UnsupportedQueryException;
 import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.service.batch.ItemResult;
+import org.example.backend.service.event.UserChangedEvent;
 import org.example.backend.service.impl.UserServiceImpl;
+import org.example.backend.service.lookup.UserLookupResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,6 +46,8 @@ public class UserServiceTest {
     private UserServiceImpl userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private User expectedUser;
     private User actualUser;
@@ -81,6 +95,7 @@ public class UserServiceTest {
                 () -> assertEquals(expectedUser.getLastName(), actualUser.getLastName())
         );
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher).publishEvent(argThat((UserChangedEvent event) -> event.type() == UserChangedEvent.Type.CREATED));
     }
 
     @Test
@@ -99,6 +114,43 @@ public class UserServiceTest {
         assertFalse(violations.isEmpty());
     }
 
+    @Test
+    public void createUsersSuccess() {
+        UserInformationRequest first = createUserInformationRequest("John", "Doe", "john.doe@example.com");
+        UserInformationRequest second = createUserInformationRequest("Jane", "Doe", "jane.doe@example.com");
+        when(userRepository.findAllByEmailIn(any())).thenReturn(List.of());
+        when(userRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ItemResult<User>> results = userService.createUsers(List.of(first, second));
+
+        assertAll(
+                () -> assertEquals(2, results.size()),
+                () -> assertTrue(results.get(0).isSuccess()),
+                () -> assertEquals(first.getEmail(), results.get(0).value().getEmail()),
+                () -> assertEquals(second.getEmail(), results.get(1).value().getEmail())
+        );
+        verify(userRepository, times(1)).findAllByEmailIn(any());
+        verify(userRepository, times(1)).insertAll(any());
+    }
+
+    @Test
+    public void createUsersFailure_conflictingEmails() {
+        UserInformationRequest registered = createUserInformationRequest("John", "Doe", "john.doe@example.com");
+        UserInformationRequest fresh = createUserInformationRequest("Jane", "Doe", "jane.doe@example.com");
+        UserInformationRequest repeated = createUserInformationRequest("Janet", "Doe", "jane.doe@example.com");
+        when(userRepository.findAllByEmailIn(any())).thenReturn(List.of(expectedUser));
+        when(userRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ItemResult<User>> results = userService.createUsers(List.of(registered, fresh, repeated));
+
+        assertAll(
+                () -> assertInstanceOf(EntityExistsException.class, results.get(0).error()),
+                () -> assertTrue(results.get(1).isSuccess()),
+                () -> assertInstanceOf(EntityExistsException.class, results.get(2).error())
+        );
+        verify(userRepository).insertAll(argThat(users -> users.size() == 1));
+    }
+
     @Test
     public void getAllUsersSuccess() {
         List<User> expectedList = List.of(expectedUser);
@@ -146,6 +198,52 @@ public class UserServiceTest {
         assertThrows(EntityNullException.class, () -> userService.getUsersByName(null, pageable));
     }
 
+    @Test
+    public void findUsersSuccess() {
+        UserFilter filter = new UserFilter("John", null, null);
+        Pageable completed = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "lastName", "id"));
+        Page<User> expected = new PageImpl<>(List.of(expectedUser), completed, 11);
+        when(userRepository.findAll(ArgumentMatchers.<Specification<User>>any(), eq(completed))).thenReturn(expected);
+
+        Page<User> actual = userService.findUsers(filter, PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "lastName")));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void findUsersFailure_unsupportedSort() {
+        UserFilter filter = new UserFilter(null, null, "example.com");
+
+        assertThrows(UnsupportedQueryException.class, () -> userService.findUsers(filter, PageRequest.of(0, 10, Sort.by("email"))));
+        verify(userRepository, never()).findAll(ArgumentMatchers.<Specification<User>>any(), any(Pageable.class));
+    }
+
+    @Test
+    public void getUsersByIdsSuccess() {
+        User secondUser = createUser(2L, "Marie", "Cross", "marie.cross@example.com");
+        when(userRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(expectedUser, secondUser));
+
+        UserLookupResult result = userService.getUsersByIds(List.of(2L, 3L, 1L, 2L));
+
+        assertEquals(List.of(secondUser, expectedUser), result.users());
+        assertEquals(List.of(3L), result.missingIds());
+        verify(userRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    public void getUsersByIdsFailure_noIds() {
+        assertThrows(EntityNullException.class, () -> userService.getUsersByIds(List.of()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void getUsersByIdsFailure_tooManyIds() {
+        List<Long> ids = Collections.nCopies(UserService.MAX_LOOKUP_IDS + 1, 1L);
+
+        assertThrows(BatchTooLargeException.class, () -> userService.getUsersByIds(ids));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     public void updateUserSuccess() {
         UserInformationRequest updateRequest = createUserInformationRequest("John", "Doee", "john.doe1@example.com");
@@ -212,7 +310,9 @@ public class UserServiceTest {
     public void deleteUserSuccess() {
         when(userRepository.findById(expectedUser.getId())).thenReturn(Optional.of(expectedUser));
         userService.deleteUser(expectedUser.getId());
-        verify(userRepository).delete(any());
+        verify(userRepository).delete(any(User.class));
+        verify(eventPublisher).publishEvent(argThat((UserChangedEvent event) ->
+                event.type() == UserChangedEvent.Type.DELETED && event.id().equals(expectedUser.getId())));
     }
 
     @Test
@@ -0,0 +1,95 @@
+package org.example.backend.service.batch;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Compares user creation throughput and latency with and without group commit.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/group-commit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.example.backend=WARN",
+        "users.group-commit.enabled=true",
+        "users.group-commit.batch-size=64",
+        "users.group-commit.linger=2ms"
+})
+public class UserCreateBatcherBenchmark {
+    private static final int THREADS = 32;
+    private static final int CREATES_PER_THREAD = 200;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserCreateBatcher batcher;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void compareDirectAndGroupCommit() throws Exception {
+        // warm up both paths before measuring
+        run("warm-up direct", userService::createUser);
+        run("warm-up group commit", batcher::create);
+
+        run("direct", userService::createUser);
+        run("group commit", batcher::create);
+    }
+
+    private void run(String name, Consumer<UserInformationRequest> create) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long[] latencies = new long[THREADS * CREATES_PER_THREAD];
+        AtomicInteger index = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < CREATES_PER_THREAD; i++) {
+                    int n = sequence.incrementAndGet();
+                    long begin = System.nanoTime();
+                    create.accept(new UserInformationRequest("First" + n, "Last" + n, "user" + n + "@example.com"));
+                    latencies[index.getAndIncrement()] = System.nanoTime() - begin;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-22s %8.0f creates/s  p50 %6.2f ms  p99 %6.2f ms%n", name,
+                latencies.length / (elapsed / 1e9),
+                latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+}
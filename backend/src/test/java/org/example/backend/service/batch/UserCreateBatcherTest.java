@@ -0,0 +1,125 @@
+package org.example.backend.service.batch;
+
+import jakarta.persistence.EntityExistsException;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.model.User;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCreateBatcherTest {
+    @Mock
+    private UserService userService;
+    private UserCreateBatcher batcher;
+
+    @BeforeEach
+    public void setUp() {
+        batcher = new UserCreateBatcher(userService, new GroupCommitProperties(true, 10, Duration.ofMillis(200), 100, Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (batcher.isRunning()) {
+            batcher.stop();
+        }
+    }
+
+    private UserInformationRequest createUserInformationRequest(String email) {
+        return new UserInformationRequest("John", "Doe", email);
+    }
+
+    private static List<ItemResult<User>> successes(List<UserInformationRequest> requests) {
+        List<ItemResult<User>> results = new ArrayList<>();
+        for (UserInformationRequest request : requests) {
+            User user = new User();
+            user.setId((long) results.size() + 1);
+            user.setEmail(request.getEmail());
+            results.add(ItemResult.success(user));
+        }
+        return results;
+    }
+
+    @Test
+    public void concurrentCreatesAreWrittenInOneBatch() throws Exception {
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> successes(invocation.getArgument(0)));
+        batcher.start();
+
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(batcher.submit(createUserInformationRequest("user" + i + "@example.com")));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("user" + i + "@example.com", futures.get(i).get(5, TimeUnit.SECONDS).getEmail());
+        }
+        verify(userService, times(1)).createUsers(argThat(requests -> requests.size() == 5));
+    }
+
+    @Test
+    public void conflictingItemFailsAlone() {
+        when(userService.createUsers(anyList())).thenReturn(List.of(
+                ItemResult.success(new User()),
+                ItemResult.failure(new EntityExistsException("User already exists"))));
+        batcher.start();
+
+        CompletableFuture<User> ok = batcher.submit(createUserInformationRequest("ok@example.com"));
+        CompletableFuture<User> conflict = batcher.submit(createUserInformationRequest("taken@example.com"));
+
+        assertDoesNotThrow(() -> ok.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> conflict.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(EntityExistsException.class, e.getCause());
+    }
+
+    @Test
+    public void racingBatchIsRetriedOneByOne() throws Exception {
+        when(userService.createUsers(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userService.createUser(any())).thenReturn(new User())
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        batcher.start();
+
+        CompletableFuture<User> ok = batcher.submit(createUserInformationRequest("ok@example.com"));
+        CompletableFuture<User> conflict = batcher.submit(createUserInformationRequest("taken@example.com"));
+
+        assertNotNull(ok.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> conflict.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(EntityExistsException.class, e.getCause());
+        verify(userService, times(2)).createUser(any());
+    }
+
+    @Test
+    public void createFailure_commitTakesLongerThanWaitTimeout() {
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return successes(invocation.getArgument(0));
+        });
+        batcher = new UserCreateBatcher(userService, new GroupCommitProperties(true, 10, Duration.ofMillis(10), 100, Duration.ofMillis(100)));
+        batcher.start();
+
+        assertThrows(QueryTimeoutException.class, () -> batcher.create(createUserInformationRequest("slow@example.com")));
+    }
+
+    @Test
+    public void submitFailure_writerNotRunning() {
+        assertThrows(RejectedExecutionException.class, () -> batcher.submit(createUserInformationRequest("user@example.com")));
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.backend.service.bulk;
+
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.custom.BatchTooLargeException;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserFilter;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.example.backend.service.batch.ItemResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:bulk;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.bulk.chunk-size=2",
+        "users.bulk.max-items=5"
+})
+public class UserBulkServiceTest {
+    @Autowired
+    private UserBulkService bulkService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        ids.clear();
+        userService.createUsers(List.of(
+                new UserInformationRequest("John", "Doe", "john@example.com"),
+                new UserInformationRequest("Marie", "Cross", "marie@example.com"),
+                new UserInformationRequest("Spam", "Bot", "bot1@spam.com"),
+                new UserInformationRequest("Spam", "Bot", "bot2@spam.com"),
+                new UserInformationRequest("Spam", "Bot", "bot3@spam.com")
+        )).forEach(result -> ids.add(result.value().getId()));
+    }
+
+    @Test
+    public void updateUsersSuccess() {
+        List<ItemResult<User>> results = bulkService.updateUsers(List.of(
+                new UserPatchRequest(ids.get(0), "Johnny", null, null),
+                new UserPatchRequest(ids.get(1), null, "Doe", "marie.doe@example.com"),
+                new UserPatchRequest(ids.get(2), null, null, "bot@example.com")));
+
+        assertTrue(results.stream().allMatch(ItemResult::isSuccess));
+        User john = userRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals("Johnny", john.getFirstName());
+        assertEquals("Doe", john.getLastName());
+        assertEquals("john@example.com", john.getEmail());
+        User marie = userRepository.findById(ids.get(1)).orElseThrow();
+        assertEquals("Marie", marie.getFirstName());
+        assertEquals("marie.doe@example.com", marie.getEmail());
+    }
+
+    @Test
+    public void updateUsersFailure_singleItems() {
+        List<ItemResult<User>> results = bulkService.updateUsers(List.of(
+                new UserPatchRequest(ids.get(0), null, null, "marie@example.com"),
+                new UserPatchRequest(-1L, "Nobody", null, null),
+                new UserPatchRequest(ids.get(1), null, null, "not an email"),
+                new UserPatchRequest(ids.get(2), null, null, "new@example.com"),
+                new UserPatchRequest(ids.get(3), null, null, "new@example.com")));
+
+        assertInstanceOf(EntityExistsException.class, results.get(0).error());
+        assertInstanceOf(EntityNotFoundException.class, results.get(1).error());
+        assertInstanceOf(IllegalArgumentException.class, results.get(2).error());
+        assertTrue(results.get(3).isSuccess());
+        assertInstanceOf(EntityExistsException.class, results.get(4).error());
+        assertEquals("john@example.com", userRepository.findById(ids.get(0)).orElseThrow().getEmail());
+        assertEquals("new@example.com", userRepository.findById(ids.get(2)).orElseThrow().getEmail());
+        assertEquals("bot2@spam.com", userRepository.findById(ids.get(3)).orElseThrow().getEmail());
+    }
+
+    @Test
+    public void updateUsersFailure_repeatedId() {
+        List<ItemResult<User>> results = bulkService.updateUsers(List.of(
+                new UserPatchRequest(ids.get(0), "First", null, null),
+                new UserPatchRequest(ids.get(0), "Second", null, null)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertEquals("First", userRepository.findById(ids.get(0)).orElseThrow().getFirstName());
+    }
+
+    @Test
+    public void updateUsersFailure_tooManyItems() {
+        List<UserPatchRequest> patches = Collections.nCopies(6, new UserPatchRequest(ids.get(0), "John", null, null));
+
+        assertThrows(BatchTooLargeException.class, () -> bulkService.updateUsers(patches));
+    }
+
+    @Test
+    public void deleteUsersSuccess() {
+        List<ItemResult<Long>> results = bulkService.deleteUsers(List.of(ids.get(0), -1L, ids.get(1), ids.get(2)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertInstanceOf(EntityNotFoundException.class, results.get(1).error());
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    public void deleteUsersMatchingSuccess() {
+        List<ItemResult<Long>> results = bulkService.deleteUsersMatching(new UserFilter("Spam", null, "spam.com"));
+
+        assertEquals(ids.subList(2, 5), results.stream().map(ItemResult::value).toList());
+        assertEquals(List.of(ids.get(0), ids.get(1)), userRepository.findAll().stream().map(User::getId).sorted().toList());
+    }
+
+    @Test
+    public void deleteUsersMatchingFailure_emptyFilter() {
+        assertThrows(EntityNullException.class, () -> bulkService.deleteUsersMatching(new UserFilter(null, null, null)));
+        assertEquals(5, userRepository.count());
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.backend.service.event;
+
+import org.example.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the changes of one user around a snapshot in the orders transactions can take, and checks that a count
+ * of first names built from the snapshot counts every change once.
+ */
+public class SnapshotChangesTest {
+    private static final UserSnapshot JOHN = new UserSnapshot(1L, "John", "Doe", "john@example.com");
+    private static final UserSnapshot JANE = new UserSnapshot(1L, "Jane", "Doe", "john@example.com");
+
+    private final SnapshotChanges changes = new SnapshotChanges();
+
+    @Test
+    public void testChangeCommittedBeforeSnapshotAndDeliveredAfterPublishIsCountedOnce() {
+        UserChangedEvent created = UserChangedEvent.created(JOHN);
+        changes.committing(created);
+        changes.start();
+        // the snapshot sees the committed user
+        Map<String, Integer> counted = count(JOHN);
+        assertEquals(List.of(1L), List.copyOf(changes.unread()));
+        changes.read(List.of(1L), List.of(user(JOHN)));
+        assertTrue(changes.unread().isEmpty());
+        changes.publish().forEach(change -> apply(counted, change));
+
+        deliver(counted, created);
+
+        assertEquals(Map.of("John", 1), counted);
+    }
+
+    @Test
+    public void testChangeCommittedAfterSnapshotAndDeliveredAfterPublishIsCounted() {
+        UserChangedEvent updated = UserChangedEvent.updated(JOHN, JANE);
+        changes.committing(updated);
+        changes.start();
+        // the snapshot still sees the user before the change
+        Map<String, Integer> counted = count(JOHN);
+        changes.read(List.of(1L), List.of(user(JOHN)));
+        changes.publish().forEach(change -> apply(counted, change));
+
+        deliver(counted, updated);
+
+        assertEquals(Map.of("Jane", 1), counted);
+    }
+
+    @Test
+    public void testChangeDeliveredWhileReadingIsCorrectedFromTheSnapshot() {
+        Map<String, Integer> live = count(JOHN);
+        changes.start();
+        UserChangedEvent deleted = UserChangedEvent.deleted(JOHN);
+        changes.committing(deleted);
+        deliver(live, deleted);
+        // the snapshot was taken before the delete
+        Map<String, Integer> counted = count(JOHN);
+        changes.read(List.of(1L), List.of(user(JOHN)));
+        changes.publish().forEach(change -> apply(counted, change));
+
+        assertEquals(Map.of(), live);
+        assertEquals(Map.of(), counted);
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotCounted() {
+        UserChangedEvent updated = UserChangedEvent.updated(JOHN, JANE);
+        changes.committing(updated);
+        changes.start();
+        Map<String, Integer> counted = count(JOHN);
+        changes.read(List.of(1L), List.of(user(JOHN)));
+        changes.publish().forEach(change -> apply(counted, change));
+        changes.completed(updated);
+
+        // a later transaction is counted as it is delivered
+        UserChangedEvent deleted = UserChangedEvent.deleted(JOHN);
+        changes.committing(deleted);
+        deliver(counted, deleted);
+
+        assertEquals(Map.of(), counted);
+    }
+
+    private void deliver(Map<String, Integer> counted, UserChangedEvent event) {
+        UserChangedEvent change = changes.committed(event);
+        if (change != null) {
+            apply(counted, change);
+        }
+        changes.completed(event);
+    }
+
+    private static Map<String, Integer> count(UserSnapshot... users) {
+        Map<String, Integer> counted = new HashMap<>();
+        for (UserSnapshot user : users) {
+            counted.merge(user.firstName(), 1, Integer::sum);
+        }
+        return counted;
+    }
+
+    private static void apply(Map<String, Integer> counted, UserChangedEvent change) {
+        if (change.before() != null) {
+            counted.computeIfPresent(change.before().firstName(), (name, users) -> users > 1 ? users - 1 : null);
+        }
+        if (change.after() != null) {
+            counted.merge(change.after().firstName(), 1, Integer::sum);
+        }
+    }
+
+    private static User user(UserSnapshot snapshot) {
+        User user = new User();
+        user.setId(snapshot.id());
+        user.setFirstName(snapshot.firstName());
+        user.setLastName(snapshot.lastName());
+        user.setEmail(snapshot.email());
+        return user;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.backend.service.event;
+
+import org.example.backend.controller.UserEventsController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class UserChangeBroadcasterTest {
+    private UserChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    public void setUp() {
+        broadcaster = new UserChangeBroadcaster(new UserEventsProperties(4, 2, Duration.ofMinutes(1), Duration.ofMinutes(1), 1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        broadcaster.destroy();
+    }
+
+    private static UserChangedEvent created(long id) {
+        return UserChangedEvent.created(new UserSnapshot(id, "John", "Doe", "john" + id + "@example.com"));
+    }
+
+    @Test
+    public void testEventsAreStreamed() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new UserEventsController(broadcaster)).build();
+        MvcResult result = mockMvc.perform(get("/users/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        broadcaster.onUserChanged(created(1));
+        broadcaster.onUserChanged(UserChangedEvent.deleted(new UserSnapshot(1L, "John", "Doe", "john1@example.com")));
+
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("event:deleted"); i++) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:created"));
+        assertTrue(body.contains("\"first_name\":\"John\""));
+        assertTrue(body.contains("event:deleted"));
+        assertTrue(body.contains("data:{\"type\":\"deleted\",\"id\":1}"));
+    }
+
+    @Test
+    public void testEventIdIsTheSameOnEveryStream() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new UserEventsController(broadcaster)).build();
+        MvcResult first = mockMvc.perform(get("/users/events")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult second = mockMvc.perform(get("/users/events")).andExpect(request().asyncStarted()).andReturn();
+
+        broadcaster.onUserChanged(created(1));
+        broadcaster.onUserChanged(created(2));
+
+        for (MvcResult result : List.of(first, second)) {
+            String body = "";
+            for (int i = 0; i < 50 && !body.contains("id:2"); i++) {
+                Thread.sleep(20);
+                body = result.getResponse().getContentAsString();
+            }
+            assertTrue(body.contains("id:1\nevent:created\ndata:{\"type\":\"created\",\"id\":1"), body);
+            assertTrue(body.contains("id:2\nevent:created\ndata:{\"type\":\"created\",\"id\":2"), body);
+        }
+    }
+
+    @Test
+    public void testSlowSubscriberIsDropped() {
+        List<Runnable> neverRun = new ArrayList<>();
+        UserChangeBroadcaster stalled = new UserChangeBroadcaster(
+                new UserEventsProperties(4, 10, Duration.ofMinutes(1), Duration.ofMinutes(1), 1), neverRun::add);
+        stalled.subscribe();
+        assertEquals(1, stalled.getSubscriberCount());
+
+        for (int i = 0; i < 4; i++) {
+            stalled.onUserChanged(created(i));
+        }
+        assertEquals(1, stalled.getSubscriberCount());
+
+        stalled.onUserChanged(created(5));
+        assertEquals(0, stalled.getSubscriberCount());
+        stalled.destroy();
+    }
+
+    @Test
+    public void testSubscriberLimit() {
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+        assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> broadcaster.subscribe());
+    }
+}
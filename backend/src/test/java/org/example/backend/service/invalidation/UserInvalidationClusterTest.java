@@ -0,0 +1,92 @@
+package org.example.backend.service.invalidation;
+
+import org.example.backend.BackendApplication;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.model.User;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application contexts play two nodes sharing one PostgreSQL database.
+ * Needs a local database, e.g. USERS_TEST_PG_URL=jdbc:postgresql://localhost:5432/CRUD
+ * with USERS_TEST_PG_USERNAME and USERS_TEST_PG_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "USERS_TEST_PG_URL", matches = ".+")
+public class UserInvalidationClusterTest {
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static final BlockingQueue<UserInvalidatedEvent> RECEIVED_BY_A = new LinkedBlockingQueue<>();
+    private static final BlockingQueue<UserInvalidatedEvent> RECEIVED_BY_B = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    public static void startNodes() throws InterruptedException {
+        nodeA = startNode("node-a", RECEIVED_BY_A);
+        nodeB = startNode("node-b", RECEIVED_BY_B);
+        awaitConnected(nodeA);
+        awaitConnected(nodeB);
+    }
+
+    private static void awaitConnected(ConfigurableApplicationContext node) throws InterruptedException {
+        InvalidationStats stats = node.getBean(UserInvalidationListener.class).getStats();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!stats.snapshot().connected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(stats.snapshot().connected(), "listener did not connect");
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, BlockingQueue<UserInvalidatedEvent> received) {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .listeners(ApplicationListener.forPayload(received::add))
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + System.getenv("USERS_TEST_PG_URL"),
+                        "--spring.datasource.username=" + System.getenv().getOrDefault("USERS_TEST_PG_USERNAME", "postgres"),
+                        "--spring.datasource.password=" + System.getenv().getOrDefault("USERS_TEST_PG_PASSWORD", ""),
+                        "--spring.jpa.show-sql=false",
+                        "--users.invalidation.enabled=true",
+                        "--users.invalidation.node-id=" + nodeId,
+                        "--users.invalidation.poll-interval=50ms");
+    }
+
+    @Test
+    public void testChangesOnOneNodeInvalidateTheOther() throws Exception {
+        UserService serviceA = nodeA.getBean(UserService.class);
+        String email = "cluster." + System.nanoTime() + "@example.com";
+
+        User user = serviceA.createUser(new UserInformationRequest("John", "Doe", email));
+        try {
+            UserInvalidatedEvent event = RECEIVED_BY_B.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event, "node-b was not notified");
+            assertTrue(event.ids().contains(user.getId()));
+            assertTrue(event.emails().contains(email));
+            assertTrue(nodeB.getBean(UserInvalidationListener.class).getStats().snapshot().received() > 0);
+            // a node ignores its own announcements
+            assertNull(RECEIVED_BY_A.poll(500, TimeUnit.MILLISECONDS));
+        } finally {
+            serviceA.deleteUser(user.getId());
+        }
+    }
+}
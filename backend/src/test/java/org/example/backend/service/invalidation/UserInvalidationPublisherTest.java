@@ -0,0 +1,179 @@
+package org.example.backend.service.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.example.backend.service.batch.ItemResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 has no NOTIFY, so pg_notify is replaced by a function recording its calls.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:invalidation;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.invalidation.enabled=true",
+        "users.invalidation.listen=false",
+        "users.invalidation.node-id=node-a"
+})
+public class UserInvalidationPublisherTest {
+    private static final List<String> NOTIFICATIONS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static void pgNotify(String channel, String payload) {
+        NOTIFICATIONS.add(channel + ":" + payload);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("create alias if not exists pg_notify for \"" + getClass().getName() + ".pgNotify\"");
+        userRepository.deleteAll();
+        NOTIFICATIONS.clear();
+    }
+
+    private InvalidationMessage message(int index) throws Exception {
+        String notification = NOTIFICATIONS.get(index);
+        assertTrue(notification.startsWith("users_changed:"));
+        return objectMapper.readValue(notification.substring("users_changed:".length()), InvalidationMessage.class);
+    }
+
+    @Test
+    public void testCreateNotifiesIdAndEmail() throws Exception {
+        User user = userService.createUser(new UserInformationRequest("John", "Doe", "john.notify@example.com"));
+
+        assertEquals(1, NOTIFICATIONS.size());
+        InvalidationMessage message = message(0);
+        assertEquals("node-a", message.node());
+        assertEquals(List.of(user.getId()), message.ids());
+        assertEquals(List.of("john.notify@example.com"), message.emails());
+    }
+
+    @Test
+    public void testUpdateNotifiesOldAndNewEmail() throws Exception {
+        User user = userService.createUser(new UserInformationRequest("John", "Doe", "john.old@example.com"));
+        NOTIFICATIONS.clear();
+
+        userService.updateUser(user.getId(), new UserInformationRequest("John", "Doe", "john.new@example.com"));
+
+        assertEquals(1, NOTIFICATIONS.size());
+        assertEquals(Set.of("john.old@example.com", "john.new@example.com"), Set.copyOf(message(0).emails()));
+    }
+
+    @Test
+    public void testBatchIsNotifiedOnce() throws Exception {
+        userService.createUsers(List.of(
+                new UserInformationRequest("John", "Doe", "john.batch@example.com"),
+                new UserInformationRequest("Jane", "Doe", "jane.batch@example.com"),
+                new UserInformationRequest("Jim", "Doe", "jim.batch@example.com")));
+
+        assertEquals(1, NOTIFICATIONS.size());
+        assertEquals(3, message(0).ids().size());
+    }
+
+    @Test
+    public void testLargeBatchIsSplit() throws Exception {
+        int count = 1000;
+        userService.createUsers(IntStream.range(0, count)
+                .mapToObj(i -> new UserInformationRequest("John", "Doe", "john" + i + "@example.com"))
+                .toList());
+
+        assertTrue(NOTIFICATIONS.size() > 1);
+        int notified = 0;
+        for (int i = 0; i < NOTIFICATIONS.size(); i++) {
+            assertPayloadFits(i);
+            notified += message(i).ids().size();
+        }
+        assertEquals(count, notified);
+    }
+
+    @Test
+    public void testLongEmailsAreSplitByPayloadSize() throws Exception {
+        List<User> users = userService.createUsers(IntStream.range(0, 100)
+                        .mapToObj(i -> new UserInformationRequest("John", "Doe", longEmail("old", i)))
+                        .toList())
+                .stream().map(ItemResult::value).toList();
+        NOTIFICATIONS.clear();
+
+        transactionTemplate.executeWithoutResult(status -> users.forEach(user -> userService.updateUser(user.getId(),
+                new UserInformationRequest("John", "Doe", longEmail("new", users.indexOf(user))))));
+
+        // 100 users with two emails of 255 characters each take about 52000 bytes
+        assertTrue(NOTIFICATIONS.size() >= 7);
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < NOTIFICATIONS.size(); i++) {
+            assertPayloadFits(i);
+            assertFalse(message(i).all());
+            emails.addAll(message(i).emails());
+        }
+        assertEquals(200, emails.size());
+    }
+
+    @Test
+    public void testUserNotFittingIntoOneNotificationEvictsEverything() throws Exception {
+        User user = userService.createUser(new UserInformationRequest("John", "Doe", longEmail("first", 0)));
+        NOTIFICATIONS.clear();
+
+        transactionTemplate.executeWithoutResult(status -> IntStream.range(1, 40).forEach(i ->
+                userService.updateUser(user.getId(), new UserInformationRequest("John", "Doe", longEmail("next", i)))));
+
+        assertEquals(1, NOTIFICATIONS.size());
+        assertPayloadFits(0);
+        assertTrue(message(0).all());
+    }
+
+    private static String longEmail(String prefix, int index) {
+        String local = prefix + index + ".";
+        // 251 characters, with labels of at most 63 characters
+        String label = "d".repeat(60);
+        return local + "x".repeat(64 - local.length()) + "@" + label + "." + label + "." + label + ".com";
+    }
+
+    private void assertPayloadFits(int index) {
+        String payload = NOTIFICATIONS.get(index).substring("users_changed:".length());
+        assertTrue(payload.getBytes(StandardCharsets.UTF_8).length <= UserInvalidationPublisher.MAX_PAYLOAD_BYTES,
+                "payload of " + payload.length() + " bytes");
+    }
+
+    @Test
+    public void testRollbackIsNotNotified() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            userService.createUser(new UserInformationRequest("John", "Doe", "john.rollback@example.com"));
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertTrue(NOTIFICATIONS.isEmpty());
+        assertFalse(userRepository.existsByEmail("john.rollback@example.com"));
+    }
+}
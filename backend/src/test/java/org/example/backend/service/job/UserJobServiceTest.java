@@ -0,0 +1,241 @@
+package org.example.backend.service.job;
+
+import org.example.backend.dto.request.UserBulkDeleteRequest;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.request.UserPatchRequest;
+import org.example.backend.exceptions.custom.EntityNullException;
+import org.example.backend.exceptions.custom.JobNotFoundException;
+import org.example.backend.model.User;
+import org.example.backend.model.UserJob;
+import org.example.backend.model.UserJobPayload;
+import org.example.backend.repository.UserJobPayloadRepository;
+import org.example.backend.repository.UserJobRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:jobs;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.jobs.enabled=true",
+        "users.jobs.chunk-size=2",
+        "users.jobs.lease=2s",
+        "users.jobs.recovery-interval=100ms",
+        "users.jobs.export-dir=target/test-exports"
+})
+public class UserJobServiceTest {
+    @Autowired
+    private UserJobService jobService;
+    @Autowired
+    private UserJobRepository jobRepository;
+    @Autowired
+    private UserJobPayloadRepository payloadRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        payloadRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    public void importJobSuccess() {
+        UserJob job = jobService.submitImport(List.of(
+                new UserInformationRequest("John", "Doe", "john@example.com"),
+                new UserInformationRequest("Marie", "Cross", "marie@example.com"),
+                new UserInformationRequest("John", "Again", "john@example.com"),
+                new UserInformationRequest("Bad", "Email", "not an email"),
+                new UserInformationRequest("Ann", "Lee", "ann@example.com")));
+
+        UserJob done = awaitFinished(job.getId());
+        assertEquals(UserJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(5, done.getTotalItems());
+        assertEquals(5, done.getProcessedItems());
+        assertEquals(2, done.getFailedItems());
+        assertEquals(5, done.getCheckpoint());
+        assertTrue(payloadRepository.findById(job.getId()).orElseThrow().getPayload().contains("ann@example.com"));
+        assertTrue(done.getErrors().contains("item 2: USER_ALREADY_EXISTS"));
+        assertTrue(done.getErrors().contains("item 3: INVALID_ARGUMENTS"));
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    public void updateAndDeleteJobsSuccess() {
+        List<Long> ids = createUsers("john@example.com", "bot1@spam.com", "bot2@spam.com", "bot3@spam.com");
+
+        UserJob update = awaitFinished(jobService.submitUpdate(List.of(
+                new UserPatchRequest(ids.get(0), "Johnny", null, null),
+                new UserPatchRequest(-1L, "Nobody", null, null))).getId());
+        UserJob deleteById = awaitFinished(jobService.submitDelete(new UserBulkDeleteRequest(List.of(ids.get(1), -1L, ids.get(2)), null)).getId());
+        UserBulkDeleteRequest.Filter filter = new UserBulkDeleteRequest.Filter(null, null, "spam.com");
+        UserJob delete = awaitFinished(jobService.submitDelete(new UserBulkDeleteRequest(null, filter)).getId());
+
+        assertEquals(UserJob.Status.SUCCEEDED, update.getStatus());
+        assertEquals(1, update.getFailedItems());
+        assertEquals("Johnny", userRepository.findById(ids.get(0)).orElseThrow().getFirstName());
+        assertEquals(UserJob.Status.SUCCEEDED, deleteById.getStatus());
+        assertEquals(3, deleteById.getProcessedItems());
+        assertEquals(1, deleteById.getFailedItems());
+        assertEquals(UserJob.Status.SUCCEEDED, delete.getStatus());
+        assertEquals(1, delete.getTotalItems());
+        assertEquals(1, delete.getProcessedItems());
+        assertEquals(List.of(ids.get(0)), userRepository.findAll().stream().map(User::getId).toList());
+    }
+
+    @Test
+    public void submitJobFailure_missingItems() {
+        assertThrows(EntityNullException.class, () -> jobService.submitImport(List.of()));
+        assertThrows(EntityNullException.class, () -> jobService.submitDelete(new UserBulkDeleteRequest(null, new UserBulkDeleteRequest.Filter())));
+        assertThrows(JobNotFoundException.class, () -> jobService.getJob(-1L));
+    }
+
+    @Test
+    public void importJobResumedFromCheckpoint() {
+        // a job left behind by a crashed node after its first chunk was committed
+        UserJob orphan = orphan(UserJob.Type.IMPORT, 3);
+        orphan.setCheckpoint(2);
+        orphan.setProcessedItems(2);
+        // stored together, so the recovery does not find the job before its payload
+        UserJob job = new TransactionTemplate(transactionManager).execute(status -> {
+            UserJob saved = jobRepository.save(orphan);
+            payloadRepository.save(new UserJobPayload(saved.getId(), """
+                    [{"first_name": "John", "last_name": "Doe", "email": "john@example.com"},
+                     {"first_name": "Marie", "last_name": "Cross", "email": "marie@example.com"},
+                     {"first_name": "Ann", "last_name": "Lee", "email": "ann@example.com"}]"""));
+            return saved;
+        });
+
+        UserJob done = awaitFinished(job.getId());
+        assertEquals(UserJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(3, done.getProcessedItems());
+        assertEquals(List.of("ann@example.com"), userRepository.findAll().stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    public void exportJobResumedFromCheckpoint() throws Exception {
+        List<Long> ids = createUsers("john@example.com", "marie@example.com", "ann@example.com");
+        String header = "id,first_name,last_name,email\n";
+        String firstRow = ids.get(0) + ",First,Last,john@example.com\n";
+        // the crashed node had started to write a chunk it never committed
+        Path file = Path.of("target/test-exports");
+        Files.createDirectories(file);
+        UserJob job = orphan(UserJob.Type.EXPORT, 3);
+        job.setCheckpoint(ids.get(0));
+        job.setProcessedItems(1);
+        job.setResultSize((header + firstRow).getBytes(StandardCharsets.UTF_8).length);
+        job = jobRepository.save(job);
+        Files.writeString(file.resolve("users-export-" + job.getId() + ".csv"), header + firstRow + ids.get(1) + ",First,La");
+
+        UserJob done = awaitFinished(job.getId());
+        assertEquals(UserJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(header + firstRow
+                        + ids.get(1) + ",First,Last,marie@example.com\n"
+                        + ids.get(2) + ",First,Last,ann@example.com\n",
+                Files.readString(jobService.getExportFile(job.getId())));
+    }
+
+    @Test
+    public void cancelJobSuccess() {
+        UserJob job = orphan(UserJob.Type.EXPORT, 0);
+        // owned by a node that is alive, so this node does not take it over
+        job.setHeartbeatAt(Instant.now().plusSeconds(60));
+        Long id = jobRepository.save(job).getId();
+
+        UserJob cancelled = jobService.cancelJob(id);
+        assertEquals(UserJob.Status.CANCELLED, cancelled.getStatus());
+        assertNotNull(cancelled.getFinishedAt());
+        assertThrows(JobNotFoundException.class, () -> jobService.getExportFile(id));
+    }
+
+    @Test
+    public void submitAndPollJob() throws Exception {
+        String location = mockMvc.perform(post("/jobs/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"first_name\": \"John\", \"last_name\": \"Doe\", \"email\": \"john@example.com\"}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.type").value("IMPORT"))
+                .andExpect(jsonPath("$.total_items").value(1))
+                .andReturn().getResponse().getHeader("Location");
+
+        awaitFinished(Long.valueOf(location.substring(location.lastIndexOf('/') + 1)));
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.processed_items").value(1))
+                .andExpect(jsonPath("$.progress").value(100.0))
+                .andExpect(jsonPath("$.rows_per_second").isNumber());
+        mockMvc.perform(get("/jobs/-1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("JOB_NOT_FOUND"));
+    }
+
+    private List<Long> createUsers(String... emails) {
+        return userService.createUsers(Arrays.stream(emails)
+                        .map(email -> new UserInformationRequest("First", "Last", email)).toList())
+                .stream().map(result -> result.value().getId()).toList();
+    }
+
+    private UserJob orphan(UserJob.Type type, Integer totalItems) {
+        UserJob job = new UserJob();
+        job.setType(type);
+        job.setStatus(UserJob.Status.RUNNING);
+        job.setTotalItems(totalItems);
+        job.setOwner("crashed-node");
+        job.setHeartbeatAt(Instant.now().minusSeconds(60));
+        job.setCreatedAt(Instant.now().minusSeconds(60));
+        job.setStartedAt(Instant.now().minusSeconds(60));
+        return job;
+    }
+
+    private UserJob awaitFinished(Long id) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            UserJob job = jobService.getJob(id);
+            if (!UserJobService.UNFINISHED.contains(job.getStatus())) {
+                return job;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("Job " + id + " did not finish in time");
+    }
+}
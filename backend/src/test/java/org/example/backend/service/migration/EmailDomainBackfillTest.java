@@ -0,0 +1,55 @@
+package org.example.backend.service.migration;
+
+import org.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:backfill;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class EmailDomainBackfillTest {
+    @Autowired
+    private EmailDomainBackfill backfill;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+    }
+
+    private String domainOf(String email) {
+        return jdbcTemplate.queryForObject("select email_domain from users where email = ?", String.class, email);
+    }
+
+    @Test
+    public void missingDomainsAreFilled() throws Exception {
+        // rows written before the column existed, the schema update added it as null
+        jdbcTemplate.update("insert into users (first_name, last_name, email) values ('John', 'Doe', 'John@Example.COM')");
+        jdbcTemplate.update("insert into users (first_name, last_name, email) values ('Marie', 'Cross', 'marie@spam.com')");
+        jdbcTemplate.update("insert into users (first_name, last_name, email) values ('No', 'Domain', 'nodomain')");
+
+        backfill.start().get(10, TimeUnit.SECONDS);
+
+        assertEquals("example.com", domainOf("John@Example.COM"));
+        assertEquals("spam.com", domainOf("marie@spam.com"));
+        assertNull(domainOf("nodomain"));
+        assertEquals("John", userRepository.findByEmail("John@Example.COM").getFirstName());
+    }
+}
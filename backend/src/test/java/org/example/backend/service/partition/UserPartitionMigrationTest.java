@@ -0,0 +1,117 @@
+package org.example.backend.service.partition;
+
+import org.example.backend.BackendApplication;
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves a users table to hash partitions while users are created, changed and deleted.
+ * Works in its own schema of a local database, e.g. USERS_TEST_PG_URL=jdbc:postgresql://localhost:5432/CRUD
+ * with USERS_TEST_PG_USERNAME and USERS_TEST_PG_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "USERS_TEST_PG_URL", matches = ".+")
+public class UserPartitionMigrationTest {
+    private static final String SCHEMA = "users_partitioning_test";
+    private static final int USERS = 20_000;
+
+    private static ConfigurableApplicationContext node;
+
+    @BeforeAll
+    public static void startNode() throws SQLException {
+        try (Connection connection = connect(System.getenv("USERS_TEST_PG_URL"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+            statement.execute("create schema " + SCHEMA);
+            statement.execute("create table " + SCHEMA + ".users (id bigserial primary key, first_name varchar(255), "
+                    + "last_name varchar(255), email varchar(255) unique not null, email_domain varchar(255))");
+            statement.execute("insert into " + SCHEMA + ".users (first_name, last_name, email, email_domain) "
+                    + "select 'First' || i, 'Last' || i, 'user' || i || '@example.com', 'example.com' "
+                    + "from generate_series(1, " + USERS + ") i");
+        }
+        String url = System.getenv("USERS_TEST_PG_URL");
+        node = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                "--spring.datasource.username=" + System.getenv().getOrDefault("USERS_TEST_PG_USERNAME", "postgres"),
+                "--spring.datasource.password=" + System.getenv().getOrDefault("USERS_TEST_PG_PASSWORD", ""),
+                "--spring.jpa.show-sql=false",
+                "--users.partitioning.enabled=true",
+                "--users.partitioning.partitions=4",
+                "--users.partitioning.batch-size=500",
+                "--users.partitioning.batch-pause=5ms");
+    }
+
+    private static Connection connect(String url) throws SQLException {
+        return DriverManager.getConnection(url, System.getenv().getOrDefault("USERS_TEST_PG_USERNAME", "postgres"),
+                System.getenv().getOrDefault("USERS_TEST_PG_PASSWORD", ""));
+    }
+
+    @AfterAll
+    public static void stopNode() throws SQLException {
+        if (node != null) {
+            node.close();
+        }
+        try (Connection connection = connect(System.getenv("USERS_TEST_PG_URL"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+        }
+    }
+
+    @Test
+    public void testUsersChangedDuringTheMoveArePartitioned() throws Exception {
+        UserPartitionMigration migration = node.getBean(UserPartitionMigration.class);
+        UserService userService = node.getBean(UserService.class);
+        UserRepository userRepository = node.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+
+        // changes while the users are copied, before and after the copied ids
+        List<Long> created = new ArrayList<>();
+        int round = 0;
+        while (migration.snapshot().state().compareTo(UserPartitionMigration.State.VERIFYING) < 0) {
+            round++;
+            created.add(userService.createUser(new UserInformationRequest("New", "User", "new" + round + "@example.com")).getId());
+            userService.updateUser((long) round, new UserInformationRequest("First" + round, "Last" + round, "moved" + round + "@example.org"));
+            userService.deleteUser((long) (USERS - round + 1));
+            Thread.sleep(10);
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+        while (migration.snapshot().state() != UserPartitionMigration.State.DONE && System.currentTimeMillis() < deadline) {
+            assertNotEquals(UserPartitionMigration.State.FAILED, migration.snapshot().state(), migration.snapshot().error());
+            Thread.sleep(50);
+        }
+        assertEquals(UserPartitionMigration.State.DONE, migration.snapshot().state());
+        assertTrue(round > 0, "the move ended before any change");
+
+        assertEquals("p", jdbcTemplate.queryForObject("select relkind::text from pg_class where oid = to_regclass('users')", String.class));
+        assertEquals((long) USERS, jdbcTemplate.queryForObject("select count(*) from users", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from users u where not exists "
+                + "(select 1 from users_unpartitioned o where o.id = u.id and o.email = u.email)", Long.class));
+        assertEquals("moved1@example.org", userRepository.findById(1L).orElseThrow().getEmail());
+        assertTrue(userRepository.findById((long) USERS).isEmpty());
+        assertEquals(created.get(0), userRepository.findByEmail("new1@example.com").getId());
+
+        // the email stays unique, new ids follow the ids of the old table
+        assertThrows(Exception.class, () -> userService.createUser(new UserInformationRequest("Dup", "User", "new1@example.com")));
+        User after = userService.createUser(new UserInformationRequest("After", "Move", "after@example.com"));
+        assertTrue(after.getId() > created.get(created.size() - 1));
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.backend.service.partition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares a single users table with one hash-partitioned by email: batched inserts, lookups by id and by email,
+ * and vacuum after deleting a tenth of the users. Works in its own schema of a local database, e.g.
+ * USERS_TEST_PG_URL=jdbc:postgresql://localhost:5432/CRUD with USERS_TEST_PG_USERNAME and USERS_TEST_PG_PASSWORD.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+@EnabledIfEnvironmentVariable(named = "USERS_TEST_PG_URL", matches = ".+")
+public class UserPartitioningBenchmark {
+    private static final String SCHEMA = "users_partitioning_benchmark";
+    private static final int USERS = 1_000_000;
+    private static final int PARTITIONS = 16;
+    private static final int INSERT_BATCH = 1000;
+    private static final int LOOKUPS = 20_000;
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getenv("USERS_TEST_PG_URL"),
+                System.getenv().getOrDefault("USERS_TEST_PG_USERNAME", "postgres"),
+                System.getenv().getOrDefault("USERS_TEST_PG_PASSWORD", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+            statement.execute("create schema " + SCHEMA);
+            statement.execute("set search_path to " + SCHEMA);
+            // the layout of db/schema.sql
+            statement.execute("create table users_single (id bigserial primary key, first_name varchar(255), "
+                    + "last_name varchar(255), email varchar(255) unique not null, email_domain varchar(255))");
+            for (Map.Entry<String, String> index : PartitionedUsersSchema.INDEXES.entrySet()) {
+                statement.execute("create index idx_users_single_" + index.getKey() + " on users_single (" + index.getValue() + ")");
+            }
+            for (String create : PartitionedUsersSchema.create("users_hashed", "users_hashed_p", PARTITIONS, "users_hashed_id_seq")) {
+                statement.execute(create);
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void compareSingleAndPartitionedTable() throws SQLException {
+        insert("users_single");
+        insert("users_hashed");
+        Random random = new Random(42);
+        // warm up both tables before measuring
+        lookup("users_single", "id", random);
+        lookup("users_hashed", "id", random);
+        for (String column : new String[]{"id", "email"}) {
+            lookup("users_single", column, random);
+            lookup("users_hashed", column, random);
+        }
+        vacuum("users_single");
+        vacuum("users_hashed");
+    }
+
+    private void insert(String table) throws SQLException {
+        connection.setAutoCommit(false);
+        long begin = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into " + table + " (first_name, last_name, email, email_domain) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= USERS; i++) {
+                insert.setString(1, "First" + (i % 5000));
+                insert.setString(2, "Last" + (i % 7000));
+                insert.setString(3, "user" + i + "@domain" + (i % 100) + ".com");
+                insert.setString(4, "domain" + (i % 100) + ".com");
+                insert.addBatch();
+                if (i % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("analyze " + table);
+        }
+        System.out.printf("%-13s insert         %,9.0f users/s%n", table, USERS / (elapsed / 1e9));
+    }
+
+    private void lookup(String table, String column, Random random) throws SQLException {
+        long[] latencies = new long[LOOKUPS];
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, first_name, last_name, email from " + table + " where " + column + " = ?")) {
+            for (int i = 0; i < LOOKUPS; i++) {
+                int user = 1 + random.nextInt(USERS);
+                if (column.equals("id")) {
+                    select.setLong(1, user);
+                } else {
+                    select.setString(1, "user" + user + "@domain" + (user % 100) + ".com");
+                }
+                long begin = System.nanoTime();
+                try (ResultSet result = select.executeQuery()) {
+                    assertTrue(result.next());
+                }
+                latencies[i] = System.nanoTime() - begin;
+            }
+        }
+        long total = Arrays.stream(latencies).sum();
+        Arrays.sort(latencies);
+        System.out.printf("%-13s lookup by %-5s %,9.0f lookups/s  p50 %6.1f µs  p99 %6.1f µs%n", table, column,
+                LOOKUPS / (total / 1e9), latencies[LOOKUPS / 2] / 1e3, latencies[(int) (LOOKUPS * 0.99)] / 1e3);
+    }
+
+    private void vacuum(String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("delete from " + table + " where id % 10 = 0");
+            long begin = System.nanoTime();
+            statement.execute("vacuum " + table);
+            long whole = System.nanoTime() - begin;
+            // what one maintenance run has to hold: the whole table, or its largest partition
+            long longest = whole;
+            if (table.equals("users_hashed")) {
+                statement.execute("delete from " + table + " where id % 10 = 1");
+                longest = 0;
+                for (int i = 0; i < PARTITIONS; i++) {
+                    begin = System.nanoTime();
+                    statement.execute("vacuum " + table + "_p" + i);
+                    longest = Math.max(longest, System.nanoTime() - begin);
+                }
+            }
+            System.out.printf("%-13s vacuum         %9.1f ms  longest single run %7.1f ms%n", table, whole / 1e6, longest / 1e6);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.backend.service.readmodel;
+
+import org.example.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarUserStoreTest {
+
+    @Test
+    public void testPagesAndFirstNameSearch() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        store.put(1, "John", "Doe", "john@example.com");
+        store.put(2, "Marie", "Cross", "marie@example.com");
+        store.put(3, "John", "Smith", "smith@example.com");
+        store.seal();
+        store.put(4, "Ann", "Lee", "ann@example.com");
+        store.put(5, "Jürgen", "Müller", "jm@example.com");
+
+        assertEquals(List.of(2L, 3L), ids(store.page(1, 2)));
+        assertEquals(5, store.size());
+        assertEquals(2, store.countByFirstName("John"));
+        assertEquals(List.of(3L), ids(store.pageByFirstName("John", 1, 5)));
+        assertEquals("Müller", store.pageByFirstName("Jürgen", 0, 5).get(0).getLastName());
+        assertEquals(0, store.countByFirstName("Jo"));
+
+        store.put(1, "Ann", "Doe", "john@example.com");
+        assertTrue(store.remove(2));
+        assertFalse(store.remove(2));
+        assertEquals(List.of(1L, 4L), ids(store.pageByFirstName("Ann", 0, 5)));
+        assertEquals(List.of(3L, 4L, 5L), ids(store.page(1, 5)));
+        assertEquals("example.com", store.page(0, 1).get(0).getEmailDomain());
+    }
+
+    @Test
+    public void testMatchesReferenceUnderRandomChanges() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        TreeMap<Long, String[]> reference = new TreeMap<>();
+        Random random = new Random(42);
+        for (long id = 1; id <= 3000; id++) {
+            put(store, reference, id, random);
+        }
+        store.seal();
+        for (int i = 0; i < 20000; i++) {
+            long id = 1 + random.nextInt(6000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(id) != null, store.remove(id));
+            } else {
+                put(store, reference, id, random);
+            }
+        }
+
+        assertEquals(reference.size(), store.size());
+        // ids are not added in order, so only the content of all pages is compared
+        List<Long> all = new ArrayList<>();
+        for (int offset = 0; offset < store.size(); offset += 100) {
+            all.addAll(ids(store.page(offset, 100)));
+        }
+        assertEquals(new ArrayList<>(reference.keySet()), all.stream().sorted().toList());
+        for (int name = 0; name < 20; name++) {
+            String firstName = "First" + name;
+            List<Long> expected = reference.entrySet().stream()
+                    .filter(entry -> entry.getValue()[0].equals(firstName)).map(Map.Entry::getKey).toList();
+            assertEquals(expected.size(), store.countByFirstName(firstName));
+            assertEquals(expected, ids(store.pageByFirstName(firstName, 0, expected.size() + 1)));
+        }
+        for (User user : store.page(0, store.size())) {
+            assertArrayEquals(reference.get(user.getId()), new String[]{user.getFirstName(), user.getLastName(), user.getEmail()});
+        }
+    }
+
+    /**
+     * Documents the memory per million users: the columns and indexes take at most 64 bytes per user
+     * plus the UTF-8 bytes of the names and emails, all of it outside the heap.
+     */
+    @Test
+    public void testMemoryPerMillionUsers() {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct")).findFirst().orElseThrow();
+        System.gc();
+        long heapBefore = usedHeap();
+        long directBefore = direct.getMemoryUsed();
+
+        ColumnarUserStore store = new ColumnarUserStore();
+        for (int i = 1; i <= 1_000_000; i++) {
+            store.put(i, "First" + (i % 1000), "Last" + i, "user" + i + "@example.com");
+        }
+        store.seal();
+
+        long fixedBytesPerUser = (store.memoryBytes() - store.stringBytes()) / store.size();
+        System.out.printf("1M users: %d MB off-heap, %d bytes per user besides %d bytes of strings%n",
+                store.memoryBytes() >> 20, fixedBytesPerUser, store.stringBytes() / store.size());
+        assertTrue(fixedBytesPerUser <= 64, "bytes per user " + fixedBytesPerUser);
+        assertTrue(direct.getMemoryUsed() - directBefore >= store.memoryBytes());
+        // a heap object per user would take at least 16 bytes each
+        System.gc();
+        assertTrue(usedHeap() - heapBefore < 16_000_000L, "heap grew by " + (usedHeap() - heapBefore));
+        assertEquals(1000, store.countByFirstName("First7"));
+        assertEquals(1_000_000L, store.page(999_999, 5).get(0).getId());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void put(ColumnarUserStore store, Map<Long, String[]> reference, long id, Random random) {
+        String[] user = {"First" + random.nextInt(20), "Last" + random.nextInt(1000), "user" + random.nextInt() + "@example.com"};
+        store.put(id, user[0], user[1], user[2]);
+        reference.put(id, user);
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.backend.service.readmodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures the latency of the reads answered by the read model with one million users:
+ * a page of the user list at a random offset and a page of the first name search for a random name.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+public class UserReadModelBenchmark {
+    private static final int USERS = 1_000_000;
+    private static final int NAMES = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final int READS = 200_000;
+
+    @Test
+    public void measureReadLatency() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        long start = System.nanoTime();
+        for (int i = 1; i <= USERS; i++) {
+            store.put(i, "First" + (i % NAMES), "Last" + i, "user" + i + "@example.com");
+        }
+        store.seal();
+        System.out.printf("loaded %d users in %d ms, %d MB off-heap%n",
+                USERS, (System.nanoTime() - start) / 1_000_000, store.memoryBytes() >> 20);
+
+        Random random = new Random(7);
+        // warm up both reads before measuring
+        run("warm-up", i -> store.page(random.nextInt(USERS), PAGE_SIZE));
+        run("warm-up", i -> store.pageByFirstName("First" + random.nextInt(NAMES), random.nextInt(NAMES), PAGE_SIZE));
+
+        run("list page", i -> store.page(random.nextInt(USERS), PAGE_SIZE));
+        run("first name page", i -> store.pageByFirstName("First" + random.nextInt(NAMES), random.nextInt(NAMES), PAGE_SIZE));
+        run("update first name", i -> store.put(1 + random.nextInt(USERS), "First" + random.nextInt(NAMES), "Last", "user@example.com"));
+    }
+
+    private void run(String name, IntConsumer read) {
+        long[] latencies = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            read.accept(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-18s p50 %7.1f us  p99 %7.1f us  max %8.1f us%n", name,
+                latencies[READS / 2] / 1000.0, latencies[READS * 99 / 100] / 1000.0, latencies[READS - 1] / 1000.0);
+    }
+}
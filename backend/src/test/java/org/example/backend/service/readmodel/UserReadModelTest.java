@@ -0,0 +1,119 @@
+package org.example.backend.service.readmodel;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.example.backend.service.event.UserChangedEvent;
+import org.example.backend.service.event.UserSnapshot;
+import org.example.backend.service.invalidation.UserInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:readmodel;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.read-model.enabled=true",
+        "users.read-model.load-chunk-size=2"
+})
+public class UserReadModelTest {
+    @Autowired
+    private UserReadModel readModel;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        userRepository.deleteAll();
+        jdbcTemplate.update("insert into users (first_name, last_name, email, email_domain) values "
+                + "('John', 'Doe', 'john@example.com', 'example.com'), ('Marie', 'Cross', 'marie@example.com', 'example.com'), "
+                + "('John', 'Smith', 'smith@example.com', 'example.com')");
+        readModel.reload().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testReadsAreAnsweredFromMemory() {
+        assertTrue(readModel.isReady());
+        // changes that bypass the service are not seen, which shows the reads do not reach the database
+        jdbcTemplate.update("delete from users where email = 'marie@example.com'");
+
+        Page<User> page = userService.getUsersList(PageRequest.of(0, 2));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("john@example.com", "marie@example.com"), page.getContent().stream().map(User::getEmail).toList());
+        Page<User> johns = userService.getUsersByName("John", PageRequest.of(0, 5));
+        assertEquals(List.of("Doe", "Smith"), johns.getContent().stream().map(User::getLastName).toList());
+
+        // sorted reads still go to the database
+        assertEquals(2, userService.getUsersList(PageRequest.of(0, 5, Sort.by("email"))).getTotalElements());
+    }
+
+    @Test
+    public void testCommittedChangesAreApplied() {
+        User ann = userService.createUser(new UserInformationRequest("Ann", "Lee", "ann@example.com"));
+        User john = userRepository.findByEmail("john@example.com");
+        userService.updateUser(john.getId(), new UserInformationRequest("Johnny", "Doe", "john@example.com"));
+        userService.deleteUser(userRepository.findByEmail("marie@example.com").getId());
+
+        assertEquals(3, userService.getUsersList(PageRequest.of(0, 5)).getTotalElements());
+        assertEquals(List.of(ann.getId()), userService.getUsersByName("Ann", PageRequest.of(0, 5)).map(User::getId).getContent());
+        assertEquals(1, userService.getUsersByName("John", PageRequest.of(0, 5)).getTotalElements());
+        assertEquals("Johnny", userService.getUsersByName("Johnny", PageRequest.of(0, 5)).getContent().get(0).getFirstName());
+        assertEquals(3, readModel.stats().users());
+    }
+
+    @Test
+    public void testLocalChangeDuringRemoteReadIsNotOverwritten() throws Exception {
+        UserRepository repository = mock(UserRepository.class);
+        User before = user(1L, "John");
+        User after = user(1L, "Johnny");
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(before));
+        UserReadModel model = new UserReadModel(repository, mock(PlatformTransactionManager.class), new ReadModelProperties(true, 10));
+        model.reload().get(10, TimeUnit.SECONDS);
+        // the remote read sees the user before a change this node commits and applies meanwhile
+        when(repository.findAllById(Set.of(1L))).thenAnswer(invocation -> {
+            model.onUserChanged(UserChangedEvent.updated(UserSnapshot.of(before), UserSnapshot.of(after)));
+            return List.of(before);
+        }).thenReturn(List.of(after));
+
+        model.onUserInvalidated(new UserInvalidatedEvent(Set.of(1L), Set.of(), false));
+
+        assertEquals(List.of("Johnny"), model.getUsersList(PageRequest.of(0, 5)).map(User::getFirstName).getContent());
+        verify(repository, times(2)).findAllById(Set.of(1L));
+        model.destroy();
+    }
+
+    private static User user(Long id, String firstName) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.backend.service.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+    @Test
+    public void testExactWithinCapacity() {
+        HeavyHitters sketch = new HeavyHitters(3);
+        for (String name : List.of("John", "Jane", "John", "Max", "John", "Jane")) {
+            sketch.add(name);
+        }
+
+        List<HeavyHitters.Estimate> top = sketch.top(2);
+
+        assertEquals(List.of(new HeavyHitters.Estimate("John", 3, 0), new HeavyHitters.Estimate("Jane", 2, 0)), top);
+    }
+
+    @Test
+    public void testFrequentValueIsFoundInSkewedStream() {
+        HeavyHitters sketch = new HeavyHitters(10);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(i % 4 == 0 ? "John" : "name" + i);
+        }
+
+        HeavyHitters.Estimate top = sketch.top(1).get(0);
+
+        assertEquals("John", top.value());
+        assertTrue(top.count() >= 2_500);
+        assertTrue(top.count() - top.error() <= 2_500);
+        assertEquals(10, sketch.size());
+    }
+
+    @Test
+    public void testRemovalsDecrementTrackedValues() {
+        HeavyHitters sketch = new HeavyHitters(2);
+        sketch.seed("John", 5);
+        sketch.seed("Jane", 2);
+        sketch.seed("Max", 1);
+
+        sketch.remove("John");
+        sketch.remove("Max");
+        sketch.remove("Jane");
+        sketch.remove("Jane");
+
+        assertEquals(List.of(new HeavyHitters.Estimate("John", 4, 0)), sketch.top(5));
+    }
+}
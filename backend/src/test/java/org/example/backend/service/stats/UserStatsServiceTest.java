@@ -0,0 +1,154 @@
+package org.example.backend.service.stats;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.response.UserStatsResponse;
+import org.example.backend.model.User;
+import org.example.backend.model.UserStatistic;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.repository.UserStatisticRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:stats;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.stats.enabled=true",
+        "users.stats.top-email-domains=2",
+        "users.stats.top-first-names=2"
+})
+public class UserStatsServiceTest {
+    private static final String USER = "{\"first_name\": \"%s\", \"last_name\": \"Doe\", \"email\": \"%s\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserStatsService statsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserStatisticRepository statisticRepository;
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        userRepository.deleteAll();
+        statsService.recount().get(10, TimeUnit.SECONDS);
+    }
+
+    private long create(String firstName, String email) throws Exception {
+        String body = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted(firstName, email)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+    }
+
+    @Test
+    public void testCountersFollowCommittedChanges() throws Exception {
+        create("John", "john@example.com");
+        long jane = create("Jane", "jane@example.com");
+        create("John", "john@test.org");
+
+        mockMvc.perform(get("/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_users").value(3))
+                .andExpect(jsonPath("$.email_domain_count").value(2))
+                .andExpect(jsonPath("$.email_domains[0].value").value("example.com"))
+                .andExpect(jsonPath("$.email_domains[0].users").value(2))
+                .andExpect(jsonPath("$.first_names[0].value").value("John"))
+                .andExpect(jsonPath("$.first_names[0].users").value(2))
+                .andExpect(jsonPath("$.changes_since_count").value(3));
+
+        mockMvc.perform(put("/users/" + jane).contentType(MediaType.APPLICATION_JSON).content(USER.formatted("Max", "jane@test.org")))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/users/" + jane))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_users").value(2))
+                .andExpect(jsonPath("$.email_domains[0].users").value(1))
+                .andExpect(jsonPath("$.email_domains[1].users").value(1))
+                .andExpect(jsonPath("$.first_names.length()").value(1))
+                .andExpect(jsonPath("$.first_names[0].value").value("John"));
+    }
+
+    @Test
+    public void testRecountStoresTheSummary() throws Exception {
+        create("John", "john@example.com");
+        create("Jane", "jane@example.com");
+
+        statsService.recount().get(10, TimeUnit.SECONDS);
+
+        List<UserStatistic> stored = statisticRepository.findAll();
+        assertEquals(2, stored.stream().filter(statistic -> statistic.getKind() == UserStatistic.Kind.TOTAL)
+                .findFirst().orElseThrow().getCount());
+        assertEquals(2, stored.stream().filter(statistic -> statistic.getKind() == UserStatistic.Kind.EMAIL_DOMAIN)
+                .findFirst().orElseThrow().getCount());
+        assertEquals(0, statsService.getStats().changesSinceCount());
+        assertEquals(2, statsService.getStats().totalUsers());
+    }
+
+    @Test
+    public void testWritesDuringRecountsAreCountedOnce() throws Exception {
+        String[] domains = {"a.com", "b.com", "c.com"};
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CompletableFuture<Integer> writer = CompletableFuture.supplyAsync(() -> {
+            Random random = new Random(11);
+            List<Long> ids = new ArrayList<>();
+            int changes = 0;
+            while (writing.get()) {
+                changes++;
+                ids.add(userService.createUser(new UserInformationRequest("John", "Doe",
+                        "user" + changes + "@" + domains[random.nextInt(domains.length)])).getId());
+                if (ids.size() > 5) {
+                    Long id = ids.get(random.nextInt(ids.size()));
+                    userService.updateUser(id, new UserInformationRequest("John", "Doe",
+                            "moved" + changes + "@" + domains[random.nextInt(domains.length)]));
+                    userService.deleteUser(ids.remove(random.nextInt(ids.size())));
+                }
+            }
+            return changes;
+        });
+        for (int i = 0; i < 30; i++) {
+            statsService.recount().get(10, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        assertTrue(writer.get(10, TimeUnit.SECONDS) > 0);
+
+        // no recount after the last write, the counters only followed the changes
+        UserStatsResponse stats = statsService.getStats();
+        List<User> users = userRepository.findAll();
+        assertEquals(users.size(), stats.totalUsers());
+        Map<String, Long> expected = users.stream().collect(Collectors.groupingBy(User::getEmailDomain, Collectors.counting()));
+        for (UserStatsResponse.Count domain : stats.emailDomains()) {
+            assertEquals(expected.get(domain.value()), domain.users(), domain.value());
+        }
+    }
+}
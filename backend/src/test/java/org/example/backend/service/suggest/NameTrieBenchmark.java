@@ -0,0 +1,87 @@
+package org.example.backend.service.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the latency of name suggestions with 100,000 distinct names, read by several threads
+ * while another thread keeps changing names and publishing new trees, as the service does.
+ * Runs only with the "benchmark" Maven profile: mvn test -Pbenchmark
+ */
+public class NameTrieBenchmark {
+    private static final int NAMES = 100_000;
+    private static final int READERS = 4;
+    private static final int READS = 500_000;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private volatile NameTrie trie;
+
+    @Test
+    public void measureSuggestLatency() throws Exception {
+        Random random = new Random(3);
+        String[] names = new String[NAMES];
+        NameTrie built = NameTrie.empty(10);
+        long start = System.nanoTime();
+        for (int i = 0; i < NAMES; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int length = 4 + random.nextInt(6); length > 0; length--) {
+                name.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            names[i] = name.toString();
+            built = built.add(names[i], 1 + random.nextInt(100));
+        }
+        trie = built;
+        System.out.printf("built %d names in %d ms%n", built.size(), (System.nanoTime() - start) / 1_000_000);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            Random changes = new Random(5);
+            long updates = 0;
+            while (running.get()) {
+                trie = trie.add(names[changes.nextInt(NAMES)], changes.nextBoolean() ? 1 : -1);
+                updates++;
+            }
+            System.out.printf("writer published %d trees%n", updates);
+        });
+        writer.start();
+
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            int seed = reader;
+            results.add(readers.submit(() -> read(names, new Random(seed))));
+        }
+        long[] all = new long[READERS * READS];
+        for (int reader = 0; reader < READERS; reader++) {
+            System.arraycopy(results.get(reader).get(), 0, all, reader * READS, READS);
+        }
+        running.set(false);
+        writer.join();
+        readers.shutdown();
+
+        Arrays.sort(all);
+        System.out.printf("suggest with %d readers p50 %6.2f us  p99 %6.2f us  p99.9 %6.2f us  max %8.1f us%n", READERS,
+                all[all.length / 2] / 1000.0, all[all.length * 99 / 100] / 1000.0, all[all.length * 999 / 1000] / 1000.0,
+                all[all.length - 1] / 1000.0);
+    }
+
+    private long[] read(String[] names, Random random) {
+        long[] latencies = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            String name = names[random.nextInt(NAMES)];
+            String prefix = name.substring(0, 1 + random.nextInt(3));
+            long start = System.nanoTime();
+            trie.suggest(prefix, 10);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.backend.service.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameTrieTest {
+    @Test
+    public void testSuggestsMostCommonNamesForPrefix() {
+        NameTrie trie = NameTrie.empty(2)
+                .add("John", 5)
+                .add("Johanna", 3)
+                .add("Joe", 4)
+                .add("Jane", 9)
+                .add("Max", 1);
+
+        assertEquals(List.of(new NameTrie.Suggestion("John", 5), new NameTrie.Suggestion("Joe", 4)), trie.suggest("jo", 5));
+        assertEquals(List.of(new NameTrie.Suggestion("John", 5), new NameTrie.Suggestion("Johanna", 3)), trie.suggest("JOH", 5));
+        assertEquals(List.of(new NameTrie.Suggestion("Jane", 9)), trie.suggest("j", 1));
+        assertEquals(List.of(), trie.suggest("jx", 5));
+        assertEquals(List.of(), trie.suggest("johannes", 5));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testChangesLeaveEarlierTreesUntouched() {
+        NameTrie before = NameTrie.empty(5).add("John", 2).add("Johanna", 1);
+
+        NameTrie after = before.add("John", -2).add("Jon", 1);
+
+        assertEquals(List.of(new NameTrie.Suggestion("John", 2), new NameTrie.Suggestion("Johanna", 1)), before.suggest("jo", 5));
+        assertEquals(List.of(new NameTrie.Suggestion("Johanna", 1), new NameTrie.Suggestion("Jon", 1)), after.suggest("jo", 5));
+        assertEquals(List.of(), after.suggest("john", 5));
+        assertSame(after, after.add("Unknown", -1));
+    }
+
+    @Test
+    public void testMatchesCountsOfRandomChanges() {
+        Random random = new Random(11);
+        Map<String, Long> expected = new HashMap<>();
+        NameTrie trie = NameTrie.empty(3);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int length = 1 + random.nextInt(4); length > 0; length--) {
+                name.append((char) ('a' + random.nextInt(3)));
+            }
+            String key = name.toString();
+            long delta = random.nextInt(3) == 0 ? -1 : 1;
+            if (delta < 0 && !expected.containsKey(key)) {
+                continue;
+            }
+            expected.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+            trie = trie.add(key, delta);
+        }
+
+        assertEquals(expected.size(), trie.size());
+        assertEquals(expected, trie.all().stream().collect(HashMap::new,
+                (map, name) -> map.put(name.name(), name.users()), Map::putAll));
+        for (String prefix : List.of("", "a", "ab", "cab", "bb")) {
+            List<Long> top = expected.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix.toLowerCase(Locale.ROOT)))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(3)
+                    .toList();
+            assertEquals(top, trie.suggest(prefix, 3).stream().map(NameTrie.Suggestion::users).toList());
+        }
+    }
+}
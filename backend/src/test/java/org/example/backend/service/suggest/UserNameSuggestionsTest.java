@@ -0,0 +1,137 @@
+package org.example.backend.service.suggest;
+
+import org.example.backend.dto.request.UserInformationRequest;
+import org.example.backend.dto.response.UserSuggestionResponse;
+import org.example.backend.model.User;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:suggest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "users.suggest.enabled=true",
+        "users.suggest.top-size=3",
+        "users.suggest.load-chunk-size=5"
+})
+public class UserNameSuggestionsTest {
+    private static final String USER = "{\"first_name\": \"%s\", \"last_name\": \"%s\", \"email\": \"%s\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserNameSuggestions suggestions;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+    }
+
+    private void create(String firstName, String lastName, String email) throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(USER.formatted(firstName, lastName, email)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testSuggestionsFollowLoadedAndCommittedNames() throws Exception {
+        create("John", "Doe", "john@example.com");
+        create("John", "Johnson", "john.johnson@example.com");
+        suggestions.reload().get(10, TimeUnit.SECONDS);
+        create("Joanna", "Smith", "joanna@example.com");
+
+        mockMvc.perform(get("/users/suggest").param("prefix", "jo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].value").value("John"))
+                .andExpect(jsonPath("$[0].field").value("firstName"))
+                .andExpect(jsonPath("$[0].users").value(2));
+        mockMvc.perform(get("/users/suggest").param("prefix", "jo").param("field", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].value").value("Johnson"));
+
+        String joanna = userRepository.findByEmail("joanna@example.com").getId().toString();
+        mockMvc.perform(put("/users/" + joanna).contentType(MediaType.APPLICATION_JSON).content(USER.formatted("Max", "Smith", "joanna@example.com")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/suggest").param("prefix", "JO").param("field", "firstName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/users/suggest").param("prefix", "m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].value").value("Max"));
+    }
+
+    @Test
+    public void testChangesWhileLoadingAreCountedOnce() throws Exception {
+        String[] names = {"Anna", "Bert", "Carl", "Dora", "Emil"};
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(userService.createUser(new UserInformationRequest(names[i % names.length], "Doe", "load" + i + "@example.com")).getId());
+        }
+        Random random = new Random(7);
+
+        Future<?> load = suggestions.reload();
+        int changes = 0;
+        while (!load.isDone()) {
+            // creates, renames and deletes before and after the users already walked through
+            changes++;
+            String name = names[random.nextInt(names.length)];
+            ids.add(userService.createUser(new UserInformationRequest(name, "Doe", "new" + changes + "@example.com")).getId());
+            Long renamed = ids.get(random.nextInt(ids.size()));
+            if (userRepository.existsById(renamed)) {
+                userService.updateUser(renamed, new UserInformationRequest(names[random.nextInt(names.length)], "Doe", "renamed" + changes + "@example.com"));
+            }
+            Long deleted = ids.remove(random.nextInt(ids.size()));
+            if (userRepository.existsById(deleted)) {
+                userService.deleteUser(deleted);
+            }
+        }
+        load.get(10, TimeUnit.SECONDS);
+        assertTrue(changes > 0, "the load ended before any change");
+
+        Map<String, Long> expected = userRepository.findAll().stream()
+                .collect(Collectors.groupingBy(User::getFirstName, Collectors.counting()));
+        for (String name : names) {
+            long users = suggestions.suggest(name, UserNameSuggestions.FIRST_NAME, 1).stream()
+                    .findFirst().map(UserSuggestionResponse::users).orElse(0L);
+            assertEquals(expected.getOrDefault(name, 0L), users, name);
+        }
+    }
+
+    @Test
+    public void testUnknownFieldIsRejected() throws Exception {
+        mockMvc.perform(get("/users/suggest").param("prefix", "jo").param("field", "email"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("UNSUPPORTED_QUERY"));
+    }
+}
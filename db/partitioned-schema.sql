@@ -0,0 +1,40 @@
+-- Optional layout of the users table for very large tables. Run it on an empty database before schema.sql, whose
+-- users statements then add nothing but the redundant indexes idx_users_email and idx_users_id.
+-- The table is hash-partitioned by email: "unique (email)" contains the partition key, so PostgreSQL still enforces it,
+-- and a lookup by email reads one partition. Ids come from one sequence, a lookup by id probes the id index of every
+-- partition. Vacuum and index rebuilds run per partition. An existing users table is moved to this layout online
+-- with users.partitioning.enabled=true, see UserPartitionMigration. Changing the number of partitions means moving again.
+create sequence if not exists users_id_seq;
+
+create table if not exists users(
+    id bigint not null default nextval('users_id_seq'),
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255) not null,
+    email_domain varchar(255),
+    primary key (id, email),
+    unique (email)
+) partition by hash (email);
+
+alter sequence users_id_seq owned by users.id;
+
+create table if not exists users_p0 partition of users for values with (modulus 16, remainder 0);
+create table if not exists users_p1 partition of users for values with (modulus 16, remainder 1);
+create table if not exists users_p2 partition of users for values with (modulus 16, remainder 2);
+create table if not exists users_p3 partition of users for values with (modulus 16, remainder 3);
+create table if not exists users_p4 partition of users for values with (modulus 16, remainder 4);
+create table if not exists users_p5 partition of users for values with (modulus 16, remainder 5);
+create table if not exists users_p6 partition of users for values with (modulus 16, remainder 6);
+create table if not exists users_p7 partition of users for values with (modulus 16, remainder 7);
+create table if not exists users_p8 partition of users for values with (modulus 16, remainder 8);
+create table if not exists users_p9 partition of users for values with (modulus 16, remainder 9);
+create table if not exists users_p10 partition of users for values with (modulus 16, remainder 10);
+create table if not exists users_p11 partition of users for values with (modulus 16, remainder 11);
+create table if not exists users_p12 partition of users for values with (modulus 16, remainder 12);
+create table if not exists users_p13 partition of users for values with (modulus 16, remainder 13);
+create table if not exists users_p14 partition of users for values with (modulus 16, remainder 14);
+create table if not exists users_p15 partition of users for values with (modulus 16, remainder 15);
+
+CREATE INDEX IF NOT EXISTS idx_users_first_name_last_name_id ON users(first_name, last_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_last_name_first_name_id ON users(last_name, first_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_email_domain_last_name_first_name_id ON users(email_domain, last_name, first_name, id);
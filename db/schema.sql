@@ -3,8 +3,53 @@ create table if not exists users(
    first_name varchar(255),
     last_name varchar(255),
     email varchar(255) UNIQUE NOT NULL
-)
+);
+
+-- The lower-cased part of the email after the last "@", written by the backend with every email so that filters by domain can use an index
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_domain varchar(255);
+UPDATE users SET email_domain = lower(substring(email from '@([^@]*)$')) WHERE email_domain IS NULL;
 
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_id ON users(id);
-CREATE INDEX IF NOT EXISTS idx_users_first_name ON users(first_name);
+
+-- Filtered and sorted reads (GET /users?firstName=&lastName=&emailDomain=&sort=) are only run along one of these
+-- indexes, see UserQueryGuard. The first name index also serves GET /users/search, which had its own index before.
+DROP INDEX IF EXISTS idx_users_first_name;
+CREATE INDEX IF NOT EXISTS idx_users_first_name_last_name_id ON users(first_name, last_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_last_name_first_name_id ON users(last_name, first_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_email_domain_last_name_first_name_id ON users(email_domain, last_name, first_name, id);
+
+-- Bulk jobs: state, progress and checkpoint of every asynchronous import, update, delete and export
+create table if not exists user_jobs(
+    id bigserial primary key,
+    type varchar(16) NOT NULL,
+    status varchar(16) NOT NULL,
+    total_items integer,
+    processed_items integer NOT NULL,
+    failed_items integer NOT NULL,
+    checkpoint bigint NOT NULL,
+    result_size bigint NOT NULL,
+    errors text,
+    owner varchar(64),
+    heartbeat_at timestamp with time zone,
+    created_at timestamp with time zone NOT NULL,
+    started_at timestamp with time zone,
+    finished_at timestamp with time zone
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_jobs_unfinished ON user_jobs(heartbeat_at) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- The input of every bulk job, read once when the job starts and kept out of the job row that every chunk and poll reads
+create table if not exists user_job_payloads(
+    job_id bigint primary key references user_jobs(id) on delete cascade,
+    payload text NOT NULL
+);
+
+-- User statistics: the counters of the latest full count, loaded by a restarted node until its own count completes
+create table if not exists user_stats(
+    id bigserial primary key,
+    kind varchar(16) NOT NULL,
+    counted_value varchar(255),
+    user_count bigint NOT NULL,
+    counted_at timestamp with time zone NOT NULL
+);
@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useMemo, useRef, useState } from 'react';
 import {
     Table,
     TableBody,
@@ -17,17 +17,24 @@ import {
     Box,
     Pagination,
     Snackbar,
-    Alert
+    Alert,
+    Autocomplete
 } from '@mui/material';
 import { Edit as EditIcon, Delete as DeleteIcon } from '@mui/icons-material';
-import { User } from '../types/User';
+import { User, UserChange } from '../types/User';
 import { userApi } from '../services/api';
+import _ from 'lodash';
+
+const PAGE_SIZE = 5;
+const SUGGEST_DELAY_MS = 150;
+const REFRESH_DELAY_MS = 300;
 
 const UserList: React.FC = () => {
     const [users, setUsers] = useState<User[]>([]);
     const [page, setPage] = useState(0);
     const [totalPages, setTotalPages] = useState(0);
     const [searchTerm, setSearchTerm] = useState('');
+    const [suggestions, setSuggestions] = useState<string[]>([]);
     const [openDialog, setOpenDialog] = useState(false);
     const [selectedUser, setSelectedUser] = useState<User | null>(null);
     const [formData, setFormData] = useState({
@@ -37,6 +44,13 @@ const UserList: React.FC = () => {
     });
     const [error, setError] = useState<string | null>(null);
     const [openError, setOpenError] = useState(false);
+    // while the change feed is connected the list is patched from events instead of being refetched
+    const liveUpdates = useRef(false);
+    const activeSearch = useRef<string | null>(null);
+    // answers to earlier keystrokes may arrive after later ones, only the latest prefix is shown
+    const latestPrefix = useRef('');
+    // reloads what is shown, set on every render so that it sees the current page
+    const refreshView = useRef<() => void>(() => {});
 
     const showError = (err: any) => {
         let message = 'Unknown error';
@@ -54,25 +68,61 @@ const UserList: React.FC = () => {
         setOpenError(true);
     };
 
+    const showPage = (content: User[] | undefined, pages: number | undefined) => {
+        setUsers(content || []);
+        setTotalPages(pages || 0);
+        // the last page may have been emptied by deletes
+        if (page > 0 && page >= (pages || 0)) {
+            setPage(Math.max(0, (pages || 0) - 1));
+        }
+    };
+
     const fetchUsers = async () => {
         try {
-            console.log('Fetching users...');
-            const response = await userApi.getAllUsers(page, 5);
-            console.log('API Response:', response);
-            setUsers(response.content || []);
-            setTotalPages(response.totalPages || 0);
+            const response = await userApi.getAllUsers(page, PAGE_SIZE);
+            activeSearch.current = null;
+            showPage(response.content, response.totalPages);
         } catch (error) {
-            showError(error);
+            if (!userApi.isCancelled(error)) {
+                showError(error);
+            }
         }
     };
 
-    const handleSearch = async () => {
+    const fetchSuggestions = useMemo(() => _.debounce(async (prefix: string) => {
         try {
-            const response = await userApi.searchUsers(searchTerm, page, 5);
-            setUsers(response.content || []);
-            setTotalPages(response.totalPages || 0);
+            const names = await userApi.suggestNames(prefix, 'firstName');
+            if (latestPrefix.current === prefix) {
+                setSuggestions(names.map(name => name.value));
+            }
         } catch (error) {
-            showError(error);
+            // suggestions are optional, the search still works without them
+            if (!userApi.isCancelled(error)) {
+                setSuggestions([]);
+            }
+        }
+    }, SUGGEST_DELAY_MS), []);
+
+    const handleSearchInput = (value: string) => {
+        setSearchTerm(value);
+        latestPrefix.current = value;
+        if (value.trim()) {
+            fetchSuggestions(value);
+        } else {
+            fetchSuggestions.cancel();
+            setSuggestions([]);
+        }
+    };
+
+    const handleSearch = async (term: string = searchTerm) => {
+        try {
+            const response = await userApi.searchUsers(term, page, PAGE_SIZE);
+            activeSearch.current = term;
+            showPage(response.content, response.totalPages);
+        } catch (error) {
+            if (!userApi.isCancelled(error)) {
+                showError(error);
+            }
         }
     };
 
@@ -112,7 +162,9 @@ const UserList: React.FC = () => {
                 await userApi.createUser(formData);
             }
             handleCloseDialog();
-            fetchUsers();
+            if (!liveUpdates.current) {
+                fetchUsers();
+            }
         } catch (error) {
             showError(error);
         }
@@ -122,26 +174,95 @@ const UserList: React.FC = () => {
         if (window.confirm('Are you sure you want to delete this user?')) {
             try {
                 await userApi.deleteUser(id);
-                fetchUsers();
+                if (!liveUpdates.current) {
+                    fetchUsers();
+                }
             } catch (error) {
                 showError(error);
             }
         }
     };
 
+    refreshView.current = () => {
+        if (activeSearch.current === null) {
+            fetchUsers();
+        } else {
+            handleSearch(activeSearch.current);
+        }
+    };
+
+    // bursts of creates and deletes are reloaded once
+    const scheduleRefresh = useMemo(() => _.debounce(() => refreshView.current(), REFRESH_DELAY_MS), []);
+
+    const applyChange = (change: UserChange) => {
+        const { type, ...fields } = change;
+        // cached pages may hold the changed user
+        userApi.invalidatePages();
+        setUsers(current => {
+            switch (type) {
+                case 'updated':
+                    return current.map(user => user.id === change.id ? { ...user, ...fields } : user);
+                case 'deleted':
+                    return current.filter(user => user.id !== change.id);
+                case 'created': {
+                    const matchesSearch = activeSearch.current === null || activeSearch.current === change.firstName;
+                    if (!matchesSearch || current.length >= PAGE_SIZE || current.some(user => user.id === change.id)) {
+                        return current;
+                    }
+                    return [...current, {
+                        id: change.id,
+                        firstName: change.firstName ?? '',
+                        lastName: change.lastName ?? '',
+                        email: change.email ?? ''
+                    }];
+                }
+                default:
+                    return current;
+            }
+        });
+        // the patched page may have a gap or miss a user, and the number of pages may have changed
+        if (type !== 'updated') {
+            scheduleRefresh();
+        }
+    };
+
     useEffect(() => {
         fetchUsers();
     }, [page]);
 
+    useEffect(() => () => fetchSuggestions.cancel(), [fetchSuggestions]);
+
+    useEffect(() => () => scheduleRefresh.cancel(), [scheduleRefresh]);
+
+    useEffect(() => {
+        return userApi.subscribeToUserEvents(applyChange, connected => {
+            liveUpdates.current = connected;
+            // changes made while the stream was (re)connecting were not delivered
+            if (connected) {
+                userApi.invalidatePages();
+                refreshView.current();
+            }
+        });
+    }, []);
+
     return (
         <Box sx={{ p: 3 }}>
             <Box sx={{ mb: 3, display: 'flex', gap: 2 }}>
-                <TextField
-                    label="Search by First Name"
-                    value={searchTerm}
-                    onChange={(e) => setSearchTerm(e.target.value)}
+                <Autocomplete
+                    freeSolo
+                    sx={{ minWidth: 240 }}
+                    options={suggestions}
+                    filterOptions={(options) => options}
+                    inputValue={searchTerm}
+                    onInputChange={(_event, value) => handleSearchInput(value)}
+                    onChange={(_event, value) => {
+                        if (typeof value === 'string' && value) {
+                            handleSearch(value);
+                        }
+                    }}
+                    renderInput={(params) => <TextField {...params} label="Search by First Name" />}
                 />
-                <Button variant="contained" onClick={handleSearch}>
+                <Button variant="contained" onClick={() => handleSearch()}>
                     Search
                 </Button>
                 <Button variant="contained" color="primary" onClick={() => handleOpenDialog()}>
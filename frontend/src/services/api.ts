@@ -1,22 +1,113 @@
-import axios from 'axios';
-import { User, UserInformationRequest, UserInformationResponse } from '../types/User';
+import axios, { CanceledError } from 'axios';
+import { NameField, NameSuggestion, User, UserChange, UserInformationRequest, UserInformationResponse, UserPage } from '../types/User';
 import _ from 'lodash';
 
 const API_URL = 'https://pavlo-svitenko-back-latest.onrender.com/users';
 
-// Додаємо перехоплювач для логування запитів
-axios.interceptors.request.use(request => {
-    console.log('Starting Request:', request);
+// only in development, production builds do not log every request
+if (process.env.NODE_ENV !== 'production') {
+    // Додаємо перехоплювач для логування запитів
+    axios.interceptors.request.use(request => {
+        console.log('Starting Request:', request);
+        return request;
+    });
+
+    axios.interceptors.response.use(response => {
+        console.log('Response:', response);
+        return response;
+    }, error => {
+        console.error('API Error:', error);
+        return Promise.reject(error);
+    });
+}
+
+const PAGE_CACHE_SIZE = 20;
+// a page fetched this recently, e.g. by a prefetch, is shown without asking the server again
+const PAGE_FRESH_MS = 5000;
+
+interface CachedPage {
+    page: UserPage;
+    etag?: string;
+    fetchedAt: number;
+}
+
+// a request in flight, shared with callers asking for the same page meanwhile
+interface PendingPage {
+    request: Promise<UserPage>;
+    generation: number;
+    signal?: AbortSignal;
+}
+
+// a Map iterates in insertion order, so re-inserting every used page keeps the least recently used one first
+const pageCache = new Map<string, CachedPage>();
+const pendingPages = new Map<string, PendingPage>();
+// pages requested before the last change are not cached
+let cacheGeneration = 0;
+let currentPageRequest: AbortController | null = null;
+let currentSuggestRequest: AbortController | null = null;
+
+function rememberPage(url: string, entry: CachedPage) {
+    pageCache.delete(url);
+    pageCache.set(url, entry);
+    if (pageCache.size > PAGE_CACHE_SIZE) {
+        pageCache.delete(pageCache.keys().next().value as string);
+    }
+}
+
+// Reads a page from the cache while it is fresh, otherwise revalidates it with its ETag; a 304 answer reuses the cached page
+function fetchPage(url: string, signal?: AbortSignal): Promise<UserPage> {
+    const cached = pageCache.get(url);
+    if (cached && Date.now() - cached.fetchedAt < PAGE_FRESH_MS) {
+        rememberPage(url, cached);
+        return Promise.resolve(cached.page);
+    }
+    const pending = pendingPages.get(url);
+    // a request started before the last change may answer with stale data, and an aborted one never answers
+    if (pending && pending.generation === cacheGeneration && !pending.signal?.aborted) {
+        return pending.request;
+    }
+    const generation = cacheGeneration;
+    const request = axios.get<UserPage>(url, {
+        signal,
+        headers: cached?.etag ? { 'If-None-Match': cached.etag } : undefined,
+        validateStatus: status => (status >= 200 && status < 300) || status === 304
+    }).then(response => {
+        const page = response.status === 304 && cached ? cached.page : response.data;
+        if (generation === cacheGeneration) {
+            rememberPage(url, { page, etag: response.headers['etag'], fetchedAt: Date.now() });
+        }
+        return page;
+    }).finally(() => {
+        if (pendingPages.get(url)?.request === request) {
+            pendingPages.delete(url);
+        }
+    });
+    pendingPages.set(url, { request, generation, signal });
     return request;
-});
+}
 
-axios.interceptors.response.use(response => {
-    console.log('Response:', response);
-    return response;
-}, error => {
-    console.error('API Error:', error);
-    return Promise.reject(error);
-});
+// Loads a page for display: a newer load cancels the older one, and the following page is fetched ahead
+async function loadPage(url: (page: number) => string, page: number): Promise<UserPage> {
+    currentPageRequest?.abort();
+    const controller = new AbortController();
+    currentPageRequest = controller;
+    const result = await fetchPage(url(page), controller.signal);
+    if (controller.signal.aborted) {
+        // superseded while waiting for a request it shared with a prefetch
+        throw new CanceledError();
+    }
+    if (page + 1 < result.totalPages) {
+        fetchPage(url(page + 1)).catch(() => undefined);
+    }
+    return result;
+}
+
+// Forgets the cached pages, e.g. after a change made by this or another client
+function invalidatePages() {
+    cacheGeneration++;
+    pageCache.clear();
+    pendingPages.clear();
+}
 
 function toSnakeCase(obj: Record<string, any>): Record<string, any> {
     return _.mapKeys(obj, (_v: any, k: string) => _.snakeCase(k));
@@ -35,28 +126,56 @@ function toCamelCase(obj: any): any {
 }
 
 export const userApi = {
-    getAllUsers: async (page: number = 0, size: number = 5) => {
-        const response = await axios.get(`${API_URL}?page=${page}&size=${size}`);
-        return toCamelCase(response.data);
-    },
+    // Pages of users are sent in camelCase, so they are used as they are
+    getAllUsers: (page: number = 0, size: number = 5) =>
+        loadPage(p => `${API_URL}?page=${p}&size=${size}`, page),
 
-    searchUsers: async (firstName: string, page: number = 0, size: number = 5) => {
-        const response = await axios.get(`${API_URL}/search?firstName=${firstName}&page=${page}&size=${size}`);
-        return toCamelCase(response.data);
+    searchUsers: (firstName: string, page: number = 0, size: number = 5) =>
+        loadPage(p => `${API_URL}/search?firstName=${encodeURIComponent(firstName)}&page=${p}&size=${size}`, page),
+
+    invalidatePages,
+
+    // true for requests cancelled because a newer one replaced them
+    isCancelled: (error: unknown) => axios.isCancel(error),
+
+    // Names starting with the prefix, most common first; answered from memory, cheap enough to call per keystroke
+    suggestNames: async (prefix: string, field?: NameField, limit: number = 10): Promise<NameSuggestion[]> => {
+        const params = new URLSearchParams({ prefix, limit: String(limit) });
+        if (field) {
+            params.set('field', field);
+        }
+        currentSuggestRequest?.abort();
+        const controller = new AbortController();
+        currentSuggestRequest = controller;
+        const response = await axios.get<NameSuggestion[]>(`${API_URL}/suggest?${params}`, { signal: controller.signal });
+        return response.data;
     },
 
     createUser: async (userData: UserInformationRequest) => {
         const response = await axios.post(API_URL, toSnakeCase(userData));
+        invalidatePages();
         return toCamelCase(response.data);
     },
 
     updateUser: async (id: number, userData: UserInformationRequest) => {
         const response = await axios.put(`${API_URL}/${id}`, toSnakeCase(userData));
+        invalidatePages();
         return toCamelCase(response.data);
     },
 
     deleteUser: async (id: number) => {
         const response = await axios.delete(`${API_URL}/${id}`);
+        invalidatePages();
         return toCamelCase(response.data);
+    },
+
+    // Opens the server-sent change feed; returns a function that closes it
+    subscribeToUserEvents: (onChange: (change: UserChange) => void, onStatus?: (connected: boolean) => void) => {
+        const source = new EventSource(`${API_URL}/events`);
+        const handleEvent = (event: MessageEvent) => onChange(toCamelCase(JSON.parse(event.data)));
+        ['created', 'updated', 'deleted'].forEach(type => source.addEventListener(type, handleEvent as EventListener));
+        source.onopen = () => onStatus?.(true);
+        source.onerror = () => onStatus?.(false);
+        return () => source.close();
     }
 }; 
@@ -5,6 +5,14 @@ export interface User {
     email: string;
 }
 
+export interface UserPage {
+    content: User[];
+    totalPages: number;
+    totalElements: number;
+    number: number;
+    size: number;
+}
+
 export interface UserInformationRequest {
     firstName: string;
     lastName: string;
@@ -16,4 +24,22 @@ export interface UserInformationResponse {
     firstName: string;
     lastName: string;
     email: string;
-} 
\ No newline at end of file
+} 
+
+export type UserChangeType = 'created' | 'updated' | 'deleted';
+
+export interface UserChange {
+    type: UserChangeType;
+    id: number;
+    firstName?: string;
+    lastName?: string;
+    email?: string;
+}
+
+export type NameField = 'firstName' | 'lastName';
+
+export interface NameSuggestion {
+    value: string;
+    field: NameField;
+    users: number;
+}